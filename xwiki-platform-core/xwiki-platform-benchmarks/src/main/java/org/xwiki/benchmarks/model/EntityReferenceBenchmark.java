@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.internal.reference.DefaultStringEntityReferenceSerializer;
+import org.xwiki.model.internal.reference.DefaultSymbolScheme;
+import org.xwiki.model.internal.reference.RelativeStringEntityReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+/**
+ * Resolution and serialization of entity references with the default symbol scheme, for each kind of entity. The
+ * representations are complete so that the resolution does not depend on any default value.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityReferenceBenchmark
+{
+    /**
+     * The string representation to resolve, prefixed with the type of the entity.
+     */
+    @Param({
+        "WIKI|wiki",
+        "SPACE|wiki:Space1.Space2",
+        "DOCUMENT|wiki:Space1.Space2.Page",
+        "DOCUMENT|wiki:Space\\.With\\.Dots.Page\\:With\\:Colons",
+        "ATTACHMENT|wiki:Space.Page@image.png",
+        "OBJECT|wiki:Space.Page^XWiki.XWikiRights[0]",
+        "OBJECT_PROPERTY|wiki:Space.Page^XWiki.XWikiRights[0].levels",
+        "CLASS_PROPERTY|wiki:Space.Page^levels",
+        "PAGE|wiki:Page1/Page2;en"
+    })
+    private String representation;
+
+    private EntityType type;
+
+    private String value;
+
+    private EntityReference reference;
+
+    private EntityReferenceResolver<String> resolver;
+
+    private EntityReferenceSerializer<String> serializer;
+
+    /**
+     * Create the resolver and the serializer.
+     */
+    @Setup
+    public void setUp()
+    {
+        int index = this.representation.indexOf('|');
+        this.type = EntityType.valueOf(this.representation.substring(0, index));
+        this.value = this.representation.substring(index + 1);
+
+        DefaultSymbolScheme symbolScheme = new DefaultSymbolScheme();
+        this.resolver = new RelativeStringEntityReferenceResolver(symbolScheme);
+        this.serializer = new DefaultStringEntityReferenceSerializer(symbolScheme);
+
+        this.reference = this.resolver.resolve(this.value, this.type);
+    }
+
+    /**
+     * @return the resolved reference
+     */
+    @Benchmark
+    public EntityReference resolve()
+    {
+        return this.resolver.resolve(this.value, this.type);
+    }
+
+    /**
+     * @return the serialized reference
+     */
+    @Benchmark
+    public String serialize()
+    {
+        return this.serializer.serialize(this.reference);
+    }
+}
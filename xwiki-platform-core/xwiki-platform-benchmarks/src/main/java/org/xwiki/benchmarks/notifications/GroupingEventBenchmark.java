@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks.notifications;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.eventstream.Event;
+import org.xwiki.eventstream.internal.DefaultEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.notifications.CompositeEvent;
+import org.xwiki.notifications.GroupingEventStrategy;
+import org.xwiki.notifications.NotificationException;
+import org.xwiki.notifications.internal.DefaultGroupingEventStrategy;
+import org.xwiki.notifications.internal.SimilarityCalculator;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+/**
+ * Grouping of the events displayed in the notifications, with a mix of events targeting the same documents.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@ComponentList({ SimilarityCalculator.class, DefaultGroupingEventStrategy.class })
+public class GroupingEventBenchmark
+{
+    private static final String[] TYPES = { "update", "addComment", "create", "like" };
+
+    /**
+     * The number of events to group.
+     */
+    @Param({ "50", "500" })
+    private int eventCount;
+
+    /**
+     * The number of distinct documents targeted by the events.
+     */
+    @Param({ "10" })
+    private int documentCount;
+
+    private MockitoComponentManager componentManager;
+
+    private GroupingEventStrategy strategy;
+
+    private List<Event> events;
+
+    /**
+     * Initialize the components and create the events to group.
+     *
+     * @throws Exception when failing to initialize the components
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.componentManager = new MockitoComponentManager();
+        this.componentManager.initializeTest(this);
+
+        this.strategy = this.componentManager.getInstance(GroupingEventStrategy.class);
+
+        long now = System.currentTimeMillis();
+        this.events = new ArrayList<>(this.eventCount);
+        for (int i = 0; i < this.eventCount; ++i) {
+            DefaultEvent event = new DefaultEvent();
+            event.setId(String.valueOf(i));
+            event.setType(TYPES[i % TYPES.length]);
+            // Consecutive events are often produced by the same action
+            event.setGroupId(String.valueOf(i / 2));
+            event.setDocument(new DocumentReference("xwiki", "Space", "Page" + (i % this.documentCount)));
+            event.setUser(new DocumentReference("xwiki", "XWiki", "User" + (i % 3)));
+            event.setDate(new Date(now - i * 1000L));
+
+            this.events.add(event);
+        }
+    }
+
+    /**
+     * Release the components.
+     *
+     * @throws Exception when failing to release the components
+     */
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        this.componentManager.dispose();
+    }
+
+    /**
+     * @return the grouped events
+     * @throws NotificationException when failing to group the events
+     */
+    @Benchmark
+    public List<CompositeEvent> group() throws NotificationException
+    {
+        return this.strategy.group(this.events);
+    }
+}
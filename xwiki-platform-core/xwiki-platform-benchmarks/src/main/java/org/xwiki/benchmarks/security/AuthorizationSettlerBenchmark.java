@@ -0,0 +1,249 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.internal.reference.EntityReferenceFactory;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.security.DefaultSecurityReferenceFactory;
+import org.xwiki.security.GroupSecurityReference;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.SecurityReferenceFactory;
+import org.xwiki.security.UserSecurityReference;
+import org.xwiki.security.authorization.AuthorizationSettler;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.security.authorization.RuleState;
+import org.xwiki.security.authorization.SecurityAccessEntry;
+import org.xwiki.security.authorization.SecurityRule;
+import org.xwiki.security.authorization.SecurityRuleEntry;
+import org.xwiki.security.authorization.internal.DefaultAuthorizationSettler;
+import org.xwiki.security.internal.XWikiBridge;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Settlement of the access of a user to a document from the rules found at each level of its hierarchy.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@ComponentList({ EntityReferenceFactory.class, DefaultSecurityReferenceFactory.class,
+    DefaultAuthorizationSettler.class })
+public class AuthorizationSettlerBenchmark
+{
+    /**
+     * The number of nested spaces between the wiki and the document.
+     */
+    @Param({ "1", "5" })
+    private int depth;
+
+    /**
+     * The number of groups the user is member of.
+     */
+    @Param({ "1", "20" })
+    private int groupCount;
+
+    private MockitoComponentManager componentManager;
+
+    private AuthorizationSettler settler;
+
+    private UserSecurityReference user;
+
+    private List<GroupSecurityReference> groups;
+
+    private Deque<SecurityRuleEntry> ruleEntries;
+
+    private static final class BenchmarkSecurityRule implements SecurityRule
+    {
+        private final Set<Right> rights;
+
+        private final Collection<GroupSecurityReference> groups;
+
+        private final RuleState state;
+
+        BenchmarkSecurityRule(Set<Right> rights, Collection<GroupSecurityReference> groups, RuleState state)
+        {
+            this.rights = rights;
+            this.groups = groups;
+            this.state = state;
+        }
+
+        @Override
+        public boolean match(Right right)
+        {
+            return this.rights.contains(right);
+        }
+
+        @Override
+        public boolean match(GroupSecurityReference group)
+        {
+            return this.groups.contains(group);
+        }
+
+        @Override
+        public boolean match(UserSecurityReference user)
+        {
+            return false;
+        }
+
+        @Override
+        public RuleState getState()
+        {
+            return this.state;
+        }
+    }
+
+    private static final class BenchmarkSecurityRuleEntry implements SecurityRuleEntry
+    {
+        private final SecurityReference reference;
+
+        private final Collection<SecurityRule> rules;
+
+        BenchmarkSecurityRuleEntry(SecurityReference reference, Collection<SecurityRule> rules)
+        {
+            this.reference = reference;
+            this.rules = rules;
+        }
+
+        @Override
+        public SecurityReference getReference()
+        {
+            return this.reference;
+        }
+
+        @Override
+        public Collection<SecurityRule> getRules()
+        {
+            return this.rules;
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return this.rules.isEmpty();
+        }
+    }
+
+    /**
+     * Create the references and the rules to settle.
+     *
+     * @throws Exception when failing to initialize the components
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.componentManager = new MockitoComponentManager();
+        this.componentManager.initializeTest(this);
+
+        WikiReference wikiReference = new WikiReference("xwiki");
+        XWikiBridge bridge = this.componentManager.registerMockComponent(XWikiBridge.class);
+        when(bridge.getMainWikiReference()).thenReturn(wikiReference);
+        when(bridge.toCompatibleEntityReference(any(EntityReference.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        SecurityReferenceFactory factory = this.componentManager.getInstance(SecurityReferenceFactory.class);
+        this.settler = this.componentManager.getInstance(AuthorizationSettler.class);
+
+        this.user = factory.newUserReference(new DocumentReference("xwiki", "XWiki", "User"));
+        this.groups = new ArrayList<>(this.groupCount);
+        for (int i = 0; i < this.groupCount; ++i) {
+            this.groups.add(factory.newGroupReference(new DocumentReference("xwiki", "XWiki", "Group" + i)));
+        }
+
+        List<String> spaces = new ArrayList<>(this.depth);
+        for (int i = 0; i < this.depth; ++i) {
+            spaces.add("Space" + i);
+        }
+        SecurityReference document =
+            factory.newEntityReference(new DocumentReference(wikiReference.getName(), spaces, "Page"));
+
+        // Same order as the one produced by the security cache: from the document to the wiki
+        this.ruleEntries = new ArrayDeque<>();
+        GroupSecurityReference lastGroup = this.groups.get(this.groups.size() - 1);
+        for (SecurityReference reference = document; reference != null;
+            reference = reference.getParentSecurityReference()) {
+            List<SecurityRule> rules = new ArrayList<>();
+            switch (reference.getType()) {
+                case DOCUMENT:
+                    rules.add(new BenchmarkSecurityRule(Set.of(Right.EDIT), List.of(lastGroup), RuleState.ALLOW));
+                    break;
+                case SPACE:
+                    rules.add(
+                        new BenchmarkSecurityRule(Set.of(Right.COMMENT), List.of(lastGroup), RuleState.DENY));
+                    break;
+                default:
+                    rules.add(new BenchmarkSecurityRule(Set.of(Right.VIEW, Right.EDIT, Right.COMMENT), this.groups,
+                        RuleState.ALLOW));
+                    break;
+            }
+            this.ruleEntries.add(new BenchmarkSecurityRuleEntry(reference, rules));
+        }
+    }
+
+    /**
+     * Release the components.
+     *
+     * @throws Exception when failing to dispose the components
+     */
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        this.componentManager.dispose();
+    }
+
+    /**
+     * @return the settled access
+     */
+    @Benchmark
+    public SecurityAccessEntry settle()
+    {
+        return this.settler.settle(this.user, this.groups, this.ruleEntries);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks.store;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+/**
+ * Load and save of documents through the {@link com.xpn.xwiki.XWiki} API.
+ * <p>
+ * The store is the in-memory one provided by {@link MockitoOldcore}, so this measures the cost of the platform around
+ * the database (document cloning, references, events, etc.) and not the database access itself.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@ReferenceComponentList
+public class DocumentStoreBenchmark
+{
+    /**
+     * The size of the content of the documents, in characters.
+     */
+    @Param({ "100", "100000" })
+    private int contentSize;
+
+    private MockitoComponentManager componentManager;
+
+    private MockitoOldcore oldcore;
+
+    private XWikiContext xcontext;
+
+    private DocumentReference documentReference;
+
+    private String content;
+
+    /**
+     * Initialize the components and store the document to load.
+     *
+     * @throws Exception when failing to initialize the components
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.componentManager = new MockitoComponentManager();
+        this.oldcore = new MockitoOldcore(this.componentManager);
+        this.componentManager.initializeTest(this, this.componentManager, this.oldcore);
+        this.oldcore.before(getClass());
+
+        this.xcontext = this.oldcore.getXWikiContext();
+
+        this.content = "a".repeat(this.contentSize);
+        this.documentReference = new DocumentReference("xwiki", "Space", "Page");
+
+        saveDocument();
+    }
+
+    /**
+     * Release the components.
+     *
+     * @throws Exception when failing to release the components
+     */
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        this.oldcore.after();
+        this.componentManager.dispose();
+    }
+
+    /**
+     * @return the loaded document
+     * @throws XWikiException when failing to load the document
+     */
+    @Benchmark
+    public XWikiDocument loadDocument() throws XWikiException
+    {
+        return this.oldcore.getSpyXWiki().getDocument(this.documentReference, this.xcontext);
+    }
+
+    /**
+     * @return the saved document
+     * @throws XWikiException when failing to save the document
+     */
+    @Benchmark
+    public XWikiDocument saveDocument() throws XWikiException
+    {
+        XWikiDocument document = new XWikiDocument(this.documentReference);
+        document.setSyntax(Syntax.XWIKI_2_1);
+        document.setTitle("Title");
+        document.setContent(this.content);
+
+        this.oldcore.getSpyXWiki().saveDocument(document, "Benchmark", true, this.xcontext);
+
+        return document;
+    }
+}
@@ -112,7 +112,7 @@ public XDOM getPreparedContent()
         // If the block is not prepared yet or if cache reset has been requested, prepare it
         if (this.preparedXDOMDate == null || !this.cacheControl.isCacheReadAllowed(this.preparedXDOMDate)) {
             synchronized (this.xdom) {
-                if (this.preparedXDOMDate == null || this.cacheControl.isCacheReadAllowed(this.preparedXDOMDate)) {
+                if (this.preparedXDOMDate == null || !this.cacheControl.isCacheReadAllowed(this.preparedXDOMDate)) {
                     // Clone the source content in cache the cache reset is forced
                     // TODO: might be better (mainly in term of retained memory) to reload the content from the
                     // document, instead
@@ -23,6 +23,7 @@
 import java.io.InputStream;
 import java.net.URL;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -37,6 +38,10 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.ObjectPropertyReference;
 import org.xwiki.model.reference.ObjectReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
 import org.xwiki.resource.temporary.TemporaryResourceStore;
 import org.xwiki.security.authorization.Right;
 
@@ -111,9 +116,9 @@ private void render(List<DocumentReference> documentReferences) throws Exception
                     if (hasAccess(Right.VIEW, documentReference)) {
                         contentSize += render(documentReference, rendererParameters);
                         // We enforce the maximum content size (if specified) only when multiple pages are exported
-                        // because for computing the aggregated table of contents we're currently keeping in memory the
-                        // XDOM of each of the included pages which for large exports can take a considerable amount of
-                        // memory. See https://jira.xwiki.org/browse/XWIKI-20377 .
+                        // because we're currently keeping in memory the HTML of each of the included pages (until the
+                        // PDF sheet aggregates them) which for large exports can take a considerable amount of memory.
+                        // See https://jira.xwiki.org/browse/XWIKI-20377 .
                         if (contentSize > maxContentSize && maxContentSize > 0 && documentReferences.size() > 1) {
                             throw new RuntimeException(String.format(
                                 "The content size exceeds the configured %sKB limit."
@@ -147,16 +152,26 @@ private int render(DocumentReference documentReference, DocumentRendererParamete
         throws Exception
     {
         // TODO: Don't render the same document twice.
-        // TODO: Collect the XDOMs only when the table of content is requested.
-        // TODO: Keep only the headings in the collected XDOMs in order to reduce the memory footprint.
         DocumentRenderingResult renderingResult = this.documentRenderer.render(documentReference, rendererParameters);
-        this.status.getDocumentRenderingResults().add(renderingResult);
+        // The collected XDOMs are used only to generate the aggregated table of contents so we keep only the headings
+        // in order to reduce the memory footprint of large exports.
+        this.status.getDocumentRenderingResults()
+            .add(new DocumentRenderingResult(renderingResult.getDocumentReference(),
+                getHeadings(renderingResult.getXDOM()), renderingResult.getHTML(), renderingResult.getIdMap()));
 
         // We approximate the size by counting the characters, which take 1 byte most of the time. We don't have to be
         // very precise.
         return renderingResult.getHTML().length();
     }
 
+    private XDOM getHeadings(XDOM xdom)
+    {
+        // Clone the headings in order to detach them from the rest of the XDOM (parent and sibling blocks).
+        List<Block> headings = xdom.<HeaderBlock>getBlocks(new ClassBlockMatcher(HeaderBlock.class),
+            Block.Axes.DESCENDANT).stream().map(HeaderBlock::clone).collect(Collectors.toList());
+        return new XDOM(headings);
+    }
+
     private void saveAsPDF() throws IOException
     {
         URL printPreviewURL = this.printPreviewURLBuilder.getPrintPreviewURL(this.request);
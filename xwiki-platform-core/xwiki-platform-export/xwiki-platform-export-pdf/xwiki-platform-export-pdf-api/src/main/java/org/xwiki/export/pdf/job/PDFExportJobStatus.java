@@ -103,6 +103,10 @@ public DocumentReference getDocumentReference()
         }
 
         /**
+         * Note that since 17.2.0RC1 the rendering results collected in the {@link PDFExportJobStatus} don't hold the
+         * full XDOM anymore but only a detached copy of its heading blocks, in order to reduce the memory used by large
+         * exports.
+         *
          * @return the XDOM obtained by rendering the specified document, after executing the rendering transformations;
          *         this is needed in order to generate the table of contents for the PDF export
          */
@@ -164,7 +168,8 @@ public PDFExportJobStatus(String jobType, PDFExportJobRequest request, Observati
     }
 
     /**
-     * @return the result of rendering each document specified in the PDF export job request
+     * @return the result of rendering each document specified in the PDF export job request; the XDOM of each result
+     *         contains only the heading blocks (see {@link DocumentRenderingResult#getXDOM()})
      */
     public List<DocumentRenderingResult> getDocumentRenderingResults()
     {
@@ -20,6 +20,7 @@
 package org.xwiki.export.pdf.internal.job;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -50,8 +51,12 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.ObjectPropertyReference;
 import org.xwiki.model.reference.ObjectReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
 import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.HeaderLevel;
 import org.xwiki.resource.temporary.TemporaryResourceReference;
 import org.xwiki.resource.temporary.TemporaryResourceStore;
 import org.xwiki.security.authorization.AuthorizationManager;
@@ -95,8 +100,13 @@
 
     private DocumentReference firstPageReference = new DocumentReference("test", "First", "Page");
 
+    private HeaderBlock firstPageHeading =
+        new HeaderBlock(Collections.singletonList(new WordBlock("heading")), HeaderLevel.LEVEL2, "Hheading");
+
     private DocumentRenderingResult firstPageRendering = new DocumentRenderingResult(this.firstPageReference,
-        new XDOM(Collections.singletonList(new WordBlock("first"))), "first HTML");
+        new XDOM(Arrays.asList(new ParagraphBlock(Collections.singletonList(new WordBlock("first"))),
+            this.firstPageHeading)),
+        "first HTML");
 
     private DocumentReference secondPageReference = new DocumentReference("test", "Second", "Page");
 
@@ -186,8 +196,16 @@ void runClientSide() throws Exception
 
         List<DocumentRenderingResult> renderingResults = jobStatus.getDocumentRenderingResults();
         assertEquals(2, renderingResults.size());
-        assertSame(this.firstPageRendering, renderingResults.get(0));
-        assertSame(this.secondPageRendering, renderingResults.get(1));
+        assertRenderingResult(this.firstPageRendering, renderingResults.get(0));
+        assertRenderingResult(this.secondPageRendering, renderingResults.get(1));
+
+        // Only the headings are kept.
+        List<Block> firstPageBlocks = renderingResults.get(0).getXDOM().getChildren();
+        assertEquals(1, firstPageBlocks.size());
+        assertEquals("Hheading", ((HeaderBlock) firstPageBlocks.get(0)).getId());
+        assertNotSame(this.firstPageHeading, firstPageBlocks.get(0));
+        assertSame(renderingResults.get(0).getXDOM(), firstPageBlocks.get(0).getParent());
+        assertEquals(0, renderingResults.get(1).getXDOM().getChildren().size());
     }
 
     @Test
@@ -210,7 +228,7 @@ void runWithTemplateSpecified() throws Exception
         PDFExportJobStatus jobStatus = this.pdfExportJob.getStatus();
         List<DocumentRenderingResult> renderingResults = jobStatus.getDocumentRenderingResults();
         assertEquals(1, renderingResults.size());
-        assertSame(this.firstPageRendering, renderingResults.get(0));
+        assertRenderingResult(this.firstPageRendering, renderingResults.get(0));
     }
 
     @Test
@@ -277,4 +295,11 @@ void runWithoutMaxContentSizeLimit() throws Exception
         PDFExportJobStatus jobStatus = this.pdfExportJob.getStatus();
         assertEquals(1000, jobStatus.getDocumentRenderingResults().get(1).getHTML().length());
     }
+
+    private void assertRenderingResult(DocumentRenderingResult expected, DocumentRenderingResult actual)
+    {
+        assertEquals(expected.getDocumentReference(), actual.getDocumentReference());
+        assertEquals(expected.getHTML(), actual.getHTML());
+        assertEquals(expected.getIdMap(), actual.getIdMap());
+    }
 }
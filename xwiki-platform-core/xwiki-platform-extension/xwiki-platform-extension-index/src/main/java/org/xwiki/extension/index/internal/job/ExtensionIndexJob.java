@@ -133,6 +133,9 @@ public class ExtensionIndexJob extends AbstractJob<ExtensionIndexRequest, Defaul
     @Inject
     private SolrUtils solrUtils;
 
+    @Inject
+    private ExtensionIndexSynchronizationState synchronizationState;
+
     @Inject
     private WikiDescriptorManager wikis;
 
@@ -606,7 +609,8 @@ private void addRemoteExtensions(Map<String, SortedSet<Version>> indexedExtensio
             this.progress.startStep(repositories);
             if (repository instanceof Searchable searchableRepository) {
                 try {
-                    updated |= addRemoteExtensions(searchableRepository, indexedExtensions);
+                    updated |= addRemoteExtensions(repository.getDescriptor().getId(), searchableRepository,
+                        indexedExtensions);
                 } catch (Exception e) {
                     this.logger.warn("Failed to get remote extension from repository [{}]: {}",
                         repository.getDescriptor(), ExceptionUtils.getRootCauseMessage(e));
@@ -616,11 +620,25 @@ private void addRemoteExtensions(Map<String, SortedSet<Version>> indexedExtensio
         this.progress.popLevelProgress(repositories);
 
         if (updated) {
-            this.indexStore.commit();
+            try {
+                this.indexStore.commit();
+            } catch (Exception e) {
+                // We don't know what was actually stored so make sure the next run update everything
+                this.synchronizationState.reset();
+
+                throw e;
+            }
         }
     }
 
-    private boolean addRemoteExtensions(Searchable searchableRepository,
+    private boolean isIndexed(ExtensionId extensionId, Map<String, SortedSet<Version>> indexedExtensions)
+    {
+        SortedSet<Version> versions = indexedExtensions.get(extensionId.getId());
+
+        return versions != null && versions.contains(extensionId.getVersion());
+    }
+
+    private boolean addRemoteExtensions(String repositoryId, Searchable searchableRepository,
         Map<String, SortedSet<Version>> indexedExtensions) throws SearchException, SolrServerException, IOException
     {
         boolean updated = false;
@@ -632,7 +650,7 @@ private boolean addRemoteExtensions(Searchable searchableRepository,
             for (Extension extension : result) {
                 if (!this.invalidFlavors.contains(extension.getId().getId())
                     && !this.coreExtensions.exists(extension.getId()) && !this.localExtensions.exists(extension.getId())
-                    && !this.indexStore.exists(extension.getId())) {
+                    && !isIndexed(extension.getId(), indexedExtensions)) {
                     // TODO: Resolve the complete extension but it very expensive...
 
                     // Add the extension to the index
@@ -663,16 +681,19 @@ private boolean addRemoteExtensions(Searchable searchableRepository,
                     getStatus().setExtensionAdded(true);
                 }
 
-                // Update recommended and rating
+                // Update recommended and rating (unless they did not change since the previous run)
                 if (extension instanceof RemoteExtension remoteExtension) {
                     SortedSet<Version> versions = indexedExtensions.get(extension.getId().getId());
-                    if (versions != null) {
+                    if (versions != null
+                        && !this.synchronizationState.isSynchronized(repositoryId, remoteExtension, versions)) {
                         for (Version version : versions) {
                             this.indexStore.update(new ExtensionId(extension.getId().getId(), version),
                                 remoteExtension);
 
                             updated = true;
                         }
+
+                        this.synchronizationState.setSynchronized(repositoryId, remoteExtension, versions);
                     }
                 }
             }
@@ -0,0 +1,101 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.index.internal.job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.extension.RemoteExtension;
+import org.xwiki.extension.internal.converter.ExtensionSupportPlanConverter;
+import org.xwiki.extension.rating.RatingExtension;
+import org.xwiki.extension.version.Version;
+
+/**
+ * Remember, for each repository, the state of the remote extensions as it was last synchronized with the index, so
+ * that the next runs of {@link ExtensionIndexJob} only update the extensions which changed since then.
+ * <p>
+ * The state of an extension is made of the indexed versions and of the variable metadata copied from the repository
+ * (support plans, recommended flag, ratings). Any change to one of them (including a version added or removed from the
+ * index by another process) triggers a new update of the extension.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = ExtensionIndexSynchronizationState.class)
+@Singleton
+public class ExtensionIndexSynchronizationState
+{
+    private final Map<String, Map<String, List<Object>>> repositories = new ConcurrentHashMap<>();
+
+    /**
+     * @param repositoryId the identifier of the repository from which the extension comes
+     * @param extension the remote extension
+     * @param indexedVersions the versions of the extension currently in the index
+     * @return {@code true} if the index already contains the metadata of the passed remote extension for all the
+     *         passed versions
+     */
+    public boolean isSynchronized(String repositoryId, RemoteExtension extension, Collection<Version> indexedVersions)
+    {
+        Map<String, List<Object>> extensions = this.repositories.get(repositoryId);
+
+        return extensions != null
+            && getState(extension, indexedVersions).equals(extensions.get(extension.getId().getId()));
+    }
+
+    /**
+     * @param repositoryId the identifier of the repository from which the extension comes
+     * @param extension the remote extension
+     * @param indexedVersions the versions of the extension for which the metadata was copied to the index
+     */
+    public void setSynchronized(String repositoryId, RemoteExtension extension, Collection<Version> indexedVersions)
+    {
+        this.repositories.computeIfAbsent(repositoryId, key -> new ConcurrentHashMap<>())
+            .put(extension.getId().getId(), getState(extension, indexedVersions));
+    }
+
+    /**
+     * Forget everything about the synchronized extensions and force the next run to update all of them.
+     */
+    public void reset()
+    {
+        this.repositories.clear();
+    }
+
+    private List<Object> getState(RemoteExtension extension, Collection<Version> indexedVersions)
+    {
+        List<Object> state = new ArrayList<>();
+
+        state.add(new ArrayList<>(indexedVersions));
+        state.add(ExtensionSupportPlanConverter.toStringList(extension.getSupportPlans().getSupportPlans()));
+        state.add(extension.isRecommended());
+        if (extension instanceof RatingExtension ratingExtension) {
+            state.add(ratingExtension.getRating().getTotalVotes());
+            state.add(ratingExtension.getRating().getAverageVote());
+        }
+
+        return state;
+    }
+}
@@ -22,6 +22,8 @@
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.solr.client.solrj.SolrServerException;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,17 +31,23 @@
 import org.xwiki.extension.AbstractExtension;
 import org.xwiki.extension.Extension;
 import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionSupportPlans;
+import org.xwiki.extension.RemoteExtension;
 import org.xwiki.extension.index.internal.ExtensionIndexStore;
+import org.xwiki.extension.repository.DefaultExtensionRepositoryDescriptor;
 import org.xwiki.extension.repository.ExtensionRepositoryManager;
 import org.xwiki.extension.repository.result.CollectionIterableResult;
 import org.xwiki.extension.repository.search.SearchException;
 import org.xwiki.extension.repository.search.SearchableExtensionRepository;
+import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +57,7 @@
  * @version $Id$
  */
 @ComponentTest
+@ComponentList(ExtensionIndexSynchronizationState.class)
 class ExtensionIndexJobTest
 {
     @InjectMockComponents
@@ -84,12 +93,16 @@ public TestExtension(ExtensionId id, String type)
     void beforeEach() throws SearchException
     {
         this.repository1 = mock(SearchableExtensionRepository.class);
+        when(this.repository1.getDescriptor())
+            .thenReturn(new DefaultExtensionRepositoryDescriptor("repository1", "test", null));
         this.extension11 = new TestExtension(new ExtensionId("id11", "version"), null);
         this.extension12 = new TestExtension(new ExtensionId("id12", "version"), null);
         when(this.repository1.search("", 0, 100)).thenReturn(
             new CollectionIterableResult<Extension>(0, 0, Arrays.asList(this.extension11, this.extension12)));
 
         this.repository2 = mock(SearchableExtensionRepository.class);
+        when(this.repository2.getDescriptor())
+            .thenReturn(new DefaultExtensionRepositoryDescriptor("repository2", "test", null));
         this.extension21 = new TestExtension(new ExtensionId("id21", "version"), null);
         this.extension22 = new TestExtension(new ExtensionId("id22", "version"), null);
         when(this.repository2.search("", 0, 100)).thenReturn(
@@ -113,4 +126,40 @@ void failingRepository1() throws SolrServerException, IOException, SearchExcepti
         verify(this.indexStore).add(this.extension21, true);
         verify(this.indexStore).add(this.extension22, true);
     }
+
+    @Test
+    void updateOnlyModifiedRemoteExtensions() throws SolrServerException, IOException, SearchException
+    {
+        ExtensionId extensionId = new ExtensionId("id11", "version");
+        RemoteExtension remoteExtension = mock(RemoteExtension.class);
+        when(remoteExtension.getId()).thenReturn(extensionId);
+        ExtensionSupportPlans supportPlans = mock(ExtensionSupportPlans.class);
+        when(remoteExtension.getSupportPlans()).thenReturn(supportPlans);
+        when(this.repository1.search("", 0, 100))
+            .thenReturn(new CollectionIterableResult<Extension>(0, 0, List.of(remoteExtension)));
+        when(this.indexStore.searchExtensionIds(any())).thenReturn(Set.of(extensionId));
+
+        runRemoteIndex();
+
+        verify(this.indexStore, never()).add(remoteExtension, true);
+        verify(this.indexStore).update(extensionId, remoteExtension);
+
+        // Nothing changed
+        runRemoteIndex();
+
+        verify(this.indexStore).update(extensionId, remoteExtension);
+
+        // The extension is now recommended
+        when(remoteExtension.isRecommended()).thenReturn(true);
+
+        runRemoteIndex();
+
+        verify(this.indexStore, times(2)).update(extensionId, remoteExtension);
+    }
+
+    private void runRemoteIndex()
+    {
+        this.job.initialize(new ExtensionIndexRequest(false, true, Collections.emptyList()));
+        this.job.run();
+    }
 }
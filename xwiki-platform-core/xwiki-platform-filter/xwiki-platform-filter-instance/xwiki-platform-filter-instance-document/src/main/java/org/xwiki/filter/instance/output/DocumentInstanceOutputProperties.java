@@ -24,6 +24,7 @@
 import org.xwiki.properties.annotation.PropertyDescription;
 import org.xwiki.properties.annotation.PropertyName;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * @version $Id$
@@ -56,6 +57,11 @@ public class DocumentInstanceOutputProperties extends EntityInstanceOutputProper
      */
     private boolean stoppedWhenSaveFail = true;
 
+    /**
+     * @see #getSaveThreads()
+     */
+    private int saveThreads = 1;
+
     /**
      * @return The base reference to use to resolve reference from events
      */
@@ -151,4 +157,28 @@ public void setStoppedWhenSaveFail(boolean stoppedWhenSaveFail)
     {
         this.stoppedWhenSaveFail = stoppedWhenSaveFail;
     }
+
+    /**
+     * @return the maximum number of documents to save in parallel
+     * @since 17.2.0RC1
+     */
+    @PropertyName("Save threads")
+    @PropertyDescription("The maximum number of documents to save in parallel. Documents containing a class are always"
+        + " saved after the previous documents and before the following ones, and the revisions of a document are"
+        + " saved in order.")
+    @Unstable
+    public int getSaveThreads()
+    {
+        return this.saveThreads;
+    }
+
+    /**
+     * @param saveThreads the maximum number of documents to save in parallel
+     * @since 17.2.0RC1
+     */
+    @Unstable
+    public void setSaveThreads(int saveThreads)
+    {
+        this.saveThreads = saveThreads;
+    }
 }
@@ -19,15 +19,29 @@
  */
 package org.xwiki.filter.xar.internal.output;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
 
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.input.ProxyInputStream;
 import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.output.FileOutputTarget;
 import org.xwiki.filter.output.OutputStreamOutputTarget;
@@ -44,6 +58,13 @@
  */
 public class XARWikiWriter implements Closeable
 {
+    /**
+     * The size above which the content of an entry waiting to be compressed is stored in a temporary file.
+     */
+    private static final int ENTRY_CONTENT_THRESHOLD = 100000;
+
+    private static final int MAX_PENDING_ENTRIES_PER_THREAD = 4;
+
     private final String name;
 
     private final XAROutputProperties xarProperties;
@@ -52,6 +73,25 @@ public class XARWikiWriter implements Closeable
 
     private XarPackage xarPackage = new XarPackage();
 
+    /**
+     * Compress the entries in parallel when more than one compression thread is configured.
+     */
+    private ParallelScatterZipCreator parallelZipCreator;
+
+    /**
+     * The threads compressing the entries, shut down when the package is closed, whether it succeeds or not.
+     */
+    private ExecutorService compressionExecutor;
+
+    /**
+     * Limit the number of entries waiting to be compressed to control the memory used by the export.
+     */
+    private Semaphore pendingEntries;
+
+    private ZipArchiveEntry currentEntry;
+
+    private DeferredFileOutputStream currentEntryContent;
+
     public XARWikiWriter(String name, XAROutputProperties xarProperties) throws FilterException
     {
         this.name = name;
@@ -91,6 +131,15 @@ public XARWikiWriter(String name, XAROutputProperties xarProperties) throws Filt
         // non-ascii characters in the document name using InfoZIP, and the filenames will be correctly
         // converted to the character set of the local file system.
         this.zipStream.setCreateUnicodeExtraFields(ZipArchiveOutputStream.UnicodeExtraFieldPolicy.ALWAYS);
+
+        int compressionThreads = xarProperties.getCompressionThreads();
+        if (compressionThreads > 1) {
+            BasicThreadFactory factory =
+                new BasicThreadFactory.Builder().namingPattern("XAR compression thread %d").daemon(true).build();
+            this.compressionExecutor = Executors.newFixedThreadPool(compressionThreads, factory);
+            this.parallelZipCreator = new ParallelScatterZipCreator(this.compressionExecutor);
+            this.pendingEntries = new Semaphore(compressionThreads * MAX_PENDING_ENTRIES_PER_THREAD);
+        }
     }
 
     public String getName()
@@ -135,19 +184,50 @@ public OutputStream newEntry(LocalDocumentReference reference) throws FilterExce
         String entryName = path.toString();
 
         ZipArchiveEntry zipentry = new ZipArchiveEntry(entryName);
+
+        this.xarPackage.addEntry(reference, entryName);
+
+        if (this.parallelZipCreator != null) {
+            return newParallelEntry(zipentry);
+        }
+
         try {
             this.zipStream.putArchiveEntry(zipentry);
         } catch (IOException e) {
             throw new FilterException("Failed to add a new zip entry for [" + path + "]", e);
         }
 
-        this.xarPackage.addEntry(reference, entryName);
-
         return this.zipStream;
     }
 
+    private OutputStream newParallelEntry(ZipArchiveEntry zipentry) throws FilterException
+    {
+        try {
+            // Don't keep too many entries waiting to be compressed
+            this.pendingEntries.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new FilterException("Interrupted while waiting for the compression of the previous entries", e);
+        }
+
+        zipentry.setMethod(ZipEntry.DEFLATED);
+
+        this.currentEntry = zipentry;
+        this.currentEntryContent = DeferredFileOutputStream.builder().setThreshold(ENTRY_CONTENT_THRESHOLD)
+            .setPrefix("xar-entry").setSuffix(".xml").get();
+
+        return this.currentEntryContent;
+    }
+
     public void closeEntry() throws FilterException
     {
+        if (this.parallelZipCreator != null) {
+            closeParallelEntry();
+
+            return;
+        }
+
         try {
             this.zipStream.closeArchiveEntry();
         } catch (IOException e) {
@@ -155,6 +235,56 @@ public void closeEntry() throws FilterException
         }
     }
 
+    private void closeParallelEntry() throws FilterException
+    {
+        DeferredFileOutputStream content = this.currentEntryContent;
+        this.currentEntryContent = null;
+
+        try {
+            content.close();
+        } catch (IOException e) {
+            this.pendingEntries.release();
+
+            throw new FilterException("Failed to close zip archive entry", e);
+        }
+
+        // The entries are written in the final package in the order they are added here, whatever the order in which
+        // they are compressed
+        Semaphore semaphore = this.pendingEntries;
+        this.parallelZipCreator.addArchiveEntry(this.currentEntry, () -> {
+            try {
+                return new ProxyInputStream(getEntryContent(content))
+                {
+                    @Override
+                    public void close() throws IOException
+                    {
+                        try {
+                            super.close();
+                        } finally {
+                            semaphore.release();
+                        }
+                    }
+                };
+            } catch (IOException e) {
+                semaphore.release();
+
+                throw new UncheckedIOException("Failed to read the content of zip entry", e);
+            }
+        });
+
+        this.currentEntry = null;
+    }
+
+    private InputStream getEntryContent(DeferredFileOutputStream content) throws IOException
+    {
+        if (content.isInMemory()) {
+            return new ByteArrayInputStream(content.getData());
+        }
+
+        // Remove the temporary file as soon as the entry is compressed
+        return Files.newInputStream(content.getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
     private void writePackage() throws FilterException
     {
         try {
@@ -167,14 +297,42 @@ private void writePackage() throws FilterException
     @Override
     public void close() throws IOException
     {
-        // Add package.xml descriptor
         try {
-            writePackage();
-        } catch (FilterException e) {
-            throw new IOException("Failed to write package", e);
+            // Write the compressed entries
+            if (this.parallelZipCreator != null) {
+                writeParallelEntries();
+            }
+
+            // Add package.xml descriptor
+            try {
+                writePackage();
+            } catch (FilterException e) {
+                throw new IOException("Failed to write package", e);
+            }
+
+            // Close zip stream
+            this.zipStream.close();
+        } finally {
+            // Make sure the compression threads don't outlive the package when it fails
+            if (this.compressionExecutor != null) {
+                this.compressionExecutor.shutdownNow();
+                this.compressionExecutor = null;
+            }
         }
+    }
 
-        // Close zip stream
-        this.zipStream.close();
+    private void writeParallelEntries() throws IOException
+    {
+        try {
+            this.parallelZipCreator.writeTo(this.zipStream);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IOException("Interrupted while writing the compressed entries", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress entries", e.getCause());
+        } finally {
+            this.parallelZipCreator = null;
+        }
     }
 }
@@ -22,6 +22,7 @@
 import org.xwiki.filter.xml.output.XMLOutputProperties;
 import org.xwiki.properties.annotation.PropertyDescription;
 import org.xwiki.properties.annotation.PropertyName;
+import org.xwiki.stability.Unstable;
 
 /**
  * XAR output properties.
@@ -81,6 +82,11 @@ public class XAROutputProperties extends XMLOutputProperties
      */
     private String packageExtensionId;
 
+    /**
+     * @see #getCompressionThreads()
+     */
+    private int compressionThreads = 1;
+
     /**
      * @return Indicate if all revisions related informations should be serialized
      */
@@ -264,4 +270,27 @@ public void setPackageExtensionId(String packageExtensionId)
     {
         this.packageExtensionId = packageExtensionId;
     }
+
+    /**
+     * @return the number of threads to use to compress the entries of the XAR package
+     * @since 17.2.0RC1
+     */
+    @PropertyName("Compression threads")
+    @PropertyDescription("The number of threads to use to compress the entries of the XAR package. The entries are"
+        + " still written in the package in the order they were produced.")
+    @Unstable
+    public int getCompressionThreads()
+    {
+        return this.compressionThreads;
+    }
+
+    /**
+     * @param compressionThreads the number of threads to use to compress the entries of the XAR package
+     * @since 17.2.0RC1
+     */
+    @Unstable
+    public void setCompressionThreads(int compressionThreads)
+    {
+        this.compressionThreads = compressionThreads;
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.image;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of transformed images (thumbnails, image styles, etc.), bounded by the total size of the stored
+ * files and evicting the least recently used entries first.
+ * <p>
+ * The keys are expected to contain the version and the date of the attachment so that a new version of an image is
+ * never served from an outdated entry, whatever the cluster member which stored it. Outdated entries are never
+ * accessed again and are naturally evicted.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+class ImageDiskCache
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageDiskCache.class);
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final File directory;
+
+    private final long maxSize;
+
+    /**
+     * The size of the stored files, indexed by file name and ordered from the least to the most recently used.
+     */
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    /**
+     * @param directory the directory where to store the transformed images
+     * @param maxSize the maximum number of bytes to store in the directory
+     */
+    ImageDiskCache(File directory, long maxSize)
+    {
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        load();
+    }
+
+    private void load()
+    {
+        this.directory.mkdirs();
+
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            // Consider the most recently written files as the most recently used ones
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (file.getName().endsWith(TEMPORARY_SUFFIX)) {
+                    FileUtils.deleteQuietly(file);
+                } else {
+                    this.entries.put(file.getName(), file.length());
+                    this.size += file.length();
+                }
+            }
+        }
+
+        evict();
+    }
+
+    /**
+     * @param key the identifier of the transformed image
+     * @return the file holding the transformed image or {@code null} if it's not in the cache
+     */
+    File get(String key)
+    {
+        String fileName = getFileName(key);
+
+        synchronized (this) {
+            if (this.entries.get(fileName) == null) {
+                return null;
+            }
+        }
+
+        File file = new File(this.directory, fileName);
+
+        return file.exists() ? file : null;
+    }
+
+    /**
+     * @param key the identifier of the transformed image
+     * @param content the transformed image
+     * @throws IOException when failing to store the transformed image
+     */
+    void set(String key, InputStream content) throws IOException
+    {
+        String fileName = getFileName(key);
+        File file = new File(this.directory, fileName);
+
+        // Write to a temporary file first so that a partially written image is never served
+        File temporaryFile = File.createTempFile(fileName, TEMPORARY_SUFFIX, this.directory);
+        try {
+            FileUtils.copyInputStreamToFile(content, temporaryFile);
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(temporaryFile);
+        }
+
+        synchronized (this) {
+            Long previousLength = this.entries.put(fileName, file.length());
+            if (previousLength != null) {
+                this.size -= previousLength;
+            }
+            this.size += file.length();
+
+            evict();
+        }
+    }
+
+    /**
+     * @return the number of bytes currently stored in the cache
+     */
+    synchronized long getSize()
+    {
+        return this.size;
+    }
+
+    private synchronized void evict()
+    {
+        Iterator<Map.Entry<String, Long>> iterator = this.entries.entrySet().iterator();
+        while (this.size > this.maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            this.size -= entry.getValue();
+
+            File file = new File(this.directory, entry.getKey());
+            if (!FileUtils.deleteQuietly(file)) {
+                LOGGER.debug("Failed to delete the cached image [{}]", file);
+            }
+        }
+    }
+
+    private String getFileName(String key)
+    {
+        return DigestUtils.sha256Hex(key);
+    }
+}
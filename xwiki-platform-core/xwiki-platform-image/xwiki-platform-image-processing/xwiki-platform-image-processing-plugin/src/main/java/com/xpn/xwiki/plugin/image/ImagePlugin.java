@@ -21,9 +21,17 @@
 
 import java.awt.Image;
 import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -36,6 +44,7 @@
 import org.xwiki.cache.config.CacheConfiguration;
 import org.xwiki.cache.eviction.EntryEvictionConfiguration;
 import org.xwiki.cache.eviction.LRUEvictionConfiguration;
+import org.xwiki.environment.Environment;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -64,6 +73,10 @@ public class ImagePlugin extends XWikiDefaultPlugin
 
     private static final String DEFAULT_QUALITY_PARAM = "xwiki.plugin.image.defaultQuality";
 
+    private static final String DISK_CACHE_SIZE_PARAM = "xwiki.plugin.image.cache.disk.maxSize";
+
+    private static final String MAX_CONCURRENT_PARAM = "xwiki.plugin.image.maxConcurrentProcessing";
+
     /**
      * Cache for already served images.
      */
@@ -84,6 +97,24 @@ public class ImagePlugin extends XWikiDefaultPlugin
      */
     private ImageProcessor imageProcessor;
 
+    /**
+     * Persistent cache for already served images, {@code null} when disabled. The size of the cache (in MB) can be
+     * configured using the key {@code xwiki.plugin.image.cache.disk.maxSize}.
+     */
+    private ImageDiskCache imageDiskCache;
+
+    /**
+     * Limit the number of images being decoded and scaled at the same time, since it's very CPU and memory intensive.
+     * Can be configured using the key {@code xwiki.plugin.image.maxConcurrentProcessing}.
+     */
+    private Semaphore processingSemaphore;
+
+    /**
+     * The images currently being transformed, used to not transform the same image several times in parallel.
+     */
+    private final ConcurrentMap<String, CompletableFuture<XWikiAttachment>> pendingImages =
+        new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance of this plugin.
      *
@@ -117,6 +148,11 @@ public void init(XWikiContext context)
         super.init(context);
 
         initCache(context);
+        initDiskCache(context);
+
+        int maxConcurrent = parsePositiveIntParam(MAX_CONCURRENT_PARAM, Runtime.getRuntime().availableProcessors(),
+            context);
+        this.processingSemaphore = new Semaphore(Math.max(1, maxConcurrent), true);
 
         String imageProcessorHint = context.getWiki().Param("xwiki.plugin.image.processorHint", "thumbnailator");
         this.imageProcessor = Utils.getComponent(ImageProcessor.class, imageProcessorHint);
@@ -168,6 +204,40 @@ private void initCache(XWikiContext context)
         }
     }
 
+    /**
+     * Tries to initialize the persistent image cache. The persistent cache is disabled if its maximum size is not
+     * configured or the initialization fails.
+     *
+     * @param context the XWiki context
+     */
+    private void initDiskCache(XWikiContext context)
+    {
+        long maxSize = parsePositiveIntParam(DISK_CACHE_SIZE_PARAM, 0, context) * 1024L * 1024L;
+        if (maxSize > 0) {
+            try {
+                File directory =
+                    new File(Utils.getComponent(Environment.class).getPermanentDirectory(), "cache/image");
+                this.imageDiskCache = new ImageDiskCache(directory, maxSize);
+            } catch (Exception e) {
+                LOG.error("Error initializing the persistent image cache.", e);
+            }
+        }
+    }
+
+    private int parsePositiveIntParam(String name, int defaultValue, XWikiContext context)
+    {
+        String value = context.getWiki().Param(name);
+        if (!StringUtils.isBlank(value)) {
+            int intValue = parseIntIgnoringException(value.trim());
+            if (intValue >= 0) {
+                return intValue;
+            }
+            LOG.warn("Failed to parse [{}] configuration parameter. Using [{}] instead.", name, defaultValue);
+        }
+
+        return defaultValue;
+    }
+
     @Override
     public void flushCache()
     {
@@ -287,12 +357,86 @@ private XWikiAttachment downloadImageFromCache(XWikiAttachment image, int width,
 
         XWikiAttachment thumbnail = this.imageCache.get(key);
         if (thumbnail == null) {
-            thumbnail = shrinkImage(image, width, height, keepAspectRatio, quality, context);
+            thumbnail = shrinkImageOnce(key, image, width, height, keepAspectRatio, quality, context);
             this.imageCache.set(key, thumbnail);
         }
         return thumbnail;
     }
 
+    /**
+     * Makes sure that concurrent requests for the same transformed image only transform the image once: the first
+     * request does the work and the others wait for its result.
+     *
+     * @param key the identifier of the transformed image
+     * @param image the image to be downloaded
+     * @param width the desired image width
+     * @param height the desired image height
+     * @param keepAspectRatio {@code true} to preserve aspect ratio when resizing the image, {@code false}
+     *     otherwise
+     * @param quality the desired compression quality
+     * @param context the XWiki context
+     * @return the transformed image
+     * @throws Exception if transforming the image fails
+     */
+    private XWikiAttachment shrinkImageOnce(String key, XWikiAttachment image, int width, int height,
+        boolean keepAspectRatio, float quality, XWikiContext context) throws Exception
+    {
+        CompletableFuture<XWikiAttachment> future = new CompletableFuture<>();
+        CompletableFuture<XWikiAttachment> pendingFuture = this.pendingImages.putIfAbsent(key, future);
+        if (pendingFuture != null) {
+            try {
+                return pendingFuture.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        try {
+            XWikiAttachment thumbnail = getImageFromDiskCache(key, image);
+            if (thumbnail == null) {
+                thumbnail = shrinkImage(image, width, height, keepAspectRatio, quality, context);
+                setImageInDiskCache(key, image, thumbnail);
+            }
+            future.complete(thumbnail);
+
+            return thumbnail;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+
+            throw e;
+        } finally {
+            this.pendingImages.remove(key);
+        }
+    }
+
+    private XWikiAttachment getImageFromDiskCache(String key, XWikiAttachment image) throws IOException
+    {
+        File file = this.imageDiskCache != null ? this.imageDiskCache.get(key) : null;
+        if (file != null) {
+            XWikiAttachment thumbnail = image.clone();
+            try (InputStream stream = new FileInputStream(file)) {
+                thumbnail.setContent(stream);
+            }
+
+            return thumbnail;
+        }
+
+        return null;
+    }
+
+    private void setImageInDiskCache(String key, XWikiAttachment image, XWikiAttachment thumbnail)
+    {
+        // Nothing to store if the original image is served
+        if (this.imageDiskCache != null && thumbnail != image) {
+            try (InputStream stream = thumbnail.getAttachment_content().getContentInputStream()) {
+                this.imageDiskCache.set(key, stream);
+            } catch (IOException e) {
+                LOG.warn("Failed to store the transformed image attachment [{}] in the persistent cache. "
+                    + "Root error: [{}]", image.getFilename(), ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
     /**
      * Reduces the size (i.e. the number of bytes) of an image by scaling its width and height and by reducing its
      * compression quality. This helps decreasing the time needed to download the image attachment.
@@ -312,6 +456,18 @@ private XWikiAttachment downloadImageFromCache(XWikiAttachment image, int width,
      */
     private XWikiAttachment shrinkImage(XWikiAttachment attachment, int requestedWidth, int requestedHeight,
         boolean keepAspectRatio, float requestedQuality, XWikiContext context) throws Exception
+    {
+        this.processingSemaphore.acquire();
+        try {
+            return shrinkImageInternal(attachment, requestedWidth, requestedHeight, keepAspectRatio, requestedQuality,
+                context);
+        } finally {
+            this.processingSemaphore.release();
+        }
+    }
+
+    private XWikiAttachment shrinkImageInternal(XWikiAttachment attachment, int requestedWidth, int requestedHeight,
+        boolean keepAspectRatio, float requestedQuality, XWikiContext context) throws Exception
     {
         Image image = this.imageProcessor.readImage(attachment.getContentInputStream(context));
 
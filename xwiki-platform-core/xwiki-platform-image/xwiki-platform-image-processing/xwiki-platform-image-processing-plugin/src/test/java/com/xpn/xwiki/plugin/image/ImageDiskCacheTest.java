@@ -0,0 +1,97 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.image;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.XWikiTempDirExtension;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for {@link ImageDiskCache}.
+ *
+ * @version $Id$
+ */
+@ExtendWith(XWikiTempDirExtension.class)
+class ImageDiskCacheTest
+{
+    @XWikiTempDir
+    private File directory;
+
+    private void set(ImageDiskCache cache, String key, int length) throws IOException
+    {
+        cache.set(key, new ByteArrayInputStream(new byte[length]));
+    }
+
+    @Test
+    void getAndSet() throws Exception
+    {
+        ImageDiskCache cache = new ImageDiskCache(this.directory, 100);
+
+        assertNull(cache.get("key"));
+
+        cache.set("key", new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+        File file = cache.get("key");
+        assertNotNull(file);
+        assertArrayEquals(new byte[] { 1, 2, 3 }, FileUtils.readFileToByteArray(file));
+        assertEquals(3, cache.getSize());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() throws Exception
+    {
+        ImageDiskCache cache = new ImageDiskCache(this.directory, 100);
+
+        set(cache, "first", 40);
+        set(cache, "second", 40);
+        // Access the first entry so that the second one becomes the least recently used
+        assertNotNull(cache.get("first"));
+
+        set(cache, "third", 40);
+
+        assertNotNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+        assertEquals(80, cache.getSize());
+    }
+
+    @Test
+    void reloadExistingEntries() throws Exception
+    {
+        ImageDiskCache cache = new ImageDiskCache(this.directory, 100);
+        set(cache, "key", 10);
+
+        ImageDiskCache reloadedCache = new ImageDiskCache(this.directory, 100);
+
+        assertNotNull(reloadedCache.get("key"));
+        assertEquals(10, reloadedCache.getSize());
+    }
+}
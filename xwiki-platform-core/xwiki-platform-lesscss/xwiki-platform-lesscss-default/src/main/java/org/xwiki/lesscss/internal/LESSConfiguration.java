@@ -56,4 +56,14 @@ public boolean isGenerateInlineSourceMaps()
     {
         return configurationSource.getProperty(CONFIGURATION_PREFIX + "generateInlineSourceMaps", false);
     }
+
+    /**
+     * @return whether the main skin style should be compiled in the background when a wiki is ready or when a color
+     *         theme is modified, so that the requests don't have to wait for the LESS compiler
+     * @since 17.2.0RC1
+     */
+    public boolean isWarmUpEnabled()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "warmUp", true);
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.lesscss.compiler.LESSCompiler;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+import org.xwiki.lesscss.internal.compiler.CachedLESSCompiler;
+import org.xwiki.lesscss.resources.LESSResourceReferenceFactory;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.template.InternalTemplateManager;
+import com.xpn.xwiki.web.XWikiServletRequestStub;
+
+/**
+ * Compile the main skin style in a background thread so that the first requests following a cache invalidation (color
+ * theme modification, wiki startup, etc.) find the result in the LESS cache instead of waiting for the compiler.
+ * <p>
+ * The compilation goes through the regular {@link LESSCompiler} so the result is stored in the same (persistent) cache
+ * as the one used by the requests, under the same skin and color theme key.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = LESSCacheWarmer.class)
+@Singleton
+public class LESSCacheWarmer implements Disposable
+{
+    private static final String COLOR_THEME_PARAMETER = "colorTheme";
+
+    @Inject
+    private LESSConfiguration lessConfiguration;
+
+    /**
+     * Lazily loaded to avoid a cyclic dependency with the listeners invalidating the cache.
+     */
+    @Inject
+    private Provider<LESSCompiler> lessCompilerProvider;
+
+    @Inject
+    private LESSResourceReferenceFactory lessResourceReferenceFactory;
+
+    @Inject
+    private ExecutionContextManager contextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The warm-up tasks which are waiting to be executed, used to not queue the same compilation several times.
+     */
+    private final Set<String> pendingTasks = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executor;
+
+    /**
+     * Asynchronously compile the main skin style of the passed wiki with the passed color theme.
+     *
+     * @param wikiId the identifier of the wiki for which to compile the skin style
+     * @param colorTheme the full name of the color theme to use, or {@code null} for the default color theme of the
+     *            wiki
+     */
+    public void warmUp(String wikiId, String colorTheme)
+    {
+        if (!this.lessConfiguration.isWarmUpEnabled()) {
+            return;
+        }
+
+        String taskId = wikiId + ':' + StringUtils.defaultString(colorTheme);
+        if (this.pendingTasks.add(taskId)) {
+            try {
+                getExecutor().execute(() -> {
+                    this.pendingTasks.remove(taskId);
+                    compile(wikiId, colorTheme);
+                });
+            } catch (RejectedExecutionException e) {
+                // The component is being disposed
+                this.pendingTasks.remove(taskId);
+            }
+        }
+    }
+
+    private synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null) {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder().namingPattern("XWiki LESS warm-up thread")
+                .daemon(true).priority(Thread.MIN_PRIORITY).build();
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                factory);
+        }
+
+        return this.executor;
+    }
+
+    private void compile(String wikiId, String colorTheme)
+    {
+        try {
+            this.contextManager.initialize(new ExecutionContext());
+
+            XWikiContext xcontext = this.xcontextProvider.get();
+            xcontext.setWikiId(wikiId);
+            // Make sure the color theme is visible to the compiler (which checks the view right on it)
+            xcontext.setUserReference(InternalTemplateManager.SUPERADMIN_REFERENCE);
+
+            // Both the compiler and the skin templates read the color theme from the request
+            XWikiServletRequestStub request = xcontext.getRequest() != null
+                ? new XWikiServletRequestStub(xcontext.getRequest()) : new XWikiServletRequestStub();
+            if (colorTheme != null) {
+                request.put(COLOR_THEME_PARAMETER, colorTheme);
+            }
+            xcontext.setRequest(request);
+
+            String skin = xcontext.getWiki().getSkin(xcontext);
+            this.lessCompilerProvider.get().compile(
+                this.lessResourceReferenceFactory.createReferenceForSkinFile(
+                    CachedLESSCompiler.MAIN_SKIN_STYLE_FILENAME), false, true, skin, false);
+
+            this.logger.debug("Warmed up the LESS cache of wiki [{}] for the color theme [{}] and the skin [{}].",
+                wikiId, colorTheme, skin);
+        } catch (Exception e) {
+            this.logger.warn("Failed to warm up the LESS cache of wiki [{}] for the color theme [{}]: {}", wikiId,
+                colorTheme, ExceptionUtils.getRootCauseMessage(e));
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        synchronized (this) {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+            }
+        }
+    }
+}
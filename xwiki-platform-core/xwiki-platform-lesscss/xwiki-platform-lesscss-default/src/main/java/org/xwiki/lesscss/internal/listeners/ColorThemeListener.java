@@ -31,9 +31,12 @@
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.lesscss.internal.cache.ColorThemeCache;
+import org.xwiki.lesscss.internal.cache.LESSCacheWarmer;
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReferenceFactory;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.event.Event;
@@ -42,7 +45,8 @@
 import com.xpn.xwiki.objects.BaseObject;
 
 /**
- * Listener that clears the cache of compiled LESS Skin file when a color theme is changed.
+ * Listener that clears the cache of compiled LESS Skin file when a color theme is changed, and then asks for the main
+ * skin style to be compiled again in the background.
  *
  * @since 6.4M2
  * @version $Id$
@@ -67,6 +71,12 @@ public class ColorThemeListener implements EventListener
     @Inject
     private ColorThemeReferenceFactory colorThemeReferenceFactory;
 
+    @Inject
+    private LESSCacheWarmer lessCacheWarmer;
+
+    @Inject
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
     @Override
     public String getName()
     {
@@ -102,9 +112,15 @@ public void onEvent(Event event, Object source, Object data)
 
     private void clearCacheFromColorTheme(XWikiDocument document)
     {
-        ColorThemeReference colorThemeReference = 
-                colorThemeReferenceFactory.createReference(document.getDocumentReference());
+        DocumentReference documentReference = document.getDocumentReference();
+        ColorThemeReference colorThemeReference = colorThemeReferenceFactory.createReference(documentReference);
         lessResourcesCache.clearFromColorTheme(colorThemeReference);
         colorThemeCache.clearFromColorTheme(colorThemeReference);
+
+        // Don't let the next request wait for the compilation of the modified color theme
+        if (!document.isNew()) {
+            lessCacheWarmer.warmUp(documentReference.getWikiReference().getName(),
+                entityReferenceSerializer.serialize(documentReference));
+        }
     }
 }
@@ -55,4 +55,12 @@ public void generateSourceMaps() throws Exception
         lessConfiguration.isGenerateInlineSourceMaps();
         verify(configurationSource).getProperty("lesscss.generateInlineSourceMaps", false);
     }
+
+    @Test
+    public void warmUp() throws Exception
+    {
+        when(configurationSource.getProperty("lesscss.warmUp", true)).thenReturn(true);
+        lessConfiguration.isWarmUpEnabled();
+        verify(configurationSource).getProperty("lesscss.warmUp", true);
+    }
 }
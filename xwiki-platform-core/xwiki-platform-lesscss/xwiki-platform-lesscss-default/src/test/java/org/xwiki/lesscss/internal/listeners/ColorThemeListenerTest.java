@@ -30,6 +30,7 @@
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.lesscss.internal.cache.ColorThemeCache;
+import org.xwiki.lesscss.internal.cache.LESSCacheWarmer;
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReferenceFactory;
@@ -37,6 +38,7 @@
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.observation.event.Event;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
@@ -69,12 +71,18 @@
 
     private ColorThemeReferenceFactory colorThemeReferenceFactory;
 
+    private LESSCacheWarmer lessCacheWarmer;
+
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
     @Before
     public void setUp() throws Exception
     {
         lessResourcesCache = mocker.getInstance(LESSResourcesCache.class);
         colorThemeCache = mocker.getInstance(ColorThemeCache.class);
         colorThemeReferenceFactory = mocker.getInstance(ColorThemeReferenceFactory.class);
+        lessCacheWarmer = mocker.getInstance(LESSCacheWarmer.class);
+        entityReferenceSerializer = mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
     }
 
     @Test
@@ -113,6 +121,7 @@ public void onEventWhenFlamingoThemeChanged() throws Exception
 
         ColorThemeReference colorThemeReference = new DocumentColorThemeReference(documentReference, null);
         when(colorThemeReferenceFactory.createReference(eq(documentReference))).thenReturn(colorThemeReference);
+        when(entityReferenceSerializer.serialize(documentReference)).thenReturn("wiki:space.page");
 
         // Test
         mocker.getComponentUnderTest().onEvent(event, doc, data);
@@ -120,6 +129,7 @@ public void onEventWhenFlamingoThemeChanged() throws Exception
         // Verify
         verify(lessResourcesCache).clearFromColorTheme(colorThemeReference);
         verify(colorThemeCache).clearFromColorTheme(colorThemeReference);
+        verify(lessCacheWarmer).warmUp("wiki", "wiki:space.page");
     }
 
     @Test
@@ -139,6 +149,37 @@ public void onEventWhenColorThemeChanged() throws Exception
         DocumentReference documentReference = new DocumentReference("wiki", "space", "page");
         when(doc.getDocumentReference()).thenReturn(documentReference);
 
+        ColorThemeReference colorThemeReference = new DocumentColorThemeReference(documentReference, null);
+        when(colorThemeReferenceFactory.createReference(eq(documentReference))).thenReturn(colorThemeReference);
+        when(entityReferenceSerializer.serialize(documentReference)).thenReturn("wiki:space.page");
+
+        // Test
+        mocker.getComponentUnderTest().onEvent(event, doc, data);
+
+        // Verify
+        verify(lessResourcesCache).clearFromColorTheme(colorThemeReference);
+        verify(colorThemeCache).clearFromColorTheme(colorThemeReference);
+        verify(lessCacheWarmer).warmUp("wiki", "wiki:space.page");
+    }
+
+    @Test
+    public void onEventWhenColorThemeDeleted() throws Exception
+    {
+        // Mocks
+        Event event = mock(Event.class);
+        XWikiDocument doc = mock(XWikiDocument.class);
+        when(doc.isNew()).thenReturn(true);
+        Object data = new Object();
+
+        EntityReference classReference = new LocalDocumentReference("ColorThemes", "ColorThemeClass");
+        List<BaseObject> objects = new ArrayList<>();
+        BaseObject object = mock(BaseObject.class);
+        objects.add(object);
+        when(doc.getXObjects(classReference)).thenReturn(objects);
+
+        DocumentReference documentReference = new DocumentReference("wiki", "space", "page");
+        when(doc.getDocumentReference()).thenReturn(documentReference);
+
         ColorThemeReference colorThemeReference = new DocumentColorThemeReference(documentReference, null);
         when(colorThemeReferenceFactory.createReference(eq(documentReference))).thenReturn(colorThemeReference);
 
@@ -148,6 +189,7 @@ public void onEventWhenColorThemeChanged() throws Exception
         // Verify
         verify(lessResourcesCache).clearFromColorTheme(colorThemeReference);
         verify(colorThemeCache).clearFromColorTheme(colorThemeReference);
+        verifyNoInteractions(lessCacheWarmer);
     }
 
     @Test
@@ -169,5 +211,6 @@ public void onEventWhenNoObject() throws Exception
         // Verify
         verifyNoInteractions(lessResourcesCache);
         verifyNoInteractions(colorThemeCache);
+        verifyNoInteractions(lessCacheWarmer);
     }
 }
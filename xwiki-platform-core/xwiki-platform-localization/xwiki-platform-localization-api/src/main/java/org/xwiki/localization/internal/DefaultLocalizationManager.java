@@ -19,6 +19,8 @@
  */
 package org.xwiki.localization.internal;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -77,24 +79,60 @@ public class DefaultLocalizationManager implements LocalizationManager
     @Override
     public Translation getTranslation(String key, Locale locale)
     {
+        // The locale and its parents, from the most specific to the most generic one
+        List<Locale> locales = new ArrayList<>();
+        for (Locale currentLocale = locale; currentLocale != null;
+            currentLocale = LocaleUtils.getParentLocale(currentLocale)) {
+            locales.add(currentLocale);
+        }
+
+        // The translation found so far for the most specific locale (with the highest priority for this locale), and
+        // the index of its locale
+        Translation bestTranslation = null;
+        int bestIndex = locales.size();
+
+        // Go through the bundles only once instead of once per locale
         for (TranslationBundle bundle : this.bundleContext.getBundles()) {
-            try {
-                Translation translation = bundle.getTranslation(key, locale);
-                if (translation != null && translation.getLocale().equals(locale)) {
-                    return translation;
+            if (bundle instanceof AbstractCachedTranslationBundle) {
+                // A cached bundle already falls back on the parent locales so the locale of the translation it returns
+                // is the most specific one it has for this key
+                Translation translation = getTranslation(bundle, key, locale);
+                if (translation != null) {
+                    int index = locales.indexOf(translation.getLocale());
+                    if (index >= 0 && index < bestIndex) {
+                        bestTranslation = translation;
+                        bestIndex = index;
+                    }
+                }
+            } else {
+                // Only the locales more specific than the best translation found so far are worth asking
+                for (int i = 0; i < bestIndex; ++i) {
+                    Translation translation = getTranslation(bundle, key, locales.get(i));
+                    if (translation != null && translation.getLocale().equals(locales.get(i))) {
+                        bestTranslation = translation;
+                        bestIndex = i;
+                    }
                 }
-            } catch (Exception e) {
-                this.logger.error("Failed to get translation", e);
             }
-        }
 
-        // Try parent locale
-        Locale parentLocale = LocaleUtils.getParentLocale(locale);
-        if (parentLocale != null) {
-            return getTranslation(key, parentLocale);
+            if (bestIndex == 0) {
+                // Nothing can take precedence over a translation for the exact locale from a higher priority bundle
+                break;
+            }
         }
 
-        return null;
+        return bestTranslation;
+    }
+
+    private Translation getTranslation(TranslationBundle bundle, String key, Locale locale)
+    {
+        try {
+            return bundle.getTranslation(key, locale);
+        } catch (Exception e) {
+            this.logger.error("Failed to get translation", e);
+
+            return null;
+        }
     }
 
     @Override
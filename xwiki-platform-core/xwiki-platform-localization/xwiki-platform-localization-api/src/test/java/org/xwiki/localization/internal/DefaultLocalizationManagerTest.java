@@ -0,0 +1,167 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.localization.Translation;
+import org.xwiki.localization.TranslationBundle;
+import org.xwiki.localization.TranslationBundleContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultLocalizationManager}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultLocalizationManagerTest
+{
+    private static final String KEY = "key";
+
+    private static final Locale FRENCH_FRANCE = Locale.FRANCE;
+
+    @InjectMockComponents
+    private DefaultLocalizationManager localizationManager;
+
+    @MockComponent
+    private TranslationBundleContext bundleContext;
+
+    /**
+     * A cached bundle holding the given keys for the given locales.
+     */
+    private static class TestBundle extends AbstractCachedTranslationBundle
+    {
+        private final Map<Locale, Set<String>> keys = new HashMap<>();
+
+        TestBundle(String id, int priority)
+        {
+            super(id, priority);
+        }
+
+        TestBundle with(Locale locale)
+        {
+            this.keys.computeIfAbsent(locale, l -> new HashSet<>()).add(KEY);
+
+            return this;
+        }
+
+        @Override
+        protected LocalizedTranslationBundle createBundle(Locale locale)
+        {
+            DefaultLocalizedTranslationBundle localizedBundle = new DefaultLocalizedTranslationBundle(this, locale);
+            for (String key : this.keys.getOrDefault(locale, Set.of())) {
+                localizedBundle.addTranslation(new DefaultTranslation(null, localizedBundle, key, null));
+            }
+
+            return localizedBundle;
+        }
+    }
+
+    private void setBundles(TranslationBundle... bundles)
+    {
+        // The bundles are passed in priority order
+        when(this.bundleContext.getBundles()).thenReturn(Arrays.asList(bundles));
+    }
+
+    @Test
+    void getTranslationWithExactLocale()
+    {
+        TestBundle first = new TestBundle("first", 1).with(Locale.ROOT).with(FRENCH_FRANCE);
+        TestBundle second = new TestBundle("second", 2).with(FRENCH_FRANCE);
+        setBundles(first, second);
+
+        Translation translation = this.localizationManager.getTranslation(KEY, FRENCH_FRANCE);
+
+        assertSame(first, translation.getBundle());
+        assertEquals(FRENCH_FRANCE, translation.getLocale());
+    }
+
+    @Test
+    void getTranslationPrefersMostSpecificLocale()
+    {
+        TestBundle first = new TestBundle("first", 1).with(Locale.ROOT);
+        TestBundle second = new TestBundle("second", 2).with(Locale.FRENCH);
+        TestBundle third = new TestBundle("third", 3).with(Locale.FRENCH);
+        setBundles(first, second, third);
+
+        Translation translation = this.localizationManager.getTranslation(KEY, FRENCH_FRANCE);
+
+        assertSame(second, translation.getBundle());
+        assertEquals(Locale.FRENCH, translation.getLocale());
+    }
+
+    @Test
+    void getTranslationFromRootLocale()
+    {
+        TestBundle first = new TestBundle("first", 1);
+        TestBundle second = new TestBundle("second", 2).with(Locale.ROOT);
+        setBundles(first, second);
+
+        Translation translation = this.localizationManager.getTranslation(KEY, FRENCH_FRANCE);
+
+        assertSame(second, translation.getBundle());
+        assertEquals(Locale.ROOT, translation.getLocale());
+    }
+
+    @Test
+    void getTranslationFromBundleWithoutFallback()
+    {
+        TestBundle first = new TestBundle("first", 1).with(Locale.ROOT);
+
+        // A bundle which only returns translations for the exact requested locale
+        TranslationBundle second = mock(TranslationBundle.class);
+        Translation frenchTranslation = mock(Translation.class);
+        when(frenchTranslation.getLocale()).thenReturn(Locale.FRENCH);
+        when(second.getTranslation(KEY, Locale.FRENCH)).thenReturn(frenchTranslation);
+
+        setBundles(first, second);
+
+        assertSame(frenchTranslation, this.localizationManager.getTranslation(KEY, FRENCH_FRANCE));
+
+        // The root locale is not more specific than the translation already found in the first bundle
+        verify(second, never()).getTranslation(eq(KEY), eq(Locale.ROOT));
+    }
+
+    @Test
+    void getTranslationWhenMissing()
+    {
+        setBundles(new TestBundle("first", 1), new TestBundle("second", 2));
+
+        assertNull(this.localizationManager.getTranslation(KEY, FRENCH_FRANCE));
+    }
+}
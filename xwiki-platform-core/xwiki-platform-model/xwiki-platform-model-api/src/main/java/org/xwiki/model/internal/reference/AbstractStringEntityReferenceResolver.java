@@ -24,6 +24,7 @@
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -45,6 +46,11 @@
 public abstract class AbstractStringEntityReferenceResolver extends AbstractEntityReferenceResolver
     implements EntityReferenceResolver<String>, Initializable
 {
+    /**
+     * The maximum number of references to remember for each entity type.
+     */
+    private static final int RESOLVED_REFERENCES_CACHE_SIZE = 1000;
+
     /**
      * Array of character to unescape in entity names.
      */
@@ -60,6 +66,23 @@ public abstract class AbstractStringEntityReferenceResolver extends AbstractEnti
 
     private Map<EntityType, Map<Character, EntityType>> referenceSetup;
 
+    /**
+     * The references already resolved from a string representation without the help of any default value, indexed by
+     * entity type. Such a reference only depends on the string representation so it can be reused for all the calls.
+     */
+    private Map<EntityType, Map<String, EntityReference>> resolvedReferences;
+
+    /**
+     * Keep track of what happened during the resolution of a reference.
+     */
+    private static final class Resolution
+    {
+        /**
+         * {@code true} if part of the reference was produced by a default value, which could change between calls.
+         */
+        private boolean contextual;
+    }
+
     /**
      * Empty constructor, to be used by the Component Manager, which will also inject the Symbol Scheme.
      */
@@ -94,6 +117,11 @@ public void initialize()
             this.referenceSetup.put(separatorEntry.getKey(), characterMap);
         }
 
+        this.resolvedReferences = new EnumMap<>(EntityType.class);
+        for (EntityType entityType : EntityType.values()) {
+            this.resolvedReferences.put(entityType, new ConcurrentHashMap<>());
+        }
+
         String escape = Character.toString(getSymbolScheme().getEscapeSymbol());
         this.escapeMatching = new String[] { escape + escape, escape };
         this.escapeMatchingReplace = new String[] { escape, StringUtils.EMPTY };
@@ -141,9 +169,39 @@ public EntityReference resolve(String entityReferenceRepresentation, EntityType
 
         // Check if the type require anything specific
         if (typeSetup == null || typeSetup.isEmpty()) {
-            return getNewReference(entityReferenceRepresentation, true, type, parameters);
+            return getNewReference(entityReferenceRepresentation, true, type, new Resolution(), parameters);
+        }
+
+        // Reuse the reference resolved by a previous call when it did not depend on any default value
+        Map<String, EntityReference> typeResolvedReferences =
+            entityReferenceRepresentation != null ? this.resolvedReferences.get(type) : null;
+        if (typeResolvedReferences != null) {
+            EntityReference reference = typeResolvedReferences.get(entityReferenceRepresentation);
+            if (reference != null) {
+                return reference;
+            }
+        }
+
+        Resolution resolution = new Resolution();
+        EntityReference reference =
+            resolve(entityReferenceRepresentation, type, typeSetup, resolution, parameters);
+
+        if (typeResolvedReferences != null && reference != null && !resolution.contextual) {
+            // Keep the cache bounded, the most used references will quickly come back
+            if (typeResolvedReferences.size() >= RESOLVED_REFERENCES_CACHE_SIZE) {
+                typeResolvedReferences.clear();
+            }
+            typeResolvedReferences.put(entityReferenceRepresentation, reference);
         }
 
+        return reference;
+    }
+
+    private EntityReference resolve(String entityReferenceRepresentation, EntityType type,
+        Map<Character, EntityType> initialTypeSetup, Resolution resolution, Object... parameters)
+    {
+        Map<Character, EntityType> typeSetup = initialTypeSetup;
+
         StringBuilder representation = createStringBuilder(entityReferenceRepresentation);
 
         EntityReference reference = null;
@@ -206,8 +264,8 @@ public EntityReference resolve(String entityReferenceRepresentation, EntityType
                 }
             }
 
-            reference = appendNewReference(reference,
-                getNewReference(i, representation, unescape, currentType, referenceParameters, parameters));
+            reference = appendNewReference(reference, getNewReference(i, representation, unescape, currentType,
+                referenceParameters, resolution, parameters));
 
             if (parentType != null) {
                 currentType = parentType;
@@ -219,15 +277,16 @@ public EntityReference resolve(String entityReferenceRepresentation, EntityType
         }
 
         // Handle last entity reference's name
-        reference = appendNewReference(reference, getNewReference(representation, true, currentType, parameters));
+        reference = appendNewReference(reference,
+            getNewReference(representation, true, currentType, resolution, parameters));
 
         // Evaluate keywords when supported ("..", ".")
-        reference = evaluateKeywords(reference, parameters);
+        reference = evaluateKeywords(reference, resolution, parameters);
 
         return reference;
     }
 
-    private EntityReference evaluateKeywords(EntityReference reference, Object... parameters)
+    private EntityReference evaluateKeywords(EntityReference reference, Resolution resolution, Object... parameters)
     {
         if (reference == null) {
             return null;
@@ -235,9 +294,11 @@ private EntityReference evaluateKeywords(EntityReference reference, Object... pa
 
         EntityReference evaluatedReference = reference;
 
-        EntityReference evaluatedParent = evaluateKeywords(reference.getParent(), parameters);
+        EntityReference evaluatedParent = evaluateKeywords(reference.getParent(), resolution, parameters);
 
         if (reference.getName().equals(getSymbolScheme().getCurrentReferenceKeyword(reference.getType()))) {
+            resolution.contextual = true;
+
             if (evaluatedParent == null) {
                 // No parent, start from the default reference
                 evaluatedReference = resolveDefaultReference(reference.getType(), parameters);
@@ -251,6 +312,7 @@ private EntityReference evaluateKeywords(EntityReference reference, Object... pa
                 evaluatedReference = evaluatedParent;
             }
         } else if (reference.getName().equals(getSymbolScheme().getParentReferenceKeyword(reference.getType()))) {
+            resolution.contextual = true;
             // Get default reference
             if (evaluatedParent == null) {
                 // No parent
@@ -295,7 +357,7 @@ private String unescape(String text)
     }
 
     private EntityReference getNewReference(CharSequence representation, boolean unescape, EntityType type,
-        Object... parameters)
+        Resolution resolution, Object... parameters)
     {
         EntityReference newReference;
         if (representation.length() > 0) {
@@ -305,6 +367,7 @@ private EntityReference getNewReference(CharSequence representation, boolean une
             }
             newReference = new EntityReference(name, type);
         } else {
+            resolution.contextual = true;
             newReference = resolveDefaultReference(type, null, parameters);
         }
 
@@ -312,13 +375,14 @@ private EntityReference getNewReference(CharSequence representation, boolean une
     }
 
     private EntityReference getNewReference(int i, StringBuilder representation, boolean unescape, EntityType type,
-        Map<String, Serializable> referenceParameters, Object... parameters)
+        Map<String, Serializable> referenceParameters, Resolution resolution, Object... parameters)
     {
         EntityReference newReference;
 
         // Found a valid separator (not escaped), separate content on its left from content on its
         // right
         if (i == representation.length() - 1) {
+            resolution.contextual = true;
             newReference = resolveDefaultReference(type, referenceParameters, parameters);
         } else {
             String name = representation.substring(i + 1, representation.length());
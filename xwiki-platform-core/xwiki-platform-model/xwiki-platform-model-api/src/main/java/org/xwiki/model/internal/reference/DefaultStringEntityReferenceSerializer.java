@@ -78,7 +78,7 @@ protected void serializeEntityReference(EntityReference currentReference, String
             Character separator =
                 getSymbolScheme().getSeparatorSymbols().get(currentType).get(parentReference.getType());
             if (separator != null) {
-                representation.append(separator);
+                representation.append(separator.charValue());
             } else {
                 // The reference is invalid, the parent type is not an allowed type. Thus there's no valid separator
                 // to separate the 2 types. Use the "???" character to show the user it's invalid.
@@ -87,9 +87,8 @@ protected void serializeEntityReference(EntityReference currentReference, String
         }
 
         // Escape characters that require escaping for the current type
-        representation.append(StringUtils.replaceEach(currentReference.getName(),
-            getSymbolScheme().getSymbolsRequiringEscapes(currentType),
-            getSymbolScheme().getReplacementSymbols(currentType)));
+        appendEscaped(currentReference.getName(), getSymbolScheme().getSymbolsRequiringEscapes(currentType),
+            getSymbolScheme().getReplacementSymbols(currentType), representation);
 
         // Add parameters if supported
         Map<String, Serializable> entityParameters = currentReference.getParameters();
@@ -118,18 +117,64 @@ private void serializeParameters(String defaultParameter, char separator, Map<St
                 }
 
                 if (defaultParameter == null || !defaultParameter.equals(entry.getKey())) {
-                    representation.append(StringUtils.replaceEach(entry.getKey(), parameterSymbolsRequiringEscapes,
-                        parameterReplacementSymbols));
+                    appendEscaped(entry.getKey(), parameterSymbolsRequiringEscapes, parameterReplacementSymbols,
+                        representation);
                     representation.append('=');
                 }
-                representation.append(StringUtils.replaceEach(entry.getValue().toString(),
-                    parameterSymbolsRequiringEscapes, parameterReplacementSymbols));
+                appendEscaped(entry.getValue().toString(), parameterSymbolsRequiringEscapes,
+                    parameterReplacementSymbols, representation);
 
                 first = false;
             }
         }
     }
 
+    private void appendEscaped(String text, String[] symbolsRequiringEscapes, String[] replacementSymbols,
+        StringBuilder representation)
+    {
+        if (text == null || !isSingleCharacters(symbolsRequiringEscapes) || replacementSymbols == null
+            || replacementSymbols.length != symbolsRequiringEscapes.length) {
+            representation.append(StringUtils.replaceEach(text, symbolsRequiringEscapes, replacementSymbols));
+
+            return;
+        }
+
+        // All the symbols are single characters (which is the case of the default symbol scheme): escape the
+        // characters while copying them instead of producing intermediate strings
+        for (int i = 0; i < text.length(); ++i) {
+            char c = text.charAt(i);
+
+            String replacement = null;
+            for (int j = 0; j < symbolsRequiringEscapes.length; ++j) {
+                if (symbolsRequiringEscapes[j].charAt(0) == c) {
+                    replacement = replacementSymbols[j];
+                    break;
+                }
+            }
+
+            if (replacement != null) {
+                representation.append(replacement);
+            } else {
+                representation.append(c);
+            }
+        }
+    }
+
+    private boolean isSingleCharacters(String[] symbols)
+    {
+        if (symbols == null) {
+            return false;
+        }
+
+        for (String symbol : symbols) {
+            if (symbol == null || symbol.length() != 1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     protected SymbolScheme getSymbolScheme()
     {
         if (this.symbolScheme == null) {
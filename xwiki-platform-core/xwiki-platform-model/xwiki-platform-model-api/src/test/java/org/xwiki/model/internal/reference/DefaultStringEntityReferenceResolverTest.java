@@ -44,6 +44,7 @@
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.when;
 
 /**
@@ -625,4 +626,23 @@ void resolvePageReferenceParameters() throws Exception
         assertEquals(new EntityReference(pageReference, Collections.singletonMap("key=novalue", "nokey=value")),
             reference);
     }
+
+    @Test
+    void resolveReusesReferencesNotDependingOnDefaults()
+    {
+        EntityReference reference = this.resolver.resolve("wiki:space.page", EntityType.DOCUMENT);
+        assertSame(reference, this.resolver.resolve("wiki:space.page", EntityType.DOCUMENT));
+
+        // The same string resolved as another type is a different reference
+        assertEquals(EntityType.SPACE, this.resolver.resolve("wiki:space.page", EntityType.SPACE).getType());
+
+        // References relying on default values should reflect the current defaults
+        reference = this.resolver.resolve("page", EntityType.DOCUMENT);
+        assertEquals(DEFAULT_WIKI, reference.extractReference(EntityType.WIKI).getName());
+
+        when(this.referenceProvider.getDefaultReference(EntityType.WIKI)).thenReturn(new WikiReference("otherwiki"));
+
+        reference = this.resolver.resolve("page", EntityType.DOCUMENT);
+        assertEquals("otherwiki", reference.extractReference(EntityType.WIKI).getName());
+    }
 }
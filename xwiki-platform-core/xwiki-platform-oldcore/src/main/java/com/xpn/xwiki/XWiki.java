@@ -204,10 +204,12 @@
 import com.xpn.xwiki.doc.XWikiDocumentArchive;
 import com.xpn.xwiki.internal.WikiInitializerJob;
 import com.xpn.xwiki.internal.WikiInitializerRequest;
+import com.xpn.xwiki.internal.WikiPreInitializer;
 import com.xpn.xwiki.internal.XWikiCfgConfigurationSource;
 import com.xpn.xwiki.internal.XWikiConfigDelegate;
 import com.xpn.xwiki.internal.XWikiInitializerJob;
 import com.xpn.xwiki.internal.debug.DebugConfiguration;
+import com.xpn.xwiki.internal.doc.MandatoryDocumentFingerprints;
 import com.xpn.xwiki.internal.event.MandatoryDocumentsInitializedEvent;
 import com.xpn.xwiki.internal.event.MandatoryDocumentsInitializingEvent;
 import com.xpn.xwiki.internal.event.UserCreatingDocumentEvent;
@@ -493,6 +495,10 @@ public class XWiki implements EventListener
 
     private CoreExtensionRepository coreExtensions;
 
+    private MandatoryDocumentFingerprints mandatoryDocumentFingerprints;
+
+    private WikiPreInitializer wikiPreInitializer;
+
     private ConfigurationSource getConfiguration()
     {
         if (this.xwikicfg == null) {
@@ -825,6 +831,24 @@ private WikiDescriptorManager getWikiDescriptorManager()
         return this.wikiDescriptorManager;
     }
 
+    private MandatoryDocumentFingerprints getMandatoryDocumentFingerprints()
+    {
+        if (this.mandatoryDocumentFingerprints == null) {
+            this.mandatoryDocumentFingerprints = Utils.getComponent(MandatoryDocumentFingerprints.class);
+        }
+
+        return this.mandatoryDocumentFingerprints;
+    }
+
+    private WikiPreInitializer getWikiPreInitializer()
+    {
+        if (this.wikiPreInitializer == null) {
+            this.wikiPreInitializer = Utils.getComponent(WikiPreInitializer.class);
+        }
+
+        return this.wikiPreInitializer;
+    }
+
     private AsyncContext getAsyncContext()
     {
         if (this.asyncContext == null) {
@@ -1003,6 +1027,9 @@ public static XWiki getXWiki(boolean wait, XWikiContext xcontext) throws XWikiEx
         xcontext.setWikiId(wikiId);
         xcontext.setOriginalWikiId(wikiId);
 
+        // Remember the access so that the wiki can be initialized in advance after the next restart
+        xwiki.getWikiPreInitializer().onAccess(wikiId);
+
         if (!xwiki.initializeWiki(wikiId, wait, xcontext)) {
             // The wiki is still initializing
             return null;
@@ -1419,18 +1446,32 @@ public void initializeMandatoryDocuments(XWikiContext context)
 
             getObservationManager().notify(MandatoryDocumentsInitializingEvent.EVENT, null);
 
+            // Find the documents which are already up to date to avoid loading them
+            List<DocumentReference> documentReferences = new ArrayList<>(initializers.size());
+            for (MandatoryDocumentInitializer initializer : initializers) {
+                documentReferences
+                    .add(getCurrentReferenceDocumentReferenceResolver().resolve(initializer.getDocumentReference()));
+            }
+            Set<MandatoryDocumentInitializer> upToDate =
+                getMandatoryDocumentFingerprints().getUpToDate(initializers, documentReferences, context.getWikiId());
+
             getProgress().pushLevelProgress(initializers.size(), this);
 
             try {
                 for (MandatoryDocumentInitializer initializer : initializers) {
                     getProgress().startStep(this);
 
-                    initializeMandatoryDocument(initializer, context);
+                    if (!upToDate.contains(initializer)) {
+                        initializeMandatoryDocument(initializer, context);
+                    }
 
                     getProgress().endStep(this);
                 }
             } finally {
                 getProgress().popLevelProgress(this);
+
+                // Remember the documents which are now up to date
+                getMandatoryDocumentFingerprints().save(context.getWikiId());
             }
 
             getObservationManager().notify(MandatoryDocumentsInitializedEvent.EVENT, null);
@@ -1446,6 +1487,8 @@ private void initializeMandatoryDocument(String wiki, MandatoryDocumentInitializ
             context.setWikiId(wiki);
 
             initializeMandatoryDocument(initializer, context);
+
+            getMandatoryDocumentFingerprints().save(wiki);
         } finally {
             context.setWikiId(currentWiki);
         }
@@ -1467,6 +1510,9 @@ private void initializeMandatoryDocument(MandatoryDocumentInitializer initialize
                     saveDocument(document,
                         localizePlainOrKey("core.model.xclass.mandatoryUpdateProperty.versionSummary"), context);
                 }
+
+                // Remember the version of the document produced by this initializer
+                getMandatoryDocumentFingerprints().setUpToDate(documentReference, initializer, document.getVersion());
             }
         } catch (Exception e) {
             LOGGER.error("Failed to initialize mandatory document [{}]", initializer.getDocumentReference(), e);
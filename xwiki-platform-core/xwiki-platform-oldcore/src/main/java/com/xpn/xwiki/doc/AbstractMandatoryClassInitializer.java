@@ -19,6 +19,8 @@
  */
 package com.xpn.xwiki.doc;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.LocalDocumentReference;
 
@@ -39,6 +41,11 @@ public abstract class AbstractMandatoryClassInitializer extends AbstractMandator
     private static final LocalDocumentReference XWIKICLASSES_REFERENCE =
         new LocalDocumentReference(XWiki.SYSTEM_SPACE, "XWikiClasses");
 
+    /**
+     * True if the standard document update was customized and cannot be described by the generated class only.
+     */
+    private Boolean customized;
+
     /**
      * @param reference the reference of the document to update. Can be either local or absolute, depending on whether
      *                  the document is associated to a specific wiki or not
@@ -80,6 +87,50 @@ public boolean updateDocument(XWikiDocument document)
         return needUpdate;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The fingerprint is computed from the title and the generated class. No fingerprint is provided when the standard
+     * update of the document is customized by the initializer.
+     *
+     * @since 17.2.0RC1
+     */
+    @Override
+    public String getFingerprint()
+    {
+        if (this.customized == null) {
+            this.customized = isOverridden("updateDocument", XWikiDocument.class)
+                || isOverridden("updateClassDocumentFields", XWikiDocument.class)
+                || isOverridden("updateDocumentSheet", XWikiDocument.class)
+                || isOverridden("updateDocumentFields", XWikiDocument.class, String.class);
+        }
+
+        if (this.customized) {
+            return null;
+        }
+
+        BaseClass newClass = new BaseClass();
+        newClass.setDocumentReference(this.resolver.resolve(getDocumentReference()));
+        createClass(newClass);
+
+        return DigestUtils.sha256Hex(StringUtils.defaultString(getTitle()) + '\n' + newClass.toXMLString(false));
+    }
+
+    private boolean isOverridden(String methodName, Class<?>... parameterTypes)
+    {
+        for (Class<?> type = getClass(); type != AbstractMandatoryClassInitializer.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod(methodName, parameterTypes);
+
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Check the parent class
+            }
+        }
+
+        return false;
+    }
+
     /**
      * @param xclass the class to create
      * @since 9.0RC1
@@ -22,6 +22,7 @@
 import org.xwiki.component.annotation.Role;
 import org.xwiki.component.descriptor.ComponentDescriptor;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.stability.Unstable;
 
 /**
  * Provide a document that should be initialized at startup and when creating a new wiki.
@@ -60,4 +61,20 @@
      * @return true if the document has been modified, false otherwise
      */
     boolean updateDocument(XWikiDocument document);
+
+    /**
+     * Indicate the version of the document produced by this initializer so that a document which was already updated
+     * with the same fingerprint can be skipped without being loaded when a wiki is initialized.
+     * <p>
+     * The fingerprint must change whenever {@link #updateDocument(XWikiDocument)} might produce a different result.
+     *
+     * @return the fingerprint of the document produced by this initializer, or {@code null} if the document should
+     *         always be updated
+     * @since 17.2.0RC1
+     */
+    @Unstable
+    default String getFingerprint()
+    {
+        return null;
+    }
 }
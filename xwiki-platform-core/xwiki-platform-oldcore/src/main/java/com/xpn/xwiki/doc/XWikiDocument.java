@@ -184,6 +184,8 @@
 import com.xpn.xwiki.doc.merge.MergeResult;
 import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
 import com.xpn.xwiki.internal.cache.rendering.RenderingCache;
+import com.xpn.xwiki.internal.debug.RequestTimer;
+import com.xpn.xwiki.internal.debug.RequestTimingTree;
 import com.xpn.xwiki.internal.doc.BaseObjects;
 import com.xpn.xwiki.internal.doc.XWikiAttachmentList;
 import com.xpn.xwiki.internal.filter.XWikiDocumentFilterUtils;
@@ -1405,7 +1407,10 @@ private String display(Syntax targetSyntax, boolean executionContextIsolated, bo
                 parameters.setTargetSyntax(targetSyntax);
 
                 // Execute display
-                XDOM contentXDOM = getDocumentDisplayer().display(this, parameters);
+                XDOM contentXDOM;
+                try (RequestTimer timer = RequestTimingTree.start(xcontext, RequestTimingTree.RENDERING)) {
+                    contentXDOM = getDocumentDisplayer().display(this, parameters);
+                }
 
                 // Render the result
                 renderedContent = renderXDOM(contentXDOM, targetSyntax);
@@ -50,6 +50,27 @@ public class WikiInitializerJob extends AbstractJob<WikiInitializerRequest, Wiki
      */
     public static final String JOBTYPE = "wiki.init";
 
+    /**
+     * The name of the step initializing the mandatory documents.
+     *
+     * @since 17.2.0RC1
+     */
+    public static final String STEP_MANDATORY_DOCUMENTS = "mandatoryDocuments";
+
+    /**
+     * The name of the step initializing the plugins.
+     *
+     * @since 17.2.0RC1
+     */
+    public static final String STEP_PLUGINS = "plugins";
+
+    /**
+     * The name of the step notifying the listeners that the wiki is ready.
+     *
+     * @since 17.2.0RC1
+     */
+    public static final String STEP_LISTENERS = "listeners";
+
     @Inject
     private Provider<XWikiContext> xcontextProvider;
 
@@ -72,6 +93,17 @@ public String getType()
         return JOBTYPE;
     }
 
+    private long endStep(String step, long stepStart)
+    {
+        long now = System.currentTimeMillis();
+
+        getStatus().setStepDuration(step, now - stepStart);
+        this.logger.debug("Step [{}] of the initialization of wiki [{}] took {}ms", step, getRequest().getWikiId(),
+            now - stepStart);
+
+        return now;
+    }
+
     @Override
     protected void runInternal() throws Exception
     {
@@ -91,12 +123,15 @@ protected void runInternal() throws Exception
             this.progressManager.startStep(this, "Initialize mandatory document");
 
             // Initialize mandatory document
+            long stepStart = System.currentTimeMillis();
             xcontext.getWiki().initializeMandatoryDocuments(xcontext);
+            stepStart = endStep(STEP_MANDATORY_DOCUMENTS, stepStart);
 
             this.progressManager.startStep(this, "Initialize plugins");
 
             // Initialize plugins
             xcontext.getWiki().getPluginManager().virtualInit(xcontext);
+            stepStart = endStep(STEP_PLUGINS, stepStart);
 
             this.logger.info("Initialization of wiki [{}] done", wikiId);
 
@@ -104,6 +139,7 @@ protected void runInternal() throws Exception
 
             // Send event to notify listeners that the subwiki is ready
             this.observation.notify(new WikiReadyEvent(wikiId), wikiId, xcontext);
+            endStep(STEP_LISTENERS, stepStart);
         } finally {
             this.progressManager.popLevelProgress(this);
         }
@@ -19,6 +19,10 @@
  */
 package com.xpn.xwiki.internal;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.xwiki.job.AbstractJobStatus;
 import org.xwiki.logging.LoggerManager;
 import org.xwiki.observation.ObservationManager;
@@ -31,6 +35,8 @@
  */
 public class WikiInitializerJobStatus extends AbstractJobStatus<WikiInitializerRequest>
 {
+    private final Map<String, Long> stepDurations = Collections.synchronizedMap(new LinkedHashMap<>());
+
     /**
      * @param request the request provided when started the job
      * @param observationManager the observation manager component
@@ -43,4 +49,23 @@ public WikiInitializerJobStatus(WikiInitializerRequest request, ObservationManag
 
         setIsolated(false);
     }
+
+    /**
+     * @return the time (in milliseconds) spent in each step of the wiki initialization, in execution order
+     * @since 17.2.0RC1
+     */
+    public Map<String, Long> getStepDurations()
+    {
+        return Collections.unmodifiableMap(this.stepDurations);
+    }
+
+    /**
+     * @param step the name of the initialization step
+     * @param duration the time (in milliseconds) spent in the step
+     * @since 17.2.0RC1
+     */
+    public void setStepDuration(String step, long duration)
+    {
+        this.stepDurations.put(step, duration);
+    }
 }
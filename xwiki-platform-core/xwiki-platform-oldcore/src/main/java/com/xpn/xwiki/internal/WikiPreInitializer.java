@@ -0,0 +1,251 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.environment.Environment;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Initialize in the background, right after startup, the wikis which were the most recently accessed before the
+ * restart, so that the first users don't have to wait for their initialization.
+ * <p>
+ * The date of the last access to each wiki is stored in the permanent directory and the wikis are initialized in a
+ * bounded pool of threads to not overload the database.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = WikiPreInitializer.class)
+@Singleton
+public class WikiPreInitializer implements Initializable, Disposable
+{
+    private static final String PREFIX = "wiki.preInitialization.";
+
+    /**
+     * The maximum number of wikis to remember.
+     */
+    private static final int MAX_ACCESSES = 10000;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @Inject
+    private ExecutionContextManager contextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The date of the last access to each wiki, indexed by wiki identifier.
+     */
+    private final Map<String, Long> accesses = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        File file = getFile();
+        if (file.exists()) {
+            Properties properties = new Properties();
+            try (InputStream stream = new FileInputStream(file)) {
+                properties.load(stream);
+
+                properties.forEach((wiki, date) -> this.accesses.put((String) wiki, Long.valueOf((String) date)));
+            } catch (Exception e) {
+                this.logger.warn("Failed to load the wiki accesses from [{}]: {}", file,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    /**
+     * Remember that the passed wiki was accessed.
+     *
+     * @param wikiId the identifier of the accessed wiki
+     */
+    public void onAccess(String wikiId)
+    {
+        Long previousAccess = this.accesses.put(wikiId, System.currentTimeMillis());
+
+        // Store the accesses right away when a new wiki is accessed since it's not that frequent
+        if (previousAccess == null) {
+            save();
+        }
+    }
+
+    /**
+     * Start the background initialization of the most recently accessed wikis, if enabled.
+     */
+    public void preInitialize()
+    {
+        int count = this.configuration.getProperty(PREFIX + "count", 0);
+        if (count <= 0) {
+            return;
+        }
+
+        List<String> wikis = this.accesses.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())).limit(count)
+            .map(Map.Entry::getKey).collect(Collectors.toList());
+
+        if (!wikis.isEmpty()) {
+            this.logger.info("Pre-initializing the [{}] most recently accessed wikis", wikis.size());
+
+            ExecutorService wikiExecutor = getExecutor();
+            for (String wiki : wikis) {
+                wikiExecutor.execute(() -> preInitialize(wiki));
+            }
+        }
+    }
+
+    private synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null) {
+            int threads = this.configuration.getProperty(PREFIX + "threads", 2);
+
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki wiki pre-initialization thread %d").daemon(true)
+                .priority(Thread.NORM_PRIORITY - 1).build();
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory);
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+            this.executor = threadPoolExecutor;
+        }
+
+        return this.executor;
+    }
+
+    private void preInitialize(String wikiId)
+    {
+        try {
+            this.contextManager.initialize(new ExecutionContext());
+
+            // Make sure the wiki still exists
+            if (this.wikiDescriptorManager.exists(wikiId)) {
+                XWikiContext xcontext = this.xcontextProvider.get();
+                xcontext.setWikiId(wikiId);
+                xcontext.setOriginalWikiId(wikiId);
+
+                // Wait for the end of the initialization to limit the number of wikis initialized at the same time
+                xcontext.getWiki().initializeWiki(wikiId, true, xcontext);
+            } else {
+                this.accesses.remove(wikiId);
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to pre-initialize the wiki [{}]: {}", wikiId,
+                ExceptionUtils.getRootCauseMessage(e));
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    private synchronized void save()
+    {
+        Properties properties = new Properties();
+        this.accesses.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())).limit(MAX_ACCESSES)
+            .forEach(entry -> properties.setProperty(entry.getKey(), entry.getValue().toString()));
+
+        File file = getFile();
+        try {
+            file.getParentFile().mkdirs();
+
+            // Write to a temporary file first so that a partially written file is never read
+            File temporaryFile = new File(file.getPath() + ".tmp");
+            try (OutputStream stream = new FileOutputStream(temporaryFile)) {
+                properties.store(stream, null);
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            this.logger.warn("Failed to store the wiki accesses in [{}]: {}", file, e.getMessage());
+        }
+    }
+
+    private File getFile()
+    {
+        return new File(this.environment.getPermanentDirectory(), "cache/wikis/accesses.properties");
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        synchronized (this) {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+            }
+        }
+
+        // Remember the latest accesses for the next startup
+        save();
+    }
+}
@@ -59,4 +59,24 @@ public boolean isMinify()
 
         return this.properties.getProperty("debug.minify", true);
     }
+
+    /**
+     * @return true if the time spent in the various subsystems should be sent to the client in a
+     *         {@code Server-Timing} HTTP header
+     * @since 17.2.0RC1
+     */
+    public boolean isServerTimingEnabled()
+    {
+        return this.properties.getProperty("debug.requestTimings.serverTiming", false);
+    }
+
+    /**
+     * @return the duration (in milliseconds) above which a request is logged with the time spent in the various
+     *         subsystems, a negative value to disable the log
+     * @since 17.2.0RC1
+     */
+    public long getSlowRequestThreshold()
+    {
+        return this.properties.getProperty("debug.requestTimings.slowRequestThreshold", -1L);
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A node of a {@link RequestTimingTree}, measuring the time spent in a subsystem (database, rights checking, template
+ * rendering, etc.) during the current request. Meant to be used in a try-with-resources statement.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+public final class RequestTimer implements AutoCloseable
+{
+    /**
+     * The timer returned when the current execution is not measured.
+     */
+    public static final RequestTimer NOOP = new RequestTimer(null, null, null, false);
+
+    private final RequestTimingTree tree;
+
+    private final RequestTimer parent;
+
+    private final String subsystem;
+
+    private final boolean outermost;
+
+    private final long start;
+
+    private long duration = -1;
+
+    private List<RequestTimer> children;
+
+    RequestTimer(RequestTimingTree tree, RequestTimer parent, String subsystem, boolean outermost)
+    {
+        this.tree = tree;
+        this.parent = parent;
+        this.subsystem = subsystem;
+        this.outermost = outermost;
+        this.start = tree != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @return the measured subsystem
+     */
+    public String getSubsystem()
+    {
+        return this.subsystem;
+    }
+
+    /**
+     * @return the time spent in the subsystem in nanoseconds, or the time elapsed since the timer was started if it's
+     *         not closed yet
+     */
+    public long getDuration()
+    {
+        return this.duration >= 0 ? this.duration : System.nanoTime() - this.start;
+    }
+
+    /**
+     * @return the measures of the subsystems called from this one
+     */
+    public List<RequestTimer> getChildren()
+    {
+        return this.children != null ? Collections.unmodifiableList(this.children) : Collections.emptyList();
+    }
+
+    RequestTimer getParent()
+    {
+        return this.parent;
+    }
+
+    /**
+     * @return true if the same subsystem is not already measured by one of the parents of this timer
+     */
+    boolean isOutermost()
+    {
+        return this.outermost;
+    }
+
+    void addChild(RequestTimer child)
+    {
+        if (this.children == null) {
+            this.children = new ArrayList<>();
+        }
+
+        this.children.add(child);
+    }
+
+    /**
+     * @return true if the timer was running
+     */
+    boolean stop()
+    {
+        if (this.duration < 0) {
+            this.duration = System.nanoTime() - this.start;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public void close()
+    {
+        if (this.tree != null) {
+            this.tree.stop(this);
+        }
+    }
+}
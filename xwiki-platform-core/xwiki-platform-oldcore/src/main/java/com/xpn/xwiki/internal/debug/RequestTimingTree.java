@@ -0,0 +1,342 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * The time spent in the various subsystems during a request, organized as a tree following the calls between the
+ * subsystems.
+ * <p>
+ * The tree is stored in the {@link XWikiContext} so that it follows the context when it's cloned or when the execution
+ * context is isolated, but only the thread which started the request is measured. The tree is not thread safe.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+public class RequestTimingTree
+{
+    /**
+     * The subsystem of the whole request.
+     */
+    public static final String TOTAL = "total";
+
+    /**
+     * The subsystem of the Hibernate store operations.
+     */
+    public static final String HIBERNATE = "hibernate";
+
+    /**
+     * The subsystem of the HQL query execution.
+     */
+    public static final String QUERY = "query";
+
+    /**
+     * The subsystem of the rights checking.
+     */
+    public static final String RIGHTS = "rights";
+
+    /**
+     * The subsystem of the template execution.
+     */
+    public static final String TEMPLATE = "template";
+
+    /**
+     * The subsystem of the document content execution (mainly macro transformations).
+     */
+    public static final String RENDERING = "rendering";
+
+    /**
+     * The maximum number of timers kept in the tree, the durations of the subsystems keep being updated after that.
+     */
+    static final int MAX_TIMERS = 1000;
+
+    private static final String CONTEXT_KEY = "debug.requestTimingTree";
+
+    private static final String MS = " ms";
+
+    private final String description;
+
+    private final boolean serverTimingEnabled;
+
+    private final Thread thread = Thread.currentThread();
+
+    private final Map<String, SubsystemTiming> subsystems = new LinkedHashMap<>();
+
+    private final RequestTimer root;
+
+    private RequestTimer current;
+
+    private int size;
+
+    /**
+     * The accumulated time spent in a subsystem during the request.
+     *
+     * @version $Id$
+     */
+    public static class SubsystemTiming
+    {
+        private long duration;
+
+        private int count;
+
+        private int running;
+
+        /**
+         * @return the time spent in the subsystem in nanoseconds
+         */
+        public long getDuration()
+        {
+            return this.duration;
+        }
+
+        /**
+         * @return the number of times the subsystem was called
+         */
+        public int getCount()
+        {
+            return this.count;
+        }
+    }
+
+    /**
+     * @param description a description of the request, used in the logs
+     * @param serverTimingEnabled true if the timings should be sent to the client
+     */
+    public RequestTimingTree(String description, boolean serverTimingEnabled)
+    {
+        this.description = description;
+        this.serverTimingEnabled = serverTimingEnabled;
+        this.root = new RequestTimer(this, null, TOTAL, true);
+        this.current = this.root;
+    }
+
+    /**
+     * @param xcontext the XWiki context of the request
+     * @return the timing tree of the request, or {@code null} if the request is not measured
+     */
+    public static RequestTimingTree get(XWikiContext xcontext)
+    {
+        if (xcontext != null) {
+            Object tree = xcontext.get(CONTEXT_KEY);
+            if (tree instanceof RequestTimingTree) {
+                return (RequestTimingTree) tree;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param xcontext the XWiki context of the request
+     * @param tree the timing tree of the request, {@code null} to stop measuring the request
+     */
+    static void set(XWikiContext xcontext, RequestTimingTree tree)
+    {
+        if (tree != null) {
+            xcontext.put(CONTEXT_KEY, tree);
+        } else {
+            xcontext.remove(CONTEXT_KEY);
+        }
+    }
+
+    /**
+     * Start measuring the time spent in a subsystem during the current request, if any.
+     *
+     * @param xcontext the XWiki context of the request
+     * @param subsystem the subsystem to measure
+     * @return the timer to close when leaving the subsystem
+     */
+    public static RequestTimer start(XWikiContext xcontext, String subsystem)
+    {
+        RequestTimingTree tree = get(xcontext);
+
+        return tree != null ? tree.start(subsystem) : RequestTimer.NOOP;
+    }
+
+    /**
+     * @param subsystem the subsystem to measure
+     * @return the timer to close when leaving the subsystem
+     */
+    public RequestTimer start(String subsystem)
+    {
+        if (this.current == null || Thread.currentThread() != this.thread) {
+            return RequestTimer.NOOP;
+        }
+
+        SubsystemTiming timing = this.subsystems.computeIfAbsent(subsystem, k -> new SubsystemTiming());
+        timing.count++;
+
+        RequestTimer timer = new RequestTimer(this, this.current, subsystem, timing.running++ == 0);
+
+        if (this.size < MAX_TIMERS) {
+            this.current.addChild(timer);
+            this.size++;
+        }
+
+        this.current = timer;
+
+        return timer;
+    }
+
+    void stop(RequestTimer timer)
+    {
+        if (timer.stop()) {
+            if (timer == this.root) {
+                this.current = null;
+            } else {
+                SubsystemTiming timing = this.subsystems.get(timer.getSubsystem());
+                timing.running--;
+                // Don't count twice the time spent in a subsystem calling itself
+                if (timer.isOutermost()) {
+                    timing.duration += timer.getDuration();
+                }
+
+                this.current = timer.getParent();
+            }
+        }
+    }
+
+    /**
+     * Stop measuring the request.
+     */
+    public void stop()
+    {
+        this.root.close();
+    }
+
+    /**
+     * @return a description of the request
+     */
+    public String getDescription()
+    {
+        return this.description;
+    }
+
+    /**
+     * @return true if the timings should be sent to the client
+     */
+    public boolean isServerTimingEnabled()
+    {
+        return this.serverTimingEnabled;
+    }
+
+    /**
+     * @return the duration of the request in nanoseconds
+     */
+    public long getDuration()
+    {
+        return this.root.getDuration();
+    }
+
+    /**
+     * @return the accumulated time spent in each subsystem
+     */
+    public Map<String, SubsystemTiming> getSubsystems()
+    {
+        return Collections.unmodifiableMap(this.subsystems);
+    }
+
+    /**
+     * @return the root of the tree
+     */
+    public RequestTimer getRoot()
+    {
+        return this.root;
+    }
+
+    /**
+     * @return the value of the {@code Server-Timing} HTTP header describing the current state of the tree
+     */
+    public String toServerTiming()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (Map.Entry<String, SubsystemTiming> entry : this.subsystems.entrySet()) {
+            appendServerTiming(builder, entry.getKey(), entry.getValue().getDuration());
+            builder.append(", ");
+        }
+        appendServerTiming(builder, TOTAL, getDuration());
+
+        return builder.toString();
+    }
+
+    private void appendServerTiming(StringBuilder builder, String name, long duration)
+    {
+        builder.append(name);
+        builder.append(";dur=");
+        builder.append(toMilliseconds(duration));
+    }
+
+    private static String toMilliseconds(long duration)
+    {
+        return String.format(Locale.ROOT, "%.1f", duration / 1000000.0);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(TOTAL).append(' ').append(toMilliseconds(getDuration())).append(MS);
+        append(builder, this.root.getChildren(), 1);
+        if (this.size >= MAX_TIMERS) {
+            builder.append('\n').append("(truncated)");
+        }
+
+        return builder.toString();
+    }
+
+    private void append(StringBuilder builder, List<RequestTimer> timers, int depth)
+    {
+        // Merge the calls to the same subsystem to keep the output readable (e.g. the many Hibernate calls)
+        Map<String, List<RequestTimer>> groups = new LinkedHashMap<>();
+        for (RequestTimer timer : timers) {
+            groups.computeIfAbsent(timer.getSubsystem(), k -> new ArrayList<>()).add(timer);
+        }
+
+        for (Map.Entry<String, List<RequestTimer>> group : groups.entrySet()) {
+            long duration = 0;
+            List<RequestTimer> children = new ArrayList<>();
+            for (RequestTimer timer : group.getValue()) {
+                duration += timer.getDuration();
+                children.addAll(timer.getChildren());
+            }
+
+            builder.append('\n');
+            builder.append(StringUtils.repeat(' ', depth * 2));
+            builder.append(group.getKey()).append(' ').append(toMilliseconds(duration)).append(MS);
+            if (group.getValue().size() > 1) {
+                builder.append(" (").append(group.getValue().size()).append(" calls)");
+            }
+
+            append(builder, children, depth + 1);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.management.JMXBeanRegistration;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.debug.jmx.JMXRequestTimings;
+
+/**
+ * Measure the time spent in the various subsystems during the requests and aggregate the result in per subsystem
+ * histograms exposed through JMX.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = RequestTimings.class)
+@Singleton
+public class RequestTimings implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "name=requesttimings";
+
+    @Inject
+    private DebugConfiguration configuration;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, TimingHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize()
+    {
+        this.jmxRegistration.registerMBean(
+            new JMXRequestTimings(() -> Collections.unmodifiableMap(this.histograms), this.histograms::clear),
+            MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
+    /**
+     * Start measuring the current request.
+     *
+     * @param description a description of the request, used in the logs, so it must not contain secrets such as the
+     *            query string of the request URL
+     * @param xcontext the XWiki context of the request
+     */
+    public void start(String description, XWikiContext xcontext)
+    {
+        RequestTimingTree.set(xcontext,
+            new RequestTimingTree(description, this.configuration.isServerTimingEnabled()));
+    }
+
+    /**
+     * Stop measuring the current request and record its timings.
+     *
+     * @param xcontext the XWiki context of the request
+     */
+    public void stop(XWikiContext xcontext)
+    {
+        RequestTimingTree tree = RequestTimingTree.get(xcontext);
+        if (tree == null) {
+            return;
+        }
+
+        RequestTimingTree.set(xcontext, null);
+        tree.stop();
+
+        tree.getSubsystems().forEach((subsystem, timing) -> getHistogram(subsystem).record(timing.getDuration()));
+        getHistogram(RequestTimingTree.TOTAL).record(tree.getDuration());
+
+        long threshold = this.configuration.getSlowRequestThreshold();
+        if (threshold >= 0 && TimeUnit.NANOSECONDS.toMillis(tree.getDuration()) >= threshold) {
+            this.logger.warn("Slow request [{}]:\n{}", tree.getDescription(), tree);
+        }
+    }
+
+    private TimingHistogram getHistogram(String subsystem)
+    {
+        return this.histograms.computeIfAbsent(subsystem, k -> new TimingHistogram());
+    }
+
+    /**
+     * @return the time spent in each subsystem since the start or the last reset
+     */
+    public Map<String, TimingHistogram> getHistograms()
+    {
+        return Collections.unmodifiableMap(this.histograms);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe distribution of the time spent in a subsystem per request.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+public class TimingHistogram
+{
+    /**
+     * The upper bounds (inclusive) of the buckets, in milliseconds.
+     */
+    private static final long[] BOUNDS = {1, 5, 10, 50, 100, 500, 1000, 5000, 10000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder duration = new LongAdder();
+
+    /**
+     * @param nanoseconds the time spent in the subsystem during a request
+     */
+    public void record(long nanoseconds)
+    {
+        long milliseconds = TimeUnit.NANOSECONDS.toMillis(nanoseconds);
+
+        int index = 0;
+        while (index < BOUNDS.length && milliseconds > BOUNDS[index]) {
+            index++;
+        }
+
+        this.buckets.incrementAndGet(index);
+        this.count.increment();
+        this.duration.add(nanoseconds);
+    }
+
+    /**
+     * @return the number of requests which called the subsystem
+     */
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the total time spent in the subsystem in milliseconds
+     */
+    public long getDuration()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.duration.sum());
+    }
+
+    /**
+     * @return the number of requests per duration range, indexed by the upper bound of the range
+     */
+    public Map<String, Long> getBuckets()
+    {
+        Map<String, Long> result = new LinkedHashMap<>();
+
+        for (int i = 0; i < BOUNDS.length; ++i) {
+            result.put("<=" + BOUNDS[i] + "ms", this.buckets.get(i));
+        }
+        result.put(">" + BOUNDS[BOUNDS.length - 1] + "ms", this.buckets.get(BOUNDS.length));
+
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug.jmx;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.xpn.xwiki.internal.debug.TimingHistogram;
+
+/**
+ * Implementation of the JMXRequestTimings MBean.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+public class JMXRequestTimings implements JMXRequestTimingsMBean
+{
+    private final Supplier<Map<String, TimingHistogram>> histograms;
+
+    private final Runnable reset;
+
+    /**
+     * @param histograms the histograms supplier
+     * @param reset the action to execute to forget the collected timings
+     */
+    public JMXRequestTimings(Supplier<Map<String, TimingHistogram>> histograms, Runnable reset)
+    {
+        this.histograms = histograms;
+        this.reset = reset;
+    }
+
+    @Override
+    public Map<String, Long> getCounts()
+    {
+        return collect(TimingHistogram::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getDurations()
+    {
+        return collect(TimingHistogram::getDuration);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getHistograms()
+    {
+        return collect(TimingHistogram::getBuckets);
+    }
+
+    @Override
+    public void reset()
+    {
+        this.reset.run();
+    }
+
+    private <T> Map<String, T> collect(Function<TimingHistogram, T> function)
+    {
+        Map<String, T> result = new LinkedHashMap<>();
+
+        this.histograms.get().forEach((subsystem, histogram) -> result.put(subsystem, function.apply(histogram)));
+
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug.jmx;
+
+import java.util.Map;
+
+/**
+ * Interface of the {@link JMXRequestTimings} MBean.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+public interface JMXRequestTimingsMBean
+{
+    /**
+     * @return the number of requests which called each subsystem
+     */
+    Map<String, Long> getCounts();
+
+    /**
+     * @return the total time spent in each subsystem, in milliseconds
+     */
+    Map<String, Long> getDurations();
+
+    /**
+     * @return the number of requests per duration range, for each subsystem
+     */
+    Map<String, Map<String, Long>> getHistograms();
+
+    /**
+     * Forget the collected timings.
+     */
+    void reset();
+}
@@ -0,0 +1,283 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+
+/**
+ * Remember, for each wiki, the fingerprint of the {@link MandatoryDocumentInitializer}s which were last applied and
+ * the resulting version of their document, so that the documents which are already up to date don't have to be loaded
+ * again when the wiki is initialized.
+ * <p>
+ * The fingerprints are stored in the permanent directory and an entry is forgotten as soon as the corresponding
+ * document is modified or deleted. The version of the document is also checked in the database before skipping an
+ * initializer, in case the document was modified while this instance was not running.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = MandatoryDocumentFingerprints.class)
+@Singleton
+public class MandatoryDocumentFingerprints
+{
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final String VERSION_SEPARATOR = " ";
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The fingerprints indexed by wiki and then by local document reference.
+     */
+    private final Map<String, Properties> wikis = new ConcurrentHashMap<>();
+
+    /**
+     * The wikis for which the fingerprints were modified since they were last stored.
+     */
+    private final Set<String> modifiedWikis = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Find the initializers which were already applied, with the same fingerprint, to the current version of their
+     * document. The versions of the documents are retrieved with a single query.
+     *
+     * @param initializers the initializers to check
+     * @param documentReferences the references of the documents to initialize, in the same order as the initializers
+     * @param wiki the identifier of the wiki in which the documents are initialized
+     * @return the initializers which don't need to be executed
+     */
+    public Set<MandatoryDocumentInitializer> getUpToDate(List<MandatoryDocumentInitializer> initializers,
+        List<DocumentReference> documentReferences, String wiki)
+    {
+        Properties fingerprints = getFingerprints(wiki);
+
+        // Find the documents for which a fingerprint was stored, with the version produced by the initializer
+        Map<String, MandatoryDocumentInitializer> candidates = new HashMap<>();
+        Map<String, String> versions = new HashMap<>();
+        for (int i = 0; i < initializers.size(); ++i) {
+            DocumentReference documentReference = documentReferences.get(i);
+            if (documentReference.getWikiReference().getName().equals(wiki)) {
+                String localReference = this.localSerializer.serialize(documentReference);
+                String value = fingerprints.getProperty(localReference);
+                if (value != null) {
+                    MandatoryDocumentInitializer initializer = initializers.get(i);
+                    String version = StringUtils.substringBefore(value, VERSION_SEPARATOR);
+                    if (value.equals(toValue(initializer, initializer.getFingerprint(), version))) {
+                        candidates.put(localReference, initializer);
+                        versions.put(localReference, version);
+                    }
+                }
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        // Make sure the documents were not modified (or deleted) since the initializers were applied
+        Set<MandatoryDocumentInitializer> upToDate = new HashSet<>();
+        try {
+            Query query = this.queryManager.createQuery("select doc.fullName, doc.version from XWikiDocument doc "
+                + "where doc.language = '' and doc.fullName in (:documents)", Query.HQL);
+            query.bindValue("documents", candidates.keySet());
+            query.setWiki(wiki);
+
+            for (Object[] result : query.<Object[]>execute()) {
+                if (result[1].equals(versions.get(result[0]))) {
+                    upToDate.add(candidates.get(result[0]));
+                }
+            }
+        } catch (QueryException e) {
+            this.logger.warn("Failed to get the versions of the mandatory documents of wiki [{}]: {}", wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return upToDate;
+    }
+
+    /**
+     * Remember that the passed initializer was applied to the document. Call {@link #save(String)} to make it
+     * persistent.
+     *
+     * @param documentReference the reference of the initialized document
+     * @param initializer the initializer of the document
+     * @param version the version of the document after the initialization
+     */
+    public void setUpToDate(DocumentReference documentReference, MandatoryDocumentInitializer initializer,
+        String version)
+    {
+        Properties fingerprints = getFingerprints(documentReference.getWikiReference().getName());
+        String localReference = this.localSerializer.serialize(documentReference);
+
+        String value = toValue(initializer, initializer.getFingerprint(), version);
+        Object previousValue =
+            value != null ? fingerprints.setProperty(localReference, value) : fingerprints.remove(localReference);
+
+        if (!Objects.equals(value, previousValue)) {
+            this.modifiedWikis.add(documentReference.getWikiReference().getName());
+        }
+    }
+
+    /**
+     * Forget the fingerprint associated with the passed document, if any.
+     *
+     * @param documentReference the reference of the modified document
+     */
+    public void invalidate(DocumentReference documentReference)
+    {
+        String wiki = documentReference.getWikiReference().getName();
+
+        if (getFingerprints(wiki).remove(this.localSerializer.serialize(documentReference)) != null) {
+            this.modifiedWikis.add(wiki);
+
+            save(wiki);
+        }
+    }
+
+    /**
+     * Forget all the fingerprints associated with the passed wiki.
+     *
+     * @param wiki the identifier of the deleted wiki
+     */
+    public void remove(String wiki)
+    {
+        this.wikis.remove(wiki);
+        this.modifiedWikis.remove(wiki);
+
+        FileUtils.deleteQuietly(getFile(wiki));
+    }
+
+    /**
+     * Store the fingerprints of the passed wiki in the permanent directory, if they were modified.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void save(String wiki)
+    {
+        if (!this.modifiedWikis.remove(wiki)) {
+            return;
+        }
+
+        Properties fingerprints = getFingerprints(wiki);
+        File file = getFile(wiki);
+
+        // Don't let several threads write the same file
+        synchronized (fingerprints) {
+            try {
+                file.getParentFile().mkdirs();
+
+                // Write to a temporary file first so that a partially written file is never read
+                File temporaryFile = new File(file.getPath() + TEMPORARY_SUFFIX);
+                try (OutputStream stream = new FileOutputStream(temporaryFile)) {
+                    fingerprints.store(stream, null);
+                }
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                this.logger.warn("Failed to store the mandatory document fingerprints of wiki [{}] in [{}]: {}", wiki,
+                    file, e.getMessage());
+            }
+        }
+    }
+
+    private Properties getFingerprints(String wiki)
+    {
+        return this.wikis.computeIfAbsent(wiki, this::load);
+    }
+
+    private Properties load(String wiki)
+    {
+        Properties fingerprints = new Properties();
+
+        File file = getFile(wiki);
+        if (file.exists()) {
+            try (InputStream stream = new FileInputStream(file)) {
+                fingerprints.load(stream);
+            } catch (IOException e) {
+                // Not a big deal, the mandatory documents will be loaded
+                this.logger.warn("Failed to load the mandatory document fingerprints of wiki [{}] from [{}]: {}", wiki,
+                    file, e.getMessage());
+            }
+        }
+
+        return fingerprints;
+    }
+
+    private File getFile(String wiki)
+    {
+        File directory = new File(this.environment.getPermanentDirectory(), "cache/mandatorydocuments");
+
+        return new File(directory, wiki + ".properties");
+    }
+
+    private String toValue(MandatoryDocumentInitializer initializer, String fingerprint, String version)
+    {
+        if (fingerprint == null) {
+            return null;
+        }
+
+        // A different initializer implementation might produce a different document for the same fingerprint
+        return version + VERSION_SEPARATOR + initializer.getClass().getName() + ':' + fingerprint;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.Arrays;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Invalidate the {@link MandatoryDocumentFingerprints} when a mandatory document is modified.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component
+@Named(MandatoryDocumentFingerprintsListener.NAME)
+@Singleton
+public class MandatoryDocumentFingerprintsListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "com.xpn.xwiki.internal.doc.MandatoryDocumentFingerprintsListener";
+
+    @Inject
+    private MandatoryDocumentFingerprints fingerprints;
+
+    /**
+     * Default constructor.
+     */
+    public MandatoryDocumentFingerprintsListener()
+    {
+        super(NAME, Arrays.asList(new DocumentUpdatedEvent(), new DocumentDeletedEvent(), new WikiDeletedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof WikiDeletedEvent) {
+            this.fingerprints.remove(((WikiDeletedEvent) event).getWikiId());
+        } else {
+            this.fingerprints.invalidate(((XWikiDocument) source).getDocumentReference());
+        }
+    }
+}
@@ -20,22 +20,38 @@
 package com.xpn.xwiki.internal.filter.output;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.filter.FilterDescriptorManager;
 import org.xwiki.filter.FilterEventParameters;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.event.model.WikiDocumentFilter;
 import org.xwiki.filter.instance.output.DocumentInstanceOutputProperties;
 import org.xwiki.filter.output.AbstractBeanOutputFilterStream;
+import org.xwiki.logging.LogQueue;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.event.LoggerListener;
 import org.xwiki.logging.marker.TranslationMarker;
 import org.xwiki.model.document.DocumentAuthors;
 import org.xwiki.model.reference.DocumentReference;
@@ -66,6 +82,9 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     private static final TranslationMarker LOG_DOCUMENT_FAILSAVE =
         new TranslationMarker("filter.instance.log.document.failsave", WikiDocumentFilter.LOG_DOCUMENT_ERROR);
 
+    private static final TranslationMarker LOG_DOCUMENT_SAVED =
+        new TranslationMarker("filter.instance.log.document.saved");
+
     @Inject
     private FilterDescriptorManager filterManager;
 
@@ -79,11 +98,34 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     @Named("document")
     private UserReferenceResolver<DocumentReference> documentReferenceUserReferenceResolver;
 
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private LoggerManager loggerManager;
+
     @Inject
     private Logger logger;
 
     private boolean firstVersion;
 
+    private ExecutorService saveExecutor;
+
+    /**
+     * The documents currently being saved by the {@link #saveExecutor}, in submission order, with the log produced by
+     * each save.
+     */
+    private final Map<DocumentReference, Future<LogQueue>> pendingSaves = new LinkedHashMap<>();
+
+    private volatile FilterException saveFailure;
+
+    private long savedDocuments;
+
+    private long saveStartTime;
+
     private FilterEventParameters currentLocaleParameters;
 
     private FilterEventParameters currentRevisionParameters;
@@ -97,7 +139,22 @@ protected Object createFilter() throws FilterException
     @Override
     public void close() throws IOException
     {
-        // Nothing to close
+        if (this.saveExecutor != null) {
+            try {
+                waitForPendingSaves();
+            } catch (FilterException e) {
+                throw new IOException("Failed to save documents", e);
+            } finally {
+                this.saveExecutor.shutdown();
+                this.saveExecutor = null;
+            }
+        }
+
+        if (this.savedDocuments > 0 && this.properties.isVerbose()) {
+            long duration = Math.max(1, System.currentTimeMillis() - this.saveStartTime);
+            this.logger.info(LOG_DOCUMENT_SAVED, "Saved [{}] documents in [{}] ms ([{}] documents per second)",
+                this.savedDocuments, duration, this.savedDocuments * 1000 / duration);
+        }
     }
 
     @Override
@@ -177,8 +234,132 @@ private void maybeSaveDocument() throws FilterException
             return;
         }
 
-        boolean hasJRCSHistory = inputDocument.getDocumentArchive() != null;
+        if (this.saveStartTime == 0) {
+            this.saveStartTime = System.currentTimeMillis();
+        }
+        this.savedDocuments++;
 
+        if (this.properties.getSaveThreads() > 1) {
+            saveDocumentAsync(inputDocument, this.firstVersion);
+        } else {
+            saveDocument(inputDocument, this.firstVersion);
+        }
+    }
+
+    private void saveDocumentAsync(XWikiDocument inputDocument, boolean firstVersion) throws FilterException
+    {
+        checkSaveFailure();
+
+        DocumentReference documentReference = inputDocument.getDocumentReference();
+
+        // Make sure the revisions (and locales) of a document are saved in the right order
+        waitForSave(this.pendingSaves.remove(documentReference));
+
+        if (!inputDocument.getXClass().getPropertyList().isEmpty()) {
+            // Make sure a class is saved before the objects which follow it, and after the ones which precede it
+            waitForPendingSaves();
+            saveDocument(inputDocument, firstVersion);
+
+            return;
+        }
+
+        // Don't keep too many documents in memory
+        int maxPendingSaves = this.properties.getSaveThreads() * 2;
+        Iterator<Future<LogQueue>> iterator = this.pendingSaves.values().iterator();
+        while (iterator.hasNext()) {
+            Future<LogQueue> pendingSave = iterator.next();
+            if (pendingSave.isDone() || this.pendingSaves.size() >= maxPendingSaves) {
+                iterator.remove();
+                waitForSave(pendingSave);
+            }
+        }
+
+        ExecutionContext saveContext = cloneExecutionContext();
+
+        this.pendingSaves.put(documentReference, getSaveExecutor().submit(() -> {
+            // Collect the log of the save so that it can be logged by the import thread (and end up in the job log)
+            LogQueue logs = new LogQueue();
+
+            this.execution.setContext(saveContext);
+            this.loggerManager.pushLogListener(new LoggerListener(UUID.randomUUID().toString(), logs));
+            try {
+                saveDocument(inputDocument, firstVersion);
+            } catch (FilterException e) {
+                this.saveFailure = e;
+            } finally {
+                this.loggerManager.popLogListener();
+                this.execution.removeContext();
+            }
+
+            return logs;
+        }));
+    }
+
+    private ExecutionContext cloneExecutionContext() throws FilterException
+    {
+        ExecutionContext executionContext = this.execution.getContext();
+
+        try {
+            ExecutionContext clonedContext = this.executionContextManager.clone(executionContext);
+
+            // Each save thread needs its own copy of the XWiki context of the import (wiki, user, request, etc.)
+            this.xcontextProvider.get().clone().declareInExecutionContext(clonedContext);
+
+            return clonedContext;
+        } catch (ExecutionContextException e) {
+            throw new FilterException("Failed to initialize the document save context", e);
+        }
+    }
+
+    private ExecutorService getSaveExecutor()
+    {
+        if (this.saveExecutor == null) {
+            BasicThreadFactory factory =
+                new BasicThreadFactory.Builder().namingPattern("XWiki document import thread %d").daemon(true).build();
+            this.saveExecutor = Executors.newFixedThreadPool(this.properties.getSaveThreads(), factory);
+        }
+
+        return this.saveExecutor;
+    }
+
+    private void waitForPendingSaves() throws FilterException
+    {
+        for (Iterator<Future<LogQueue>> iterator = this.pendingSaves.values().iterator(); iterator.hasNext();) {
+            Future<LogQueue> pendingSave = iterator.next();
+            iterator.remove();
+            waitForSave(pendingSave);
+        }
+
+        checkSaveFailure();
+    }
+
+    private void waitForSave(Future<LogQueue> pendingSave) throws FilterException
+    {
+        if (pendingSave != null) {
+            try {
+                pendingSave.get().log(this.logger);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new FilterException("Interrupted while waiting for a document to be saved", e);
+            } catch (ExecutionException e) {
+                throw new FilterException("Failed to save document", e.getCause());
+            }
+        }
+    }
+
+    private void checkSaveFailure() throws FilterException
+    {
+        FilterException failure = this.saveFailure;
+        if (failure != null) {
+            this.saveFailure = null;
+
+            throw failure;
+        }
+    }
+
+    private void saveDocument(XWikiDocument inputDocument, boolean firstVersion) throws FilterException
+    {
         XWikiContext xcontext = this.xcontextProvider.get();
 
         try {
@@ -192,7 +373,7 @@ private void maybeSaveDocument() throws FilterException
             databaseDocument.loadAttachmentsContentSafe(xcontext);
 
             XWikiDocument document;
-            if (this.firstVersion && this.properties.isPreviousDeleted()) {
+            if (firstVersion && this.properties.isPreviousDeleted()) {
                 // We want to replace the existing document
                 document = inputDocument;
 
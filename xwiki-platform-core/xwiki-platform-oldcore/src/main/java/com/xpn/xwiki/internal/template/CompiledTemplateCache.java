@@ -0,0 +1,183 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.template;
+
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.velocity.VelocityManager;
+import org.xwiki.velocity.VelocityTemplate;
+import org.xwiki.velocity.XWikiVelocityException;
+
+import com.xpn.xwiki.internal.template.jmx.JMXCompiledTemplateCache;
+
+/**
+ * Keep the compiled Velocity of the templates, indexed by content, so that the same content is compiled only once
+ * whatever the number of templates (skins, wikis, extensions, etc.) sharing it.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = CompiledTemplateCache.class)
+@Singleton
+public class CompiledTemplateCache implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "name=compiledtemplatecache";
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private VelocityManager velocityManager;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private int maxSize;
+
+    /**
+     * The compiled templates, indexed by content hash and ordered from the least to the most recently used.
+     */
+    private Map<String, VelocityTemplate> templates;
+
+    /**
+     * The hash of the last content compiled for each template identifier, used to invalidate the entries of the
+     * modified templates.
+     */
+    private Map<String, String> hashes;
+
+    @Override
+    public void initialize()
+    {
+        this.maxSize = this.configuration.getProperty("template.compiledCache.size", 1000);
+
+        this.templates = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VelocityTemplate> eldest)
+            {
+                return size() > CompiledTemplateCache.this.maxSize;
+            }
+        };
+        this.hashes = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+            {
+                return size() > CompiledTemplateCache.this.maxSize;
+            }
+        };
+
+        this.jmxRegistration.registerMBean(new JMXCompiledTemplateCache(this.hits::sum, this.misses::sum,
+            this.invalidations::sum, this::size, this::clear), MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
+    /**
+     * Return the compiled Velocity of the passed content from the cache, or compile and cache it.
+     *
+     * @param templateId the identifier of the template, used when compiling the content
+     * @param content the Velocity content of the template
+     * @return the compiled Velocity
+     * @throws XWikiVelocityException when failing to compile the content
+     */
+    public VelocityTemplate getVelocityTemplate(String templateId, String content) throws XWikiVelocityException
+    {
+        if (this.maxSize <= 0) {
+            return this.velocityManager.compile(templateId, new StringReader(content));
+        }
+
+        String hash = DigestUtils.sha256Hex(content);
+
+        VelocityTemplate template;
+        synchronized (this) {
+            template = this.templates.get(hash);
+            this.hashes.put(templateId, hash);
+        }
+
+        if (template != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+
+            template = this.velocityManager.compile(templateId, new StringReader(content));
+
+            synchronized (this) {
+                this.templates.put(hash, template);
+            }
+        }
+
+        return template;
+    }
+
+    /**
+     * Remove the compiled content of the passed template from the cache.
+     *
+     * @param templateId the identifier of the modified template
+     */
+    public synchronized void invalidate(String templateId)
+    {
+        String hash = this.hashes.remove(templateId);
+        if (hash != null && this.templates.remove(hash) != null) {
+            this.invalidations.increment();
+        }
+    }
+
+    /**
+     * @return the number of compiled templates in the cache
+     */
+    public synchronized int size()
+    {
+        return this.templates.size();
+    }
+
+    /**
+     * Remove all the entries of the cache.
+     */
+    public synchronized void clear()
+    {
+        this.templates.clear();
+        this.hashes.clear();
+    }
+}
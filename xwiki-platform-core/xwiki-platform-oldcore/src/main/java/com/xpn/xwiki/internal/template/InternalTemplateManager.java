@@ -103,6 +103,9 @@
 import org.xwiki.template.TemplateRequirementsException;
 
 import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.debug.RequestTimer;
+import com.xpn.xwiki.internal.debug.RequestTimingTree;
 import com.xpn.xwiki.internal.skin.AbstractSkinResource;
 import com.xpn.xwiki.internal.skin.InternalSkinManager;
 import com.xpn.xwiki.internal.skin.WikiResource;
@@ -192,6 +195,9 @@ public class InternalTemplateManager implements Initializable, Disposable
     @Inject
     private CacheControl cacheControl;
 
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
     @Inject
     private Logger logger;
 
@@ -901,7 +907,10 @@ public void render(Template template, boolean inline, Writer writer) throws Exce
 
         AsyncRendererConfiguration configuration = configure(renderer, template, inline, false);
 
-        String result = this.asyncExecutor.render(renderer, configuration);
+        String result;
+        try (RequestTimer timer = RequestTimingTree.start(this.xcontextProvider.get(), RequestTimingTree.TEMPLATE)) {
+            result = this.asyncExecutor.render(renderer, configuration);
+        }
 
         writer.append(result);
     }
@@ -986,7 +995,10 @@ public Block execute(Template template, boolean inline) throws Exception
 
         AsyncRendererConfiguration configuration = configure(renderer, template, inline, true);
 
-        Block block = this.asyncExecutor.execute(renderer, configuration);
+        Block block;
+        try (RequestTimer timer = RequestTimingTree.start(this.xcontextProvider.get(), RequestTimingTree.TEMPLATE)) {
+            block = this.asyncExecutor.execute(renderer, configuration);
+        }
 
         if (inline) {
             return block;
@@ -21,6 +21,7 @@
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
@@ -58,6 +59,12 @@ public class TemplateListener extends AbstractEventListener
     @Inject
     private ObservationManager observation;
 
+    /**
+     * Lazily loaded to avoid initializing the Velocity engine when loading the listener.
+     */
+    @Inject
+    private Provider<CompiledTemplateCache> compiledCacheProvider;
+
     /**
      * Default constructor.
      */
@@ -78,6 +85,7 @@ public void onEvent(Event event, Object source, Object data)
                 AttachmentReference attachment = new AttachmentReference(((AbstractAttachmentEvent) event).getName(),
                     document.getDocumentReference());
                 String id = this.referenceSerializer.serialize(attachment);
+                this.compiledCacheProvider.get().invalidate(id);
                 if (event instanceof AttachmentDeletedEvent) {
                     this.observation.notify(new TemplateDeletedEvent(id), this);
                 } else if (event instanceof AttachmentUpdatedEvent) {
@@ -85,6 +93,7 @@ public void onEvent(Event event, Object source, Object data)
                 }
             } else if (event instanceof XObjectPropertyEvent) {
                 String id = this.referenceSerializer.serialize(((XObjectPropertyEvent) event).getReference());
+                this.compiledCacheProvider.get().invalidate(id);
                 if (event instanceof XObjectPropertyDeletedEvent) {
                     this.observation.notify(new TemplateDeletedEvent(id), this);
                 } else if (event instanceof XObjectPropertyUpdatedEvent) {
@@ -64,6 +64,9 @@
     @Inject
     private VelocityManager velocityManager;
 
+    @Inject
+    private CompiledTemplateCache compiledCache;
+
     /**
      * @param template the template to execute
      * @param content the template content to execute
@@ -130,9 +133,9 @@ private VelocityTemplate getVelocityTemplate(Template template, TemplateContent
                 // Velocity is not a fan of null template name
                 String templateId = Objects.toString(template.getId(), "unknown template");
 
-                // Compile the Velocity
+                // Compile the Velocity (or reuse the one of another template with the same content)
                 templateContent.compiledContent =
-                    this.velocityManager.compile(templateId, new StringReader(content.getContent()));
+                    this.compiledCache.getVelocityTemplate(templateId, content.getContent());
             }
 
             return (VelocityTemplate) templateContent.compiledContent;
@@ -0,0 +1,100 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.template.jmx;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Implementation of the JMXCompiledTemplateCache MBean.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+public class JMXCompiledTemplateCache implements JMXCompiledTemplateCacheMBean
+{
+    private final LongSupplier hits;
+
+    private final LongSupplier misses;
+
+    private final LongSupplier invalidations;
+
+    private final IntSupplier size;
+
+    private final Runnable clear;
+
+    /**
+     * Let the method initializing the MBean provide the suppliers for the MBean operations.
+     *
+     * @param hits the hits supplier
+     * @param misses the misses supplier
+     * @param invalidations the invalidations supplier
+     * @param size the size supplier
+     * @param clear the action to execute to clear the cache
+     */
+    public JMXCompiledTemplateCache(LongSupplier hits, LongSupplier misses, LongSupplier invalidations,
+        IntSupplier size, Runnable clear)
+    {
+        this.hits = hits;
+        this.misses = misses;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.clear = clear;
+    }
+
+    @Override
+    public long getHits()
+    {
+        return this.hits.getAsLong();
+    }
+
+    @Override
+    public long getMisses()
+    {
+        return this.misses.getAsLong();
+    }
+
+    @Override
+    public double getHitRate()
+    {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+
+        return total > 0 ? (double) hitCount / total : 0;
+    }
+
+    @Override
+    public long getInvalidations()
+    {
+        return this.invalidations.getAsLong();
+    }
+
+    @Override
+    public int getSize()
+    {
+        return this.size.getAsInt();
+    }
+
+    @Override
+    public void clear()
+    {
+        this.clear.run();
+    }
+}
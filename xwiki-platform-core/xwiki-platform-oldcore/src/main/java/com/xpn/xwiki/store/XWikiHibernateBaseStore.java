@@ -46,6 +46,8 @@
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.debug.RequestTimer;
+import com.xpn.xwiki.internal.debug.RequestTimingTree;
 import com.xpn.xwiki.internal.store.AbstractXWikiStore;
 import com.xpn.xwiki.internal.store.hibernate.HibernateConfiguration;
 import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
@@ -837,6 +839,7 @@ public <T> T execute(XWikiContext inputxcontext, boolean doCommit, HibernateCall
             if (monitor != null) {
                 monitor.startTimer(XWikiHibernateBaseStore.HINT);
             }
+            RequestTimer timer = RequestTimingTree.start(context, RequestTimingTree.HIBERNATE);
 
             try {
                 // Make sure Hibernate is initialized
@@ -871,6 +874,7 @@ public <T> T execute(XWikiContext inputxcontext, boolean doCommit, HibernateCall
                     }
                 }
             } finally {
+                timer.close();
                 if (monitor != null) {
                     // Stop the monitor
                     monitor.endTimer(XWikiHibernateBaseStore.HINT);
@@ -52,11 +52,14 @@
 import org.xwiki.query.QueryParameter;
 import org.xwiki.query.SecureQuery;
 import org.xwiki.query.WrappingQuery;
+import org.xwiki.query.hql.internal.HQLQueryCache;
 import org.xwiki.query.hql.internal.HQLStatementValidator;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.debug.RequestTimer;
+import com.xpn.xwiki.internal.debug.RequestTimingTree;
 import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
 import com.xpn.xwiki.internal.store.hibernate.query.HqlQueryUtils;
 import com.xpn.xwiki.store.XWikiHibernateStore;
@@ -101,6 +104,9 @@ public class HqlQueryExecutor implements QueryExecutor, Initializable
     @Inject
     private HQLStatementValidator queryValidator;
 
+    @Inject
+    private HQLQueryCache queryCache;
+
     @Inject
     private Logger logger;
 
@@ -192,7 +198,7 @@ private void checkAllowed(SecureQuery secureQuery) throws QueryException
     public <T> List<T> execute(final Query query) throws QueryException
     {
         String oldDatabase = getContext().getWikiId();
-        try {
+        try (RequestTimer timer = RequestTimingTree.start(getContext(), RequestTimingTree.QUERY)) {
             if (query.getWiki() != null) {
                 getContext().setWikiId(query.getWiki());
             }
@@ -203,12 +209,13 @@ public <T> List<T> execute(final Query query) throws QueryException
             // Filter the query
             Query filteredQuery = filterQuery(query);
 
-            // Execute the query
-            List<T> results = getStore().executeRead(getContext(), session -> {
-                org.hibernate.query.Query<T> hquery = createQuery(session, filteredQuery);
+            // Execute the query (or get its results from the cache)
+            List<T> results = this.queryCache.getResults(filteredQuery,
+                () -> getStore().executeRead(getContext(), session -> {
+                    org.hibernate.query.Query<T> hquery = createQuery(session, filteredQuery);
 
-                return hquery.list();
-            });
+                    return hquery.list();
+                }));
 
             // Filter the query result
             if (query.getFilters() != null && !query.getFilters().isEmpty()) {
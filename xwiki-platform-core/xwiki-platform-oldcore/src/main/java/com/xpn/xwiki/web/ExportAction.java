@@ -299,6 +299,8 @@ private String exportXAR(XWikiContext context) throws XWikiException, IOExceptio
                 }
                 xarProperties.setPackageBackupPack(backup);
                 xarProperties.setPreserveVersion(backup || history);
+                xarProperties.setCompressionThreads(
+                    (int) context.getWiki().ParamAsLong("xwiki.action.export.xar.compressionThreads", 1));
 
                 BeanOutputFilterStreamFactory<XAROutputProperties> xarFilterStreamFactory = Utils
                     .getComponent((Type) OutputFilterStreamFactory.class,
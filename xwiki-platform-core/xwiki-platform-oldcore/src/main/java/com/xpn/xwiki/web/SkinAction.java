@@ -26,7 +26,9 @@
 
 import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -86,6 +88,8 @@ public class SkinAction extends XWikiAction
 
     private static final String DOCDOESNOTEXIST = "docdoesnotexist";
 
+    private static final String ETAG_HEADER = "ETag";
+
     @Override
     public boolean action(XWikiContext context) throws XWikiException
     {
@@ -290,6 +294,7 @@ private boolean renderFileFromFilesystem(String path, XWikiContext context) thro
                 String filename = path.substring(path.lastIndexOf("/") + 1, path.length());
 
                 Date modified = null;
+                String etag = null;
 
                 // Evaluate the file only if it's of a supported type.
                 String mimetype = context.getEngineContext().getMimeType(filename.toLowerCase());
@@ -310,6 +315,9 @@ private boolean renderFileFromFilesystem(String path, XWikiContext context) thro
                     } else {
                         modified = new Date();
                         data = newdata;
+                        // The modification date is meaningless for generated content (e.g. the compiled LESS skin
+                        // style) so let the client validate its cached copy against the content itself.
+                        etag = getETag(data);
                     }
 
                     response.setCharacterEncoding(ENCODING);
@@ -317,6 +325,14 @@ private boolean renderFileFromFilesystem(String path, XWikiContext context) thro
                     modified = context.getWiki().getResourceLastModificationDate(path);
                 }
 
+                if (etag != null) {
+                    response.setHeader(ETAG_HEADER, etag);
+                    if (etag.equals(context.getRequest().getHeader("If-None-Match"))) {
+                        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                        return true;
+                    }
+                }
+
                 // Write the content to the response's output stream.
                 setupHeaders(response, mimetype, modified, data.length);
                 try {
@@ -493,6 +509,18 @@ public boolean isCssMimeType(String mimetype)
         return "text/css".equalsIgnoreCase(mimetype);
     }
 
+    /**
+     * Computes the entity tag of a generated skin file, based on its content.
+     *
+     * @param data the content of the skin file
+     * @return the (quoted) value of the {@code ETag} header to send with the passed content
+     * @since 17.2.0RC1
+     */
+    protected String getETag(byte[] data)
+    {
+        return '"' + DigestUtils.sha256Hex(data) + '"';
+    }
+
     /**
      * Checks if a file is a LESS file that should be parsed by velocity.
      *
@@ -52,6 +52,7 @@
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.debug.RequestTimingTree;
 import com.xpn.xwiki.plugin.fileupload.FileUploadPlugin;
 import com.xpn.xwiki.util.Util;
 
@@ -195,6 +196,13 @@ public static void parseTemplate(String template, boolean write, XWikiContext co
         }
 
         if (!context.isFinished()) {
+            // Expose the time spent in the various subsystems so far (the headers can't be modified once the content
+            // is written)
+            RequestTimingTree timings = RequestTimingTree.get(context);
+            if (timings != null && timings.isServerTimingEnabled() && !response.isCommitted()) {
+                response.setHeader("Server-Timing", timings.toServerTiming());
+            }
+
             if (context.getResponse() instanceof XWikiServletResponse) {
                 // Set the content length to the number of bytes, not the
                 // string length, so as to handle multi-byte encodings
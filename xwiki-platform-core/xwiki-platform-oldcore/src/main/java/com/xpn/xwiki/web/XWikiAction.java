@@ -100,6 +100,7 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.DocumentRevisionProvider;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.debug.RequestTimings;
 import com.xpn.xwiki.internal.web.LegacyAction;
 import com.xpn.xwiki.monitor.api.MonitorPlugin;
 import com.xpn.xwiki.objects.BaseObject;
@@ -184,6 +185,8 @@ public abstract class XWikiAction implements LegacyAction
 
     private JobProgressManager progress;
 
+    private RequestTimings requestTimings;
+
     private ScriptContextManager scriptContextManager;
 
     private EntityNameValidationManager entityNameValidationManager;
@@ -284,6 +287,27 @@ protected JobProgressManager getProgress()
         return this.progress;
     }
 
+    private RequestTimings getRequestTimings()
+    {
+        if (this.requestTimings == null) {
+            this.requestTimings = Utils.getComponent(RequestTimings.class);
+        }
+
+        return this.requestTimings;
+    }
+
+    /**
+     * @return the description of the request used in the slow request logs, made of the action and the URL path
+     *         without the query string or the path parameters, which can hold secrets (form token, session id, etc.)
+     */
+    private String getRequestTimingsDescription(XWikiContext context)
+    {
+        URL url = context.getURL();
+        String path = url != null ? StringUtils.substringBefore(url.getPath(), ';') : "";
+
+        return context.getAction() + ' ' + path;
+    }
+
     protected EntityNameValidationManager getEntityNameValidationManager()
     {
         if (this.entityNameValidationManager == null) {
@@ -400,6 +424,8 @@ public void execute(XWikiContext context) throws Exception
 
         String sasync = context.getRequest().get("async");
 
+        getRequestTimings().start(getRequestTimingsDescription(context), context);
+
         try {
             String action = context.getAction();
 
@@ -778,6 +804,8 @@ public void execute(XWikiContext context) throws Exception
             if (fileupload != null) {
                 fileupload.cleanFileList(context);
             }
+
+            getRequestTimings().stop(context);
         }
     }
 
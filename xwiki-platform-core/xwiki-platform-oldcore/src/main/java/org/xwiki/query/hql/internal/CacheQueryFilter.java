@@ -0,0 +1,53 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.hql.internal;
+
+import java.util.List;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.query.QueryFilter;
+
+/**
+ * Ask for the results of the query to be cached (and reused until a document which might impact them is modified).
+ * The filter itself does not modify the query or its results, see {@link HQLQueryCache}.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component
+@Named("cache")
+@Singleton
+public class CacheQueryFilter implements QueryFilter
+{
+    @Override
+    public String filterStatement(String statement, String language)
+    {
+        return statement;
+    }
+
+    @Override
+    public List filterResults(List results)
+    {
+        return results;
+    }
+}
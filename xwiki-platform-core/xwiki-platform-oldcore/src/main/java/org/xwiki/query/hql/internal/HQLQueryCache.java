@@ -0,0 +1,839 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.hql.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.NamedQueryDefinition;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.hql.internal.jmx.JMXHQLQueryCache;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.doc.XWikiSpace;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.DBStringListProperty;
+import com.xpn.xwiki.objects.DateProperty;
+import com.xpn.xwiki.objects.DoubleProperty;
+import com.xpn.xwiki.objects.FloatProperty;
+import com.xpn.xwiki.objects.IntegerProperty;
+import com.xpn.xwiki.objects.LargeStringProperty;
+import com.xpn.xwiki.objects.LongProperty;
+import com.xpn.xwiki.objects.StringListProperty;
+import com.xpn.xwiki.objects.StringProperty;
+
+/**
+ * Keep the results of the HQL queries which explicitly asked for it (using the {@link CacheQueryFilter}) or which are
+ * configured to be cached.
+ * <p>
+ * Only the queries targeting the document, space, attachment and xobject tables and returning scalar values are
+ * cached, since those tables are only modified when saving or deleting a document. The entries are invalidated when a
+ * document of the wiki is modified, and when the query selects xobjects, only if the document holds (or used to hold)
+ * an xobject of one of the classes the query is restricted to. A query is considered restricted to some classes only
+ * when each selected xobject is filtered with a {@code className =} or {@code className in} condition (on literals or
+ * parameters) which can't be negated or bypassed by an {@code or}. Otherwise any modification of the wiki invalidates
+ * it.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = HQLQueryCache.class)
+@Singleton
+public class HQLQueryCache implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "name=hqlquerycache";
+
+    private static final Set<String> DOCUMENT_ENTITIES =
+        Set.of(XWikiDocument.class.getName(), XWikiSpace.class.getName(), XWikiAttachment.class.getName());
+
+    private static final Set<String> OBJECT_ENTITIES = Set.of(BaseObject.class.getName(),
+        BaseProperty.class.getName(), StringProperty.class.getName(), LargeStringProperty.class.getName(),
+        IntegerProperty.class.getName(), LongProperty.class.getName(), FloatProperty.class.getName(),
+        DoubleProperty.class.getName(), DateProperty.class.getName(), StringListProperty.class.getName(),
+        DBStringListProperty.class.getName());
+
+    /**
+     * Match the string literals, the named parameters, the positional parameters, the identifiers, the numbers and the
+     * operators of a statement.
+     */
+    private static final Pattern TOKEN = Pattern.compile("'((?:[^']|'')*)'|:([\\p{Alpha}_$][\\w$]*)|\\?(\\d{0,9})"
+        + "|([\\p{Alpha}_$][\\w.$]*)|(\\d+(?:\\.\\d+)?)|(<>|!=|<=|>=|\\|\\||[=<>(),+\\-*/%])");
+
+    private static final String CLASS_NAME = "className";
+
+    private static final String CLASS_NAME_SUFFIX = '.' + CLASS_NAME;
+
+    private static final String OR = "or";
+
+    private static final String NOT = "not";
+
+    private static final String IN = "in";
+
+    private static final String AS = "as";
+
+    private static final String EQUALS = "=";
+
+    private static final String COMMA = ",";
+
+    private static final String OPEN = "(";
+
+    private static final String CLOSE = ")";
+
+    /**
+     * The keywords which can follow an entity name when it doesn't have an alias.
+     */
+    private static final Set<String> ALIAS_KEYWORDS = Set.of("where", "join", "inner", "left", "right", "outer",
+        "full", "cross", "order", "group", "having", "union", "on", "with", "fetch");
+
+    /**
+     * The keywords which can precede a {@code not} negating a whole condition.
+     */
+    private static final Set<String> CONDITION_KEYWORDS = Set.of("where", "and", OR, NOT, "on", "with", "having",
+        "when", "then", "else");
+
+    private static final int STATEMENTS_CACHE_SIZE = 1000;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private HibernateStore hibernate;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    /**
+     * The analysis of the statements, indexed by statement (or query name for named queries).
+     */
+    private final Map<String, Statement> statements = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on each invalidation, used to not store results which might have been computed before a
+     * modification.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private int maxSize;
+
+    private Set<String> namedQueries;
+
+    private Map<Key, Entry> entries;
+
+    private static final class Statement
+    {
+        private final boolean cacheable;
+
+        private final boolean objects;
+
+        /**
+         * The classes the selected xobjects are restricted to, or {@code null} if they are not provably restricted.
+         */
+        private final ClassRestriction classes;
+
+        Statement(boolean cacheable, boolean objects, ClassRestriction classes)
+        {
+            this.cacheable = cacheable;
+            this.objects = objects;
+            this.classes = classes;
+        }
+    }
+
+    /**
+     * The values of the {@code className =} and {@code className in} conditions of a statement.
+     */
+    private static final class ClassRestriction
+    {
+        private final Set<String> literals = new HashSet<>();
+
+        private final Set<String> namedParameters = new HashSet<>();
+
+        private final Set<Integer> positionalParameters = new HashSet<>();
+
+        void addAll(ClassRestriction other)
+        {
+            this.literals.addAll(other.literals);
+            this.namedParameters.addAll(other.namedParameters);
+            this.positionalParameters.addAll(other.positionalParameters);
+        }
+
+        /**
+         * @return {@code true} if the value was recorded, {@code false} if it's not a literal or a parameter
+         */
+        boolean add(Token token)
+        {
+            if (token == null) {
+                return false;
+            }
+
+            switch (token.type) {
+                case Token.LITERAL:
+                    this.literals.add(token.text);
+                    return true;
+                case Token.NAMED_PARAMETER:
+                    this.namedParameters.add(token.text);
+                    return true;
+                case Token.POSITIONAL_PARAMETER:
+                    if (token.text.isEmpty()) {
+                        // Legacy JDBC style parameter, we don't know its index
+                        return false;
+                    }
+                    this.positionalParameters.add(Integer.valueOf(token.text));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class Token
+    {
+        static final int LITERAL = 1;
+
+        static final int NAMED_PARAMETER = 2;
+
+        static final int POSITIONAL_PARAMETER = 3;
+
+        static final int IDENTIFIER = 4;
+
+        static final int NUMBER = 5;
+
+        static final int OPERATOR = 6;
+
+        private final int type;
+
+        private final String text;
+
+        /**
+         * The number of parentheses the token is in.
+         */
+        private final int depth;
+
+        Token(int type, String text, int depth)
+        {
+            this.type = type;
+            this.text = text;
+            this.depth = depth;
+        }
+
+        boolean is(String value)
+        {
+            return (this.type == IDENTIFIER || this.type == OPERATOR) && this.text.equalsIgnoreCase(value);
+        }
+
+        boolean isConditionStart()
+        {
+            return this.type == OPERATOR ? !is(CLOSE)
+                : this.type == IDENTIFIER && CONDITION_KEYWORDS.contains(this.text.toLowerCase());
+        }
+    }
+
+    private static final class Key
+    {
+        private final String wiki;
+
+        private final DocumentReference user;
+
+        private final String statement;
+
+        private final boolean named;
+
+        private final Map<String, Object> namedParameters;
+
+        private final Map<Integer, Object> positionalParameters;
+
+        private final int limit;
+
+        private final int offset;
+
+        private final int hashCode;
+
+        Key(String wiki, DocumentReference user, Query query)
+        {
+            this.wiki = wiki;
+            this.user = user;
+            this.statement = query.getStatement();
+            this.named = query.isNamed();
+            this.namedParameters = new HashMap<>(query.getNamedParameters());
+            this.positionalParameters = new HashMap<>(query.getPositionalParameters());
+            this.limit = query.getLimit();
+            this.offset = query.getOffset();
+            this.hashCode = Objects.hash(this.wiki, this.user, this.statement, this.named, this.namedParameters,
+                this.positionalParameters, this.limit, this.offset);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return this.hashCode == other.hashCode && this.named == other.named && this.limit == other.limit
+                && this.offset == other.offset && this.statement.equals(other.statement)
+                && this.wiki.equals(other.wiki) && Objects.equals(this.user, other.user)
+                && this.namedParameters.equals(other.namedParameters)
+                && this.positionalParameters.equals(other.positionalParameters);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final List<Object> results;
+
+        /**
+         * The classes mentioned in the query, or {@code null} if any document modification impacts the results.
+         */
+        private final Set<String> classes;
+
+        Entry(List<Object> results, Set<String> classes)
+        {
+            this.results = results;
+            this.classes = classes;
+        }
+
+        boolean isImpactedBy(Set<String> modifiedClasses)
+        {
+            return this.classes == null || !Collections.disjoint(this.classes, modifiedClasses);
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        this.maxSize = this.configuration.getProperty("query.hql.cache.size", 1000);
+        List<String> names = this.configuration.getProperty("query.hql.cache.namedQueries", List.class);
+        this.namedQueries = names != null ? new HashSet<>(names) : Set.of();
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+            {
+                return size() > HQLQueryCache.this.maxSize;
+            }
+        };
+
+        this.jmxRegistration.registerMBean(new JMXHQLQueryCache(this.hits::sum, this.misses::sum,
+            this.invalidations::sum, this::size, this::clear), MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
+    /**
+     * Return the results of the passed query from the cache, or load and cache them if the query is cacheable.
+     *
+     * @param <T> the type of the results
+     * @param query the query, after the statement filters were applied
+     * @param loader execute the query
+     * @return the results of the query
+     * @throws Exception when failing to execute the query
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getResults(Query query, Callable<List<T>> loader) throws Exception
+    {
+        if (this.maxSize <= 0 || !isCacheRequested(query)) {
+            return loader.call();
+        }
+
+        Statement statement = getStatement(query);
+        if (!statement.cacheable) {
+            return loader.call();
+        }
+
+        XWikiContext xcontext = this.xcontextProvider.get();
+        Key key = new Key(xcontext.getWikiId(), xcontext.getUserReference(), query);
+
+        Entry entry;
+        synchronized (this) {
+            entry = this.entries.get(key);
+        }
+        if (entry != null) {
+            this.hits.increment();
+
+            return (List<T>) copy(entry.results);
+        }
+
+        this.misses.increment();
+
+        long currentGeneration = this.generation.get();
+        List<T> results = loader.call();
+
+        if (isImmutable(results)) {
+            Entry newEntry = new Entry((List<Object>) copy(results), getClasses(statement, query));
+            synchronized (this) {
+                // Don't store the results if a document was modified while executing the query
+                if (currentGeneration == this.generation.get()) {
+                    this.entries.put(key, newEntry);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private boolean isCacheRequested(Query query)
+    {
+        if (query.isNamed() && this.namedQueries.contains(query.getStatement())) {
+            return true;
+        }
+
+        List<QueryFilter> filters = query.getFilters();
+        if (filters != null) {
+            for (QueryFilter filter : filters) {
+                if (filter instanceof CacheQueryFilter) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private Statement getStatement(Query query)
+    {
+        String id = query.isNamed() ? "named:" + query.getStatement() : query.getStatement();
+
+        Statement statement = this.statements.get(id);
+        if (statement == null) {
+            statement = analyze(query);
+
+            if (this.statements.size() >= STATEMENTS_CACHE_SIZE) {
+                this.statements.clear();
+            }
+            this.statements.put(id, statement);
+        }
+
+        return statement;
+    }
+
+    private Statement analyze(Query query)
+    {
+        Metadata metadata = this.hibernate.getConfigurationMetadata();
+
+        String statement;
+        if (query.isNamed()) {
+            NamedQueryDefinition definition = metadata.getNamedQueryDefinition(query.getStatement());
+            if (definition == null) {
+                // Probably a native SQL query
+                return new Statement(false, false, null);
+            }
+            statement = definition.getQuery();
+        } else {
+            statement = query.getStatement();
+        }
+
+        boolean documents = false;
+        boolean objects = false;
+        Set<String> objectAliases = new HashSet<>();
+        Map<String, String> imports = metadata.getImports();
+
+        List<Token> tokens = tokenize(statement);
+        for (int i = 0; i < tokens.size(); ++i) {
+            Token token = tokens.get(i);
+            if (token.type == Token.IDENTIFIER) {
+                String entity = imports.getOrDefault(token.text, token.text);
+                if (DOCUMENT_ENTITIES.contains(entity)) {
+                    documents = true;
+                } else if (OBJECT_ENTITIES.contains(entity)) {
+                    objects = true;
+                    if (entity.equals(BaseObject.class.getName())) {
+                        objectAliases.add(getAlias(tokens, i));
+                    }
+                } else if (metadata.getEntityBinding(entity) != null) {
+                    // Don't cache queries on tables which are not (only) modified when saving a document
+                    return new Statement(false, false, null);
+                }
+            }
+        }
+
+        ClassRestriction classes = objects ? getClassRestriction(tokens, objectAliases) : null;
+
+        return new Statement(documents || objects, objects, classes);
+    }
+
+    private List<Token> tokenize(String statement)
+    {
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+
+        Matcher matcher = TOKEN.matcher(statement);
+        while (matcher.find()) {
+            if (matcher.group(1) != null) {
+                tokens.add(new Token(Token.LITERAL, matcher.group(1).replace("''", "'"), depth));
+            } else if (matcher.group(2) != null) {
+                tokens.add(new Token(Token.NAMED_PARAMETER, matcher.group(2), depth));
+            } else if (matcher.group(3) != null) {
+                tokens.add(new Token(Token.POSITIONAL_PARAMETER, matcher.group(3), depth));
+            } else if (matcher.group(4) != null) {
+                tokens.add(new Token(Token.IDENTIFIER, matcher.group(4), depth));
+            } else if (matcher.group(5) != null) {
+                tokens.add(new Token(Token.NUMBER, matcher.group(5), depth));
+            } else {
+                String operator = matcher.group(6);
+                if (operator.equals(CLOSE)) {
+                    depth--;
+                }
+                tokens.add(new Token(Token.OPERATOR, operator, depth));
+                if (operator.equals(OPEN)) {
+                    depth++;
+                }
+            }
+        }
+
+        return tokens;
+    }
+
+    private String getAlias(List<Token> tokens, int entityIndex)
+    {
+        Token next = get(tokens, entityIndex + 1);
+        if (next != null && next.is(AS)) {
+            next = get(tokens, entityIndex + 2);
+        }
+
+        if (next != null && next.type == Token.IDENTIFIER && !ALIAS_KEYWORDS.contains(next.text.toLowerCase())) {
+            return next.text;
+        }
+
+        // Properties can be used without alias
+        return "";
+    }
+
+    private Token get(List<Token> tokens, int index)
+    {
+        return index >= 0 && index < tokens.size() ? tokens.get(index) : null;
+    }
+
+    /**
+     * @return the classes each selected xobject is restricted to, or {@code null} if we can't prove it
+     */
+    private ClassRestriction getClassRestriction(List<Token> tokens, Set<String> objectAliases)
+    {
+        ClassRestriction restriction = new ClassRestriction();
+        Set<String> restrictedAliases = new HashSet<>();
+
+        for (int i = 0; i < tokens.size(); ++i) {
+            Token token = tokens.get(i);
+            Token previous = get(tokens, i - 1);
+            if (token.is(NOT) && (previous == null || previous.isConditionStart())) {
+                // A whole condition is negated, it might be a class restriction
+                return null;
+            } else if (token.is("case")) {
+                // The conditions of a case expression don't filter anything
+                return null;
+            } else if (token.type == Token.IDENTIFIER && isClassName(token.text)) {
+                int last = addClassRestriction(tokens, i, restriction);
+                if (last > i) {
+                    restrictedAliases.add(getAlias(token.text));
+                    i = last;
+                }
+            }
+        }
+
+        // All the selected xobjects must be restricted
+        return !objectAliases.isEmpty() && restrictedAliases.containsAll(objectAliases) ? restriction : null;
+    }
+
+    private boolean isClassName(String identifier)
+    {
+        return identifier.equals(CLASS_NAME) || identifier.endsWith(CLASS_NAME_SUFFIX);
+    }
+
+    private String getAlias(String property)
+    {
+        return property.equals(CLASS_NAME) ? "" : property.substring(0, property.length() - CLASS_NAME_SUFFIX.length());
+    }
+
+    /**
+     * Any other condition on the {@code className} property (e.g. {@code <>}, {@code like}) can only reduce the
+     * selected xobjects as long as it's combined with a restriction using {@code and}, so it's ignored.
+     *
+     * @return the index of the last token of the {@code className =} or {@code className in} condition starting at the
+     *         passed index, or {@code -1} if the property is not used in such condition or if the condition is optional
+     */
+    private int addClassRestriction(List<Token> tokens, int index, ClassRestriction restriction)
+    {
+        Token next = get(tokens, index + 1);
+        if (next == null || isOred(tokens, tokens.get(index).depth)) {
+            return -1;
+        }
+
+        if (next.is(EQUALS)) {
+            // Make sure the value is not part of an expression
+            Token following = get(tokens, index + 3);
+            if (following != null && following.type == Token.OPERATOR && !following.is(CLOSE)) {
+                return -1;
+            }
+
+            return restriction.add(get(tokens, index + 2)) ? index + 2 : -1;
+        } else if (next.is(IN) && get(tokens, index + 2) != null && get(tokens, index + 2).is(OPEN)) {
+            ClassRestriction values = new ClassRestriction();
+            for (int i = index + 3; i < tokens.size(); i += 2) {
+                Token separator = get(tokens, i + 1);
+                if (!values.add(tokens.get(i)) || separator == null) {
+                    return -1;
+                } else if (separator.is(CLOSE)) {
+                    restriction.addAll(values);
+                    return i + 1;
+                } else if (!separator.is(COMMA)) {
+                    return -1;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return {@code true} if an {@code or} could make a condition with the passed depth optional
+     */
+    private boolean isOred(List<Token> tokens, int depth)
+    {
+        for (Token token : tokens) {
+            if (token.depth <= depth && token.is(OR)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private Set<String> getClasses(Statement statement, Query query)
+    {
+        if (!statement.objects || statement.classes == null) {
+            return null;
+        }
+
+        Set<String> classes = new HashSet<>(statement.classes.literals);
+        for (String name : statement.classes.namedParameters) {
+            if (!addParameterClasses(classes, query.getNamedParameters().get(name))) {
+                return null;
+            }
+        }
+        for (Integer index : statement.classes.positionalParameters) {
+            if (!addParameterClasses(classes, query.getPositionalParameters().get(index))) {
+                return null;
+            }
+        }
+
+        return classes;
+    }
+
+    private boolean addParameterClasses(Set<String> classes, Object value)
+    {
+        if (value instanceof String) {
+            classes.add((String) value);
+        } else if (value instanceof Iterable) {
+            for (Object item : (Iterable<?>) value) {
+                if (!addParameterClasses(classes, item)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                if (!addParameterClasses(classes, item)) {
+                    return false;
+                }
+            }
+        } else {
+            // We don't know which classes are selected
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean isImmutable(List<?> results)
+    {
+        for (Object result : results) {
+            if (result instanceof Object[]) {
+                for (Object value : (Object[]) result) {
+                    if (!isImmutable(value)) {
+                        return false;
+                    }
+                }
+            } else if (!isImmutable(result)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isImmutable(Object value)
+    {
+        return value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+            || value instanceof Character || value instanceof Date;
+    }
+
+    private List<?> copy(List<?> results)
+    {
+        List<Object> copy = new ArrayList<>(results.size());
+        for (Object result : results) {
+            copy.add(copy(result));
+        }
+
+        return copy;
+    }
+
+    private Object copy(Object value)
+    {
+        if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            Object[] copy = new Object[array.length];
+            for (int i = 0; i < array.length; ++i) {
+                copy[i] = copy(array[i]);
+            }
+
+            return copy;
+        } else if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+
+        return value;
+    }
+
+    /**
+     * Remove the entries which might be impacted by the modification of the passed document.
+     *
+     * @param document the modified document
+     */
+    public void invalidate(XWikiDocument document)
+    {
+        Set<String> classes = new HashSet<>();
+        classes.add(this.localSerializer.serialize(document.getDocumentReference()));
+        addDocumentClasses(classes, document);
+        addDocumentClasses(classes, document.getOriginalDocument());
+
+        invalidate(document.getDocumentReference().getWikiReference().getName(), classes);
+    }
+
+    private void addDocumentClasses(Set<String> classes, XWikiDocument document)
+    {
+        if (document != null) {
+            for (DocumentReference classReference : document.getXObjects().keySet()) {
+                classes.add(this.localSerializer.serialize(classReference));
+            }
+        }
+    }
+
+    /**
+     * Remove all the entries of the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void invalidate(String wiki)
+    {
+        invalidate(wiki, null);
+    }
+
+    private synchronized void invalidate(String wiki, Set<String> classes)
+    {
+        this.generation.incrementAndGet();
+
+        Iterator<Map.Entry<Key, Entry>> iterator = this.entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getKey().wiki.equals(wiki) && (classes == null || entry.getValue().isImpactedBy(classes))) {
+                iterator.remove();
+                this.invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries in the cache
+     */
+    public synchronized int size()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public synchronized void clear()
+    {
+        this.generation.incrementAndGet();
+        this.entries.clear();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.hql.internal.jmx;
+
+/**
+ * Interface of the {@link JMXHQLQueryCache} MBean.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+public interface JMXHQLQueryCacheMBean
+{
+    /**
+     * @return the number of queries executed with results found in the cache
+     */
+    long getHits();
+
+    /**
+     * @return the number of cacheable queries executed without results found in the cache
+     */
+    long getMisses();
+
+    /**
+     * @return the ratio of cacheable queries executed with results found in the cache
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of entries removed from the cache following a document modification
+     */
+    long getInvalidations();
+
+    /**
+     * @return the number of entries in the cache
+     */
+    int getSize();
+
+    /**
+     * Remove all the entries of the cache.
+     */
+    void clear();
+}
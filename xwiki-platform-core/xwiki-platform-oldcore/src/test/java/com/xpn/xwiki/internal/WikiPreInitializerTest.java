@@ -0,0 +1,153 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.environment.Environment;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link WikiPreInitializer}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class WikiPreInitializerTest
+{
+    @InjectMockComponents
+    private WikiPreInitializer preInitializer;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    private XWikiContext xcontext;
+
+    private XWiki xwiki;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        when(this.configuration.getProperty("wiki.preInitialization.threads", 2)).thenReturn(1);
+
+        this.xcontext = mock(XWikiContext.class);
+        this.xwiki = mock(XWiki.class);
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+
+        when(this.wikiDescriptorManager.exists(anyString())).thenReturn(true);
+    }
+
+    private File getFile()
+    {
+        return new File(this.permanentDirectory, "cache/wikis/accesses.properties");
+    }
+
+    @Test
+    void onAccess() throws Exception
+    {
+        this.preInitializer.onAccess("wiki");
+
+        Properties properties = new Properties();
+        try (InputStream stream = new FileInputStream(getFile())) {
+            properties.load(stream);
+        }
+
+        assertTrue(properties.containsKey("wiki"));
+    }
+
+    @Test
+    void preInitialize() throws Exception
+    {
+        Properties properties = new Properties();
+        properties.setProperty("oldwiki", "1000");
+        properties.setProperty("recentwiki", "3000");
+        properties.setProperty("deletedwiki", "2000");
+        getFile().getParentFile().mkdirs();
+        try (OutputStream stream = new FileOutputStream(getFile())) {
+            properties.store(stream, null);
+        }
+        this.preInitializer.initialize();
+
+        when(this.configuration.getProperty("wiki.preInitialization.count", 0)).thenReturn(2);
+        when(this.wikiDescriptorManager.exists("deletedwiki")).thenReturn(false);
+
+        this.preInitializer.preInitialize();
+
+        verify(this.xwiki, timeout(10000)).initializeWiki("recentwiki", true, this.xcontext);
+        verify(this.wikiDescriptorManager, timeout(10000)).exists("deletedwiki");
+        verify(this.xwiki, after(100).never()).initializeWiki(eq("oldwiki"), anyBoolean(), any());
+        verify(this.xwiki, never()).initializeWiki(eq("deletedwiki"), anyBoolean(), any());
+    }
+
+    @Test
+    void preInitializeWhenDisabled() throws Exception
+    {
+        this.preInitializer.onAccess("wiki");
+
+        this.preInitializer.preInitialize();
+
+        verify(this.xwiki, after(100).never()).initializeWiki(anyString(), anyBoolean(), any());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link RequestTimingTree}.
+ *
+ * @version $Id$
+ */
+class RequestTimingTreeTest
+{
+    @Test
+    void startWithoutTree()
+    {
+        XWikiContext xcontext = new XWikiContext();
+
+        assertNull(RequestTimingTree.get(xcontext));
+        assertSame(RequestTimer.NOOP, RequestTimingTree.start(xcontext, RequestTimingTree.HIBERNATE));
+        assertSame(RequestTimer.NOOP, RequestTimingTree.start(null, RequestTimingTree.HIBERNATE));
+
+        // Closing the no-op timer should not fail
+        RequestTimer.NOOP.close();
+    }
+
+    @Test
+    void nestedTimers()
+    {
+        XWikiContext xcontext = new XWikiContext();
+        RequestTimingTree tree = new RequestTimingTree("request", true);
+        RequestTimingTree.set(xcontext, tree);
+
+        try (RequestTimer template = RequestTimingTree.start(xcontext, RequestTimingTree.TEMPLATE)) {
+            try (RequestTimer query = RequestTimingTree.start(xcontext, RequestTimingTree.QUERY)) {
+                try (RequestTimer hibernate = RequestTimingTree.start(xcontext, RequestTimingTree.HIBERNATE)) {
+                    // Nested call to the same subsystem
+                    RequestTimingTree.start(xcontext, RequestTimingTree.HIBERNATE).close();
+                }
+            }
+            RequestTimingTree.start(xcontext, RequestTimingTree.HIBERNATE).close();
+        }
+
+        tree.stop();
+
+        // Timers started after the end of the request are ignored
+        assertSame(RequestTimer.NOOP, RequestTimingTree.start(xcontext, RequestTimingTree.RIGHTS));
+
+        assertEquals(1, tree.getRoot().getChildren().size());
+        RequestTimer template = tree.getRoot().getChildren().get(0);
+        assertEquals(RequestTimingTree.TEMPLATE, template.getSubsystem());
+        assertEquals(2, template.getChildren().size());
+        RequestTimer query = template.getChildren().get(0);
+        assertEquals(RequestTimingTree.QUERY, query.getSubsystem());
+        RequestTimer outerHibernate = query.getChildren().get(0);
+        RequestTimer innerHibernate = outerHibernate.getChildren().get(0);
+        RequestTimer secondHibernate = template.getChildren().get(1);
+
+        assertEquals(3, tree.getSubsystems().get(RequestTimingTree.HIBERNATE).getCount());
+        // The nested call is already included in the outer one
+        assertEquals(outerHibernate.getDuration() + secondHibernate.getDuration(),
+            tree.getSubsystems().get(RequestTimingTree.HIBERNATE).getDuration());
+        assertTrue(innerHibernate.getDuration() <= outerHibernate.getDuration());
+        assertEquals(template.getDuration(), tree.getSubsystems().get(RequestTimingTree.TEMPLATE).getDuration());
+        assertTrue(template.getDuration() <= tree.getDuration());
+
+        String serverTiming = tree.toServerTiming();
+        assertTrue(serverTiming.matches("template;dur=\\d+\\.\\d, query;dur=\\d+\\.\\d, hibernate;dur=\\d+\\.\\d, "
+            + "total;dur=\\d+\\.\\d"), serverTiming);
+
+        String log = tree.toString();
+        assertTrue(log.matches("(?s)total [\\d.]+ ms\n  template [\\d.]+ ms\n    query [\\d.]+ ms\n"
+            + "      hibernate [\\d.]+ ms\n        hibernate [\\d.]+ ms\n    hibernate [\\d.]+ ms"), log);
+    }
+
+    @Test
+    void startFromAnotherThread() throws Exception
+    {
+        XWikiContext xcontext = new XWikiContext();
+        RequestTimingTree tree = new RequestTimingTree("request", false);
+        RequestTimingTree.set(xcontext, tree);
+
+        assertSame(RequestTimer.NOOP,
+            CompletableFuture.supplyAsync(() -> RequestTimingTree.start(xcontext, RequestTimingTree.RIGHTS)).get());
+        assertTrue(tree.getSubsystems().isEmpty());
+    }
+
+    @Test
+    void maximumNumberOfTimers()
+    {
+        RequestTimingTree tree = new RequestTimingTree("request", false);
+
+        for (int i = 0; i < RequestTimingTree.MAX_TIMERS + 10; ++i) {
+            tree.start(RequestTimingTree.HIBERNATE).close();
+        }
+        tree.stop();
+
+        assertEquals(RequestTimingTree.MAX_TIMERS, tree.getRoot().getChildren().size());
+        assertEquals(RequestTimingTree.MAX_TIMERS + 10,
+            tree.getSubsystems().get(RequestTimingTree.HIBERNATE).getCount());
+        assertTrue(tree.toString().endsWith("(truncated)"));
+    }
+}
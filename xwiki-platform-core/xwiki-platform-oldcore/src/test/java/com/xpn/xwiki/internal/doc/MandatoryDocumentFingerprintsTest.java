@@ -0,0 +1,188 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link MandatoryDocumentFingerprints}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class MandatoryDocumentFingerprintsTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    private static final String LOCAL_REFERENCE = "Space.Page";
+
+    @InjectMockComponents
+    private MandatoryDocumentFingerprints fingerprints;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    private MandatoryDocumentInitializer initializer;
+
+    private Query query;
+
+    @BeforeEach
+    void beforeEach() throws QueryException
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        when(this.localSerializer.serialize(DOCUMENT_REFERENCE)).thenReturn(LOCAL_REFERENCE);
+
+        this.initializer = mock(MandatoryDocumentInitializer.class);
+        when(this.initializer.getFingerprint()).thenReturn("fingerprint");
+
+        this.query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), any())).thenReturn(this.query);
+    }
+
+    private void mockVersion(String version) throws QueryException
+    {
+        List<Object[]> results = Collections.singletonList(new Object[] { LOCAL_REFERENCE, version });
+        when(this.query.<Object[]>execute()).thenReturn(results);
+    }
+
+    private boolean isUpToDate()
+    {
+        return this.fingerprints.getUpToDate(List.of(this.initializer), List.of(DOCUMENT_REFERENCE), "wiki")
+            .contains(this.initializer);
+    }
+
+    @Test
+    void getUpToDateWithoutFingerprint() throws QueryException
+    {
+        assertFalse(isUpToDate());
+
+        // Nothing to check in the database
+        verify(this.queryManager, never()).createQuery(anyString(), any());
+    }
+
+    @Test
+    void getUpToDate() throws QueryException
+    {
+        this.fingerprints.setUpToDate(DOCUMENT_REFERENCE, this.initializer, "1.2");
+
+        mockVersion("1.2");
+        assertTrue(isUpToDate());
+        verify(this.query).bindValue("documents", Collections.singleton(LOCAL_REFERENCE));
+        verify(this.query).setWiki("wiki");
+
+        // The document was modified since the initializer was applied
+        mockVersion("1.3");
+        assertFalse(isUpToDate());
+
+        // The document does not exist anymore
+        when(this.query.execute()).thenReturn(Collections.emptyList());
+        assertFalse(isUpToDate());
+    }
+
+    @Test
+    void getUpToDateWhenFingerprintChanged() throws QueryException
+    {
+        this.fingerprints.setUpToDate(DOCUMENT_REFERENCE, this.initializer, "1.2");
+
+        when(this.initializer.getFingerprint()).thenReturn("other fingerprint");
+        mockVersion("1.2");
+
+        assertFalse(isUpToDate());
+    }
+
+    @Test
+    void getUpToDateWhenNoMoreFingerprint() throws QueryException
+    {
+        this.fingerprints.setUpToDate(DOCUMENT_REFERENCE, this.initializer, "1.2");
+
+        when(this.initializer.getFingerprint()).thenReturn(null);
+        mockVersion("1.2");
+
+        assertFalse(isUpToDate());
+    }
+
+    @Test
+    void invalidate() throws QueryException
+    {
+        this.fingerprints.setUpToDate(DOCUMENT_REFERENCE, this.initializer, "1.2");
+        this.fingerprints.invalidate(DOCUMENT_REFERENCE);
+
+        mockVersion("1.2");
+
+        assertFalse(isUpToDate());
+    }
+
+    @Test
+    void saveAndRemove()
+    {
+        File file = new File(this.permanentDirectory, "cache/mandatorydocuments/wiki.properties");
+
+        // Nothing to save
+        this.fingerprints.save("wiki");
+        assertFalse(file.exists());
+
+        this.fingerprints.setUpToDate(DOCUMENT_REFERENCE, this.initializer, "1.2");
+        this.fingerprints.save("wiki");
+        assertTrue(file.exists());
+        assertEquals(1, file.getParentFile().list().length);
+
+        this.fingerprints.remove("wiki");
+        assertFalse(file.exists());
+    }
+}
@@ -681,4 +681,25 @@ void importDocumentWithRevisionsAndPreserveVersion() throws FilterException, XWi
 
         assertEquals("42.3", document3.getVersion());
     }
+
+    @Test
+    void importDocumentWithRevisionsWithSeveralSaveThreads() throws FilterException, XWikiException
+    {
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVersionPreserved(true);
+        outputProperties.setVerbose(false);
+        outputProperties.setSaveThreads(4);
+
+        importFromXML("documentwithrevisions", outputProperties);
+
+        XWikiDocument document = this.oldcore.getSpyXWiki().getDocument(new DocumentReference("wiki", "space", "page"),
+            this.oldcore.getXWikiContext());
+
+        assertFalse(document.isNew());
+
+        // The revisions of a same document are saved in order
+        assertEquals("42.3", document.getVersion());
+        assertEquals(3, document.getRevisions(this.oldcore.getXWikiContext()).length);
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.template;
+
+import java.io.StringReader;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.test.annotation.AfterComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.velocity.VelocityManager;
+import org.xwiki.velocity.VelocityTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link CompiledTemplateCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class CompiledTemplateCacheTest
+{
+    @InjectMockComponents
+    private CompiledTemplateCache cache;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private VelocityManager velocityManager;
+
+    @AfterComponent
+    void afterComponent()
+    {
+        when(this.configuration.getProperty("template.compiledCache.size", 1000)).thenReturn(2);
+    }
+
+    @Test
+    void getVelocityTemplateWithSameContent() throws Exception
+    {
+        VelocityTemplate template = mock();
+        when(this.velocityManager.compile(eq("skin1"), any(StringReader.class))).thenReturn(template);
+
+        assertSame(template, this.cache.getVelocityTemplate("skin1", "content"));
+        assertSame(template, this.cache.getVelocityTemplate("skin2", "content"));
+
+        verify(this.velocityManager).compile(eq("skin1"), any(StringReader.class));
+        verify(this.velocityManager, times(1)).compile(any(), any(StringReader.class));
+        assertEquals(1, this.cache.size());
+    }
+
+    @Test
+    void getVelocityTemplateWithDifferentContent() throws Exception
+    {
+        when(this.velocityManager.compile(any(), any(StringReader.class)))
+            .then(invocation -> mock(VelocityTemplate.class));
+
+        VelocityTemplate template1 = this.cache.getVelocityTemplate("template", "content1");
+        VelocityTemplate template2 = this.cache.getVelocityTemplate("template", "content2");
+
+        assertNotSame(template1, template2);
+        assertSame(template1, this.cache.getVelocityTemplate("other", "content1"));
+
+        // Exceed the maximum size
+        this.cache.getVelocityTemplate("template", "content3");
+
+        assertEquals(2, this.cache.size());
+        assertNotSame(template2, this.cache.getVelocityTemplate("template", "content2"));
+    }
+
+    @Test
+    void invalidate() throws Exception
+    {
+        when(this.velocityManager.compile(any(), any(StringReader.class)))
+            .then(invocation -> mock(VelocityTemplate.class));
+
+        VelocityTemplate template = this.cache.getVelocityTemplate("template", "content");
+
+        this.cache.invalidate("other");
+        assertEquals(1, this.cache.size());
+
+        this.cache.invalidate("template");
+        assertEquals(0, this.cache.size());
+
+        assertNotSame(template, this.cache.getVelocityTemplate("template", "content"));
+    }
+}
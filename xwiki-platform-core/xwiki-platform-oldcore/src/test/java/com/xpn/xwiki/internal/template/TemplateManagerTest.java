@@ -113,6 +113,8 @@ void afterComponent() throws Exception
 
         MemoryConfigurationSource configuration = this.componentManager.registerMemoryConfigurationSource();
         this.componentManager.registerComponent(MockConfigurationSource.getDescriptor("all"), configuration);
+        this.componentManager.registerComponent(MockConfigurationSource.getDescriptor("xwikiproperties"),
+            configuration);
     }
 
     @BeforeEach
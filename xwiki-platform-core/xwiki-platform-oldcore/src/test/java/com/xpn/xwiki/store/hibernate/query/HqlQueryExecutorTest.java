@@ -25,6 +25,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.inject.Named;
 
@@ -48,6 +49,7 @@
 import org.xwiki.query.hql.internal.ConfigurableHQLCompleteStatementValidator;
 import org.xwiki.query.hql.internal.DefaultHQLStatementValidator;
 import org.xwiki.query.hql.internal.HQLCompleteStatementValidator;
+import org.xwiki.query.hql.internal.HQLQueryCache;
 import org.xwiki.query.hql.internal.StandardHQLCompleteStatementValidator;
 import org.xwiki.query.internal.DefaultQuery;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
@@ -105,6 +107,9 @@
     @MockComponent
     private Execution execution;
 
+    @MockComponent
+    private HQLQueryCache queryCache;
+
     @MockComponent
     @Named("xwikiproperties")
     private ConfigurationSource xwikiproperties;
@@ -141,6 +146,9 @@ public Boolean answer(InvocationOnMock invocation) throws Throwable
 
         this.hasProgrammingRight = true;
 
+        when(this.queryCache.getResults(any(), any()))
+            .then(invocation -> invocation.<Callable<List<?>>>getArgument(1).call());
+
         when(this.contextComponentMannager
             .<HQLCompleteStatementValidator>getInstanceList(HQLCompleteStatementValidator.class))
                 .thenReturn(List.of(configurableValidator));
@@ -29,6 +29,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -86,6 +87,15 @@ public void npeJavascriptMimetype()
         assertFalse(this.action.isJavascriptMimeType(null));
     }
 
+    @Test
+    void getETag()
+    {
+        String etag = this.action.getETag("body { color: red; }".getBytes());
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, this.action.getETag("body { color: red; }".getBytes()));
+        assertNotEquals(etag, this.action.getETag("body { color: blue; }".getBytes()));
+    }
+
     @Test
     public void incorrectSkinFile()
     {
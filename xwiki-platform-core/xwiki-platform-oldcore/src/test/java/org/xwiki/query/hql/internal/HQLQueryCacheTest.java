@@ -0,0 +1,334 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.hql.internal;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.NamedQueryDefinition;
+import org.hibernate.mapping.PersistentClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.internal.DefaultQuery;
+import org.xwiki.test.annotation.AfterComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.doc.XWikiLock;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.objects.BaseObject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link HQLQueryCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class HQLQueryCacheTest
+{
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("wiki", "XWiki", "XWikiUsers");
+
+    @InjectMockComponents
+    private HQLQueryCache cache;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private HibernateStore hibernateStore;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterComponent
+    void afterComponent()
+    {
+        when(this.configuration.getProperty("query.hql.cache.size", 1000)).thenReturn(1000);
+        when(this.configuration.getProperty("query.hql.cache.namedQueries", List.class))
+            .thenReturn(List.of("cachedNamedQuery"));
+    }
+
+    @BeforeEach
+    void beforeEach()
+    {
+        Metadata metadata = mock(Metadata.class);
+        when(this.hibernateStore.getConfigurationMetadata()).thenReturn(metadata);
+        when(metadata.getImports()).thenReturn(Map.of("XWikiDocument", XWikiDocument.class.getName(), "BaseObject",
+            BaseObject.class.getName(), "XWikiLock", XWikiLock.class.getName()));
+        when(metadata.getEntityBinding(XWikiLock.class.getName())).thenReturn(mock(PersistentClass.class));
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+        when(xcontext.getWikiId()).thenReturn("wiki");
+
+        when(this.localSerializer.serialize(CLASS_REFERENCE)).thenReturn("XWiki.XWikiUsers");
+    }
+
+    private Query query(String statement, boolean cached)
+    {
+        Query query = new DefaultQuery(statement, Query.HQL, null);
+        if (cached) {
+            query.addFilter(new CacheQueryFilter());
+        }
+
+        return query;
+    }
+
+    private List<Object> execute(Query query) throws Exception
+    {
+        return execute(query, () -> {
+            this.executions.incrementAndGet();
+
+            return new ArrayList<>(List.of("result", new Object[] {"value", new Date(0)}));
+        });
+    }
+
+    private List<Object> execute(Query query, Callable<List<Object>> loader) throws Exception
+    {
+        return this.cache.getResults(query, loader);
+    }
+
+    private XWikiDocument document(String wiki, DocumentReference... classes)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        DocumentReference reference = new DocumentReference(wiki, "Space", "Page");
+        when(document.getDocumentReference()).thenReturn(reference);
+        when(this.localSerializer.serialize(reference)).thenReturn("Space.Page");
+        Map<DocumentReference, List<BaseObject>> objects = new HashMap<>();
+        for (DocumentReference classReference : classes) {
+            objects.put(classReference, List.of(mock(BaseObject.class)));
+        }
+        when(document.getXObjects()).thenReturn(objects);
+
+        return document;
+    }
+
+    @Test
+    void getResultsCachedUntilDocumentModified() throws Exception
+    {
+        Query query = query("select doc.fullName from XWikiDocument doc", true);
+
+        List<Object> results = execute(query);
+        List<Object> cachedResults = execute(query);
+
+        assertEquals(1, this.executions.get());
+        assertEquals(2, cachedResults.size());
+        assertEquals("result", cachedResults.get(0));
+        // The cached results are copied to not be impacted by modifications of the returned list
+        assertNotSame(results.get(1), cachedResults.get(1));
+        assertEquals(new Date(0), ((Object[]) cachedResults.get(1))[1]);
+        assertEquals(1, this.cache.size());
+
+        // Modification in another wiki
+        this.cache.invalidate(document("otherwiki"));
+        execute(query);
+        assertEquals(1, this.executions.get());
+
+        this.cache.invalidate(document("wiki"));
+        execute(query);
+        assertEquals(2, this.executions.get());
+    }
+
+    @Test
+    void getResultsWithDifferentParameters() throws Exception
+    {
+        execute(query("select doc.fullName from XWikiDocument doc where doc.space = :space", true)
+            .bindValue("space", "Space1"));
+        execute(query("select doc.fullName from XWikiDocument doc where doc.space = :space", true)
+            .bindValue("space", "Space2"));
+        execute(query("select doc.fullName from XWikiDocument doc where doc.space = :space", true)
+            .bindValue("space", "Space1").setLimit(10));
+        execute(query("select doc.fullName from XWikiDocument doc where doc.space = :space", true)
+            .bindValue("space", "Space1"));
+
+        assertEquals(3, this.executions.get());
+    }
+
+    @Test
+    void getResultsNotRequested() throws Exception
+    {
+        Query query = query("select doc.fullName from XWikiDocument doc", false);
+
+        execute(query);
+        execute(query);
+
+        assertEquals(2, this.executions.get());
+    }
+
+    @Test
+    void getResultsForConfiguredNamedQuery() throws Exception
+    {
+        NamedQueryDefinition definition = mock(NamedQueryDefinition.class);
+        when(definition.getQuery()).thenReturn("select doc.fullName from XWikiDocument doc");
+        when(this.hibernateStore.getConfigurationMetadata().getNamedQueryDefinition("cachedNamedQuery"))
+            .thenReturn(definition);
+
+        Query query = new DefaultQuery("cachedNamedQuery", null);
+
+        execute(query);
+        execute(query);
+
+        assertEquals(1, this.executions.get());
+    }
+
+    @Test
+    void getResultsWithObjectsInvalidatedByClass() throws Exception
+    {
+        Query query = query("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and obj.className = 'XWiki.XWikiUsers'", true);
+
+        execute(query);
+
+        // A document without any object of the class
+        this.cache.invalidate(document("wiki"));
+        execute(query);
+        assertEquals(1, this.executions.get());
+
+        // A document with an object of the class
+        this.cache.invalidate(document("wiki", CLASS_REFERENCE));
+        execute(query);
+        assertEquals(2, this.executions.get());
+    }
+
+    @Test
+    void getResultsWithObjectsInvalidatedByParameterClass() throws Exception
+    {
+        Query query = query("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and obj.className in (:classes) "
+            + "and (doc.hidden <> true or doc.hidden is null)", true).bindValue("classes", List.of("XWiki.XWikiUsers"));
+
+        execute(query);
+
+        this.cache.invalidate(document("wiki"));
+        execute(query);
+        assertEquals(1, this.executions.get());
+
+        this.cache.invalidate(document("wiki", CLASS_REFERENCE));
+        execute(query);
+        assertEquals(2, this.executions.get());
+    }
+
+    @Test
+    void getResultsWithObjectsOfNegatedClass() throws Exception
+    {
+        assertInvalidatedByAnyDocument("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and obj.className <> 'XWiki.XWikiComments'");
+        assertInvalidatedByAnyDocument("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and not obj.className = 'XWiki.XWikiComments'");
+    }
+
+    @Test
+    void getResultsWithObjectsOfLikeClass() throws Exception
+    {
+        assertInvalidatedByAnyDocument("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and obj.className like 'XWiki.%Class'");
+    }
+
+    @Test
+    void getResultsWithObjectsAndOtherLiteral() throws Exception
+    {
+        assertInvalidatedByAnyDocument("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and doc.space = 'Main'");
+        assertInvalidatedByAnyDocument("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and obj.className = 'XWiki.XWikiUsers' or doc.space = 'Main'");
+    }
+
+    private void assertInvalidatedByAnyDocument(String statement) throws Exception
+    {
+        this.executions.set(0);
+        Query query = query(statement, true);
+
+        execute(query);
+        execute(query);
+        assertEquals(1, this.executions.get());
+
+        // A document without any object of the classes mentioned in the query
+        this.cache.invalidate(document("wiki", new DocumentReference("wiki", "Space", "OtherClass")));
+        execute(query);
+        assertEquals(2, this.executions.get());
+    }
+
+    @Test
+    void getResultsFromOtherTables() throws Exception
+    {
+        Query query = query("select lock.userName from XWikiLock lock", true);
+
+        execute(query);
+        execute(query);
+
+        assertEquals(2, this.executions.get());
+    }
+
+    @Test
+    void getResultsWithEntities() throws Exception
+    {
+        Query query = query("select doc from XWikiDocument doc", true);
+        Callable<List<Object>> loader = () -> {
+            this.executions.incrementAndGet();
+
+            return List.of(new Object());
+        };
+
+        execute(query, loader);
+        execute(query, loader);
+
+        assertEquals(2, this.executions.get());
+    }
+
+    @Test
+    void getResultsAfterWikiDeleted() throws Exception
+    {
+        Query query = query("select doc.fullName from XWikiDocument doc", true);
+
+        execute(query);
+        this.cache.invalidate("wiki");
+        execute(query);
+
+        assertEquals(2, this.executions.get());
+    }
+}
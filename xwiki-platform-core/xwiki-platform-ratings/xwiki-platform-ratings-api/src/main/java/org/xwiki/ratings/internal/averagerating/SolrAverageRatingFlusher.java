@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.ratings.internal.averagerating;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+
+/**
+ * Write in the background the average rating votes accumulated by the {@link SolrAverageRatingManager} instances.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = SolrAverageRatingFlusher.class)
+@Singleton
+public class SolrAverageRatingFlusher implements Disposable
+{
+    private static final String UPDATE_DELAY_PROPERTY = "ratings.averageRating.updateDelay";
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configurationSource;
+
+    @Inject
+    private ExecutionContextManager contextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The managers for which a flush is scheduled.
+     */
+    private final Set<SolrAverageRatingManager> scheduledManagers = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @return the number of milliseconds during which the average rating votes are accumulated in memory before
+     *         being written, {@code 0} to write each vote immediately
+     */
+    public long getUpdateDelay()
+    {
+        return this.configurationSource.getProperty(UPDATE_DELAY_PROPERTY, 0L);
+    }
+
+    /**
+     * Schedule the writing of the votes accumulated by the passed manager, unless it's already scheduled.
+     *
+     * @param manager the manager to flush
+     */
+    public void schedule(SolrAverageRatingManager manager)
+    {
+        if (this.scheduledManagers.add(manager)) {
+            try {
+                getExecutor().schedule(() -> flush(manager), getUpdateDelay(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // The component is being disposed
+                this.scheduledManagers.remove(manager);
+                manager.flush();
+            }
+        }
+    }
+
+    private synchronized ScheduledExecutorService getExecutor()
+    {
+        if (this.executor == null) {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki average rating update thread").daemon(true).build();
+            this.executor = new ScheduledThreadPoolExecutor(1, factory);
+        }
+
+        return this.executor;
+    }
+
+    private void flush(SolrAverageRatingManager manager)
+    {
+        // Remove the manager first so that the votes added during the flush schedule a new one
+        this.scheduledManagers.remove(manager);
+
+        try {
+            this.contextManager.initialize(new ExecutionContext());
+
+            manager.flush();
+        } catch (ExecutionContextException e) {
+            this.logger.error("Failed to initialize the execution context to write the average ratings", e);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        synchronized (this) {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+            }
+        }
+
+        // Don't lose the accumulated votes
+        for (SolrAverageRatingManager manager : this.scheduledManagers) {
+            this.scheduledManagers.remove(manager);
+            manager.flush();
+        }
+    }
+}
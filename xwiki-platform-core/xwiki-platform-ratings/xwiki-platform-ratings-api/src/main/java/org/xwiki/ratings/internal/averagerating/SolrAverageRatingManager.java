@@ -22,8 +22,15 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -35,19 +42,28 @@
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.observation.event.Event;
 import org.xwiki.ratings.AverageRating;
 import org.xwiki.ratings.RatingsException;
 import org.xwiki.ratings.RatingsManager;
+import org.xwiki.ratings.events.UpdateAverageRatingFailedEvent;
+import org.xwiki.ratings.events.UpdatedAverageRatingEvent;
+import org.xwiki.ratings.events.UpdatingAverageRatingEvent;
 import org.xwiki.search.solr.Solr;
 import org.xwiki.search.solr.SolrException;
 import org.xwiki.search.solr.SolrUtils;
 
 /**
  * Implementation of {@link AverageRatingManager} that stores the average rating in Solr.
+ * <p>
+ * When an update delay is configured (see {@link SolrAverageRatingFlusher#getUpdateDelay()}), the votes are
+ * accumulated in memory and written in batches, with a single commit, instead of reading and writing the average
+ * rating for each vote. The accumulated votes are merged with the stored average rating when reading it.
  *
  * @version $Id$
  * @since 12.9RC1
@@ -61,12 +77,67 @@ public class SolrAverageRatingManager extends AbstractAverageRatingManager
 
     private static final String FILTER_REFERENCE_OR_PARENTS = "filter(%s:%s) AND (filter(%s:%s) OR filter(%s:%s))";
 
+    private interface AverageRatingEventFactory
+    {
+        Event create(AverageRating averageRating, float oldAverageVote, int oldTotalVote);
+    }
+
+    /**
+     * The votes accumulated for an entity since the last write of its average rating.
+     */
+    private static final class PendingVotes
+    {
+        private final AverageRating averageRating;
+
+        private final long sum;
+
+        private final int count;
+
+        PendingVotes(AverageRating averageRating, long sum, int count)
+        {
+            this.averageRating = averageRating;
+            this.sum = sum;
+            this.count = count;
+        }
+
+        PendingVotes add(long sumDelta, int countDelta)
+        {
+            return new PendingVotes(this.averageRating, this.sum + sumDelta, this.count + countDelta);
+        }
+
+        PendingVotes merge(PendingVotes other)
+        {
+            return add(other.sum, other.count);
+        }
+    }
+
     @Inject
     private SolrUtils solrUtils;
 
     @Inject
     private Solr solr;
 
+    @Inject
+    private SolrAverageRatingFlusher flusher;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The votes which are not yet written, indexed by rated entity.
+     */
+    private final Map<EntityReference, PendingVotes> pendingVotes = new ConcurrentHashMap<>();
+
+    /**
+     * The votes which are being written, indexed by rated entity.
+     */
+    private final Map<EntityReference, PendingVotes> flushingVotes = new ConcurrentHashMap<>();
+
+    /**
+     * Make sure the stored average ratings and the votes being written are read consistently.
+     */
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
     private SolrClient getAverageRatingSolrClient() throws SolrException
     {
         return this.solr.getClient(AverageRatingSolrCoreInitializer.DEFAULT_AVERAGE_RATING_SOLR_CORE);
@@ -102,6 +173,22 @@ private SolrInputDocument getInputDocumentFromAverageRating(AverageRating averag
 
     @Override
     public AverageRating getAverageRating(EntityReference entityReference) throws RatingsException
+    {
+        if (this.pendingVotes.isEmpty() && this.flushingVotes.isEmpty()) {
+            return getStoredAverageRating(entityReference);
+        }
+
+        this.flushLock.readLock().lock();
+        try {
+            AverageRating averageRating = getStoredAverageRating(entityReference);
+            averageRating = applyVotes(averageRating, this.flushingVotes.get(entityReference));
+            return applyVotes(averageRating, this.pendingVotes.get(entityReference));
+        } finally {
+            this.flushLock.readLock().unlock();
+        }
+    }
+
+    private AverageRating getStoredAverageRating(EntityReference entityReference) throws RatingsException
     {
         SolrQuery solrQuery = new SolrQuery()
             .addFilterQuery(String.format("filter(%s:%s) AND filter(%s:%s)",
@@ -136,9 +223,159 @@ public AverageRating getAverageRating(EntityReference entityReference) throws Ra
         }
     }
 
+    private AverageRating applyVotes(AverageRating averageRating, PendingVotes votes)
+    {
+        if (votes == null || (votes.sum == 0 && votes.count == 0)) {
+            return averageRating;
+        }
+
+        int totalVote = averageRating.getNbVotes() + votes.count;
+        float sum = averageRating.getAverageVote() * averageRating.getNbVotes() + votes.sum;
+
+        return new DefaultAverageRating(averageRating)
+            .setTotalVote(totalVote)
+            .setAverageVote(totalVote > 0 ? sum / totalVote : 0)
+            .setUpdatedAt(new Date());
+    }
+
+    @Override
+    public AverageRating addVote(EntityReference entityReference, int newVote) throws RatingsException
+    {
+        if (this.flusher.getUpdateDelay() > 0) {
+            return addPendingVotes(entityReference, newVote, 1);
+        }
+
+        return super.addVote(entityReference, newVote);
+    }
+
+    @Override
+    public AverageRating removeVote(EntityReference entityReference, int oldVote) throws RatingsException
+    {
+        if (this.flusher.getUpdateDelay() > 0) {
+            return addPendingVotes(entityReference, -oldVote, -1);
+        }
+
+        return super.removeVote(entityReference, oldVote);
+    }
+
+    @Override
+    public AverageRating updateVote(EntityReference entityReference, int oldVote, int newVote)
+        throws RatingsException
+    {
+        if (this.flusher.getUpdateDelay() > 0) {
+            return addPendingVotes(entityReference, (long) newVote - oldVote, 0);
+        }
+
+        return super.updateVote(entityReference, oldVote, newVote);
+    }
+
+    private AverageRating addPendingVotes(EntityReference entityReference, long sumDelta, int countDelta)
+        throws RatingsException
+    {
+        PendingVotes votes = this.pendingVotes.get(entityReference);
+        // Remember the average rating when the first vote is accumulated to be able to return the updated one
+        // without reading it each time
+        AverageRating averageRating = votes != null ? votes.averageRating : getAverageRating(entityReference);
+
+        votes = this.pendingVotes.compute(entityReference,
+            (key, current) -> current != null ? current.add(sumDelta, countDelta)
+                : new PendingVotes(averageRating, sumDelta, countDelta));
+
+        this.flusher.schedule(this);
+
+        return applyVotes(votes.averageRating, votes);
+    }
+
+    /**
+     * Write the accumulated votes.
+     */
+    synchronized void flush()
+    {
+        if (this.pendingVotes.isEmpty()) {
+            return;
+        }
+
+        Map<EntityReference, PendingVotes> votesToWrite;
+        this.flushLock.writeLock().lock();
+        try {
+            for (EntityReference entityReference : List.copyOf(this.pendingVotes.keySet())) {
+                this.flushingVotes.put(entityReference, this.pendingVotes.remove(entityReference));
+            }
+            votesToWrite = new HashMap<>(this.flushingVotes);
+        } finally {
+            this.flushLock.writeLock().unlock();
+        }
+
+        List<AverageRating> averageRatings = new ArrayList<>(votesToWrite.size());
+        List<AverageRating> oldAverageRatings = new ArrayList<>(votesToWrite.size());
+        try {
+            for (Map.Entry<EntityReference, PendingVotes> entry : votesToWrite.entrySet()) {
+                AverageRating oldAverageRating = getStoredAverageRating(entry.getKey());
+                AverageRating averageRating = applyVotes(oldAverageRating, entry.getValue());
+
+                notify(averageRating, oldAverageRating, UpdatingAverageRatingEvent::new);
+                this.getAverageRatingSolrClient().add(this.getInputDocumentFromAverageRating(averageRating));
+
+                averageRatings.add(averageRating);
+                oldAverageRatings.add(oldAverageRating);
+            }
+
+            this.flushLock.writeLock().lock();
+            try {
+                this.getAverageRatingSolrClient().commit();
+                this.flushingVotes.clear();
+            } finally {
+                this.flushLock.writeLock().unlock();
+            }
+        } catch (RatingsException | SolrException | SolrServerException | IOException e) {
+            this.logger.error("Failed to write the average ratings of [{}]", votesToWrite.keySet(), e);
+
+            for (int i = 0; i < averageRatings.size(); ++i) {
+                notify(averageRatings.get(i), oldAverageRatings.get(i), UpdateAverageRatingFailedEvent::new);
+            }
+
+            // Keep the votes to retry with the next flush
+            this.flushLock.writeLock().lock();
+            try {
+                for (Map.Entry<EntityReference, PendingVotes> entry : votesToWrite.entrySet()) {
+                    this.pendingVotes.merge(entry.getKey(), entry.getValue(), PendingVotes::merge);
+                }
+                this.flushingVotes.clear();
+            } finally {
+                this.flushLock.writeLock().unlock();
+            }
+            this.flusher.schedule(this);
+
+            return;
+        }
+
+        for (int i = 0; i < averageRatings.size(); ++i) {
+            notify(averageRatings.get(i), oldAverageRatings.get(i), UpdatedAverageRatingEvent::new);
+        }
+    }
+
+    private void notify(AverageRating averageRating, AverageRating oldAverageRating, AverageRatingEventFactory factory)
+    {
+        this.getObservationManager().notify(
+            factory.create(averageRating, oldAverageRating.getAverageVote(), oldAverageRating.getNbVotes()),
+            this.getIdentifier(), Collections.singletonList(averageRating));
+    }
+
+    @Override
+    public AverageRating resetAverageRating(EntityReference entityReference, float averageVote, int totalVote)
+        throws RatingsException
+    {
+        // Make sure the accumulated votes are not applied on top of the reset value
+        flush();
+
+        return super.resetAverageRating(entityReference, averageVote, totalVote);
+    }
+
     @Override
     public long removeAverageRatings(EntityReference entityReference) throws RatingsException
     {
+        flush();
+
         String escapedEntityReference =
             this.solrUtils.toCompleteFilterQueryString(entityReference, EntityReference.class);
         String filterQuery = String.format(FILTER_REFERENCE_OR_PARENTS,
@@ -167,6 +404,8 @@ public long removeAverageRatings(EntityReference entityReference) throws Ratings
     public long moveAverageRatings(EntityReference oldReference, EntityReference newReference)
         throws RatingsException
     {
+        flush();
+
         String escapedEntityReference = this.solrUtils.toCompleteFilterQueryString(oldReference, EntityReference.class);
         String filterQuery = String.format(FILTER_REFERENCE_OR_PARENTS,
             AverageRatingQueryField.MANAGER_ID.getFieldName(),
@@ -37,6 +37,7 @@
 import org.apache.solr.common.SolrInputDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
@@ -83,6 +84,9 @@
     @MockComponent
     private RatingsManager ratingsManager;
 
+    @MockComponent
+    private SolrAverageRatingFlusher flusher;
+
     @Mock
     private SolrClient solrClient;
 
@@ -218,6 +222,62 @@ void getAverageRatingNotExisting() throws Exception
         assertEquals(expectedRating, averageRating);
     }
 
+    @Test
+    void addVoteWithUpdateDelay() throws Exception
+    {
+        when(this.flusher.getUpdateDelay()).thenReturn(1000L);
+        when(this.solr.getClient(AverageRatingSolrCoreInitializer.DEFAULT_AVERAGE_RATING_SOLR_CORE))
+            .thenReturn(this.solrClient);
+
+        String managerId = "delayed";
+        when(this.ratingsManager.getIdentifier()).thenReturn(managerId);
+        EntityReference reference = mock(EntityReference.class);
+        when(reference.toString()).thenReturn("xwiki:Delayed");
+
+        String filterQuery = "filter(managerId:delayed) AND filter(reference:xwiki\\:Delayed)";
+        SolrQuery solrQuery = new SolrQuery().addFilterQuery(filterQuery)
+            .setStart(0)
+            .setRows(1)
+            .setSort("updatedAt", SolrQuery.ORDER.asc);
+        QueryResponse response = prepareSolrClientQueryWhenStatement(this.solrClient, solrQuery);
+        when(response.getResults()).thenReturn(this.documentList);
+        when(this.documentList.isEmpty()).thenReturn(false);
+
+        Map<String, Object> fieldMap = new HashMap<>();
+        fieldMap.put("id", "average1");
+        fieldMap.put(AverageRatingQueryField.AVERAGE_VOTE.getFieldName(), 4.0f);
+        fieldMap.put(AverageRatingQueryField.TOTAL_VOTE.getFieldName(), 2);
+        fieldMap.put(AverageRatingQueryField.MANAGER_ID.getFieldName(), managerId);
+        fieldMap.put(AverageRatingQueryField.UPDATED_AT.getFieldName(), new Date(42));
+        fieldMap.put(AverageRatingQueryField.SCALE.getFieldName(), 5);
+        when(this.documentList.get(0)).thenReturn(new SolrDocument(fieldMap));
+
+        this.averageRatingManager.addVote(reference, 1);
+        this.averageRatingManager.addVote(reference, 1);
+        AverageRating averageRating = this.averageRatingManager.updateVote(reference, 1, 3);
+
+        // ((4 * 2) + 1 + 3) / 4 -> 12 / 4 -> 3
+        assertEquals(3.0f, averageRating.getAverageVote());
+        assertEquals(4, averageRating.getNbVotes());
+
+        // The accumulated votes are merged when reading the average rating
+        averageRating = this.averageRatingManager.getAverageRating(reference);
+        assertEquals(3.0f, averageRating.getAverageVote());
+        assertEquals(4, averageRating.getNbVotes());
+
+        verify(this.flusher, times(3)).schedule(this.averageRatingManager);
+        verify(this.solrClient, times(0)).add(any(SolrInputDocument.class));
+
+        this.averageRatingManager.flush();
+
+        ArgumentCaptor<SolrInputDocument> documentCaptor = ArgumentCaptor.forClass(SolrInputDocument.class);
+        verify(this.solrClient).add(documentCaptor.capture());
+        verify(this.solrClient).commit();
+        SolrInputDocument document = documentCaptor.getValue();
+        assertEquals(3.0f, document.getFieldValue(AverageRatingQueryField.AVERAGE_VOTE.getFieldName()));
+        assertEquals(4, document.getFieldValue(AverageRatingQueryField.TOTAL_VOTE.getFieldName()));
+    }
+
     @Test
     void saveAverageRating() throws Exception
     {
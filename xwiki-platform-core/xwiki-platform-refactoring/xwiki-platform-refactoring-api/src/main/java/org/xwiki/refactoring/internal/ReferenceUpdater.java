@@ -48,6 +48,23 @@ default void update(DocumentReference documentReference, EntityReference oldTarg
         update(documentReference, oldTargetReference, newTargetReference);
     }
 
+    /**
+     * Update the references to several renamed entities at once, so that the document is loaded, parsed and saved only
+     * once whatever the number of renamed entities it's linking to.
+     *
+     * @param documentReference the reference of the document in which to update the references
+     * @param renamedEntities the renamed entities: the map contains the previous and the new reference of each entity
+     * @param updatedEntities the map of entities that are or are going to be updated: the map contains the source
+     * and target destination.
+     * @since 17.2.0RC1
+     */
+    default void updateAll(DocumentReference documentReference, Map<EntityReference, EntityReference> renamedEntities,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        renamedEntities.forEach((oldTargetReference, newTargetReference) -> update(documentReference,
+            oldTargetReference, newTargetReference, updatedEntities));
+    }
+
     /**
      * @param documentReference the reference of the document in which to update the references
      * @param oldTargetReference the previous reference of the renamed entity
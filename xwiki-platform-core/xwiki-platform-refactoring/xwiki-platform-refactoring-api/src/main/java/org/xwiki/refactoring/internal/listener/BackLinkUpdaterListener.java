@@ -19,8 +19,10 @@
  */
 package org.xwiki.refactoring.internal.listener;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
@@ -33,6 +35,7 @@
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.job.JobContext;
+import org.xwiki.job.event.JobFinishedEvent;
 import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
@@ -40,6 +43,7 @@
 import org.xwiki.observation.event.Event;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
 import org.xwiki.refactoring.internal.job.DeleteJob;
@@ -87,12 +91,36 @@ public class BackLinkUpdaterListener extends AbstractLocalEventListener
     @Inject
     private Provider<LinkIndexingWaitingHelper> linkIndexingHelper;
 
+    /**
+     * The back-links updates postponed to the end of the move jobs asking to group them, indexed by job.
+     */
+    private final Map<MoveJob, GroupedLinkUpdates> groupedUpdates = new ConcurrentHashMap<>();
+
+    /**
+     * The back-links updates of a move job.
+     *
+     * @version $Id$
+     */
+    private static final class GroupedLinkUpdates
+    {
+        /**
+         * The renamed entities, indexed by linking document.
+         */
+        private final Map<DocumentReference, Map<EntityReference, EntityReference>> updates = new LinkedHashMap<>();
+
+        /**
+         * The documents renamed by the job (old reference to new reference).
+         */
+        private final Map<DocumentReference, DocumentReference> renamedDocuments = new LinkedHashMap<>();
+    }
+
     /**
      * Default constructor.
      */
     public BackLinkUpdaterListener()
     {
-        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent());
+        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent(), new EntitiesRenamedEvent(),
+            new JobFinishedEvent());
     }
 
     @Override
@@ -103,6 +131,9 @@ public void processLocalEvent(Event event, Object source, Object data)
                 maybeUpdateLinksAfterRename(event, source, data);
             } else if (event instanceof DocumentDeletedEvent && this.jobContext.getCurrentJob() instanceof DeleteJob) {
                 maybeUpdateLinksAfterDelete(event);
+            } else if (source instanceof MoveJob) {
+                // The end of the move job (or the end of the job thread when it failed before reaching the end)
+                updateGroupedBackLinks((MoveJob) source);
             }
         } catch (RefactoringException e) {
             this.logger.error("Failed to update links backlinks", e);
@@ -128,10 +159,12 @@ private void maybeUpdateLinksAfterRename(Event event, Object source, Object data
         Predicate<EntityReference> canEdit =
             entityReference -> this.authorization.hasAccess(Right.EDIT, entityReference);
 
+        boolean groupLinkUpdates = false;
         Map<EntityReference, EntityReference> updatedEntities = Map.of();
         if (source instanceof MoveJob) {
             MoveRequest request = (MoveRequest) data;
             updateLinks = request.isUpdateLinks();
+            groupLinkUpdates = request.isGroupLinkUpdates();
             // Check access rights taking into account the move request.
             canEdit = entityReference -> ((MoveJob) source).hasAccess(Right.EDIT, entityReference);
             updatedEntities = ((MoveJob) source).getSelectedEntities();
@@ -139,8 +172,63 @@ private void maybeUpdateLinksAfterRename(Event event, Object source, Object data
 
         if (updateLinks) {
             DocumentRenamedEvent renameEvent = (DocumentRenamedEvent) event;
-            updateBackLinks(renameEvent.getSourceReference(), renameEvent.getTargetReference(), canEdit,
-                updatedEntities);
+            if (groupLinkUpdates) {
+                groupBackLinks((MoveJob) source, renameEvent.getSourceReference(), renameEvent.getTargetReference(),
+                    canEdit);
+            } else {
+                updateBackLinks(renameEvent.getSourceReference(), renameEvent.getTargetReference(), canEdit,
+                    updatedEntities);
+            }
+        }
+    }
+
+    private void groupBackLinks(MoveJob job, DocumentReference source, DocumentReference target,
+        Predicate<EntityReference> canEdit) throws RefactoringException
+    {
+        this.logger.debug("Collecting the back-links for document [{}].", source);
+
+        this.linkIndexingHelper.get().maybeWaitForLinkIndexingWithLog(10, TimeUnit.SECONDS);
+
+        GroupedLinkUpdates jobUpdates = this.groupedUpdates.computeIfAbsent(job, key -> new GroupedLinkUpdates());
+        jobUpdates.renamedDocuments.put(source, target);
+        for (DocumentReference backlinkDocumentReference : this.modelBridge.getBackLinkedDocuments(source)) {
+            if (canEdit.test(backlinkDocumentReference)) {
+                jobUpdates.updates.computeIfAbsent(backlinkDocumentReference, key -> new LinkedHashMap<>())
+                    .put(source, target);
+            }
+        }
+    }
+
+    private void updateGroupedBackLinks(MoveJob job)
+    {
+        GroupedLinkUpdates jobUpdates = this.groupedUpdates.remove(job);
+        if (jobUpdates == null || jobUpdates.updates.isEmpty()) {
+            return;
+        }
+
+        Map<EntityReference, EntityReference> updatedEntities = job.getSelectedEntities();
+
+        // Take into account the linking documents which have been moved by the job after their links were collected.
+        // Note that we can't rely on the existence of the old reference since a redirect may have been created there.
+        Map<DocumentReference, Map<EntityReference, EntityReference>> documentUpdates = new LinkedHashMap<>();
+        jobUpdates.updates.forEach((documentReference, renamedEntities) -> documentUpdates
+            .computeIfAbsent(jobUpdates.renamedDocuments.getOrDefault(documentReference, documentReference),
+                key -> new LinkedHashMap<>())
+            .putAll(renamedEntities));
+
+        this.logger.info("Updating the back-links of [{}] documents.", documentUpdates.size());
+
+        this.progressManager.pushLevelProgress(documentUpdates.size(), this);
+
+        try {
+            for (Map.Entry<DocumentReference, Map<EntityReference, EntityReference>> entry : documentUpdates
+                .entrySet()) {
+                this.progressManager.startStep(this);
+                this.updater.updateAll(entry.getKey(), entry.getValue(), updatedEntities);
+                this.progressManager.endStep(this);
+            }
+        } finally {
+            this.progressManager.popLevelProgress(this);
         }
     }
 
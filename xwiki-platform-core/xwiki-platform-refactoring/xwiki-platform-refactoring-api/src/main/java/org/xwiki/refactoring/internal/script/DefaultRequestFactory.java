@@ -201,6 +201,7 @@ private MoveRequest createMoveRequest(String type, Collection<EntityReference> s
         initEntityRequest(request, type, sources);
         request.setDestination(destination);
         request.setUpdateLinks(true);
+        request.setGroupLinkUpdates(true);
         request.setAutoRedirect(true);
         request.setUpdateParentField(true);
         return request;
@@ -20,6 +20,7 @@
 package org.xwiki.refactoring.job;
 
 import org.xwiki.job.Request;
+import org.xwiki.stability.Unstable;
 
 /**
  * A job request that can be used to move a collection of entities to a specified destination. This request can also be
@@ -53,6 +54,11 @@ public class MoveRequest extends AbstractCopyOrMoveRequest
      */
     private static final String PROPERTY_UPDATE_PARENT_FIELD = "updateParentField";
 
+    /**
+     * @see #isGroupLinkUpdates()
+     */
+    private static final String PROPERTY_GROUP_LINK_UPDATES = "groupLinkUpdates";
+
     /**
      * Default constructor.
      */
@@ -142,4 +148,30 @@ public void setUpdateParentField(boolean updateParentField)
     {
         setProperty(PROPERTY_UPDATE_PARENT_FIELD, updateParentField);
     }
+
+    /**
+     * @return {@code true} if the back-links of the moved documents should be updated at the end of the job, once per
+     *         linking document, instead of after each moved document; this makes sure a document linking to several
+     *         moved documents is parsed and saved only once
+     * @since 17.2.0RC1
+     */
+    @Unstable
+    public boolean isGroupLinkUpdates()
+    {
+        return getProperty(PROPERTY_GROUP_LINK_UPDATES, false);
+    }
+
+    /**
+     * Sets whether the back-links of the moved documents should be updated at the end of the job, once per linking
+     * document, instead of after each moved document.
+     *
+     * @param groupLinkUpdates {@code true} to update the back-links at the end of the job, {@code false} to update
+     *            them after each moved document
+     * @since 17.2.0RC1
+     */
+    @Unstable
+    public void setGroupLinkUpdates(boolean groupLinkUpdates)
+    {
+        setProperty(PROPERTY_GROUP_LINK_UPDATES, groupLinkUpdates);
+    }
 }
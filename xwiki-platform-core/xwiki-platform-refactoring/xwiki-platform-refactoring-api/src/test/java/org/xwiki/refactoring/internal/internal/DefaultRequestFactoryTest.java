@@ -144,6 +144,7 @@ void createMoveRequest()
         assertFalse(moveRequest.isDeep());
         assertTrue(moveRequest.isDeleteSource());
         assertTrue(moveRequest.isUpdateLinks());
+        assertTrue(moveRequest.isGroupLinkUpdates());
         assertTrue(moveRequest.isUpdateParentField());
         assertTrue(moveRequest.isAutoRedirect());
         assertFalse(moveRequest.isInteractive());
@@ -33,6 +33,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
 import org.xwiki.refactoring.internal.job.DeleteJob;
@@ -171,6 +172,62 @@ void onDocumentRenamedWithUpdateLinksOnWiki()
         verify(this.waitingHelper).maybeWaitForLinkIndexingWithLog(10, TimeUnit.SECONDS);
     }
 
+    @Test
+    void onDocumentRenamedWithGroupedLinkUpdates() throws RefactoringException
+    {
+        this.renameRequest.setUpdateLinks(true);
+        this.renameRequest.setGroupLinkUpdates(true);
+
+        DocumentReference eveReference = new DocumentReference("foo", "Users", "Eve");
+        DocumentReference frankReference = new DocumentReference("foo", "Users", "Frank");
+        when(this.modelBridge.getBackLinkedDocuments(eveReference)).thenReturn(Set.of(carolReference));
+
+        when(this.renameJob.hasAccess(Right.EDIT, carolReference)).thenReturn(true);
+        when(this.renameJob.hasAccess(Right.EDIT, denisReference)).thenReturn(true);
+        when(this.renameJob.getSelectedEntities()).thenReturn(Map.of());
+
+        this.listener.onEvent(documentRenamedEvent, renameJob, renameRequest);
+        this.listener.onEvent(new DocumentRenamedEvent(eveReference, frankReference), renameJob, renameRequest);
+
+        // The back-links are updated only at the end of the job
+        verify(this.updater, never()).update(any(), any(DocumentReference.class), any(), any());
+        verify(this.updater, never()).updateAll(any(), any(), any());
+
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        // Carol is linking to both Alice and Eve but is updated only once
+        verify(this.updater).updateAll(carolReference, Map.of(aliceReference, bobReference, eveReference,
+            frankReference), Map.of());
+        verify(this.updater).updateAll(denisReference, Map.of(aliceReference, bobReference), Map.of());
+
+        assertEquals("Updating the back-links of [2] documents.", logCapture.getMessage(0));
+    }
+
+    @Test
+    void onDocumentRenamedWithGroupedLinkUpdatesOfMovedDocumentAndRedirect() throws Exception
+    {
+        this.renameRequest.setUpdateLinks(true);
+        this.renameRequest.setGroupLinkUpdates(true);
+        this.renameRequest.setAutoRedirect(true);
+
+        DocumentReference newCarolReference = new DocumentReference("foo", "Members", "Carol");
+        when(this.modelBridge.getBackLinkedDocuments(carolReference)).thenReturn(Set.of());
+
+        when(this.renameJob.hasAccess(Right.EDIT, carolReference)).thenReturn(true);
+        when(this.renameJob.getSelectedEntities()).thenReturn(Map.of());
+        // A redirect has been created at the old location of the moved linking document
+        when(this.modelBridge.exists(carolReference)).thenReturn(true);
+
+        this.listener.onEvent(documentRenamedEvent, renameJob, renameRequest);
+        this.listener.onEvent(new DocumentRenamedEvent(carolReference, newCarolReference), renameJob,
+            renameRequest);
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        // The links are updated in the moved document and not in the redirect
+        verify(this.updater).updateAll(newCarolReference, Map.of(aliceReference, bobReference), Map.of());
+        verify(this.updater, never()).updateAll(eq(carolReference), any(), any());
+    }
+
     @Test
     void onDocumentRenamedWithoutUpdateLinks()
     {
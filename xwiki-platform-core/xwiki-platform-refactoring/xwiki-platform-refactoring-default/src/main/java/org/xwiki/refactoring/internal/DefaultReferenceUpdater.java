@@ -19,6 +19,7 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -216,7 +217,7 @@ private void info(String format, Object... arguments)
         }
     }
 
-    private void renameLinks(XWikiDocument document, EntityReference oldTarget, EntityReference newTarget,
+    private void renameLinks(XWikiDocument document, Map<EntityReference, EntityReference> renamedEntities,
         XWikiContext xcontext, boolean relative, RenameLambda renameLambda) throws XWikiException
     {
         DocumentReference currentDocumentReference = document.getDocumentReference();
@@ -264,8 +265,9 @@ private void renameLinks(XWikiDocument document, EntityReference oldTarget, Enti
             } else {
                 saveDocumentPreservingAuthors(document, "refactoring.referenceUpdater.saveMessage.backlinks");
 
-                info("The links from [{}] that were targeting [{}] have been updated to target [{}].",
-                    document.getDocumentReferenceWithLocale(), oldTarget, newTarget);
+                renamedEntities.forEach((oldTarget, newTarget) -> info(
+                    "The links from [{}] that were targeting [{}] have been updated to target [{}].",
+                    document.getDocumentReferenceWithLocale(), oldTarget, newTarget));
             }
         } else {
             if (relative) {
@@ -295,6 +297,12 @@ private void renameLinks(DocumentReference documentReference, AttachmentReferenc
 
     private void internalRenameLinks(DocumentReference documentReference, EntityReference oldLinkTarget,
         EntityReference newLinkTarget, boolean relative, RenameLambda renameLambda)
+    {
+        internalRenameLinks(documentReference, Map.of(oldLinkTarget, newLinkTarget), relative, renameLambda);
+    }
+
+    private void internalRenameLinks(DocumentReference documentReference,
+        Map<EntityReference, EntityReference> renamedEntities, boolean relative, RenameLambda renameLambda)
     {
         boolean popLevelProgress = false;
         XWikiContext xcontext = this.xcontextProvider.get();
@@ -309,20 +317,20 @@ private void internalRenameLinks(DocumentReference documentReference, EntityRefe
 
             // Update the default locale instance.
             this.progressManager.startStep(this);
-            renameLinks(document, oldLinkTarget, newLinkTarget, xcontext, relative, renameLambda);
+            renameLinks(document, renamedEntities, xcontext, relative, renameLambda);
             this.progressManager.endStep(this);
 
             // Update the translations.
             if (documentReference.getLocale() == null) {
                 for (Locale locale : locales) {
                     this.progressManager.startStep(this);
-                    renameLinks(document.getTranslatedDocument(locale, xcontext), oldLinkTarget, newLinkTarget,
-                        xcontext, relative, renameLambda);
+                    renameLinks(document.getTranslatedDocument(locale, xcontext), renamedEntities, xcontext,
+                        relative, renameLambda);
                     this.progressManager.endStep(this);
                 }
             }
         } catch (XWikiException e) {
-            this.logger.error("Failed to rename the links that target [{}] from [{}].", oldLinkTarget,
+            this.logger.error("Failed to rename the links that target [{}] from [{}].", renamedEntities.keySet(),
                 documentReference, e);
         } finally {
             if (popLevelProgress) {
@@ -366,6 +374,55 @@ public void update(DocumentReference documentReference, EntityReference oldTarge
         }
     }
 
+    private boolean renameReferences(XDOM xdom, DocumentReference currentDocumentReference,
+        EntityReference oldTargetReference, EntityReference newTargetReference, boolean relative,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        if (oldTargetReference.getType() == EntityType.ATTACHMENT) {
+            return this.renamer.renameReferences(xdom, currentDocumentReference,
+                toAttachmentReference(oldTargetReference), toAttachmentReference(newTargetReference), relative,
+                updatedEntities);
+        } else {
+            return this.renamer.renameReferences(xdom, currentDocumentReference,
+                toDocumentReference(oldTargetReference), toDocumentReference(newTargetReference), relative,
+                updatedEntities);
+        }
+    }
+
+    @Override
+    public void updateAll(DocumentReference documentReference, Map<EntityReference, EntityReference> renamedEntities,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        // Only support documents and attachments targets, and old and new target must be of same type
+        Map<EntityReference, EntityReference> supportedEntities = new LinkedHashMap<>();
+        renamedEntities.forEach((oldTargetReference, newTargetReference) -> {
+            if (oldTargetReference.getType() == newTargetReference.getType()
+                && (oldTargetReference.getType() == EntityType.DOCUMENT
+                    || oldTargetReference.getType() == EntityType.ATTACHMENT)) {
+                supportedEntities.put(oldTargetReference, newTargetReference);
+            }
+        });
+
+        if (supportedEntities.size() == 1) {
+            Map.Entry<EntityReference, EntityReference> entry = supportedEntities.entrySet().iterator().next();
+            update(documentReference, entry.getKey(), entry.getValue(), updatedEntities);
+        } else if (!supportedEntities.isEmpty()) {
+            // If the current document is one of the moved entities the links should be serialized relative to it
+            boolean relative = supportedEntities.containsValue(documentReference);
+
+            internalRenameLinks(documentReference, supportedEntities, relative,
+                (xdom, currentDocumentReference, r) -> {
+                    boolean modified = false;
+                    for (Map.Entry<EntityReference, EntityReference> entry : supportedEntities.entrySet()) {
+                        modified |= renameReferences(xdom, currentDocumentReference, entry.getKey(),
+                            entry.getValue(), r && entry.getValue().equals(documentReference), updatedEntities);
+                    }
+
+                    return modified;
+                });
+        }
+    }
+
     @Override
     public void update(DocumentReference documentReference, EntityReference oldTargetReference,
         EntityReference newTargetReference)
@@ -516,6 +516,55 @@ void update() throws Exception
         verifyDocumentSave(document, false);
     }
 
+    @Test
+    void updateAll() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument document = mock(XWikiDocument.class);
+        DocumentAuthors authors = mock(DocumentAuthors.class);
+        when(document.getAuthors()).thenReturn(authors);
+        when(this.xcontext.getWiki().getDocument(documentReference, this.xcontext)).thenReturn(document);
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+
+        DocumentReference firstOldLinkTarget = new DocumentReference("wiki", "A", "B");
+        DocumentReference firstNewLinkTarget = new DocumentReference("wiki", "X", "Y");
+        DocumentReference secondOldLinkTarget = new DocumentReference("wiki", "C", "D");
+        DocumentReference secondNewLinkTarget = new DocumentReference("wiki", "Z", "W");
+
+        // Setup document content
+        LinkBlock firstLinkBlock = new LinkBlock(List.of(), new ResourceReference("A.B", ResourceType.DOCUMENT), false);
+        LinkBlock secondLinkBlock =
+            new LinkBlock(List.of(), new ResourceReference("C.D", ResourceType.DOCUMENT), false);
+        XDOM xdom = new XDOM(List.of(firstLinkBlock, secondLinkBlock));
+        when(document.getXDOM()).thenReturn(xdom);
+
+        for (DocumentReference target : List.of(firstOldLinkTarget, firstNewLinkTarget, secondOldLinkTarget,
+            secondNewLinkTarget)) {
+            String serializedTarget = target.getLastSpaceReference().getName() + '.' + target.getName();
+            ResourceReference linkReference = new ResourceReference(serializedTarget, ResourceType.DOCUMENT);
+            when(this.resourceReferenceResolver.resolve(linkReference, null)).thenReturn(target);
+            when(this.resourceReferenceResolver.resolve(linkReference, null, documentReference)).thenReturn(target);
+            when(this.defaultReferenceDocumentReferenceResolver.resolve(target)).thenReturn(target);
+            when(this.relativeEntityReferenceResolver.resolve(linkReference, null, null))
+                .thenReturn(new EntityReference(target.getName(), EntityType.DOCUMENT,
+                    new EntityReference(target.getLastSpaceReference().getName(), EntityType.SPACE)));
+            when(this.compactEntityReferenceSerializer.serialize(target, documentReference))
+                .thenReturn(serializedTarget);
+        }
+
+        this.updater.updateAll(documentReference,
+            Map.of(firstOldLinkTarget, firstNewLinkTarget, secondOldLinkTarget, secondNewLinkTarget), Map.of());
+
+        assertEquals("X.Y", firstLinkBlock.getReference().getReference());
+        assertEquals("Z.W", secondLinkBlock.getReference().getReference());
+        // The document is saved only once
+        verifyDocumentSave(document, false);
+        // But each renamed entity is logged
+        assertEquals("The links from [{}] that were targeting [{}] have been updated to target [{}].",
+            this.logCapture.getLogEvent(this.logIndex++).getMessage());
+    }
+
     @Test
     void renameImage() throws Exception
     {
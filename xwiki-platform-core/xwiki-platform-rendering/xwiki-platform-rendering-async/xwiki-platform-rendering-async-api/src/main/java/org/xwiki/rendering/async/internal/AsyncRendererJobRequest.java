@@ -35,6 +35,8 @@ public class AsyncRendererJobRequest extends AbstractRequest
 
     private JobGroupPath jobGroupPath;
 
+    private long deadline;
+
     /**
      * The default constructor.
      */
@@ -87,4 +89,24 @@ public JobGroupPath getJobGroupPath()
     {
         return jobGroupPath;
     }
+
+    /**
+     * @return the date (in milliseconds since the epoch) after which the job should not be started anymore, {@code 0}
+     *         if the job can wait indefinitely
+     * @since 17.2.0RC1
+     */
+    public long getDeadline()
+    {
+        return this.deadline;
+    }
+
+    /**
+     * @param deadline the date (in milliseconds since the epoch) after which the job should not be started anymore,
+     *            {@code 0} if the job can wait indefinitely
+     * @since 17.2.0RC1
+     */
+    public void setDeadline(long deadline)
+    {
+        this.deadline = deadline;
+    }
 }
@@ -181,6 +181,29 @@ public void put(AsyncRendererJobStatus status)
         }
     }
 
+    /**
+     * Make the passed status available to the clients waiting for it, without reusing it for the following
+     * executions.
+     *
+     * @param status the job status to add to the cache
+     * @since 17.2.0RC1
+     */
+    public void putAsync(AsyncRendererJobStatus status)
+    {
+        this.lock.writeLock().lock();
+
+        try {
+            // Avoid storing useless stuff in the RAM
+            status.dispose();
+
+            for (String clientId : status.getClients()) {
+                this.asyncCache.set(clientId, status);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Remove all the entries the cache contains.
      */
@@ -28,6 +28,7 @@
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.RenderingException;
 import org.xwiki.rendering.async.AsyncContext;
 import org.xwiki.rendering.async.internal.DefaultAsyncContext.ContextUse;
 import org.xwiki.template.TemplateManager;
@@ -56,6 +57,8 @@ public class AsyncRendererJob extends AbstractJob<AsyncRendererJobRequest, Async
     @Inject
     private DocumentAccessBridge documentAccessBridge;
 
+    private boolean expired;
+
     @Override
     protected AsyncRendererJobStatus createNewStatus(AsyncRendererJobRequest request)
     {
@@ -73,6 +76,13 @@ protected void runInternal() throws Exception
     {
         AsyncRenderer renderer = getRequest().getRenderer();
 
+        // Don't waste resources on a result which was waited for too long (the client probably gave up already)
+        if (getRequest().getDeadline() > 0 && System.currentTimeMillis() > getRequest().getDeadline()) {
+            this.expired = true;
+
+            throw new RenderingException("The asynchronous rendering waited too long for an available thread");
+        }
+
         // Enable async execution only if cache is disabled as otherwise we could end up with place holders not
         // associated to any job since it was not really executed the following times
         this.asyncContext.setEnabled(!renderer.isCacheAllowed());
@@ -117,8 +127,12 @@ protected void jobFinished(Throwable error)
     {
         super.jobFinished(error);
 
-        // Cache the result
-        this.cache.put(getStatus());
+        // Cache the result (only for the clients waiting for it if the rendering was abandoned)
+        if (this.expired) {
+            this.cache.putAsync(getStatus());
+        } else {
+            this.cache.put(getStatus());
+        }
     }
 
     @Override
@@ -0,0 +1,172 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.job.Job;
+
+/**
+ * Bounded pool of threads dedicated to the execution of the {@link AsyncRendererJob}s which don't ask for a specific
+ * {@link org.xwiki.job.JobGroupPath}.
+ * <p>
+ * The waiting jobs are queued per owner (usually the user who triggered the rendering) and the owners are served in
+ * turn so that a page with many asynchronous elements cannot monopolize the pool at the expense of the other users.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = AsyncRendererThreadPool.class)
+@Singleton
+public class AsyncRendererThreadPool implements Initializable, Disposable
+{
+    private static final String PREFIX = "rendering.async.";
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final long DEFAULT_QUEUE_TIMEOUT = 60;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    /**
+     * The jobs which are waiting or running, indexed by identifier.
+     */
+    private final Map<List<String>, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * The waiting jobs, indexed by owner and ordered from the next owner to serve to the last one.
+     */
+    private final Map<String, Deque<Job>> queues = new LinkedHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private long queueTimeout;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        int poolSize = this.configuration.getProperty(PREFIX + "poolSize", DEFAULT_POOL_SIZE);
+        this.queueTimeout =
+            TimeUnit.SECONDS.toMillis(this.configuration.getProperty(PREFIX + "queueTimeout", DEFAULT_QUEUE_TIMEOUT));
+
+        // Asynchronous rendering is resource consuming and should not slow down the request threads
+        BasicThreadFactory factory = new BasicThreadFactory.Builder().namingPattern("XWiki async rendering thread %d")
+            .daemon(true).priority(Thread.NORM_PRIORITY - 1).build();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            factory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return the date (in milliseconds since the epoch) after which a job submitted now should not be started anymore,
+     *         or {@code 0} if there is no limit
+     */
+    public long getDeadline()
+    {
+        return this.queueTimeout > 0 ? System.currentTimeMillis() + this.queueTimeout : 0;
+    }
+
+    /**
+     * @param id the identifier of the job
+     * @return the job waiting or running in this pool with the passed identifier, {@code null} if there is none
+     */
+    public Job getJob(List<String> id)
+    {
+        return this.jobs.get(id);
+    }
+
+    /**
+     * @param job the initialized job to execute
+     * @param owner the entity (usually the user) on behalf of which the job is executed
+     */
+    public void execute(Job job, String owner)
+    {
+        this.jobs.put(job.getRequest().getId(), job);
+
+        synchronized (this.queues) {
+            this.queues.computeIfAbsent(owner, k -> new ArrayDeque<>()).add(job);
+        }
+
+        // Each task executes the next job to serve, which is not necessarily the one which was just added
+        this.executor.execute(this::runNext);
+    }
+
+    private void runNext()
+    {
+        Job job = pollNext();
+
+        if (job != null) {
+            try {
+                job.run();
+            } finally {
+                this.jobs.remove(job.getRequest().getId(), job);
+            }
+        }
+    }
+
+    private Job pollNext()
+    {
+        synchronized (this.queues) {
+            Iterator<Map.Entry<String, Deque<Job>>> iterator = this.queues.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+
+            Map.Entry<String, Deque<Job>> entry = iterator.next();
+            Job job = entry.getValue().poll();
+
+            // Move the owner at the end of the line
+            iterator.remove();
+            if (!entry.getValue().isEmpty()) {
+                this.queues.put(entry.getKey(), entry.getValue());
+            }
+
+            return job;
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executor.shutdownNow();
+    }
+}
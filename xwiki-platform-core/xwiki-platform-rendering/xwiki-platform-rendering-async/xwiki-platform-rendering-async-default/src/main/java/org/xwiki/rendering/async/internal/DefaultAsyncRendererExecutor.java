@@ -76,6 +76,9 @@ public class DefaultAsyncRendererExecutor implements AsyncRendererExecutor
     @Inject
     private ContextStoreManager contextStore;
 
+    @Inject
+    private AsyncRendererThreadPool threadPool;
+
     @Inject
     private AsyncRendererCache cache;
 
@@ -111,7 +114,7 @@ public AsyncRendererJobStatus getAsyncStatus(List<String> id, String clientId)
         //////////////////////////////////////////////
         // Try running job
 
-        Job job = this.executor.getJob(id);
+        Job job = getJob(id);
 
         if (job != null) {
             AsyncRendererJobStatus status = (AsyncRendererJobStatus) job.getStatus();
@@ -140,7 +143,7 @@ public AsyncRendererJobStatus getAsyncStatus(List<String> id, String clientId, l
         AsyncRendererJobStatus status = getAsyncStatus(id, clientId);
 
         if (status != null && status.getState() != State.FINISHED) {
-            Job job = this.executor.getJob(id);
+            Job job = getJob(id);
 
             if (job != null) {
                 // Wait for the job to be finished (or until the timeout is reached)
@@ -216,7 +219,7 @@ public AsyncRendererExecutorResponse render(AsyncRenderer renderer, AsyncRendere
 
                 request.setId(jobId);
 
-                Job job = this.executor.execute(AsyncRendererJobStatus.JOBTYPE, request);
+                Job job = execute(request);
 
                 AsyncRendererJobStatus status = (AsyncRendererJobStatus) job.getStatus();
 
@@ -276,6 +279,33 @@ public AsyncRendererExecutorResponse render(AsyncRenderer renderer, AsyncRendere
         return response;
     }
 
+    private Job getJob(List<String> id)
+    {
+        // Try the jobs executed by the dedicated pool first
+        Job job = this.threadPool.getJob(id);
+
+        return job != null ? job : this.executor.getJob(id);
+    }
+
+    private Job execute(AsyncRendererJobRequest request) throws JobException
+    {
+        // Renderers asking for a specific group are executed in the pool configured for that group
+        if (request.getJobGroupPath() != null) {
+            return this.executor.execute(AsyncRendererJobStatus.JOBTYPE, request);
+        }
+
+        request.setDeadline(this.threadPool.getDeadline());
+
+        Job job = this.jobProvider.get();
+        job.initialize(request);
+
+        // Share the pool fairly between the users
+        DocumentReference userReference = this.documentAccessBridge.getCurrentUserReference();
+        this.threadPool.execute(job, userReference != null ? userReference.toString() : "");
+
+        return job;
+    }
+
     private AsyncRendererResult syncRender(AsyncRenderer renderer, boolean cached,
         AsyncRendererConfiguration configuration) throws RenderingException
     {
@@ -346,7 +376,7 @@ private Map<String, Serializable> getContext(boolean asyncAllowed, boolean cache
     private AsyncRendererJobStatus getCurrent(List<String> jobId)
     {
         // Try to find the job status in a running job
-        Job job = this.executor.getJob(jobId);
+        Job job = getJob(jobId);
 
         // Found a running job, return it
         if (job instanceof AsyncRendererJob) {
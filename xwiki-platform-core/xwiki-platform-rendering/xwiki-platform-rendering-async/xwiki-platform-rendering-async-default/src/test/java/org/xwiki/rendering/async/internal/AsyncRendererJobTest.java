@@ -33,7 +33,9 @@
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import static com.xpn.xwiki.internal.context.XWikiContextContextStore.PROP_DOCUMENT_REFERENCE;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -55,6 +57,9 @@
     @MockComponent
     private DocumentAccessBridge documentAccessBridge;
 
+    @MockComponent
+    private AsyncRendererCache cache;
+
     @Mock
     private AsyncRenderer renderer;
 
@@ -101,4 +106,18 @@ void runInternalDocumentRequestedButNotInContext()
 
         verify(this.asyncContext, never()).useEntity(any());
     }
+
+    @Test
+    void runExpired() throws RenderingException
+    {
+        this.request.setDeadline(System.currentTimeMillis() - 1000);
+
+        this.job.initialize(this.request);
+        this.job.run();
+
+        verify(this.renderer, never()).render(anyBoolean(), anyBoolean());
+        assertNotNull(this.job.getStatus().getError());
+        verify(this.cache).putAsync(this.job.getStatus());
+        verify(this.cache, never()).put(any());
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.job.Job;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link AsyncRendererThreadPool}.
+ * 
+ * @version $Id$
+ */
+@ComponentTest
+class AsyncRendererThreadPoolTest
+{
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @InjectMockComponents
+    private AsyncRendererThreadPool threadPool;
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.configuration.getProperty("rendering.async.poolSize", 10)).thenReturn(1);
+        when(this.configuration.getProperty("rendering.async.queueTimeout", 60L)).thenReturn(60L);
+    }
+
+    private Job mockJob(String id, CountDownLatch started, CountDownLatch start, CountDownLatch end)
+    {
+        Job job = mock(Job.class);
+
+        AsyncRendererJobRequest request = new AsyncRendererJobRequest();
+        request.setId(id);
+        when(job.getRequest()).thenReturn(request);
+
+        doAnswer(invocation -> {
+            if (start != null) {
+                started.countDown();
+                start.await(10, TimeUnit.SECONDS);
+            }
+            this.executed.add(id);
+            end.countDown();
+
+            return null;
+        }).when(job).run();
+
+        return job;
+    }
+
+    @Test
+    void executeFairly() throws InterruptedException
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch end = new CountDownLatch(5);
+
+        // Block the single thread of the pool while the other jobs are queued
+        Job blocking = mockJob("blocking", started, start, end);
+        this.threadPool.execute(blocking, "user1");
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        this.threadPool.execute(mockJob("user1-1", null, null, end), "user1");
+        this.threadPool.execute(mockJob("user1-2", null, null, end), "user1");
+        this.threadPool.execute(mockJob("user1-3", null, null, end), "user1");
+        this.threadPool.execute(mockJob("user2-1", null, null, end), "user2");
+
+        assertSame(blocking, this.threadPool.getJob(Arrays.asList("blocking")));
+
+        start.countDown();
+
+        assertTrue(end.await(10, TimeUnit.SECONDS));
+
+        // The job of the second user does not wait for all the jobs of the first user
+        assertEquals(Arrays.asList("blocking", "user1-1", "user2-1", "user1-2", "user1-3"), this.executed);
+    }
+
+    @Test
+    void getJobAfterExecution() throws InterruptedException
+    {
+        CountDownLatch end = new CountDownLatch(1);
+
+        this.threadPool.execute(mockJob("job", null, null, end), "user");
+
+        assertTrue(end.await(10, TimeUnit.SECONDS));
+
+        // Give some time to the thread to forget the job
+        for (int i = 0; i < 100 && this.threadPool.getJob(Arrays.asList("job")) != null; ++i) {
+            Thread.sleep(10);
+        }
+
+        assertNull(this.threadPool.getJob(Arrays.asList("job")));
+    }
+
+    @Test
+    void getDeadline()
+    {
+        long deadline = this.threadPool.getDeadline();
+
+        assertFalse(deadline < System.currentTimeMillis());
+        assertTrue(deadline <= System.currentTimeMillis() + 60000);
+    }
+}
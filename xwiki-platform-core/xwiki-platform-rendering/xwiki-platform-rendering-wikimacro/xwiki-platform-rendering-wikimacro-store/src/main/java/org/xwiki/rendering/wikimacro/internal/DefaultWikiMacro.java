@@ -23,6 +23,7 @@
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
@@ -32,6 +33,8 @@
 import org.xwiki.rendering.async.internal.AsyncRendererConfiguration;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.CompositeBlock;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.internal.macro.script.NestedScriptMacroEnabled;
 import org.xwiki.rendering.macro.Macro;
 import org.xwiki.rendering.macro.MacroExecutionException;
@@ -62,6 +65,12 @@ public class DefaultWikiMacro extends AbstractAsyncContentBaseObjectWikiComponen
 
     private int macroPriority;
 
+    /**
+     * The prepared content to use when the macro is called inline, associated with the prepared content it was
+     * created from.
+     */
+    private volatile Pair<XDOM, XDOM> preparedInlineContent;
+
     /**
      * Constructs a new {@link DefaultWikiMacro}.
      * 
@@ -84,6 +93,53 @@ protected String getContentPropertyName()
         return MACRO_CODE_PROPERTY;
     }
 
+    /**
+     * Return the prepared content of the macro, adapted to the inline mode when needed, to be cloned before each
+     * execution.
+     *
+     * @param inline {@code true} if the macro is called inline
+     * @return the prepared {@link XDOM}
+     * @since 17.2.0RC1
+     */
+    XDOM getPreparedContent(boolean inline)
+    {
+        XDOM preparedXDOM = getPreparedContent();
+
+        if (!inline) {
+            return preparedXDOM;
+        }
+
+        Pair<XDOM, XDOM> inlineContent = this.preparedInlineContent;
+        if (inlineContent == null || inlineContent.getLeft() != preparedXDOM) {
+            inlineContent = Pair.of(preparedXDOM, createInlineContent(preparedXDOM));
+            this.preparedInlineContent = inlineContent;
+        }
+
+        return inlineContent.getRight();
+    }
+
+    private XDOM createInlineContent(XDOM preparedXDOM)
+    {
+        // Macro code segment is always parsed into a separate xdom document. Now if this code segment starts with
+        // another macro block, it will always be interpreted as a block macro regardless of the current wiki macro's
+        // context (because as far as the nested macro is concerned, it starts on a new line). This will introduce
+        // unnecessary paragraph elements when the wiki macro is used inline, so we need to force such opening macro
+        // blocks to behave as inline macros if the wiki macro is used inline.
+        List<Block> children = preparedXDOM.getChildren();
+        if (children.isEmpty() || !(children.get(0) instanceof MacroBlock)) {
+            return preparedXDOM;
+        }
+
+        XDOM xdom = preparedXDOM.clone();
+        MacroBlock old = (MacroBlock) xdom.getChildren().get(0);
+        MacroBlock replacement = new MacroBlock(old.getId(), old.getParameters(), old.getContent(), true);
+        // Keep the result of the preparation (e.g. the compiled Velocity script)
+        old.getAttributes().forEach(replacement::setAttribute);
+        xdom.replaceChild(replacement, old);
+
+        return xdom;
+    }
+
     @Override
     public List<Block> execute(WikiMacroParameters parameters, String macroContent, MacroTransformationContext context)
         throws MacroExecutionException
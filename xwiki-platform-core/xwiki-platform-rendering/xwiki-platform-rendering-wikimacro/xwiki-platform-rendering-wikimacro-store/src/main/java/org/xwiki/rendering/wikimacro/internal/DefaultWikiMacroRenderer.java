@@ -377,23 +377,8 @@ private Block extractResult(Block block, WikiMacroBinding macroBinding, boolean
      */
     private XDOM prepareWikiMacroContent()
     {
-        XDOM xdom = this.wikimacro.getPreparedContent().clone();
-
-        // Macro code segment is always parsed into a separate xdom document. Now if this code segment starts with
-        // another macro block, it will always be interpreted as a block macro regardless of the current wiki macro's
-        // context (because as far as the nested macro is concerned, it starts on a new line). This will introduce
-        // unnecessary paragraph elements when the wiki macro is used inline, so we need to force such opening macro
-        // blocks to behave as inline macros if the wiki macro is used inline.
-        if (this.inline) {
-            List<Block> children = xdom.getChildren();
-            if (!children.isEmpty() && children.get(0) instanceof MacroBlock) {
-                MacroBlock old = (MacroBlock) children.get(0);
-                MacroBlock replacement = new MacroBlock(old.getId(), old.getParameters(), old.getContent(), true);
-                xdom.replaceChild(replacement, old);
-            }
-        }
-
-        return xdom;
+        // The content is already adapted to the inline mode
+        return this.wikimacro.getPreparedContent(this.inline).clone();
     }
 
     @Override
@@ -33,7 +33,9 @@
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.converter.ConversionException;
 import org.xwiki.rendering.converter.Converter;
 import org.xwiki.rendering.listener.reference.DocumentResourceReference;
@@ -60,6 +62,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isNull;
@@ -143,21 +146,22 @@ void beforeEach() throws Exception
         this.oldcore.getXWikiContext().put("sdoc", sDocument);
     }
 
-    private void registerWikiMacro(String macroId, String macroContent, Syntax syntax) throws Exception
+    private DefaultWikiMacro registerWikiMacro(String macroId, String macroContent, Syntax syntax) throws Exception
     {
         List<WikiMacroParameterDescriptor> parameterDescriptors =
             Arrays.asList(new WikiMacroParameterDescriptor("param1", "This is param1", true),
                 new WikiMacroParameterDescriptor("param2", "This is param2", true));
-        registerWikiMacro(macroId, macroContent, syntax, parameterDescriptors);
+        return registerWikiMacro(macroId, macroContent, syntax, parameterDescriptors);
     }
 
-    private void registerWikiMacro(String macroId, String macroContent, Syntax syntax,
+    private DefaultWikiMacro registerWikiMacro(String macroId, String macroContent, Syntax syntax,
         List<WikiMacroParameterDescriptor> parameterDescriptors) throws Exception
     {
-        registerWikiMacro(macroId, macroContent, syntax, new DefaultContentDescriptor(false), parameterDescriptors);
+        return registerWikiMacro(macroId, macroContent, syntax, new DefaultContentDescriptor(false),
+            parameterDescriptors);
     }
 
-    private void registerWikiMacro(String macroId, String macroContent, Syntax syntax,
+    private DefaultWikiMacro registerWikiMacro(String macroId, String macroContent, Syntax syntax,
         DefaultContentDescriptor contentDescriptor, List<WikiMacroParameterDescriptor> parameterDescriptors)
         throws Exception
     {
@@ -174,11 +178,13 @@ private void registerWikiMacro(String macroId, String macroContent, Syntax synta
         wikiMacro.initialize(this.wikiMacroObject, descriptor);
 
         this.wikiMacroManager.registerWikiMacro(wikiMacroDocumentReference, wikiMacro);
+
+        return wikiMacro;
     }
 
-    private void registerWikiMacro(String macroId, String macroContent) throws Exception
+    private DefaultWikiMacro registerWikiMacro(String macroId, String macroContent) throws Exception
     {
-        registerWikiMacro(macroId, macroContent, Syntax.XWIKI_2_0);
+        return registerWikiMacro(macroId, macroContent, Syntax.XWIKI_2_0);
     }
 
     private void assertXDOM(String expectEvents, String inputXWiki) throws ComponentLookupException, ConversionException
@@ -225,6 +231,27 @@ void execute() throws Exception
             + "</format></paragraph></macroMarker></document>", "{{wikimacro1 param1=\"value1\" param2=\"value2\"/}}");
     }
 
+    @Test
+    void getPreparedContentWhenInline() throws Exception
+    {
+        DefaultWikiMacro wikiMacro = registerWikiMacro("wikimacro1", "{{wikimacro2/}} text");
+
+        XDOM preparedContent = wikiMacro.getPreparedContent(false);
+        assertFalse(((MacroBlock) preparedContent.getChildren().get(0)).isInline());
+        preparedContent.getChildren().get(0).setAttribute("prepared", "value");
+
+        XDOM inlinePreparedContent = wikiMacro.getPreparedContent(true);
+        MacroBlock inlineMacroBlock = (MacroBlock) inlinePreparedContent.getChildren().get(0);
+        assertTrue(inlineMacroBlock.isInline());
+        // The result of the preparation is kept
+        assertEquals("value", inlineMacroBlock.getAttribute("prepared"));
+        // The inline content is only computed once
+        assertSame(inlinePreparedContent, wikiMacro.getPreparedContent(true));
+        // The prepared content is not modified
+        assertSame(preparedContent, wikiMacro.getPreparedContent(false));
+        assertFalse(((MacroBlock) preparedContent.getChildren().get(0)).isInline());
+    }
+
     /**
      * When a wiki macro is used in inline mode and its code starts with a macro, that nested macro is made inline. In
      * other words, the nested macro should not generate extra paragraph elements.
@@ -29,6 +29,14 @@
 import org.xwiki.rest.model.jaxb.Pages;
 
 /**
+ * The pages of a given wiki, ordered by full name.
+ * <p>
+ * Besides the {@code start} offset, the pages can be listed with the optional {@code startAfter} query parameter,
+ * holding the full name of the last page of the previous result. In that case each page is listed only once (the
+ * translations are not listed), and deep pages are reached without the database having to skip the previous ones. To
+ * list all the pages this way, the first page should be requested with an empty value ({@code startAfter=}) and the
+ * {@code start} parameter is ignored.
+ *
  * @version $Id$
  */
 @Path("/wikis/{wikiName}/pages")
@@ -20,6 +20,7 @@
 package org.xwiki.rest.internal.resources.wikis;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,9 @@
 
 import org.apache.commons.lang3.StringUtils;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
@@ -45,8 +49,6 @@
 import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
-import com.xpn.xwiki.api.Document;
-import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.web.XWikiURLFactory;
 
 /**
@@ -56,16 +58,35 @@
 @Named("org.xwiki.rest.internal.resources.wikis.WikiPagesResourceImpl")
 public class WikiPagesResourceImpl extends XWikiResource implements WikiPagesResource
 {
+    /**
+     * The optional query parameter holding the full name of the last page returned by the previous request, to list
+     * the following pages (ordered by full name) without the cost of skipping the previous ones in the database.
+     */
+    private static final String START_AFTER_PARAMETER = "startAfter";
+
+    /**
+     * The minimum number of rows fetched at once when filling a page with {@link #START_AFTER_PARAMETER}, to avoid
+     * many small queries when a lot of pages are not viewable.
+     */
+    private static final int CHUNK_SIZE = 100;
+
     @Inject
     private ContextualAuthorizationManager contextualAuthorizationManager;
 
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
     @Override
     public Pages getPages(String wikiName, Integer start, String name, String space, String author, Integer number)
             throws XWikiRestException
     {
         XWikiContext context = Utils.getXWikiContext(componentManager);
         WikiReference wikiReference = context.getWikiReference();
-        context.setWikiReference(new WikiReference(wikiName));
+        WikiReference targetWikiReference = new WikiReference(wikiName);
+        context.setWikiReference(targetWikiReference);
 
         Pages pages = objectFactory.createPages();
         try {
@@ -80,10 +101,16 @@ public Pages getPages(String wikiName, Integer start, String name, String space,
                 filters.put("author", author);
             }
 
-            /* Build the query */
-            StringBuilder stringBuilder = new StringBuilder("select doc from XWikiDocument as doc");
+            String startAfter = this.uriInfo.getQueryParameters().getFirst(START_AFTER_PARAMETER);
 
-            if (!filters.isEmpty()) {
+            /*
+             * Build the query. Only the fields needed by the page summaries are selected to avoid loading complete
+             * documents.
+             */
+            StringBuilder stringBuilder = new StringBuilder(
+                "select doc.fullName, doc.space, doc.name, doc.title, doc.parent from XWikiDocument as doc");
+
+            if (!filters.isEmpty() || startAfter != null) {
                 stringBuilder.append(" where (");
 
                 int i = 0;
@@ -99,68 +126,43 @@ public Pages getPages(String wikiName, Integer start, String name, String space,
                     }
                     i++;
 
-                    if (i < filters.keySet().size()) {
+                    if (i < filters.keySet().size() || startAfter != null) {
                         stringBuilder.append("and ");
                     }
                 }
 
+                if (startAfter != null) {
+                    // Keyset pagination: each page is listed only once, in the order of the full names
+                    stringBuilder.append("doc.language = '' and doc.fullName > :startAfter ");
+                }
+
                 stringBuilder.append(")");
             }
 
+            // Always use the same order so that a listing started with offsets can be continued with startAfter
+            stringBuilder.append(" order by doc.fullName");
+
             String queryString = stringBuilder.toString();
 
             /* Execute the query by filling the parameters */
-            List<Object> queryResult = null;
             Query query = queryManager.createQuery(queryString, Query.XWQL)
                 .setWiki(wikiName)
-                .setLimit(number)
-                .setOffset(start);
+                // The previous pages are already skipped by the startAfter condition
+                .setOffset(startAfter != null ? 0 : start);
 
             for (Map.Entry<String, String> filterEntry : filters.entrySet()) {
                 query.bindValue(filterEntry.getKey(), String.format("%%%s%%", filterEntry.getValue().toUpperCase()));
             }
 
-            queryResult = query.execute();
             XWikiURLFactory urlFactory = context.getURLFactory();
-
-            /* Get the results and populate the returned representation */
-            for (Object object : queryResult) {
-                XWikiDocument xwikiDocument = (XWikiDocument) object;
-
-                Document doc = new Document(xwikiDocument, context);
-                if (this.contextualAuthorizationManager.hasAccess(Right.VIEW, doc.getDocumentReference())) {
-                    /*
-                     * We manufacture page summaries in place because we don't have all the data for calling the
-                     * DomainObjectFactory method (doing so would require to retrieve an actual Document)
-                     */
-                    PageSummary pageSummary = objectFactory.createPageSummary();
-                    pageSummary.setId(doc.getPrefixedFullName());
-                    pageSummary.setFullName(doc.getFullName());
-                    pageSummary.setWiki(wikiName);
-                    pageSummary.setSpace(doc.getSpace());
-                    pageSummary.setName(doc.getDocumentReference().getName());
-                    pageSummary.setTitle(doc.getTitle());
-                    pageSummary.setParent(doc.getParent());
-
-                    URL absoluteUrl = urlFactory.createExternalURL(
-                        doc.getSpace(), doc.getDocumentReference().getName(), "view", null, null,
-                        context);
-                    pageSummary.setXwikiAbsoluteUrl(absoluteUrl.toString());
-                    pageSummary.setXwikiRelativeUrl(urlFactory.getURL(
-                        absoluteUrl, context));
-
-                    String pageUri = Utils
-                        .createURI(uriInfo.getBaseUri(), PageResource.class, doc.getWiki(),
-                            Utils.getSpacesURLElements(doc.getDocumentReference()),
-                            doc.getDocumentReference().getName())
-                        .toString();
-                    Link pageLink = objectFactory.createLink();
-                    pageLink.setHref(pageUri);
-                    pageLink.setRel(Relations.PAGE);
-                    pageSummary.getLinks().add(pageLink);
-
-                    pages.getPageSummaries().add(pageSummary);
+            if (startAfter != null && number > 0) {
+                addPageSummariesAfter(pages, query, startAfter, number, targetWikiReference, urlFactory, context);
+            } else {
+                query.setLimit(number);
+                if (startAfter != null) {
+                    query.bindValue(START_AFTER_PARAMETER, startAfter);
                 }
+                addPageSummaries(pages, query.execute(), number, targetWikiReference, urlFactory, context);
             }
         } catch (QueryException e) {
             throw new XWikiRestException(e);
@@ -170,4 +172,85 @@ public Pages getPages(String wikiName, Integer start, String name, String space,
 
         return pages;
     }
+
+    /**
+     * Fill the page with the pages following the given full name, fetching them chunk by chunk until the requested
+     * number of viewable pages is reached. Contrary to offsets, the keyset condition of the next chunk doesn't depend
+     * on the pages that were filtered out, so a page is not made shorter by the pages the current user cannot view.
+     */
+    private void addPageSummariesAfter(Pages pages, Query query, String startAfter, int number,
+        WikiReference wikiReference, XWikiURLFactory urlFactory, XWikiContext context) throws QueryException
+    {
+        String lastFullName = startAfter;
+        List<Object[]> chunk;
+        do {
+            int limit = Math.max(number - pages.getPageSummaries().size(), CHUNK_SIZE);
+            chunk = query.setLimit(limit).bindValue(START_AFTER_PARAMETER, lastFullName).execute();
+            addPageSummaries(pages, chunk, number, wikiReference, urlFactory, context);
+            if (!chunk.isEmpty()) {
+                lastFullName = (String) chunk.get(chunk.size() - 1)[0];
+            }
+        } while (chunk.size() >= limit && pages.getPageSummaries().size() < number);
+    }
+
+    /**
+     * Add the summaries of the viewable pages of a chunk of query results, up to the requested number of pages. The
+     * rights of the whole chunk are checked before creating any summary.
+     */
+    private void addPageSummaries(Pages pages, List<Object[]> rows, int number, WikiReference wikiReference,
+        XWikiURLFactory urlFactory, XWikiContext context)
+    {
+        List<DocumentReference> references = new ArrayList<>(rows.size());
+        List<Object[]> viewableRows = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            DocumentReference documentReference = this.resolver.resolve((String) row[0], wikiReference);
+            if (this.contextualAuthorizationManager.hasAccess(Right.VIEW, documentReference)) {
+                references.add(documentReference);
+                viewableRows.add(row);
+            }
+        }
+
+        // TODO: the page summaries are still accumulated in memory before being serialized. Writing them to the
+        // response as they are created requires a streaming writer producing the exact same JSON and XML as the JAXB
+        // and Jackson providers, which is left as a follow-up.
+        for (int i = 0; i < viewableRows.size() && (number <= 0 || pages.getPageSummaries().size() < number); i++) {
+            pages.getPageSummaries().add(createPageSummary(viewableRows.get(i), references.get(i), urlFactory,
+                context));
+        }
+    }
+
+    private PageSummary createPageSummary(Object[] row, DocumentReference documentReference,
+        XWikiURLFactory urlFactory, XWikiContext context)
+    {
+        String spaceId = (String) row[1];
+        String pageName = (String) row[2];
+
+        /*
+         * We manufacture page summaries in place because we don't have all the data for calling the DomainObjectFactory
+         * method (doing so would require to retrieve an actual Document)
+         */
+        PageSummary pageSummary = objectFactory.createPageSummary();
+        pageSummary.setId(this.serializer.serialize(documentReference));
+        pageSummary.setFullName((String) row[0]);
+        pageSummary.setWiki(documentReference.getWikiReference().getName());
+        pageSummary.setSpace(spaceId);
+        pageSummary.setName(pageName);
+        pageSummary.setTitle(StringUtils.defaultString((String) row[3]));
+        pageSummary.setParent(StringUtils.defaultString((String) row[4]));
+
+        URL absoluteUrl = urlFactory.createExternalURL(spaceId, pageName, "view", null, null, context);
+        pageSummary.setXwikiAbsoluteUrl(absoluteUrl.toString());
+        pageSummary.setXwikiRelativeUrl(urlFactory.getURL(absoluteUrl, context));
+
+        String pageUri = Utils
+            .createURI(uriInfo.getBaseUri(), PageResource.class, documentReference.getWikiReference().getName(),
+                Utils.getSpacesURLElements(documentReference), pageName)
+            .toString();
+        Link pageLink = objectFactory.createLink();
+        pageLink.setHref(pageUri);
+        pageLink.setRel(Relations.PAGE);
+        pageSummary.getLinks().add(pageLink);
+
+        return pageSummary;
+    }
 }
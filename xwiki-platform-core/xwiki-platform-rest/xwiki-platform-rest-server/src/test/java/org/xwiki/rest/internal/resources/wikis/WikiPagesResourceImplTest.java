@@ -23,10 +23,12 @@
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Named;
 import javax.inject.Provider;
+import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -36,7 +38,9 @@
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryManager;
@@ -51,15 +55,16 @@
 import org.xwiki.test.mockito.MockitoComponentManager;
 
 import com.xpn.xwiki.XWikiContext;
-import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.web.Utils;
 import com.xpn.xwiki.web.XWikiURLFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -92,6 +97,9 @@
     @MockComponent
     private EntityReferenceSerializer<String> entityReferenceSerializer;
 
+    @MockComponent
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
     @Mock
     private UriInfo uriInfo;
 
@@ -100,6 +108,8 @@
 
     private XWikiContext context;
 
+    private MultivaluedHashMap<String, String> queryParameters;
+
     @BeforeEach
     void setUp(MockitoComponentManager componentManager)
         throws ComponentLookupException, URISyntaxException, IllegalAccessException
@@ -115,12 +125,45 @@ void setUp(MockitoComponentManager componentManager)
                 invocation -> componentManager.getInstance(invocation.getArgument(0), invocation.getArgument(1)));
 
         when(this.uriInfo.getBaseUri()).thenReturn(new URI("https://test/"));
+        this.queryParameters = new MultivaluedHashMap<>();
+        when(this.uriInfo.getQueryParameters()).thenReturn(this.queryParameters);
         FieldUtils.writeField(this.wikiPagesResource, "uriInfo", this.uriInfo, true);
         Provider<XWikiContext> contextProvider = componentManager.getInstance(XWikiContext.TYPE_PROVIDER);
         this.context = contextProvider.get();
         when(this.context.getURLFactory()).thenReturn(urlFactory);
     }
 
+    private Query mockQuery() throws QueryException
+    {
+        Query mockQuery = mock(Query.class);
+        when(this.queryManager.createQuery(any(), eq(Query.XWQL))).thenReturn(mockQuery);
+        when(mockQuery.setOffset(anyInt())).thenReturn(mockQuery);
+        when(mockQuery.setLimit(anyInt())).thenReturn(mockQuery);
+        when(mockQuery.setWiki(any())).thenReturn(mockQuery);
+        when(mockQuery.bindValue(anyString(), any())).thenReturn(mockQuery);
+
+        return mockQuery;
+    }
+
+    private DocumentReference mockRow(List<Object[]> rows, String wiki, String space, String name, String title,
+        String parent, boolean viewable) throws MalformedURLException
+    {
+        DocumentReference reference = new DocumentReference(wiki, space, name);
+        String fullName = space + '.' + name;
+        rows.add(new Object[] { fullName, space, name, title, parent });
+
+        when(this.documentReferenceResolver.resolve(fullName, new WikiReference(wiki))).thenReturn(reference);
+        when(this.entityReferenceSerializer.serialize(reference)).thenReturn(wiki + ':' + fullName);
+        when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, reference)).thenReturn(viewable);
+
+        URL absoluteURL = new URL("https://test/xwiki/bin/view/" + space + '/' + name);
+        when(this.urlFactory.createExternalURL(space, name, "view", null, null, this.context))
+            .thenReturn(absoluteURL);
+        when(this.urlFactory.getURL(absoluteURL, this.context)).thenReturn(absoluteURL.getPath());
+
+        return reference;
+    }
+
     @Test
     void getPages() throws QueryException, MalformedURLException, XWikiRestException
     {
@@ -131,96 +174,105 @@ void getPages() throws QueryException, MalformedURLException, XWikiRestException
         String author = "buz";
         int number = 3;
 
-        Query mockQuery = mock(Query.class);
-        when(queryManager.createQuery(any(), eq(Query.XWQL))).thenReturn(mockQuery);
-        when(mockQuery.setOffset(anyInt())).thenReturn(mockQuery);
-        when(mockQuery.setLimit(anyInt())).thenReturn(mockQuery);
-        when(mockQuery.setWiki(any())).thenReturn(mockQuery);
+        Query mockQuery = mockQuery();
 
-        XWikiDocument mockDoc1 = mock(XWikiDocument.class, "doc1");
-        XWikiDocument mockDoc2 = mock(XWikiDocument.class, "doc2");
-        XWikiDocument mockDoc3 = mock(XWikiDocument.class, "doc3");
-        when(mockQuery.execute()).thenReturn(List.of(mockDoc1, mockDoc2, mockDoc3));
-
-        DocumentReference doc1Ref = new DocumentReference("foo", "Space1", "Doc1");
-        DocumentReference doc2Ref = new DocumentReference("foo", "Space2", "Doc2");
-        DocumentReference doc3Ref = new DocumentReference("foo", "Space3", "Doc3");
-        when(mockDoc1.getDocumentReference()).thenReturn(doc1Ref);
-        when(mockDoc2.getDocumentReference()).thenReturn(doc2Ref);
-        when(mockDoc3.getDocumentReference()).thenReturn(doc3Ref);
-
-        when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, doc1Ref)).thenReturn(true);
-        when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, doc2Ref)).thenReturn(false);
-        when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, doc3Ref)).thenReturn(true);
-
-        String doc1Id = "doc1ID";
-        String doc1FullName = "foo:Space1.Doc1";
-        String doc1Space = "Space1";
-        String doc1Title = "doc1Title";
-        String doc1Parent = "doc1Parent";
-        String doc1URI = "https://test/xwiki/bin/view/Space1/Doc1";
-        URL doc1AbsoluteURL = new URL(doc1URI);
-        String doc1RelativeURL = "/xwiki/bin/view/Space1/Doc1";
-        
-        when(this.localEntityReferenceSerializer.serialize(doc1Ref)).thenReturn(doc1FullName);
-        when(this.entityReferenceSerializer.serialize(doc1Ref)).thenReturn(doc1Id);
-        when(mockDoc1.getSpace()).thenReturn(doc1Space);
-        when(mockDoc1.getParent()).thenReturn(doc1Parent);
-        when(mockDoc1.getTitle()).thenReturn(doc1Title);
-        when(this.urlFactory.createExternalURL(doc1Space,"Doc1","view", null, null,this.context))
-            .thenReturn(doc1AbsoluteURL);
-        when(this.urlFactory.getURL(doc1AbsoluteURL, this.context)).thenReturn(doc1RelativeURL);
-
-        String doc3Id = "doc3ID";
-        String doc3FullName = "foo:Space3.Doc3";
-        String doc3Space = "Space3";
-        String doc3Title = "doc3Title";
-        String doc3Parent = "doc3Parent";
-        String doc3URI = "https://test/xwiki/bin/view/Space3/Doc3";
-        URL doc3AbsoluteURL = new URL(doc3URI);
-        String doc3RelativeURL = "/xwiki/bin/view/Space3/Doc3";
-
-        when(this.localEntityReferenceSerializer.serialize(doc3Ref)).thenReturn(doc3FullName);
-        when(this.entityReferenceSerializer.serialize(doc3Ref)).thenReturn(doc3Id);
-        when(mockDoc3.getSpace()).thenReturn(doc3Space);
-        when(mockDoc3.getParent()).thenReturn(doc3Parent);
-        when(mockDoc3.getTitle()).thenReturn(doc3Title);
-        when(this.urlFactory.createExternalURL(doc3Space,"Doc3","view", null, null,this.context))
-            .thenReturn(doc3AbsoluteURL);
-        when(this.urlFactory.getURL(doc3AbsoluteURL, this.context)).thenReturn(doc3RelativeURL);
+        List<Object[]> rows = new ArrayList<>();
+        DocumentReference doc1Ref = mockRow(rows, wikiName, "Space1", "Doc1", "doc1Title", "doc1Parent", true);
+        mockRow(rows, wikiName, "Space2", "Doc2", "doc2Title", "doc2Parent", false);
+        DocumentReference doc3Ref = mockRow(rows, wikiName, "Space3", "Doc3", "doc3Title", "doc3Parent", true);
+        when(mockQuery.execute()).thenReturn(rows);
 
         Pages pages = this.wikiPagesResource.getPages(wikiName, start, name, space, author, number);
         List<PageSummary> pageSummaries = pages.getPageSummaries();
         assertEquals(2, pageSummaries.size());
 
         PageSummary doc1Summary = pageSummaries.get(0);
-        assertEquals(doc1Id, doc1Summary.getId());
-        assertEquals(doc1FullName, doc1Summary.getFullName());
-        assertEquals(doc1Space, doc1Summary.getSpace());
-        assertEquals(doc1Title, doc1Summary.getTitle());
-        assertEquals(doc1Parent, doc1Summary.getParent());
-        assertEquals(doc1Ref.getName(),doc1Summary.getName());
+        assertEquals("foo:Space1.Doc1", doc1Summary.getId());
+        assertEquals("Space1.Doc1", doc1Summary.getFullName());
+        assertEquals("Space1", doc1Summary.getSpace());
+        assertEquals("doc1Title", doc1Summary.getTitle());
+        assertEquals("doc1Parent", doc1Summary.getParent());
+        assertEquals(doc1Ref.getName(), doc1Summary.getName());
         assertEquals(wikiName, doc1Summary.getWiki());
-        assertEquals(doc1AbsoluteURL.toString(), doc1Summary.getXwikiAbsoluteUrl());
-        assertEquals(doc1RelativeURL, doc1Summary.getXwikiRelativeUrl());
+        assertEquals("https://test/xwiki/bin/view/Space1/Doc1", doc1Summary.getXwikiAbsoluteUrl());
+        assertEquals("/xwiki/bin/view/Space1/Doc1", doc1Summary.getXwikiRelativeUrl());
 
         PageSummary doc3Summary = pageSummaries.get(1);
-        assertEquals(doc3Id, doc3Summary.getId());
-        assertEquals(doc3FullName, doc3Summary.getFullName());
-        assertEquals(doc3Space, doc3Summary.getSpace());
-        assertEquals(doc3Title, doc3Summary.getTitle());
-        assertEquals(doc3Parent, doc3Summary.getParent());
-        assertEquals(doc3Ref.getName(),doc3Summary.getName());
+        assertEquals("foo:Space3.Doc3", doc3Summary.getId());
+        assertEquals("Space3.Doc3", doc3Summary.getFullName());
+        assertEquals("Space3", doc3Summary.getSpace());
+        assertEquals("doc3Title", doc3Summary.getTitle());
+        assertEquals("doc3Parent", doc3Summary.getParent());
+        assertEquals(doc3Ref.getName(), doc3Summary.getName());
         assertEquals(wikiName, doc3Summary.getWiki());
-        assertEquals(doc3AbsoluteURL.toString(), doc3Summary.getXwikiAbsoluteUrl());
-        assertEquals(doc3RelativeURL, doc3Summary.getXwikiRelativeUrl());
+        assertEquals("https://test/xwiki/bin/view/Space3/Doc3", doc3Summary.getXwikiAbsoluteUrl());
+        assertEquals("/xwiki/bin/view/Space3/Doc3", doc3Summary.getXwikiRelativeUrl());
 
-        verify(this.queryManager).createQuery("select doc from XWikiDocument as doc where (upper(doc.contentAuthor) "
-            + "like :author and upper(doc.fullName) like :name )", Query.XWQL);
+        verify(this.queryManager).createQuery("select doc.fullName, doc.space, doc.name, doc.title, doc.parent "
+            + "from XWikiDocument as doc where (upper(doc.contentAuthor) like :author and upper(doc.fullName) "
+            + "like :name ) order by doc.fullName", Query.XWQL);
         verify(mockQuery).setWiki(wikiName);
         verify(mockQuery).setOffset(start);
         verify(mockQuery).setLimit(number);
         verify(mockQuery).bindValue("name", "%BAR%");
         verify(mockQuery).bindValue("author", "%BUZ%");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPagesStartingAfter() throws QueryException, MalformedURLException, XWikiRestException
+    {
+        Query mockQuery = mockQuery();
+
+        List<Object[]> rows = new ArrayList<>();
+        mockRow(rows, "foo", "Space", "Page", null, null, true);
+        when(mockQuery.execute()).thenReturn(rows);
+
+        this.queryParameters.putSingle("startAfter", "Space.Other");
+
+        Pages pages = this.wikiPagesResource.getPages("foo", 20, "", "", "", 10);
+
+        assertEquals(1, pages.getPageSummaries().size());
+        PageSummary pageSummary = pages.getPageSummaries().get(0);
+        assertEquals("Space.Page", pageSummary.getFullName());
+        assertEquals("", pageSummary.getTitle());
+        assertEquals("", pageSummary.getParent());
+
+        verify(this.queryManager).createQuery("select doc.fullName, doc.space, doc.name, doc.title, doc.parent "
+            + "from XWikiDocument as doc where (doc.language = '' and doc.fullName > :startAfter ) "
+            + "order by doc.fullName", Query.XWQL);
+        verify(mockQuery).bindValue("startAfter", "Space.Other");
+        // The start offset is ignored since the previous pages are skipped by the startAfter condition
+        verify(mockQuery).setOffset(0);
+        // A complete chunk is fetched even if fewer pages are requested
+        verify(mockQuery).setLimit(100);
+    }
+
+    @Test
+    void getPagesStartingAfterWithNotViewablePages() throws QueryException, MalformedURLException, XWikiRestException
+    {
+        Query mockQuery = mockQuery();
+
+        List<Object[]> firstChunk = new ArrayList<>();
+        mockRow(firstChunk, "foo", "Space", "Page000", null, null, true);
+        for (int i = 1; i < 100; i++) {
+            mockRow(firstChunk, "foo", "Space", String.format("Page%03d", i), null, null, false);
+        }
+        List<Object[]> secondChunk = new ArrayList<>();
+        mockRow(secondChunk, "foo", "Space", "Page100", null, null, true);
+        mockRow(secondChunk, "foo", "Space", "Page101", null, null, true);
+        when(mockQuery.execute()).thenReturn(firstChunk, secondChunk);
+
+        this.queryParameters.putSingle("startAfter", "");
+
+        Pages pages = this.wikiPagesResource.getPages("foo", 0, "", "", "", 2);
+
+        // The page is filled with the next chunk instead of being shortened by the pages that are not viewable
+        assertEquals(2, pages.getPageSummaries().size());
+        assertEquals("Space.Page000", pages.getPageSummaries().get(0).getFullName());
+        assertEquals("Space.Page100", pages.getPageSummaries().get(1).getFullName());
+
+        verify(mockQuery).bindValue("startAfter", "");
+        verify(mockQuery).bindValue("startAfter", "Space.Page099");
+        verify(mockQuery, times(2)).execute();
+    }
+}
@@ -155,6 +155,51 @@ public class DefaultSolrConfiguration implements SolrConfiguration
     public static final SynchronizeAtStartupMode SOLR_SYNCHRONIZE_AT_STARTUP_MODE_DEFAULT =
         SynchronizeAtStartupMode.FARM;
 
+    /**
+     * The name of the configuration property containing the maximum size (in megabytes) of the persistent cache of
+     * the attachments text.
+     * 
+     * @since 17.2.0RC1
+     */
+    public static final String SOLR_ATTACHMENT_TEXT_CACHE_SIZE = "solr.indexer.attachmentText.cacheSize";
+
+    /**
+     * The default maximum size (in megabytes) of the persistent cache of the attachments text.
+     * 
+     * @since 17.2.0RC1
+     */
+    public static final int SOLR_ATTACHMENT_TEXT_CACHE_SIZE_DEFAULT = 1024;
+
+    /**
+     * The name of the configuration property containing the maximum number of attachments whose text is extracted at
+     * the same time.
+     * 
+     * @since 17.2.0RC1
+     */
+    public static final String SOLR_ATTACHMENT_TEXT_THREADS = "solr.indexer.attachmentText.threads";
+
+    /**
+     * The default maximum number of attachments whose text is extracted at the same time.
+     * 
+     * @since 17.2.0RC1
+     */
+    public static final int SOLR_ATTACHMENT_TEXT_THREADS_DEFAULT = 2;
+
+    /**
+     * The name of the configuration property containing the maximum time (in seconds) to wait for the text of an
+     * attachment to be extracted.
+     * 
+     * @since 17.2.0RC1
+     */
+    public static final String SOLR_ATTACHMENT_TEXT_TIMEOUT = "solr.indexer.attachmentText.timeout";
+
+    /**
+     * The default maximum time (in seconds) to wait for the text of an attachment to be extracted.
+     * 
+     * @since 17.2.0RC1
+     */
+    public static final int SOLR_ATTACHMENT_TEXT_TIMEOUT_DEFAULT = 300;
+
     /**
      * The Solr configuration source.
      */
@@ -254,4 +299,22 @@ public int getSynchronizationBatchSize()
     {
         return this.configuration.getProperty(SOLR_SYNCHRONIZE_BATCH_SIZE, SOLR_SYNCHRONIZE_BATCH_SIZE_DEFAULT);
     }
+
+    @Override
+    public int getAttachmentTextCacheSize()
+    {
+        return this.configuration.getProperty(SOLR_ATTACHMENT_TEXT_CACHE_SIZE, SOLR_ATTACHMENT_TEXT_CACHE_SIZE_DEFAULT);
+    }
+
+    @Override
+    public int getAttachmentTextThreads()
+    {
+        return this.configuration.getProperty(SOLR_ATTACHMENT_TEXT_THREADS, SOLR_ATTACHMENT_TEXT_THREADS_DEFAULT);
+    }
+
+    @Override
+    public int getAttachmentTextTimeout()
+    {
+        return this.configuration.getProperty(SOLR_ATTACHMENT_TEXT_TIMEOUT, SOLR_ATTACHMENT_TEXT_TIMEOUT_DEFAULT);
+    }
 }
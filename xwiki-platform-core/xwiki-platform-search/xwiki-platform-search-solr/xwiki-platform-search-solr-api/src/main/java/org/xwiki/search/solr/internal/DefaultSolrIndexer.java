@@ -145,6 +145,9 @@ public String toString()
                 case INDEX:
                     str = "INDEX " + this.reference;
                     break;
+                case REINDEX:
+                    str = "REINDEX " + this.reference;
+                    break;
                 case DELETE:
                     str = "DELETE " + this.deleteQuery;
                     break;
@@ -238,6 +241,7 @@ public void runInternal()
                             DefaultSolrIndexer.this.indexQueue.put(new IndexQueueEntry(queueEntry.readyIndicator));
                             break;
                         case INDEX:
+                        case REINDEX:
                             Iterable<EntityReference> references = retrieveReferences(queueEntry);
 
                             for (EntityReference reference : references) {
@@ -501,7 +505,9 @@ private boolean processBatch(IndexQueueEntry queueEntry)
 
                 switch (operation) {
                     case INDEX:
-                        XWikiSolrInputDocument solrDocument = getSolrDocument(batchEntry.reference);
+                    case REINDEX:
+                        XWikiSolrInputDocument solrDocument =
+                            getSolrDocument(batchEntry.reference, operation == IndexOperation.REINDEX);
                         if (solrDocument != null) {
                             solrInstance.add(solrDocument);
                             length += solrDocument.getLength();
@@ -593,13 +599,14 @@ private boolean shouldCommit(int length, int size)
 
     /**
      * @param reference the reference to extract metadata from.
+     * @param reindex {@code true} if nothing should be reused from the current index
      * @return the {@link SolrInputDocument} containing extracted metadata from the passed reference; {@code null} if
      *         the reference type is not supported.
      * @throws SolrIndexerException if problems occur.
      * @throws IllegalArgumentException if there is an incompatibility between a reference and the assigned extractor.
      * @throws ExecutionContextException
      */
-    private XWikiSolrInputDocument getSolrDocument(EntityReference reference)
+    private XWikiSolrInputDocument getSolrDocument(EntityReference reference, boolean reindex)
         throws SolrIndexerException, IllegalArgumentException, ExecutionContextException
     {
         SolrMetadataExtractor metadataExtractor = getMetadataExtractor(reference.getType());
@@ -612,7 +619,8 @@ private XWikiSolrInputDocument getSolrDocument(EntityReference reference)
             try {
                 XWikiDocument document = context.getWiki().getDocument(reference, context);
 
-                return this.documentContextExecutor.call(() -> metadataExtractor.getSolrDocument(reference), document);
+                return this.documentContextExecutor.call(() -> metadataExtractor.getSolrDocument(reference, reindex),
+                    document);
             } catch (SolrIndexerException | IllegalArgumentException e) {
                 // Re-throw to avoid wrapping exceptions that are declared in the method signature.
                 throw e;
@@ -647,6 +655,12 @@ public void index(EntityReference reference, boolean recurse)
         addToQueue(reference, recurse, IndexOperation.INDEX);
     }
 
+    @Override
+    public void reindex(EntityReference reference, boolean recurse)
+    {
+        addToQueue(reference, recurse, IndexOperation.REINDEX);
+    }
+
     @Override
     public void delete(EntityReference reference, boolean recurse)
     {
@@ -32,6 +32,13 @@
      */
     INDEX,
 
+    /**
+     * Index the entry without reusing anything from the current index.
+     *
+     * @since 17.2.0RC1
+     */
+    REINDEX,
+
     /**
      * Remove entry from index.
      */
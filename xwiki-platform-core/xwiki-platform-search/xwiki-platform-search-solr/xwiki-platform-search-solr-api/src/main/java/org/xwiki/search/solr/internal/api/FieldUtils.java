@@ -265,6 +265,16 @@
      */
     public static final String DOCUMENT_RAW_CONTENT = "doccontentraw";
 
+    /**
+     * The hash of the inputs of the content fields (title, raw and rendered content, links), used to avoid extracting
+     * them again when a document is indexed again without any modification of its content.
+     * <p>
+     * Note: Matched by the {@code *_string} dynamic field, which is stored.
+     *
+     * @since 17.2.0RC1
+     */
+    public static final String DOCUMENT_CONTENT_HASH = "contenthash_string";
+
     /**
      * Attachment content.
      * <p>
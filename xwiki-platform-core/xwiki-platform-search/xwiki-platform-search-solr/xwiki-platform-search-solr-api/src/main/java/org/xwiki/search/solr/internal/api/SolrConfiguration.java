@@ -129,4 +129,25 @@
      * @since 16.4.7
      */
     int getSynchronizationBatchSize();
+
+    /**
+     * @return the maximum size (in megabytes) of the persistent cache of the text extracted from the attachments,
+     *         {@code 0} to disable the cache
+     * @since 17.2.0RC1
+     */
+    int getAttachmentTextCacheSize();
+
+    /**
+     * @return the maximum number of attachments whose text is extracted at the same time, {@code 0} to extract the text
+     *         in the indexing thread
+     * @since 17.2.0RC1
+     */
+    int getAttachmentTextThreads();
+
+    /**
+     * @return the maximum time (in seconds) to wait for the text of an attachment to be extracted, {@code 0} to wait
+     *         forever
+     * @since 17.2.0RC1
+     */
+    int getAttachmentTextTimeout();
 }
@@ -46,6 +46,18 @@
      */
     void index(EntityReference reference, boolean recurse);
 
+    /**
+     * Add an entity to the queue of entities to index, without reusing anything from the current index (e.g. the
+     * content extracted from a document which was not modified since it was indexed).
+     * <p>
+     * Null reference means the whole farm.
+     *
+     * @param reference the entity's reference.
+     * @param recurse indicate if children entities should be indexed too
+     * @since 17.2.0RC1
+     */
+    void reindex(EntityReference reference, boolean recurse);
+
     /**
      * Add an entity to the queue of entities to delete.
      * <p>
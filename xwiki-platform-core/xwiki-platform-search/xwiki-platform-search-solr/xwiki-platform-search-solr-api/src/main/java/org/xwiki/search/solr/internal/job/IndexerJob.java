@@ -98,7 +98,7 @@ protected void runInternal() throws Exception
         if (getRequest().isOverwrite()) {
             EntityReference rootReference = getRequest().getRootReference();
             this.logger.info("Index documents in [{}].", rootReference);
-            this.indexer.index(rootReference, true);
+            this.indexer.reindex(rootReference, true);
         } else {
             updateSolrIndex();
         }
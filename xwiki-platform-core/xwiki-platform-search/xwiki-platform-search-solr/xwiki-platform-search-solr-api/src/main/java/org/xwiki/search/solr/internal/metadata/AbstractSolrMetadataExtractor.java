@@ -19,7 +19,6 @@
  */
 package org.xwiki.search.solr.internal.metadata;
 
-import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -33,8 +32,6 @@
 import javax.inject.Provider;
 
 import org.apache.solr.common.SolrInputDocument;
-import org.apache.tika.metadata.Metadata;
-import org.apache.tika.metadata.TikaCoreProperties;
 import org.slf4j.Logger;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
@@ -47,7 +44,6 @@
 import org.xwiki.search.solr.internal.SolrSearchCoreUtils;
 import org.xwiki.search.solr.internal.api.FieldUtils;
 import org.xwiki.search.solr.internal.api.SolrIndexerException;
-import org.xwiki.tika.internal.TikaUtils;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -127,6 +123,9 @@ public abstract class AbstractSolrMetadataExtractor implements SolrMetadataExtra
     @Inject
     protected GeneralMailConfiguration generalMailConfiguration;
 
+    @Inject
+    protected AttachmentTextExtractor attachmentTextExtractor;
+
     private int shortTextLimit = -1;
 
     /**
@@ -153,6 +152,13 @@ protected int getShortTextLimit()
     @Override
     public XWikiSolrInputDocument getSolrDocument(EntityReference entityReference)
         throws SolrIndexerException, IllegalArgumentException
+    {
+        return getSolrDocument(entityReference, false);
+    }
+
+    @Override
+    public XWikiSolrInputDocument getSolrDocument(EntityReference entityReference, boolean reindex)
+        throws SolrIndexerException, IllegalArgumentException
     {
         try {
             XWikiSolrInputDocument solrDocument = new XWikiSolrInputDocument();
@@ -168,7 +174,7 @@ public XWikiSolrInputDocument getSolrDocument(EntityReference entityReference)
 
             solrDocument.setField(FieldUtils.TYPE, entityReference.getType().name());
 
-            if (!setFieldsInternal(solrDocument, entityReference)) {
+            if (!setFieldsInternal(solrDocument, entityReference, reindex)) {
                 return null;
             }
 
@@ -188,6 +194,20 @@ public XWikiSolrInputDocument getSolrDocument(EntityReference entityReference)
     protected abstract boolean setFieldsInternal(XWikiSolrInputDocument solrDocument, EntityReference entityReference)
         throws Exception;
 
+    /**
+     * @param solrDocument the {@link XWikiSolrInputDocument} to modify
+     * @param entityReference the reference of the entity
+     * @param reindex {@code true} if nothing should be reused from the current index
+     * @return false if the entity should not be indexed (generally mean it does not exist), true otherwise
+     * @throws Exception in case of errors
+     * @since 17.2.0RC1
+     */
+    protected boolean setFieldsInternal(XWikiSolrInputDocument solrDocument, EntityReference entityReference,
+        boolean reindex) throws Exception
+    {
+        return setFieldsInternal(solrDocument, entityReference);
+    }
+
     /**
      * Utility method to retrieve the default translation of a document using its document reference.
      * 
@@ -522,16 +542,7 @@ protected void addFieldValueOnce(XWikiSolrInputDocument solrDocument, String fie
     protected String getContentAsText(XWikiAttachment attachment)
     {
         try {
-            Metadata metadata = new Metadata();
-            metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, attachment.getFilename());
-
-            InputStream in = attachment.getContentInputStream(this.xcontextProvider.get());
-
-            try {
-                return TikaUtils.parseToString(in, metadata);
-            } finally {
-                in.close();
-            }
+            return this.attachmentTextExtractor.getText(attachment);
         } catch (Exception e) {
             this.logger.error("Failed to retrieve the content of attachment [{}]", attachment.getReference(), e);
             return null;
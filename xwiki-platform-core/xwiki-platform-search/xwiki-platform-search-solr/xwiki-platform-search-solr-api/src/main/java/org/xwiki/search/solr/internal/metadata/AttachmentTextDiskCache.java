@@ -0,0 +1,188 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of the text extracted from the attachments, bounded by the total size of the stored (compressed)
+ * files and evicting the least recently used entries first.
+ * <p>
+ * The keys are expected to identify a version of the attachment content (which never changes) so that outdated
+ * entries are never accessed again and are naturally evicted.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+class AttachmentTextDiskCache
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentTextDiskCache.class);
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final File directory;
+
+    private final long maxSize;
+
+    /**
+     * The size of the stored files, indexed by file name and ordered from the least to the most recently used.
+     */
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    /**
+     * @param directory the directory where to store the extracted text
+     * @param maxSize the maximum number of bytes to store in the directory
+     */
+    AttachmentTextDiskCache(File directory, long maxSize)
+    {
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        load();
+    }
+
+    private void load()
+    {
+        this.directory.mkdirs();
+
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            // Consider the most recently written files as the most recently used ones
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (file.getName().endsWith(TEMPORARY_SUFFIX)) {
+                    FileUtils.deleteQuietly(file);
+                } else {
+                    this.entries.put(file.getName(), file.length());
+                    this.size += file.length();
+                }
+            }
+        }
+
+        evict();
+    }
+
+    /**
+     * @param key the identifier of the attachment content
+     * @return the extracted text or {@code null} if it's not in the cache
+     * @throws IOException when failing to read the extracted text
+     */
+    String get(String key) throws IOException
+    {
+        String fileName = getFileName(key);
+
+        synchronized (this) {
+            if (this.entries.get(fileName) == null) {
+                return null;
+            }
+        }
+
+        File file = new File(this.directory, fileName);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (InputStream stream = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            return IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @param key the identifier of the attachment content
+     * @param text the extracted text
+     * @throws IOException when failing to store the extracted text
+     */
+    void set(String key, String text) throws IOException
+    {
+        String fileName = getFileName(key);
+        File file = new File(this.directory, fileName);
+
+        // Write to a temporary file first so that a partially written text is never read
+        File temporaryFile = File.createTempFile(fileName, TEMPORARY_SUFFIX, this.directory);
+        try {
+            try (OutputStream stream = new GZIPOutputStream(Files.newOutputStream(temporaryFile.toPath()))) {
+                stream.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(temporaryFile);
+        }
+
+        synchronized (this) {
+            Long previousLength = this.entries.put(fileName, file.length());
+            if (previousLength != null) {
+                this.size -= previousLength;
+            }
+            this.size += file.length();
+
+            evict();
+        }
+    }
+
+    /**
+     * @return the number of bytes currently stored in the cache
+     */
+    synchronized long getSize()
+    {
+        return this.size;
+    }
+
+    private synchronized void evict()
+    {
+        Iterator<Map.Entry<String, Long>> iterator = this.entries.entrySet().iterator();
+        while (this.size > this.maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            this.size -= entry.getValue();
+
+            File file = new File(this.directory, entry.getKey());
+            if (!FileUtils.deleteQuietly(file)) {
+                LOGGER.debug("Failed to delete the cached attachment text [{}]", file);
+            }
+        }
+    }
+
+    private String getFileName(String key)
+    {
+        return DigestUtils.sha256Hex(key);
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.tika.internal.TikaUtils;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiAttachment;
+
+/**
+ * Extract the text of the attachments with Tika.
+ * <p>
+ * Since the content of an attachment version never changes, the extracted text is kept in a persistent cache so that
+ * a reindex does not parse all the attachments again. The parsing itself is done by a bounded pool of threads, which
+ * extracts the text of the attachments of a document in parallel, with a timeout so that a pathological file can't
+ * block the indexing. The attachments which could not be parsed before the timeout are remembered in the cache for a
+ * day, so that they are not parsed again on each reindex.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = AttachmentTextExtractor.class)
+@Singleton
+public class AttachmentTextExtractor implements Initializable, Disposable
+{
+    private static final char KEY_SEPARATOR = '/';
+
+    private static final String TIMEOUT_KEY = "timeout";
+
+    /**
+     * How long an attachment which could not be parsed before the timeout is not parsed again, in milliseconds.
+     */
+    private static final long TIMEOUT_RETRY_DELAY = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * The maximum number of threads stuck on an attachment after the timeout. Above that, the text extraction is
+     * suspended until some of them finish, instead of starting new threads.
+     */
+    private static final int MAX_ABANDONED_THREADS = 10;
+
+    private static final String FAILED_EXTRACTION = "Failed to retrieve the content of attachment [{}]";
+
+    /**
+     * The text extraction of an attachment, which keeps track of the threads abandoned after the timeout.
+     */
+    private final class Extraction implements Callable<String>
+    {
+        private static final int PENDING = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int DONE = 2;
+
+        private static final int ABANDONED = 3;
+
+        private final XWikiAttachment attachment;
+
+        private final InputStream content;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private Future<String> future;
+
+        Extraction(XWikiAttachment attachment, InputStream content)
+        {
+            this.attachment = attachment;
+            this.content = content;
+        }
+
+        @Override
+        public String call() throws Exception
+        {
+            if (!this.state.compareAndSet(PENDING, RUNNING)) {
+                return null;
+            }
+
+            try {
+                return TikaUtils.parseToString(this.content, getMetadata(this.attachment));
+            } finally {
+                if (!this.state.compareAndSet(RUNNING, DONE)) {
+                    // The extraction has been abandoned after the timeout
+                    abandonedThreads.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if the extraction was running, {@code false} if it was not started yet
+         */
+        boolean abandon()
+        {
+            this.future.cancel(true);
+
+            if (this.state.compareAndSet(PENDING, ABANDONED)) {
+                return false;
+            }
+
+            abandonedThreads.incrementAndGet();
+            if (!this.state.compareAndSet(RUNNING, ABANDONED)) {
+                // It finished in the meantime
+                abandonedThreads.decrementAndGet();
+            }
+
+            return true;
+        }
+    }
+
+    @Inject
+    private SolrConfiguration configuration;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    private AttachmentTextDiskCache cache;
+
+    private int threads;
+
+    private volatile ExecutorService executor;
+
+    private long timeout;
+
+    private final AtomicInteger abandonedThreads = new AtomicInteger();
+
+    private final AtomicBoolean suspended = new AtomicBoolean();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        long maxSize = this.configuration.getAttachmentTextCacheSize() * 1024L * 1024L;
+        if (maxSize > 0) {
+            try {
+                File directory = new File(this.environment.getPermanentDirectory(), "cache/solr/attachmenttext");
+                this.cache = new AttachmentTextDiskCache(directory, maxSize);
+            } catch (Exception e) {
+                this.logger.error("Failed to initialize the persistent cache of the attachments text.", e);
+            }
+        }
+
+        this.threads = this.configuration.getAttachmentTextThreads();
+        if (this.threads > 0) {
+            this.executor = createExecutor();
+        }
+
+        this.timeout = this.configuration.getAttachmentTextTimeout();
+    }
+
+    private ExecutorService createExecutor()
+    {
+        BasicThreadFactory factory = new BasicThreadFactory.Builder()
+            .namingPattern("XWiki Solr attachment text extraction thread %d").daemon(true).build();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(this.threads, this.threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), factory);
+        threadPool.allowCoreThreadTimeOut(true);
+
+        return threadPool;
+    }
+
+    /**
+     * @param attachment the attachment from which to extract the text
+     * @return the text representation of the attachment's content, or {@code null} if the extraction failed or took
+     *         too long
+     */
+    public String getText(XWikiAttachment attachment)
+    {
+        return getTexts(Collections.singletonList(attachment)).get(0);
+    }
+
+    /**
+     * Extract the text of several attachments (e.g. the attachments of a document) in parallel.
+     *
+     * @param attachments the attachments from which to extract the text
+     * @return the text representation of the content of each attachment, in the same order, {@code null} when the
+     *         extraction failed or took too long
+     */
+    public List<String> getTexts(List<XWikiAttachment> attachments)
+    {
+        String[] texts = new String[attachments.size()];
+        String[] keys = new String[attachments.size()];
+
+        List<Integer> toParse = new ArrayList<>();
+        for (int i = 0; i < texts.length; ++i) {
+            XWikiAttachment attachment = attachments.get(i);
+            keys[i] = this.cache != null ? getKey(attachment) : null;
+            if (!getCachedText(attachment, keys[i], texts, i)) {
+                toParse.add(i);
+            }
+        }
+
+        if (!toParse.isEmpty()) {
+            if (this.executor == null) {
+                for (int i : toParse) {
+                    texts[i] = parse(attachments.get(i));
+                    setCachedText(attachments.get(i), keys[i], texts[i]);
+                }
+            } else {
+                // Don't load more attachment contents than can be parsed at the same time
+                for (int start = 0; start < toParse.size(); start += this.threads) {
+                    List<Integer> window = toParse.subList(start, Math.min(start + this.threads, toParse.size()));
+                    parse(window, attachments, keys, texts);
+                }
+            }
+        }
+
+        return Arrays.asList(texts);
+    }
+
+    private boolean getCachedText(XWikiAttachment attachment, String key, String[] texts, int index)
+    {
+        if (key != null) {
+            try {
+                texts[index] = this.cache.get(key);
+                if (texts[index] != null) {
+                    return true;
+                }
+
+                long timedOut = NumberUtils.toLong(this.cache.get(getTimeoutKey(key)));
+                if (System.currentTimeMillis() - timedOut < TIMEOUT_RETRY_DELAY) {
+                    this.logger.debug("Skipping the text extraction of attachment [{}] which recently timed out.",
+                        attachment.getReference());
+
+                    return true;
+                }
+            } catch (IOException e) {
+                this.logger.warn("Failed to read the cached text of attachment [{}]: {}", attachment.getReference(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return false;
+    }
+
+    private void setCachedText(XWikiAttachment attachment, String key, String text)
+    {
+        if (key != null && text != null) {
+            try {
+                this.cache.set(key, text);
+            } catch (IOException e) {
+                this.logger.warn("Failed to cache the text of attachment [{}]: {}", attachment.getReference(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private void setTimedOut(XWikiAttachment attachment, String key)
+    {
+        this.logger.warn("Gave up extracting the text of attachment [{}] after [{}] seconds.",
+            attachment.getReference(), this.timeout);
+
+        if (key != null) {
+            try {
+                // Remember the attachments which could not be parsed in time, to not parse them again on each reindex
+                this.cache.set(getTimeoutKey(key), String.valueOf(System.currentTimeMillis()));
+            } catch (IOException e) {
+                this.logger.warn("Failed to cache the text extraction timeout of attachment [{}]: {}",
+                    attachment.getReference(), ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private String getTimeoutKey(String key)
+    {
+        // Try again if the timeout is increased
+        return key + KEY_SEPARATOR + TIMEOUT_KEY + KEY_SEPARATOR + this.timeout;
+    }
+
+    private String getKey(XWikiAttachment attachment)
+    {
+        // The content of an attachment version never changes, the date and size protect against a version number
+        // being reused (e.g. when an attachment is deleted and uploaded again)
+        Date date = attachment.getDate();
+        StringBuilder key = new StringBuilder(this.serializer.serialize(attachment.getReference()));
+        key.append(KEY_SEPARATOR).append(attachment.getVersion());
+        key.append(KEY_SEPARATOR).append(date != null ? date.getTime() : 0);
+        key.append(KEY_SEPARATOR).append(attachment.getLongSize());
+
+        return key.toString();
+    }
+
+    private Metadata getMetadata(XWikiAttachment attachment)
+    {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, attachment.getFilename());
+
+        return metadata;
+    }
+
+    private String parse(XWikiAttachment attachment)
+    {
+        try (InputStream in = attachment.getContentInputStream(this.xcontextProvider.get())) {
+            return TikaUtils.parseToString(in, getMetadata(attachment));
+        } catch (Exception e) {
+            this.logger.error(FAILED_EXTRACTION, attachment.getReference(), e);
+
+            return null;
+        }
+    }
+
+    private void parse(List<Integer> indexes, List<XWikiAttachment> attachments, String[] keys, String[] texts)
+    {
+        if (this.abandonedThreads.get() >= MAX_ABANDONED_THREADS) {
+            if (this.suspended.compareAndSet(false, true)) {
+                this.logger.error("Suspending the extraction of the attachments text because [{}] threads are stuck"
+                    + " on attachments which took more than [{}] seconds to parse.", MAX_ABANDONED_THREADS,
+                    this.timeout);
+            }
+
+            return;
+        }
+        this.suspended.set(false);
+
+        ExecutorService currentExecutor = this.executor;
+        List<Extraction> extractions = new ArrayList<>(indexes.size());
+        try {
+            // The contents are loaded in the current thread which holds the XWiki context
+            for (int i : indexes) {
+                XWikiAttachment attachment = attachments.get(i);
+                try {
+                    Extraction extraction =
+                        new Extraction(attachment, attachment.getContentInputStream(this.xcontextProvider.get()));
+                    extraction.future = currentExecutor.submit(extraction);
+                    extractions.add(extraction);
+                } catch (Exception e) {
+                    this.logger.error(FAILED_EXTRACTION, attachment.getReference(), e);
+                    extractions.add(null);
+                }
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.timeout);
+            boolean timedOut = false;
+            for (int j = 0; j < indexes.size(); ++j) {
+                Extraction extraction = extractions.get(j);
+                if (extraction != null) {
+                    int i = indexes.get(j);
+                    try {
+                        texts[i] = this.timeout > 0
+                            ? extraction.future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                            : extraction.future.get();
+                        setCachedText(attachments.get(i), keys[i], texts[i]);
+                    } catch (TimeoutException e) {
+                        // An extraction which didn't start yet will be tried again on the next indexing
+                        if (extraction.abandon()) {
+                            timedOut = true;
+                            setTimedOut(attachments.get(i), keys[i]);
+                        }
+                    } catch (ExecutionException e) {
+                        this.logger.error(FAILED_EXTRACTION, attachments.get(i).getReference(), e.getCause());
+                    }
+                }
+            }
+
+            if (timedOut) {
+                // Parsers don't necessarily react to the interruption (e.g. when stuck in a CPU bound loop) and there
+                // is no way to stop the worker threads, so we make sure they don't reduce the number of threads
+                // available to the next extractions.
+                replaceExecutor(currentExecutor);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            extractions.stream().filter(extraction -> extraction != null).forEach(Extraction::abandon);
+        } finally {
+            for (Extraction extraction : extractions) {
+                closeContent(extraction);
+            }
+        }
+    }
+
+    private void closeContent(Extraction extraction)
+    {
+        if (extraction != null) {
+            try {
+                extraction.content.close();
+            } catch (IOException e) {
+                this.logger.debug("Failed to close the content of attachment [{}]: {}",
+                    extraction.attachment.getReference(), ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private synchronized void replaceExecutor(ExecutorService timedOutExecutor)
+    {
+        if (this.executor == timedOutExecutor) {
+            this.executor = createExecutor();
+
+            // Let the other extractions finish, the threads of the previous executor stop once they are done
+            timedOutExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        ExecutorService currentExecutor = this.executor;
+        if (currentExecutor != null) {
+            currentExecutor.shutdownNow();
+        }
+    }
+}
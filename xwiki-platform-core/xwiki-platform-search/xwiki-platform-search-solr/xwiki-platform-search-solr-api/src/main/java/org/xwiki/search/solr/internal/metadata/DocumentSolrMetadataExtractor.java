@@ -29,7 +29,10 @@
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrInputDocument;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.model.EntityType;
@@ -43,6 +46,7 @@
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.search.solr.internal.api.FieldUtils;
 import org.xwiki.search.solr.internal.api.SolrFieldNameEncoder;
+import org.xwiki.search.solr.internal.api.SolrInstance;
 import org.xwiki.user.UserReference;
 import org.xwiki.user.UserReferenceSerializer;
 
@@ -64,6 +68,11 @@
 @Singleton
 public class DocumentSolrMetadataExtractor extends AbstractSolrMetadataExtractor
 {
+    /**
+     * Increase when the way the content fields are extracted changes, so that they are not reused from the index.
+     */
+    private static final String CONTENT_EXTRACTION_VERSION = "1";
+
     /**
      * BlockRenderer component used to render the wiki content before indexing.
      */
@@ -96,9 +105,22 @@ public class DocumentSolrMetadataExtractor extends AbstractSolrMetadataExtractor
     @Inject
     private SolrFieldNameEncoder fieldNameEncoder;
 
+    /**
+     * Used to get the previously indexed version of a document.
+     */
+    @Inject
+    private SolrInstance solrInstance;
+
     @Override
     public boolean setFieldsInternal(XWikiSolrInputDocument solrDocument, EntityReference entityReference)
         throws Exception
+    {
+        return setFieldsInternal(solrDocument, entityReference, false);
+    }
+
+    @Override
+    protected boolean setFieldsInternal(XWikiSolrInputDocument solrDocument, EntityReference entityReference,
+        boolean reindex) throws Exception
     {
         DocumentReference documentReference = new DocumentReference(entityReference);
 
@@ -113,19 +135,24 @@ public boolean setFieldsInternal(XWikiSolrInputDocument solrDocument, EntityRefe
 
         solrDocument.setField(FieldUtils.FULLNAME, localSerializer.serialize(documentReference));
 
-        // Rendered title.
+        // Rendered title. Always rendered since it can depend on more than the raw title (e.g. a title computed by
+        // a script, or the title of another document).
         String plainTitle = translatedDocument.getRenderedTitle(Syntax.PLAIN_1_0, xcontext);
         solrDocument.setField(FieldUtils.getFieldName(FieldUtils.TITLE, locale), plainTitle);
 
-        // Raw Content
-        solrDocument.setField(FieldUtils.getFieldName(FieldUtils.DOCUMENT_RAW_CONTENT, locale),
-            translatedDocument.getContent());
+        // Content. A document is often indexed again without any modification of its content (e.g. the translations
+        // when the objects or attachments of the default translation are modified) in which case we reuse the fields
+        // of the previously indexed version instead of rendering the content again, unless a reindex was explicitly
+        // requested.
+        String contentHash = getContentHash(translatedDocument, locale);
+        solrDocument.setField(FieldUtils.DOCUMENT_CONTENT_HASH, contentHash);
+        if (reindex || !copyContentFields(solrDocument, contentHash, locale)) {
+            setContentFields(solrDocument, translatedDocument, locale);
+        }
 
-        // Rendered content
-        WikiPrinter plainContentPrinter = new DefaultWikiPrinter();
-        this.renderer.render(translatedDocument.getXDOM(), plainContentPrinter);
-        solrDocument.setField(FieldUtils.getFieldName(FieldUtils.DOCUMENT_RENDERED_CONTENT, locale),
-            plainContentPrinter.toString());
+        // Add links found in the document. Always extracted since they also come from the objects, which are not
+        // covered by the content hash.
+        setLinks(solrDocument, translatedDocument, xcontext);
 
         solrDocument.setField(FieldUtils.VERSION, translatedDocument.getVersion());
         solrDocument.setField(FieldUtils.COMMENT, translatedDocument.getComment());
@@ -145,9 +172,6 @@ public boolean setFieldsInternal(XWikiSolrInputDocument solrDocument, EntityRefe
         // Document translations have their own hidden fields
         solrDocument.setField(FieldUtils.HIDDEN, translatedDocument.isHidden());
 
-        // Add links found in the document
-        setLinks(solrDocument, translatedDocument, xcontext);
-
         // Add any extra fields (about objects, etc.) that can improve the findability of the document.
         setExtras(documentReference, solrDocument, locale);
 
@@ -157,6 +181,65 @@ public boolean setFieldsInternal(XWikiSolrInputDocument solrDocument, EntityRefe
         return true;
     }
 
+    private String getContentHash(XWikiDocument translatedDocument, Locale locale)
+    {
+        StringBuilder input = new StringBuilder(CONTENT_EXTRACTION_VERSION);
+        input.append('\n').append(locale);
+        input.append('\n').append(translatedDocument.getSyntax());
+        input.append('\n').append(translatedDocument.getContent());
+
+        return DigestUtils.sha256Hex(input.toString());
+    }
+
+    /**
+     * Copy the content fields of the previously indexed version of the document, if its content didn't change.
+     *
+     * @param solrDocument the Solr document where to copy the content fields
+     * @param contentHash the hash of the current content of the document
+     * @param locale the locale of the content fields
+     * @return {@code true} if the content fields have been copied, {@code false} if they need to be extracted
+     */
+    private boolean copyContentFields(XWikiSolrInputDocument solrDocument, String contentHash, Locale locale)
+    {
+        SolrDocument indexedDocument;
+        try {
+            indexedDocument = this.solrInstance.get((String) solrDocument.getFieldValue(FieldUtils.ID));
+        } catch (Exception e) {
+            this.logger.debug("Failed to get the indexed version of the Solr document [{}]: {}",
+                solrDocument.getFieldValue(FieldUtils.ID), ExceptionUtils.getRootCauseMessage(e));
+
+            return false;
+        }
+
+        String renderedContentField = FieldUtils.getFieldName(FieldUtils.DOCUMENT_RENDERED_CONTENT, locale);
+        if (indexedDocument == null
+            || !contentHash.equals(indexedDocument.getFirstValue(FieldUtils.DOCUMENT_CONTENT_HASH))
+            || !indexedDocument.containsKey(renderedContentField)) {
+            return false;
+        }
+
+        for (String field : List.of(FieldUtils.getFieldName(FieldUtils.DOCUMENT_RAW_CONTENT, locale),
+            renderedContentField)) {
+            solrDocument.setField(field, indexedDocument.getFieldValue(field));
+        }
+
+        return true;
+    }
+
+    private void setContentFields(XWikiSolrInputDocument solrDocument, XWikiDocument translatedDocument,
+        Locale locale)
+    {
+        // Raw Content
+        solrDocument.setField(FieldUtils.getFieldName(FieldUtils.DOCUMENT_RAW_CONTENT, locale),
+            translatedDocument.getContent());
+
+        // Rendered content
+        WikiPrinter plainContentPrinter = new DefaultWikiPrinter();
+        this.renderer.render(translatedDocument.getXDOM(), plainContentPrinter);
+        solrDocument.setField(FieldUtils.getFieldName(FieldUtils.DOCUMENT_RENDERED_CONTENT, locale),
+            plainContentPrinter.toString());
+    }
+
     /**
      * @param solrDocument the Solr document
      * @param translatedDocument the XWiki document
@@ -309,8 +392,11 @@ protected void setPropertyValue(XWikiSolrInputDocument solrDocument, BasePropert
      */
     private void setAttachments(SolrInputDocument solrDocument, Locale locale, XWikiDocument originalDocument)
     {
-        for (XWikiAttachment attachment : originalDocument.getAttachmentList()) {
-            setAttachment(solrDocument, locale, attachment);
+        List<XWikiAttachment> attachments = originalDocument.getAttachmentList();
+        // Extract the text of the attachments in parallel
+        List<String> texts = this.attachmentTextExtractor.getTexts(attachments);
+        for (int i = 0; i < attachments.size(); ++i) {
+            setAttachment(solrDocument, locale, attachments.get(i), texts.get(i));
         }
     }
 
@@ -320,8 +406,10 @@ private void setAttachments(SolrInputDocument solrDocument, Locale locale, XWiki
      * @param solrDocument the Solr document where to add the attachment data
      * @param locale the locale for which to index the attachments
      * @param attachment the attachment to index
+     * @param attachmentTextContent the text representation of the attachment's content
      */
-    private void setAttachment(SolrInputDocument solrDocument, Locale locale, XWikiAttachment attachment)
+    private void setAttachment(SolrInputDocument solrDocument, Locale locale, XWikiAttachment attachment,
+        String attachmentTextContent)
     {
         XWikiContext xcontext = xcontextProvider.get();
 
@@ -330,7 +418,6 @@ private void setAttachment(SolrInputDocument solrDocument, Locale locale, XWikiA
         solrDocument.addField(FieldUtils.ATTACHMENT_DATE, attachment.getDate());
         solrDocument.addField(FieldUtils.ATTACHMENT_SIZE, attachment.getLongSize());
 
-        String attachmentTextContent = getContentAsText(attachment);
         solrDocument.addField(FieldUtils.getFieldName(FieldUtils.ATTACHMENT_CONTENT, locale), attachmentTextContent);
 
         // Index the full author reference for exact matching (faceting).
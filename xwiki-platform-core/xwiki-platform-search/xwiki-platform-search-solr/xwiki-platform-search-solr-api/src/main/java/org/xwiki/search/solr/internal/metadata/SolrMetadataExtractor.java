@@ -48,4 +48,20 @@
      */
     XWikiSolrInputDocument getSolrDocument(EntityReference entityReference) throws SolrIndexerException,
         IllegalArgumentException;
+
+    /**
+     * Extract data from an XWiki entity and wrap it into a {@link SolrInputDocument} that is indexable by Solr.
+     * 
+     * @param entityReference the reference to the entity.
+     * @param reindex {@code true} if nothing should be reused from the current index
+     * @return the {@link SolrInputDocument} containing the fields to be indexed for the entity.
+     * @throws SolrIndexerException if problems occur.
+     * @throws IllegalArgumentException if the passed reference is not supported by the current implementation.
+     * @since 17.2.0RC1
+     */
+    default XWikiSolrInputDocument getSolrDocument(EntityReference entityReference, boolean reindex)
+        throws SolrIndexerException, IllegalArgumentException
+    {
+        return getSolrDocument(entityReference);
+    }
 }
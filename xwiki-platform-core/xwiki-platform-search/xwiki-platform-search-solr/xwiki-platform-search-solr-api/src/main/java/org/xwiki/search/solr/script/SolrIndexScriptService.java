@@ -116,7 +116,7 @@ public void index(EntityReference reference)
         try {
             checkAccessToWikiIndex(reference);
 
-            this.solrIndexer.index(reference, true);
+            this.solrIndexer.reindex(reference, true);
         } catch (Exception e) {
             error(e);
         }
@@ -137,7 +137,7 @@ public void index(List<EntityReference> references)
             checkAccessToWikiIndex(references);
 
             for (EntityReference reference : references) {
-                this.solrIndexer.index(reference, true);
+                this.solrIndexer.reindex(reference, true);
             }
         } catch (Exception e) {
             error(e);
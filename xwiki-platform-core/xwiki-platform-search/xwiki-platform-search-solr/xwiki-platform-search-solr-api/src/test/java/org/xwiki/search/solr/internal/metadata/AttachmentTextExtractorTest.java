@@ -0,0 +1,196 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.AttachmentReference;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiAttachment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AttachmentTextExtractor}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class AttachmentTextExtractorTest
+{
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    @InjectMockComponents
+    private AttachmentTextExtractor extractor;
+
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    private XWikiContext xcontext = mock(XWikiContext.class);
+
+    private XWikiAttachment attachment = mock(XWikiAttachment.class);
+
+    @BeforeComponent
+    void beforeComponent(MockitoComponentManager componentManager) throws Exception
+    {
+        Environment environment = componentManager.registerMockComponent(Environment.class);
+        when(environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+
+        SolrConfiguration configuration = componentManager.registerMockComponent(SolrConfiguration.class);
+        when(configuration.getAttachmentTextCacheSize()).thenReturn(1);
+        when(configuration.getAttachmentTextThreads()).thenReturn(1);
+        when(configuration.getAttachmentTextTimeout()).thenReturn(60);
+    }
+
+    @BeforeEach
+    void beforeEach(MockitoComponentManager componentManager) throws Exception
+    {
+        Provider<XWikiContext> xcontextProvider = componentManager.getInstance(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(this.xcontext);
+
+        when(this.attachment.getReference())
+            .thenReturn(new AttachmentReference("todo.txt", new DocumentReference("wiki", "Space", "Page")));
+        when(this.attachment.getFilename()).thenReturn("todo.txt");
+        when(this.attachment.getVersion()).thenReturn("1.1");
+        when(this.attachment.getDate()).thenReturn(new Date(123));
+        when(this.attachment.getLongSize()).thenReturn(7L);
+        when(this.attachment.getContentInputStream(this.xcontext))
+            .then(invocation -> new ByteArrayInputStream("bar bar".getBytes()));
+    }
+
+    @Test
+    void getTextFromCache() throws Exception
+    {
+        assertEquals("bar bar\n", this.extractor.getText(this.attachment));
+        assertEquals("bar bar\n", this.extractor.getText(this.attachment));
+
+        // The content is parsed only once
+        verify(this.attachment, times(1)).getContentInputStream(any());
+
+        // A new version of the attachment is parsed again
+        when(this.attachment.getVersion()).thenReturn("1.2");
+
+        assertEquals("bar bar\n", this.extractor.getText(this.attachment));
+
+        verify(this.attachment, times(2)).getContentInputStream(any());
+    }
+
+    @Test
+    void getTexts() throws Exception
+    {
+        XWikiAttachment failing = mock(XWikiAttachment.class);
+        when(failing.getReference())
+            .thenReturn(new AttachmentReference("broken.txt", new DocumentReference("wiki", "Space", "Page")));
+        when(failing.getContentInputStream(this.xcontext)).thenThrow(new XWikiException());
+
+        XWikiAttachment other = mock(XWikiAttachment.class);
+        when(other.getReference())
+            .thenReturn(new AttachmentReference("other.txt", new DocumentReference("wiki", "Space", "Page")));
+        when(other.getFilename()).thenReturn("other.txt");
+        when(other.getVersion()).thenReturn("1.1");
+        when(other.getContentInputStream(this.xcontext))
+            .then(invocation -> new ByteArrayInputStream("foo".getBytes()));
+
+        assertEquals(Arrays.asList("bar bar\n", null, "foo\n"),
+            this.extractor.getTexts(Arrays.asList(this.attachment, failing, other)));
+
+        assertEquals("Failed to retrieve the content of attachment [{}]",
+            this.logCapture.getLogEvent(0).getMessage());
+    }
+
+    @Test
+    void getTextWithTimeout() throws Exception
+    {
+        // Make sure the parser is initialized before reducing the timeout
+        assertEquals("bar bar\n", this.extractor.getText(this.attachment));
+        ReflectionUtils.setFieldValue(this.extractor, "timeout", 1L);
+
+        // A parser stuck in a way which doesn't react to the interruption
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream stuckStream = new InputStream()
+        {
+            @Override
+            public int read()
+            {
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        // Ignore the interruption
+                    }
+                }
+
+                return -1;
+            }
+        };
+        when(this.attachment.getVersion()).thenReturn("1.2");
+        when(this.attachment.getContentInputStream(this.xcontext)).thenReturn(stuckStream);
+
+        try {
+            assertNull(this.extractor.getText(this.attachment));
+
+            // The timeout is remembered
+            assertNull(this.extractor.getText(this.attachment));
+            verify(this.attachment, times(2)).getContentInputStream(any());
+
+            // The stuck worker has been replaced
+            when(this.attachment.getVersion()).thenReturn("1.3");
+            when(this.attachment.getContentInputStream(this.xcontext))
+                .then(invocation -> new ByteArrayInputStream("bar bar".getBytes()));
+
+            assertEquals("bar bar\n", this.extractor.getText(this.attachment));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("Gave up extracting the text of attachment [{}] after [{}] seconds.",
+            this.logCapture.getLogEvent(0).getMessage());
+    }
+}
@@ -35,6 +35,7 @@
 import javax.inject.Provider;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrInputDocument;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -47,6 +48,7 @@
 import org.mockito.stubbing.Answer;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.environment.Environment;
 import org.xwiki.mail.GeneralMailConfiguration;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.document.DocumentAuthors;
@@ -59,8 +61,10 @@
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.search.solr.internal.SolrSearchCoreUtils;
 import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrFieldNameEncoder;
 import org.xwiki.search.solr.internal.api.SolrIndexerException;
+import org.xwiki.search.solr.internal.api.SolrInstance;
 import org.xwiki.search.solr.internal.reference.SolrReferenceResolver;
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.mockito.ComponentTest;
@@ -95,6 +99,8 @@
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -103,7 +109,7 @@
  * @version $Id$
  */
 @ComponentTest
-@ComponentList({SolrSearchCoreUtils.class, SolrLinkSerializer.class})
+@ComponentList({SolrSearchCoreUtils.class, SolrLinkSerializer.class, AttachmentTextExtractor.class})
 @ReferenceComponentList
 class DocumentSolrMetadataExtractorTest
 {
@@ -141,6 +147,18 @@
     @Named("document")
     private SolrReferenceResolver documentSolrReferenceResolver;
 
+    @MockComponent
+    private SolrInstance solrInstance;
+
+    /**
+     * Disable the persistent cache and the thread pool of the attachment text extractor.
+     */
+    @MockComponent
+    private SolrConfiguration solrConfiguration;
+
+    @MockComponent
+    private Environment environment;
+
     private XWikiContext xcontext = mock(XWikiContext.class);
 
     /**
@@ -339,6 +357,98 @@ public Void answer(InvocationOnMock invocation)
             new HashSet<>(solrDocument.getFieldValues(FieldUtils.LINKS_EXTENDED)));
     }
 
+    @Test
+    void getDocumentWithUnmodifiedContent() throws Exception
+    {
+        String id = "wiki:Space.Name_" + Locale.ROOT.toString();
+        when(this.documentSolrReferenceResolver.getId(this.documentReference)).thenReturn(id);
+        when(this.document.getXObjects()).thenReturn(Collections.<DocumentReference, List<BaseObject>>emptyMap());
+        when(this.document.getUniqueLinkedEntities(any(XWikiContext.class)))
+            .thenReturn(Set.of(new DocumentReference("wiki", "space", "document")));
+        when(this.document.getRenderedTitle(any(), same(this.xcontext))).thenReturn("title");
+        when(this.document.getContent()).thenReturn("raw content");
+        doAnswer(invocation -> {
+            ((WikiPrinter) invocation.getArgument(1)).print("rendered content");
+            return null;
+        }).when(this.renderer).render((Block) any(), any());
+
+        SolrInputDocument firstDocument = this.metadataExtractor.getSolrDocument(this.documentReference);
+
+        // Simulate the stored version of the indexed document (the extended links are not stored)
+        SolrDocument indexedDocument = new SolrDocument();
+        for (String fieldName : firstDocument.getFieldNames()) {
+            if (!fieldName.equals(FieldUtils.LINKS_EXTENDED)) {
+                indexedDocument.setField(fieldName, firstDocument.getFieldValues(fieldName));
+            }
+        }
+        when(this.solrInstance.get(id)).thenReturn(indexedDocument);
+
+        when(this.document.getRenderedTitle(any(), same(this.xcontext))).thenReturn("new title");
+
+        SolrInputDocument secondDocument = this.metadataExtractor.getSolrDocument(this.documentReference);
+
+        // The content is not rendered again, but the title is
+        verify(this.renderer, times(1)).render((Block) any(), any());
+        verify(this.document, times(2)).getRenderedTitle(any(), same(this.xcontext));
+
+        assertEquals(firstDocument.getFieldValue(FieldUtils.DOCUMENT_CONTENT_HASH),
+            secondDocument.getFieldValue(FieldUtils.DOCUMENT_CONTENT_HASH));
+        assertEquals("rendered content",
+            secondDocument.getFieldValue(FieldUtils.getFieldName(FieldUtils.DOCUMENT_RENDERED_CONTENT, Locale.US)));
+        assertEquals("raw content",
+            secondDocument.getFieldValue(FieldUtils.getFieldName(FieldUtils.DOCUMENT_RAW_CONTENT, Locale.US)));
+        assertEquals("new title",
+            secondDocument.getFieldValue(FieldUtils.getFieldName(FieldUtils.TITLE, Locale.US)));
+        assertEquals(new HashSet<>(firstDocument.getFieldValues(FieldUtils.LINKS_EXTENDED)),
+            new HashSet<>(secondDocument.getFieldValues(FieldUtils.LINKS_EXTENDED)));
+
+        // An explicit reindex renders the content again
+        this.metadataExtractor.getSolrDocument(this.documentReference, true);
+
+        verify(this.renderer, times(2)).render((Block) any(), any());
+
+        // A modification of the content requires to render it again
+        when(this.document.getContent()).thenReturn("modified raw content");
+
+        this.metadataExtractor.getSolrDocument(this.documentReference);
+
+        verify(this.renderer, times(3)).render((Block) any(), any());
+    }
+
+    @Test
+    void getDocumentWithUnmodifiedContentAndModifiedObjectLinks() throws Exception
+    {
+        String id = "wiki:Space.Name_" + Locale.ROOT.toString();
+        when(this.documentSolrReferenceResolver.getId(this.documentReference)).thenReturn(id);
+        when(this.document.getXObjects()).thenReturn(Collections.<DocumentReference, List<BaseObject>>emptyMap());
+        when(this.document.getUniqueLinkedEntities(any(XWikiContext.class)))
+            .thenReturn(Set.of(new DocumentReference("wiki", "space", "document1")));
+        when(this.document.getContent()).thenReturn("raw content");
+
+        SolrInputDocument firstDocument = this.metadataExtractor.getSolrDocument(this.documentReference);
+
+        SolrDocument indexedDocument = new SolrDocument();
+        for (String fieldName : firstDocument.getFieldNames()) {
+            if (!fieldName.equals(FieldUtils.LINKS_EXTENDED)) {
+                indexedDocument.setField(fieldName, firstDocument.getFieldValues(fieldName));
+            }
+        }
+        when(this.solrInstance.get(id)).thenReturn(indexedDocument);
+
+        // The link is replaced in a wiki syntax property of an object, the content stays the same
+        when(this.document.getUniqueLinkedEntities(any(XWikiContext.class)))
+            .thenReturn(Set.of(new DocumentReference("wiki", "space", "document2")));
+
+        SolrInputDocument secondDocument = this.metadataExtractor.getSolrDocument(this.documentReference);
+
+        // The content is reused but the links are extracted again
+        verify(this.renderer, times(1)).render((Block) any(), any());
+        assertEquals(Set.of("entity:document:wiki:space.document2"),
+            new HashSet<>(secondDocument.getFieldValues(FieldUtils.LINKS)));
+        assertEquals(Set.of("entity:wiki:wiki", "entity:space:wiki:space", "entity:document:wiki:space.document2"),
+            new HashSet<>(secondDocument.getFieldValues(FieldUtils.LINKS_EXTENDED)));
+    }
+
     @Test
     void getDocumentThrowingException() throws Exception
     {
@@ -0,0 +1,404 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.solr.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrQuery.ORDER;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryExecutor;
+import org.xwiki.query.solr.internal.XWQLSolrStatement.Condition;
+import org.xwiki.query.solr.internal.XWQLSolrStatement.Parameter;
+import org.xwiki.query.solr.internal.XWQLSolrStatement.Sort;
+import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.search.solr.internal.api.SolrFieldNameEncoder;
+import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrInstance;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.objects.PropertyInterface;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.objects.classes.BooleanClass;
+import com.xpn.xwiki.objects.classes.DateClass;
+import com.xpn.xwiki.objects.classes.ListClass;
+import com.xpn.xwiki.objects.classes.NumberClass;
+import com.xpn.xwiki.objects.classes.StringClass;
+
+/**
+ * Executes XWQL queries listing the documents having an object of a given class using the Solr search core instead
+ * of the database, which avoids the joins between the objects and their properties.
+ * <p>
+ * Only the subset of XWQL described by {@link XWQLSolrStatement} is executed on the Solr index, with typed (string,
+ * number, boolean, list and date) properties. The query is executed on the database (as a regular XWQL query) when
+ * it's not part of this subset, when it has filters or when the index is not up to date (i.e. there are entities
+ * waiting to be indexed).
+ * <p>
+ * Note that a document is listed only once even if it has several objects of the class, and the conditions on the
+ * object properties can be verified by different objects of the same document.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component
+@Named(XWQLSolrQueryExecutor.XWQL_SOLR)
+@Singleton
+public class XWQLSolrQueryExecutor implements QueryExecutor
+{
+    /**
+     * Query language ID.
+     */
+    public static final String XWQL_SOLR = "xwql-solr";
+
+    private static final String XWQL = "xwql";
+
+    /**
+     * The number of documents to get at once when the query has no limit.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String STRING = "string";
+
+    private static final String DATE = "date";
+
+    private static final String BOOLEAN = "boolean";
+
+    private static final String ANY = "*";
+
+    @Inject
+    private SolrInstance solrInstance;
+
+    /**
+     * Lazily loaded to not start the indexer when the component is initialized.
+     */
+    @Inject
+    private Provider<SolrIndexer> solrIndexerProvider;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    @Named("solr")
+    private EntityReferenceSerializer<String> fieldNameSerializer;
+
+    @Inject
+    private SolrFieldNameEncoder fieldNameEncoder;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private Logger logger;
+
+    @Override
+    public <T> List<T> execute(Query query) throws QueryException
+    {
+        XWQLSolrStatement statement = null;
+        if (!query.isNamed() && (query.getFilters() == null || query.getFilters().isEmpty())) {
+            statement = XWQLSolrStatement.parse(query.getStatement());
+        }
+
+        if (statement != null && this.solrIndexerProvider.get().getQueueSize() == 0) {
+            try {
+                SolrQuery solrQuery = createSolrQuery(statement, query);
+                if (solrQuery != null) {
+                    return (List<T>) search(solrQuery, statement, query);
+                }
+            } catch (Exception e) {
+                this.logger.debug("Failed to execute the query [{}] on the Solr index, using the database instead: {}",
+                    query.getStatement(), ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return executeOnDatabase(query);
+    }
+
+    private <T> List<T> executeOnDatabase(Query query) throws QueryException
+    {
+        QueryExecutor executor;
+        try {
+            executor = this.componentManagerProvider.get().getInstance(QueryExecutor.class, XWQL);
+        } catch (ComponentLookupException e) {
+            throw new QueryException("Failed to get the XWQL query executor", query, e);
+        }
+
+        return executor.execute(query);
+    }
+
+    /**
+     * @return the Solr query or {@code null} if the statement uses unsupported fields or values
+     */
+    private SolrQuery createSolrQuery(XWQLSolrStatement statement, Query query) throws Exception
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        String wiki = query.getWiki() != null ? query.getWiki() : xcontext.getWikiId();
+
+        DocumentReference classReference =
+            this.documentReferenceResolver.resolve(statement.getClassName(), new WikiReference(wiki));
+        BaseClass xclass = xcontext.getWiki().getXClass(classReference, xcontext);
+
+        SolrQuery solrQuery = new SolrQuery("*:*");
+        solrQuery.addFilterQuery(FieldUtils.TYPE + ':' + EntityType.DOCUMENT.name());
+        solrQuery.addFilterQuery(FieldUtils.WIKI + ':' + ClientUtils.escapeQueryChars(wiki));
+        // The objects are indexed with each translation, we only need the default one
+        solrQuery.addFilterQuery(FieldUtils.DOCUMENT_LOCALE + ":\"\"");
+        solrQuery.addFilterQuery(
+            FieldUtils.CLASS + ':' + ClientUtils.escapeQueryChars(this.localSerializer.serialize(classReference)));
+
+        for (Condition condition : statement.getConditions()) {
+            String filter = getFilter(condition, xclass, query);
+            if (filter == null) {
+                return null;
+            }
+            solrQuery.addFilterQuery(filter);
+        }
+
+        for (Sort sort : statement.getSorts()) {
+            String[] field = getField(sort.getAlias(), sort.getField(), true, xclass);
+            if (field == null) {
+                return null;
+            }
+            solrQuery.addSort(field[0], sort.isAscending() ? ORDER.asc : ORDER.desc);
+        }
+        // Make sure the order is stable when paginating
+        solrQuery.addSort(FieldUtils.ID, ORDER.asc);
+
+        solrQuery.setFields(FieldUtils.FULLNAME);
+
+        return solrQuery;
+    }
+
+    private String getFilter(Condition condition, BaseClass xclass, Query query)
+    {
+        String[] field = getField(condition.getAlias(), condition.getField(), false, xclass);
+        if (field == null) {
+            return null;
+        }
+
+        String value = toSolrValue(getValue(condition.getValue(), query), field[1]);
+        if (value == null) {
+            return null;
+        }
+
+        String fieldName = field[0];
+        switch (condition.getOperator()) {
+            case "=":
+                return fieldName + ':' + value;
+            case "<>":
+            case "!=":
+                // Only for the document fields which always have a value, since the database would not match the
+                // objects without a value either
+                return condition.getAlias().equals(XWQLSolrStatement.DOCUMENT_ALIAS) ? '-' + fieldName + ':' + value
+                    : null;
+            case "<":
+                return getRangeFilter(fieldName, '{', ANY, value, '}');
+            case "<=":
+                return getRangeFilter(fieldName, '[', ANY, value, ']');
+            case ">":
+                return getRangeFilter(fieldName, '{', value, ANY, '}');
+            case ">=":
+                return getRangeFilter(fieldName, '[', value, ANY, ']');
+            default:
+                return null;
+        }
+    }
+
+    private String getRangeFilter(String fieldName, char open, String from, String to, char close)
+    {
+        return fieldName + ':' + open + from + " TO " + to + close;
+    }
+
+    private Object getValue(Object value, Query query)
+    {
+        if (value instanceof Parameter) {
+            Parameter parameter = (Parameter) value;
+            Map<?, Object> parameters =
+                parameter.getName() != null ? query.getNamedParameters() : query.getPositionalParameters();
+
+            return parameters.get(parameter.getName() != null ? parameter.getName() : parameter.getPosition());
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the escaped value or {@code null} if the value can't be compared to the field
+     */
+    private String toSolrValue(Object value, String type)
+    {
+        String solrValue;
+        if (value == null || value instanceof Collection || value.getClass().isArray()) {
+            solrValue = null;
+        } else if (DATE.equals(type)) {
+            solrValue = value instanceof Date ? ((Date) value).toInstant().toString() : null;
+        } else if (BOOLEAN.equals(type) && value instanceof Number) {
+            // Boolean properties are stored as integers in the database
+            solrValue = String.valueOf(((Number) value).intValue() != 0);
+        } else if (value instanceof Date) {
+            solrValue = null;
+        } else {
+            solrValue = String.valueOf(value);
+        }
+
+        return solrValue != null ? ClientUtils.escapeQueryChars(solrValue) : null;
+    }
+
+    /**
+     * @return the name and the type of the Solr field or {@code null} if the field is not supported
+     */
+    private String[] getField(String alias, String field, boolean sort, BaseClass xclass)
+    {
+        if (alias.equals(XWQLSolrStatement.DOCUMENT_ALIAS)) {
+            return getDocumentField(field);
+        }
+
+        String type = getPropertyType(xclass.get(field));
+        if (type == null) {
+            return null;
+        }
+
+        EntityReference propertyReference = new EntityReference(field, EntityType.CLASS_PROPERTY,
+            xclass.getDocumentReference().getLocalDocumentReference());
+        String prefix =
+            "property." + this.fieldNameEncoder.encode(this.fieldNameSerializer.serialize(propertyReference));
+
+        return new String[] {
+            FieldUtils.getFieldName(prefix, sort ? "sort" + StringUtils.capitalize(type) : type, null), type};
+    }
+
+    private String[] getDocumentField(String field)
+    {
+        switch (field) {
+            case "fullName":
+                return new String[] {FieldUtils.FULLNAME, STRING};
+            case "space":
+                return new String[] {FieldUtils.SPACE_EXACT, STRING};
+            case "name":
+                return new String[] {FieldUtils.NAME_EXACT, STRING};
+            case DATE:
+                return new String[] {FieldUtils.DATE, DATE};
+            case "creationDate":
+                return new String[] {FieldUtils.CREATIONDATE, DATE};
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the type of the Solr field holding the raw values of the property (see TypedValue), or {@code null} if
+     *         the values of the property are not indexed in a single typed field
+     */
+    private String getPropertyType(PropertyInterface property)
+    {
+        String type = null;
+        if (property instanceof NumberClass) {
+            String numberType = ((NumberClass) property).getNumberType();
+            if (NumberClass.TYPE_INTEGER.equals(numberType)) {
+                type = "int";
+            } else if (NumberClass.TYPE_FLOAT.equals(numberType) || NumberClass.TYPE_DOUBLE.equals(numberType)) {
+                type = numberType;
+            } else {
+                type = "long";
+            }
+        } else if (property instanceof BooleanClass) {
+            type = BOOLEAN;
+        } else if (property instanceof DateClass) {
+            type = DATE;
+        } else if (property instanceof ListClass && !((ListClass) property).isMultiSelect()) {
+            type = STRING;
+        } else if (property instanceof StringClass && "String".equals(((StringClass) property).getClassType())) {
+            // Email and password properties are not always indexed and text area properties are indexed as text
+            type = STRING;
+        }
+
+        return type;
+    }
+
+    private List<Object> search(SolrQuery solrQuery, XWQLSolrStatement statement, Query query) throws Exception
+    {
+        if (statement.isCount()) {
+            solrQuery.setRows(0);
+
+            return List.of(this.solrInstance.query(solrQuery).getResults().getNumFound());
+        }
+
+        List<Object> results = new ArrayList<>();
+        int offset = Math.max(query.getOffset(), 0);
+        if (query.getLimit() > 0) {
+            solrQuery.setStart(offset);
+            solrQuery.setRows(query.getLimit());
+            addResults(this.solrInstance.query(solrQuery), results);
+        } else {
+            solrQuery.setRows(BATCH_SIZE);
+            int size;
+            do {
+                solrQuery.setStart(offset + results.size());
+                QueryResponse response = this.solrInstance.query(solrQuery);
+                size = response.getResults().size();
+                addResults(response, results);
+            } while (size == BATCH_SIZE);
+        }
+
+        return results;
+    }
+
+    private void addResults(QueryResponse response, List<Object> results)
+    {
+        SolrDocumentList documents = response.getResults();
+        for (SolrDocument document : documents) {
+            results.add(document.getFirstValue(FieldUtils.FULLNAME));
+        }
+    }
+}
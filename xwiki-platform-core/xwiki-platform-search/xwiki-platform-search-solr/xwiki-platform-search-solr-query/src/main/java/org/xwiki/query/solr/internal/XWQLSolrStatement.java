@@ -0,0 +1,490 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.solr.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The subset of XWQL supported by {@link XWQLSolrQueryExecutor}: the documents having an object of a given class,
+ * filtered and sorted by the values of the object properties and by some document fields.
+ * <p>
+ * Supported statements have the following form (the keywords are case insensitive):
+ * <ul>
+ * <li>{@code [select [distinct] doc.fullName from Document doc, ]doc.object(Space.Class) as obj}</li>
+ * <li>{@code select count([distinct] doc.fullName) from Document doc, doc.object(Space.Class) as obj}</li>
+ * </ul>
+ * followed by an optional {@code where} clause made of conditions like {@code obj.prop = :value} combined with
+ * {@code and}, and an optional {@code order by} clause.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+final class XWQLSolrStatement
+{
+    /**
+     * The alias of the document in the statement.
+     */
+    static final String DOCUMENT_ALIAS = "doc";
+
+    private static final String FULLNAME = DOCUMENT_ALIAS + ".fullName";
+
+    private static final String OBJECT = DOCUMENT_ALIAS + ".object";
+
+    private static final String OPEN_PARENTHESIS = "(";
+
+    private static final String CLOSE_PARENTHESIS = ")";
+
+    private static final String DISTINCT = "distinct";
+
+    private static final Pattern TOKEN = Pattern.compile("\\s*('(?:[^']|'')*'|[:?]\\w+|-?\\d+(?:\\.\\d+)?"
+        + "|[A-Za-z_][\\w.]*|<>|!=|<=|>=|=|<|>|\\(|\\)|,)");
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][\\w.]*");
+
+    /**
+     * The keywords are case insensitive, contrary to the aliases and the field names.
+     */
+    private static final Set<String> KEYWORDS = Set.of("select", DISTINCT, "count", "from", "document", "as", "where",
+        "and", "or", "order", "by", "asc", "desc");
+
+    /**
+     * A condition of the {@code where} clause.
+     *
+     * @version $Id$
+     */
+    static final class Condition
+    {
+        private final String alias;
+
+        private final String field;
+
+        private final String operator;
+
+        private final Object value;
+
+        Condition(String alias, String field, String operator, Object value)
+        {
+            this.alias = alias;
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        /**
+         * @return the alias of the entity holding the field ({@code doc} or the alias of the object)
+         */
+        String getAlias()
+        {
+            return this.alias;
+        }
+
+        /**
+         * @return the name of the field
+         */
+        String getField()
+        {
+            return this.field;
+        }
+
+        /**
+         * @return the comparison operator
+         */
+        String getOperator()
+        {
+            return this.operator;
+        }
+
+        /**
+         * @return the value to compare with, either a {@link Parameter} or a literal
+         */
+        Object getValue()
+        {
+            return this.value;
+        }
+    }
+
+    /**
+     * A reference to a named ({@code :name}) or positional ({@code ?1}) parameter.
+     *
+     * @version $Id$
+     */
+    static final class Parameter
+    {
+        private final String name;
+
+        private final int position;
+
+        Parameter(String name, int position)
+        {
+            this.name = name;
+            this.position = position;
+        }
+
+        /**
+         * @return the name of the parameter or {@code null} for a positional parameter
+         */
+        String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * @return the position of the parameter
+         */
+        int getPosition()
+        {
+            return this.position;
+        }
+    }
+
+    /**
+     * A sort of the {@code order by} clause.
+     *
+     * @version $Id$
+     */
+    static final class Sort
+    {
+        private final String alias;
+
+        private final String field;
+
+        private final boolean ascending;
+
+        Sort(String alias, String field, boolean ascending)
+        {
+            this.alias = alias;
+            this.field = field;
+            this.ascending = ascending;
+        }
+
+        /**
+         * @return the alias of the entity holding the field ({@code doc} or the alias of the object)
+         */
+        String getAlias()
+        {
+            return this.alias;
+        }
+
+        /**
+         * @return the name of the field
+         */
+        String getField()
+        {
+            return this.field;
+        }
+
+        /**
+         * @return {@code true} for an ascending sort
+         */
+        boolean isAscending()
+        {
+            return this.ascending;
+        }
+    }
+
+    private final List<String> tokens;
+
+    private int index;
+
+    private boolean count;
+
+    private String className;
+
+    private String objectAlias;
+
+    private final List<Condition> conditions = new ArrayList<>();
+
+    private final List<Sort> sorts = new ArrayList<>();
+
+    private XWQLSolrStatement(List<String> tokens)
+    {
+        this.tokens = tokens;
+    }
+
+    /**
+     * @param statement the XWQL statement
+     * @return the parsed statement or {@code null} if the statement is not part of the supported subset
+     */
+    static XWQLSolrStatement parse(String statement)
+    {
+        List<String> tokens = tokenize(statement);
+        if (tokens == null) {
+            return null;
+        }
+
+        XWQLSolrStatement result = new XWQLSolrStatement(tokens);
+
+        return result.parse() ? result : null;
+    }
+
+    private static List<String> tokenize(String statement)
+    {
+        List<String> tokens = new ArrayList<>();
+
+        Matcher matcher = TOKEN.matcher(statement);
+        int position = 0;
+        while (position < statement.length()) {
+            matcher.region(position, statement.length());
+            if (matcher.lookingAt()) {
+                tokens.add(matcher.group(1));
+                position = matcher.end();
+            } else if (statement.substring(position).isBlank()) {
+                break;
+            } else {
+                return null;
+            }
+        }
+
+        return tokens;
+    }
+
+    private boolean parse()
+    {
+        return parseSelect() && parseFrom() && parseWhere() && parseOrderBy() && this.index == this.tokens.size();
+    }
+
+    private boolean parseSelect()
+    {
+        if (!accept("select")) {
+            // Short form
+            return true;
+        }
+
+        if (accept("count")) {
+            this.count = true;
+            if (!accept(OPEN_PARENTHESIS)) {
+                return false;
+            }
+            accept(DISTINCT);
+            if (!accept(FULLNAME) || !accept(CLOSE_PARENTHESIS)) {
+                return false;
+            }
+        } else {
+            accept(DISTINCT);
+            if (!accept(FULLNAME)) {
+                return false;
+            }
+        }
+
+        // The full form requires to declare the document
+        return accept("from") && accept("Document") && acceptAlias(DOCUMENT_ALIAS) && accept(",");
+    }
+
+    private boolean parseFrom()
+    {
+        // The short form starts with the from clause while the full form already consumed it
+        if (this.index == 0 && !accept("from")) {
+            return false;
+        }
+
+        if (!accept(OBJECT) || !accept(OPEN_PARENTHESIS)) {
+            return false;
+        }
+        this.className = nextIdentifier();
+        if (this.className == null || !accept(CLOSE_PARENTHESIS)) {
+            return false;
+        }
+
+        accept("as");
+        this.objectAlias = nextIdentifier();
+
+        return this.objectAlias != null && this.objectAlias.indexOf('.') < 0
+            && !this.objectAlias.equals(DOCUMENT_ALIAS) && !KEYWORDS.contains(this.objectAlias.toLowerCase());
+    }
+
+    private boolean parseWhere()
+    {
+        if (!accept("where")) {
+            return true;
+        }
+
+        do {
+            String[] field = nextField();
+            String operator = next();
+            Object value = nextValue();
+            if (field == null || operator == null || !isOperator(operator) || value == null) {
+                return false;
+            }
+            this.conditions.add(new Condition(field[0], field[1], operator, value));
+        } while (accept("and"));
+
+        return true;
+    }
+
+    private boolean parseOrderBy()
+    {
+        if (!accept("order")) {
+            return true;
+        }
+        if (!accept("by")) {
+            return false;
+        }
+
+        do {
+            String[] field = nextField();
+            if (field == null) {
+                return false;
+            }
+            boolean ascending = !accept("desc");
+            if (ascending) {
+                accept("asc");
+            }
+            this.sorts.add(new Sort(field[0], field[1], ascending));
+        } while (accept(","));
+
+        return true;
+    }
+
+    private boolean acceptAlias(String alias)
+    {
+        accept("as");
+
+        return accept(alias);
+    }
+
+    private boolean accept(String expected)
+    {
+        String token = peek();
+        if (token != null && (token.equals(expected)
+            || (KEYWORDS.contains(expected.toLowerCase()) && token.equalsIgnoreCase(expected)))) {
+            this.index++;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private String peek()
+    {
+        return this.index < this.tokens.size() ? this.tokens.get(this.index) : null;
+    }
+
+    private String next()
+    {
+        String token = peek();
+        if (token != null) {
+            this.index++;
+        }
+
+        return token;
+    }
+
+    private String nextIdentifier()
+    {
+        String token = peek();
+        if (token != null && IDENTIFIER.matcher(token).matches()) {
+            this.index++;
+
+            return token;
+        }
+
+        return null;
+    }
+
+    private String[] nextField()
+    {
+        String identifier = nextIdentifier();
+        if (identifier != null) {
+            String[] parts = identifier.split("\\.");
+            if (parts.length == 2 && (parts[0].equals(DOCUMENT_ALIAS) || parts[0].equals(this.objectAlias))) {
+                return parts;
+            }
+        }
+
+        return null;
+    }
+
+    private Object nextValue()
+    {
+        String token = next();
+        if (token == null) {
+            return null;
+        }
+
+        char first = token.charAt(0);
+        if (first == '\'') {
+            return token.substring(1, token.length() - 1).replace("''", "'");
+        } else if (first == ':') {
+            return new Parameter(token.substring(1), -1);
+        }
+
+        try {
+            if (first == '?') {
+                return new Parameter(null, Integer.parseInt(token.substring(1)));
+            } else if (first == '-' || Character.isDigit(first)) {
+                return token.indexOf('.') < 0 ? (Object) Long.valueOf(token) : (Object) Double.valueOf(token);
+            }
+        } catch (NumberFormatException e) {
+            // Not a valid parameter position or number
+        }
+
+        return null;
+    }
+
+    private static boolean isOperator(String token)
+    {
+        return !token.isEmpty() && "<>!=".indexOf(token.charAt(0)) >= 0;
+    }
+
+    /**
+     * @return {@code true} if the statement counts the documents instead of listing them
+     */
+    boolean isCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * @return the name of the class of the object, as written in the statement
+     */
+    String getClassName()
+    {
+        return this.className;
+    }
+
+    /**
+     * @return the alias of the object
+     */
+    String getObjectAlias()
+    {
+        return this.objectAlias;
+    }
+
+    /**
+     * @return the conditions of the {@code where} clause
+     */
+    List<Condition> getConditions()
+    {
+        return this.conditions;
+    }
+
+    /**
+     * @return the sorts of the {@code order by} clause
+     */
+    List<Sort> getSorts()
+    {
+        return this.sorts;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.solr.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryExecutor;
+import org.xwiki.search.solr.internal.api.SolrFieldNameEncoder;
+import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrInstance;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.objects.classes.NumberClass;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XWQLSolrQueryExecutor}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XWQLSolrQueryExecutorTest
+{
+    @InjectMockComponents
+    private XWQLSolrQueryExecutor executor;
+
+    @MockComponent
+    private SolrInstance solrInstance;
+
+    @MockComponent
+    private Provider<SolrIndexer> solrIndexerProvider;
+
+    private SolrIndexer solrIndexer = mock(SolrIndexer.class);
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @MockComponent
+    @Named("solr")
+    private EntityReferenceSerializer<String> fieldNameSerializer;
+
+    @MockComponent
+    private SolrFieldNameEncoder fieldNameEncoder;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    private QueryExecutor xwqlExecutor = mock(QueryExecutor.class);
+
+    private Query query = mock(Query.class);
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.solrIndexerProvider.get()).thenReturn(this.solrIndexer);
+        when(this.componentManagerProvider.get()).thenReturn(mock(ComponentManager.class));
+        when(this.componentManagerProvider.get().getInstance(QueryExecutor.class, "xwql"))
+            .thenReturn(this.xwqlExecutor);
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        XWiki xwiki = mock(XWiki.class);
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+        when(xcontext.getWiki()).thenReturn(xwiki);
+
+        DocumentReference classReference = new DocumentReference("wiki", "Space", "Class");
+        when(this.documentReferenceResolver.resolve("Space.Class", new WikiReference("wiki")))
+            .thenReturn(classReference);
+        when(this.localSerializer.serialize(classReference)).thenReturn("Space.Class");
+
+        BaseClass xclass = mock(BaseClass.class);
+        NumberClass ageClass = mock(NumberClass.class);
+        when(ageClass.getNumberType()).thenReturn(NumberClass.TYPE_INTEGER);
+        when(xclass.get("age")).thenReturn(ageClass);
+        when(xclass.getDocumentReference()).thenReturn(classReference);
+        when(xwiki.getXClass(classReference, xcontext)).thenReturn(xclass);
+
+        when(this.fieldNameSerializer.serialize(any())).thenReturn("Space.Class.age");
+        when(this.fieldNameEncoder.encode(any())).then(returnsFirstArg());
+
+        when(this.query.getWiki()).thenReturn("wiki");
+        when(this.query.getFilters()).thenReturn(Collections.emptyList());
+        when(this.query.getNamedParameters()).thenReturn(Map.<String, Object>of("age", 18));
+    }
+
+    @Test
+    void executeOnSolr() throws Exception
+    {
+        when(this.query.getStatement()).thenReturn("from doc.object(Space.Class) as obj where obj.age >= :age "
+            + "and doc.fullName <> 'Space.ClassTemplate' order by obj.age desc");
+        when(this.query.getOffset()).thenReturn(5);
+        when(this.query.getLimit()).thenReturn(10);
+
+        SolrDocument document = new SolrDocument();
+        document.setField("fullname", "Space.Page");
+        SolrDocumentList documents = new SolrDocumentList();
+        documents.add(document);
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getResults()).thenReturn(documents);
+        ArgumentCaptor<SolrQuery> solrQueryCaptor = ArgumentCaptor.forClass(SolrQuery.class);
+        when(this.solrInstance.query(solrQueryCaptor.capture())).thenReturn(response);
+
+        assertEquals(List.of("Space.Page"), this.executor.execute(this.query));
+
+        SolrQuery solrQuery = solrQueryCaptor.getValue();
+        assertArrayEquals(new String[] {"type:DOCUMENT", "wiki:wiki", "doclocale:\"\"", "class:Space.Class",
+            "property.Space.Class.age_int:[18 TO *]", "-fullname:Space.ClassTemplate"}, solrQuery.getFilterQueries());
+        assertEquals("property.Space.Class.age_sortInt desc,id asc", solrQuery.getSortField());
+        assertEquals(5, solrQuery.getStart());
+        assertEquals(10, solrQuery.getRows());
+        verify(this.xwqlExecutor, never()).execute(any());
+    }
+
+    @Test
+    void executeOnDatabaseWhenIndexing() throws Exception
+    {
+        when(this.query.getStatement()).thenReturn("from doc.object(Space.Class) as obj where obj.age = :age");
+        when(this.solrIndexer.getQueueSize()).thenReturn(3);
+
+        this.executor.execute(this.query);
+
+        verify(this.xwqlExecutor).execute(this.query);
+        verify(this.solrInstance, never()).query(any());
+    }
+
+    @Test
+    void executeOnDatabaseWhenUnsupported() throws Exception
+    {
+        when(this.query.getStatement())
+            .thenReturn("from doc.object(Space.Class) as obj where obj.age = :age or doc.title like '%a%'");
+
+        this.executor.execute(this.query);
+
+        verify(this.xwqlExecutor).execute(this.query);
+        verify(this.solrInstance, never()).query(any());
+    }
+}
@@ -45,6 +45,8 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.debug.RequestTimer;
+import com.xpn.xwiki.internal.debug.RequestTimingTree;
 
 /**
  * Default implementation of the {@link ContextualAuthorizationManager}.
@@ -101,11 +103,13 @@ public void checkAccess(Right right, EntityReference entity) throws AccessDenied
 
     private void checkAccess(Right right, DocumentReference user, EntityReference entity) throws AccessDeniedException
     {
-        if (!checkPreAccess(right)) {
-            throw new AccessDeniedException(right, user, entity);
-        }
+        try (RequestTimer timer = RequestTimingTree.start(this.xcontextProvider.get(), RequestTimingTree.RIGHTS)) {
+            if (!checkPreAccess(right)) {
+                throw new AccessDeniedException(right, user, entity);
+            }
 
-        this.authorizationManager.checkAccess(right, user, getFullReference(entity));
+            this.authorizationManager.checkAccess(right, user, getFullReference(entity));
+        }
     }
 
     @Override
@@ -128,7 +132,9 @@ public boolean hasAccess(Right right, EntityReference entity)
 
     private boolean hasAccess(Right right, DocumentReference user, EntityReference entity)
     {
-        return checkPreAccess(right) && this.authorizationManager.hasAccess(right, user, getFullReference(entity));
+        try (RequestTimer timer = RequestTimingTree.start(this.xcontextProvider.get(), RequestTimingTree.RIGHTS)) {
+            return checkPreAccess(right) && this.authorizationManager.hasAccess(right, user, getFullReference(entity));
+        }
     }
 
     private EntityReference getFullReference(EntityReference reference)
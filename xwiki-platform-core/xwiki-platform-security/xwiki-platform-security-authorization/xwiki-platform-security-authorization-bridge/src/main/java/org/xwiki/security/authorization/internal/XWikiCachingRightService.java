@@ -37,6 +37,8 @@
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.debug.RequestTimer;
+import com.xpn.xwiki.internal.debug.RequestTimingTree;
 import com.xpn.xwiki.user.api.XWikiRightService;
 import com.xpn.xwiki.user.api.XWikiUser;
 import com.xpn.xwiki.web.Utils;
@@ -304,7 +306,9 @@ public boolean hasAccessLevel(String rightName, String username, String docname,
 
         Right right = Right.toRight(rightName);
 
-        return authorizationManager.hasAccess(right, user, document);
+        try (RequestTimer timer = RequestTimingTree.start(context, RequestTimingTree.RIGHTS)) {
+            return authorizationManager.hasAccess(right, user, document);
+        }
     }
 
     @Override
@@ -335,7 +339,9 @@ public boolean hasProgrammingRights(XWikiDocument doc, XWikiContext context)
 
         // This method as never check for external contextual aspect like rendering context restriction or dropping of
         // permissions. So we do not use the contextual authorization manager to keep backward compatibility.
-        return authorizationManager.hasAccess(Right.PROGRAM, user, wiki);
+        try (RequestTimer timer = RequestTimingTree.start(context, RequestTimingTree.RIGHTS)) {
+            return authorizationManager.hasAccess(Right.PROGRAM, user, wiki);
+        }
     }
 
     @Override
@@ -20,6 +20,7 @@
 package com.xpn.xwiki.plugin.skinx;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,6 +29,7 @@
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
@@ -47,13 +49,16 @@
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.DocumentAuthorizationManager;
 import org.xwiki.security.authorization.Right;
+import org.xwiki.skinx.SkinExtensionConfiguration;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.web.ExportURLFactory;
 import com.xpn.xwiki.web.Utils;
+import com.xpn.xwiki.web.sx.SxBundleSource;
 
 /**
  * Abstract SX plugin for wiki-document-based extensions (Extensions written as object of a XWiki Extension class).
@@ -77,6 +82,11 @@ public abstract class AbstractDocumentSkinExtensionPlugin extends AbstractSkinEx
      */
     private static final String USE_FIELDNAME = "use";
 
+    /**
+     * The name of the field that indicates for how long an extension can be cached.
+     */
+    private static final String CACHE_FIELDNAME = "cache";
+
     /**
      * A Map with wiki/database name as keys and sets of extensions to use always for this wiki as values.
      */
@@ -90,6 +100,7 @@ public abstract class AbstractDocumentSkinExtensionPlugin extends AbstractSkinEx
     private DocumentAuthorizationManager authorizationManager;
     private DocumentReferenceResolver<String> stringDocumentReferenceResolver;
     private EntityReferenceResolver<String> currentEntityReferenceResolver;
+    private SkinExtensionConfiguration configuration;
 
     /**
      * XWiki plugin constructor.
@@ -322,6 +333,142 @@ private boolean canResourceBeUsed(String resource, XWikiContext context)
         }
     }
 
+    private SkinExtensionConfiguration getConfiguration()
+    {
+        if (this.configuration == null) {
+            this.configuration = Utils.getComponent(SkinExtensionConfiguration.class);
+        }
+        return this.configuration;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When bundling is enabled, the consecutive extensions which don't have parameters and which can be cached for a
+     * long time are linked through a single bundle URL. Only consecutive extensions are bundled together in order to
+     * preserve the order in which the extensions are applied.
+     * </p>
+     *
+     * @see AbstractSkinExtensionPlugin#getLinks(Collection, XWikiContext)
+     */
+    @Override
+    protected String getLinks(Collection<String> extensions, XWikiContext context)
+    {
+        // The HTML export writes each extension in its own file
+        if (!getConfiguration().isBundleEnabled() || context.getURLFactory() instanceof ExportURLFactory) {
+            return super.getLinks(extensions, context);
+        }
+
+        StringBuilder result = new StringBuilder();
+        List<XWikiDocument> bundle = new ArrayList<>();
+        for (String documentName : extensions) {
+            XWikiDocument document = getBundleableDocument(documentName, context);
+            if (document != null) {
+                bundle.add(document);
+            } else {
+                result.append(getBundleLinks(bundle, context));
+                bundle.clear();
+                result.append(getLink(documentName, context));
+            }
+        }
+        result.append(getBundleLinks(bundle, context));
+
+        return result.toString();
+    }
+
+    /**
+     * @param documentName the Skin Extension's document name
+     * @param context the XWiki Context
+     * @return the document holding the extension if it can be bundled, {@code null} otherwise
+     */
+    private XWikiDocument getBundleableDocument(String documentName, XWikiContext context)
+    {
+        if (!getParametersForResource(documentName, context).isEmpty()) {
+            return null;
+        }
+
+        DocumentReference documentReference = getCurrentDocumentReferenceResolver().resolve(documentName);
+        if (!isAccessible(documentReference, context)) {
+            return null;
+        }
+
+        try {
+            XWikiDocument document = context.getWiki().getDocument(documentReference, context);
+            if (!document.isNew() && isLongCached(document)) {
+                return document;
+            }
+        } catch (XWikiException e) {
+            LOGGER.error("Failed to load document [{}].", documentReference, e);
+        }
+
+        return null;
+    }
+
+    private boolean isLongCached(XWikiDocument document)
+    {
+        List<BaseObject> objects = document.getObjects(getExtensionClassName());
+        if (objects != null) {
+            for (BaseObject obj : objects) {
+                if (obj != null && !StringUtils.equalsAny(obj.getStringValue(CACHE_FIELDNAME), "", "long")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param documents the documents holding the extensions to bundle
+     * @param context the XWiki Context
+     * @return the link to the bundle of the passed extensions, or the links to each extension when there's only one
+     *         extension or when this type of extension doesn't support bundles
+     */
+    private String getBundleLinks(List<XWikiDocument> documents, XWikiContext context)
+    {
+        List<String> documentNames = new ArrayList<>(documents.size());
+        for (XWikiDocument document : documents) {
+            documentNames.add(getDefaultEntityReferenceSerializer().serialize(document.getDocumentReference()));
+        }
+
+        if (documents.size() > 1) {
+            StringBuilder queryString = new StringBuilder(getLanguageQueryString(context));
+            // The bundle URL changes as soon as one of the extensions is modified so it can be cached for a long time.
+            // The date distinguishes a document which has been deleted and created again with the same version.
+            StringBuilder versions = new StringBuilder();
+            for (int i = 0; i < documents.size(); i++) {
+                queryString.append(PARAMETER_SEPARATOR).append(SxBundleSource.BUNDLE_PARAMETER).append('=')
+                    .append(sanitize(documentNames.get(i)));
+                versions.append(documentNames.get(i)).append(':').append(documents.get(i).getVersion()).append(':')
+                    .append(documents.get(i).getDate().getTime()).append('\n');
+            }
+            queryString.append("&bundleVersion=").append(DigestUtils.sha256Hex(versions.toString()));
+            if ("false".equals(context.getRequest().getParameter("minify"))) {
+                queryString.append("&minify=false");
+            }
+
+            String link = getBundleLink(context.getWiki().getURL(documents.get(0).getDocumentReference(), getName(),
+                queryString.toString(), "", context), context);
+            if (link != null) {
+                return link;
+            }
+        }
+
+        return super.getLinks(documentNames, context);
+    }
+
+    /**
+     * Return the linking element that should be printed in the generated HTML to pull a bundle of extensions.
+     *
+     * @param url the URL of the bundle
+     * @param context the XWiki Context
+     * @return the linking element, or {@code null} if this type of extension doesn't support bundles
+     * @since 17.2.0RC1
+     */
+    protected String getBundleLink(String url, XWikiContext context)
+    {
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -21,6 +21,7 @@
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -319,7 +320,6 @@ protected void initializeRequestListIfNeeded(XWikiContext context)
      */
     public String getImportString(XWikiContext context)
     {
-        StringBuilder result = new StringBuilder();
         // Using LinkedHashSet to preserve the extensions order.
         Set<String> extensions = new LinkedHashSet<String>();
         // First, we add to the import string the extensions that should always be used.
@@ -340,6 +340,20 @@ public String getImportString(XWikiContext context)
             extensions.add(serializedCurrentDocumentName);
         }
 
+        return getLinks(extensions, context);
+    }
+
+    /**
+     * Composes the links to the passed extensions, in the same order.
+     *
+     * @param extensions the names of the extensions to link
+     * @param context the current request context
+     * @return a XHTML fragment with the import statements of the passed extensions
+     * @since 17.2.0RC1
+     */
+    protected String getLinks(Collection<String> extensions, XWikiContext context)
+    {
+        StringBuilder result = new StringBuilder();
         for (String documentName : extensions) {
             result.append(getLink(documentName, context));
         }
@@ -504,9 +518,20 @@ protected SkinExtensionAsync getSkinExtensionAsync()
      * @since 14.1RC1
      */
     boolean isDefer(String name, XWikiContext context)
+    {
+        return BooleanUtils.toBooleanDefaultIfNull((Boolean) getParameter("defer", name, context),
+            isDeferDefault(context));
+    }
+
+    /**
+     * @param context the current request context
+     * @return the configured default value of the {@code defer} parameter, i.e. the value used when the extension
+     *         doesn't specify it
+     * @since 17.2.0RC1
+     */
+    boolean isDeferDefault(XWikiContext context)
     {
         String defaultDeferString = context.getWiki().Param(DEFER_DEFAULT_PARAM);
-        boolean defaultDefer = StringUtils.isEmpty(defaultDeferString) || Boolean.parseBoolean(defaultDeferString);
-        return BooleanUtils.toBooleanDefaultIfNull((Boolean) getParameter("defer", name, context), defaultDefer);
+        return StringUtils.isEmpty(defaultDeferString) || Boolean.parseBoolean(defaultDeferString);
     }
 }
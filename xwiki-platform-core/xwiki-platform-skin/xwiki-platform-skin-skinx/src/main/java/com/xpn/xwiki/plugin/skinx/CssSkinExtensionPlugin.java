@@ -89,6 +89,12 @@ public String getLink(String documentName, XWikiContext context)
                 context)) + "\" />\n";
     }
 
+    @Override
+    protected String getBundleLink(String url, XWikiContext context)
+    {
+        return "<link rel=\"stylesheet\" type=\"text/css\" href=\"" + XMLUtils.escapeAttributeValue(url) + "\" />\n";
+    }
+
     @Override
     protected String getExtensionClassName()
     {
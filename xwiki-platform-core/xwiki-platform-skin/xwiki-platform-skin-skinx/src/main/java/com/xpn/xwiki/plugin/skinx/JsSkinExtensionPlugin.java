@@ -99,6 +99,20 @@ public String getLink(String documentName, XWikiContext context)
         return result.toString();
     }
 
+    @Override
+    protected String getBundleLink(String url, XWikiContext context)
+    {
+        StringBuilder result = new StringBuilder("<script src='");
+        result.append(XMLUtils.escapeAttributeValue(url));
+        // Bundled extensions don't have parameters so they use the default defer value
+        if (isDeferDefault(context)) {
+            result.append("' defer='defer");
+        }
+        result.append("'></script>\n");
+
+        return result.toString();
+    }
+
     @Override
     protected String getExtensionClassName()
     {
@@ -122,26 +122,23 @@ public String getContentType()
     }
 
     @Override
-    protected String compress(String source, SxCompressor compressor, XWikiContext context)
+    protected String getSourceMap(SxCompressor compressor)
     {
-        String output = super.compress(source, compressor, context);
+        return compressor instanceof JsCompressor ? ((JsCompressor) compressor).getSourceMap() : null;
+    }
 
+    @Override
+    protected void setSourceMap(String sourceMap, XWikiContext context)
+    {
         // Save the source map generated by the compressor so that we can return it later when the source map is
         // requested by the browser's developer tools.
-        if (compressor instanceof JsCompressor) {
-            String sourceMap = ((JsCompressor) compressor).getSourceMap();
-            if (sourceMap != null) {
-                // The browser's developer tools will attempt to load the source code when debugging the compressed
-                // code. The source code URL is specified in the source map.
-                sourceMap = fixSourceURL(sourceMap, context);
-                // Indicate the URL to the source map using the dedicated HTTP header. This is how the browser's
-                // developer tools will know how to download the source map.
-                // See https://developer.mozilla.org/en-US/docs/Tools/Debugger/How_to/Use_a_source_map
-                context.getResponse().setHeader("X-SourceMap", saveSourceMap(sourceMap, context));
-            }
-        }
-
-        return output;
+        // The browser's developer tools will attempt to load the source code when debugging the compressed code. The
+        // source code URL is specified in the source map.
+        String fixedSourceMap = fixSourceURL(sourceMap, context);
+        // Indicate the URL to the source map using the dedicated HTTP header. This is how the browser's developer
+        // tools will know how to download the source map.
+        // See https://developer.mozilla.org/en-US/docs/Tools/Debugger/How_to/Use_a_source_map
+        context.getResponse().setHeader("X-SourceMap", saveSourceMap(fixedSourceMap, context));
     }
 
     /**
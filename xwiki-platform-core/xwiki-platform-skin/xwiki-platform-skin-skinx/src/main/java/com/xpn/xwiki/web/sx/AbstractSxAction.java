@@ -20,10 +20,15 @@
 package com.xpn.xwiki.web.sx;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 
 import com.xpn.xwiki.XWikiContext;
@@ -64,8 +69,56 @@ public abstract class AbstractSxAction extends XWikiAction
     /** If the user passes this parameter in the URL, we will look for the script in the jar files. */
     private static final String JAR_RESOURCE_REQUEST_PARAMETER = "resource";
 
+    /** The maximum number of extension contents to keep in the bundle cache. */
+    private static final int BUNDLE_CACHE_SIZE = 500;
+
+    /** The maximum number of compressed bundles to keep in cache. */
+    private static final int COMPRESSED_BUNDLE_CACHE_SIZE = 100;
+
+    /** The compressed content of a bundle and the source map generated when compressing it. */
+    private static final class CompressedBundle
+    {
+        private final String content;
+
+        private final String sourceMap;
+
+        CompressedBundle(String content, String sourceMap)
+        {
+            this.content = content;
+            this.sourceMap = sourceMap;
+        }
+    }
+
     private DebugConfiguration debugConfiguration;
 
+    /**
+     * The content of the bundled extensions which don't depend on the context, ordered from the least to
+     * the most recently used.
+     */
+    private final Map<String, String> bundleCache =
+        Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+            {
+                return size() > BUNDLE_CACHE_SIZE;
+            }
+        });
+
+    /**
+     * The compressed bundles, indexed by the context document and the hash of their content, ordered from the least to
+     * the most recently used.
+     */
+    private final Map<String, CompressedBundle> compressedBundleCache =
+        Collections.synchronizedMap(new LinkedHashMap<String, CompressedBundle>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompressedBundle> eldest)
+            {
+                return size() > COMPRESSED_BUNDLE_CACHE_SIZE;
+            }
+        });
+
     /** @return the logging object of the concrete subclass. */
     protected abstract Logger getLogger();
 
@@ -107,7 +160,11 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
         }
 
         if (getDebugConfiguration().isMinify()) {
-            extensionContent = compress(extensionContent, sxType.getCompressor(), context);
+            if (sxSource instanceof SxBundleSource) {
+                extensionContent = compressBundle((SxBundleSource) sxSource, extensionContent, sxType, context);
+            } else {
+                extensionContent = compress(extensionContent, sxType.getCompressor(), context);
+            }
         }
 
         try {
@@ -120,7 +177,68 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
 
     protected String compress(String source, SxCompressor compressor, XWikiContext context)
     {
-        return compressor.compress(source);
+        String output = compressor.compress(source);
+
+        String sourceMap = getSourceMap(compressor);
+        if (sourceMap != null) {
+            setSourceMap(sourceMap, context);
+        }
+
+        return output;
+    }
+
+    /**
+     * Compress the content of a bundle, reusing the result of a previous compression of the same content. The result
+     * is kept only when none of the bundled extensions was skipped because of the view right, so that the bundles
+     * filtered for a specific user don't take the place of the shared ones.
+     *
+     * @param bundle the bundle to compress
+     * @param content the content of the bundle
+     * @param sxType the type of extension
+     * @param context the XWiki context when rendering the skin extension
+     * @return the compressed content of the bundle
+     */
+    private String compressBundle(SxBundleSource bundle, String content, Extension sxType, XWikiContext context)
+    {
+        // The source map generated by the compressor references the context document
+        String key = context.getDoc().getDocumentReference() + ":" + DigestUtils.sha256Hex(content);
+
+        CompressedBundle compressedBundle = this.compressedBundleCache.get(key);
+        if (compressedBundle == null) {
+            SxCompressor compressor = sxType.getCompressor();
+            compressedBundle = new CompressedBundle(compressor.compress(content), getSourceMap(compressor));
+            if (bundle.isComplete()) {
+                this.compressedBundleCache.put(key, compressedBundle);
+            }
+        }
+
+        if (compressedBundle.sourceMap != null) {
+            setSourceMap(compressedBundle.sourceMap, context);
+        }
+
+        return compressedBundle.content;
+    }
+
+    /**
+     * @param compressor the compressor that has just been used
+     * @return the source map generated by the passed compressor, or {@code null} if it doesn't generate any
+     * @since 17.2.0RC1
+     */
+    protected String getSourceMap(SxCompressor compressor)
+    {
+        return null;
+    }
+
+    /**
+     * Make the passed source map available to the client for the current response.
+     *
+     * @param sourceMap the source map of the compressed content of the current response
+     * @param context the XWiki context when rendering the skin extension
+     * @since 17.2.0RC1
+     */
+    protected void setSourceMap(String sourceMap, XWikiContext context)
+    {
+        // No source map support by default
     }
 
     @Override
@@ -128,7 +246,10 @@ public String render(XWikiContext context) throws XWikiException
     {
         SxSource sxSource;
 
-        if (context.getRequest().getParameter(JAR_RESOURCE_REQUEST_PARAMETER) != null) {
+        String[] bundle = context.getRequest().getParameterValues(SxBundleSource.BUNDLE_PARAMETER);
+        if (bundle != null) {
+            sxSource = new SxBundleSource(Arrays.asList(bundle), getExtensionType(), this.bundleCache, context);
+        } else if (context.getRequest().getParameter(JAR_RESOURCE_REQUEST_PARAMETER) != null) {
             sxSource = new SxResourceSource(context.getRequest().getParameter(JAR_RESOURCE_REQUEST_PARAMETER));
         } else {
             if (context.getDoc().isNew()) {
@@ -0,0 +1,172 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.web.sx;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.stability.Unstable;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.web.Utils;
+
+/**
+ * Bundle of Wiki Document sources for Skin Extensions. The content of the bundle is the concatenation of the content
+ * of each extension the current user is allowed to view, in the requested order. The bundle is compressed as a whole
+ * by the action serving it, like any other source, so that a single source map is generated for it.
+ * 
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Unstable
+public class SxBundleSource implements SxSource
+{
+    /** The name of the request parameter holding the names of the documents containing the bundled extensions. */
+    public static final String BUNDLE_PARAMETER = "bundle";
+
+    /** Logging helper. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SxBundleSource.class);
+
+    /** The names of the documents containing the bundled extensions. */
+    private final List<String> documentNames;
+
+    /** The type of Extension for getting the right kind of object from the documents. */
+    private final Extension extension;
+
+    /** The content of the extensions which don't depend on the context, indexed by document version. */
+    private final Map<String, String> cache;
+
+    /** The current XWikiContext. */
+    private final XWikiContext context;
+
+    /** Whether none of the bundled extensions has been skipped because the current user can't view it. */
+    private boolean complete = true;
+
+    /**
+     * Constructor for this extension source.
+     * 
+     * @param documentNames the names of the documents containing the bundled extensions
+     * @param extension the Extension type
+     * @param cache the cache where to store the content of the extensions which don't depend on the context
+     * @param context the XWikiContext
+     */
+    public SxBundleSource(List<String> documentNames, Extension extension, Map<String, String> cache,
+        XWikiContext context)
+    {
+        this.documentNames = documentNames;
+        this.extension = extension;
+        this.cache = cache;
+        this.context = context;
+    }
+
+    @Override
+    public CachePolicy getCachePolicy()
+    {
+        // The bundle URL contains the version of each bundled extension
+        return CachePolicy.LONG;
+    }
+
+    @Override
+    public long getLastModifiedDate()
+    {
+        return 0;
+    }
+
+    @Override
+    public String getContent()
+    {
+        DocumentReferenceResolver<String> resolver = Utils.getComponent(DocumentReferenceResolver.TYPE_STRING,
+            "current");
+        ContextualAuthorizationManager authorization = Utils.getComponent(ContextualAuthorizationManager.class);
+
+        StringBuilder resultBuilder = new StringBuilder();
+        for (String documentName : this.documentNames) {
+            DocumentReference documentReference = resolver.resolve(documentName);
+            // Check the same right as the action serving a single extension
+            if (!authorization.hasAccess(Right.VIEW, documentReference)) {
+                LOGGER.debug("The current user [{}] does not have 'view' rights on the Skin Extension document [{}]",
+                    this.context.getUserReference(), documentReference);
+                this.complete = false;
+                continue;
+            }
+
+            try {
+                XWikiDocument document = this.context.getWiki().getDocument(documentReference, this.context);
+                if (!document.isNew()) {
+                    resultBuilder.append(getContent(document));
+                    // Make sure the end of an extension doesn't change the meaning of the beginning of the next one
+                    resultBuilder.append(this.extension instanceof JsExtension ? ";\n" : "\n");
+                }
+            } catch (XWikiException e) {
+                LOGGER.warn("Failed to load the Skin Extension document [{}]: {}", documentReference,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return resultBuilder.toString();
+    }
+
+    /**
+     * @return {@code true} if none of the bundled extensions has been skipped by {@link #getContent()} because the
+     *         current user is not allowed to view it, i.e. if the content of the bundle is the same for all users
+     *         allowed to view the bundled extensions
+     */
+    public boolean isComplete()
+    {
+        return this.complete;
+    }
+
+    private String getContent(XWikiDocument document)
+    {
+        // SxDocumentSource uses the current document in the context
+        Map<String, Object> backup = new HashMap<>();
+        XWikiDocument.backupContext(backup, this.context);
+        try {
+            document.setAsContextDoc(this.context);
+            SxDocumentSource source = new SxDocumentSource(this.context, this.extension);
+
+            if (!source.isContextIndependent()) {
+                return source.getContent();
+            }
+
+            // The date distinguishes a document which has been deleted and created again with the same version
+            String key = String.format("%s:%s:%s", document.getDocumentReference(), document.getVersion(),
+                document.getDate().getTime());
+            String content = this.cache.get(key);
+            if (content == null) {
+                content = source.getContent();
+                this.cache.put(key, content);
+            }
+            return content;
+        } finally {
+            XWikiDocument.restoreContext(backup, this.context);
+        }
+    }
+}
@@ -167,6 +167,24 @@ public String getContent()
         return resultBuilder.toString();
     }
 
+    /**
+     * @return {@code true} if the content of the extension depends only on the document version, i.e. it's not parsed
+     *         with Velocity and it's not compiled with LESS (which depends on the color theme), {@code false} otherwise
+     */
+    boolean isContextIndependent()
+    {
+        List<BaseObject> objects = this.document.getObjects(this.extension.getClassName());
+        if (objects != null) {
+            for (BaseObject sxObj : objects) {
+                if (sxObj != null && (sxObj.getIntValue(PARSE_CONTENT_PROPERTY_NAME) == 1
+                    || "LESS".equals(sxObj.getStringValue(CONTENT_TYPE_PROPERTY_NAME)))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public long getLastModifiedDate()
     {
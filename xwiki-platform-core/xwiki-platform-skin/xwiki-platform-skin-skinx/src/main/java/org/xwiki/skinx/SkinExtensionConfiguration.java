@@ -20,6 +20,7 @@
 package org.xwiki.skinx;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Configuration options for skin extensions.
@@ -48,4 +49,19 @@
      *         of JavaScript in strict mode for browsers that supports it, {@code false} otherwise
      */
     boolean shouldRunJavaScriptInStrictMode();
+
+    /**
+     * When bundling is enabled, the consecutive document based JavaScript (respectively CSS) skin extensions used by a
+     * page, which don't have any parameter and which can be cached for a long time, are requested by the browser
+     * through a single URL instead of one URL per extension.
+     *
+     * @return {@code true} if the document based skin extensions used by a page should be bundled, {@code false}
+     *         otherwise
+     * @since 17.2.0RC1
+     */
+    @Unstable
+    default boolean isBundleEnabled()
+    {
+        return false;
+    }
 }
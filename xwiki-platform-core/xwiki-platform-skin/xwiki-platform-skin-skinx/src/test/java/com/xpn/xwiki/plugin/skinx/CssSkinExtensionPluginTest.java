@@ -23,6 +23,7 @@
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
@@ -36,6 +37,7 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -47,6 +49,7 @@
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.DocumentAuthorizationManager;
 import org.xwiki.security.authorization.Right;
+import org.xwiki.skinx.SkinExtensionConfiguration;
 import org.xwiki.skinx.internal.async.SkinExtensionAsync;
 import org.xwiki.test.LogLevel;
 import org.xwiki.test.junit5.LogCaptureExtension;
@@ -68,6 +71,11 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -124,6 +132,9 @@
     @MockComponent
     private SkinExtensionAsync skinExtensionAsync;
 
+    @MockComponent
+    private SkinExtensionConfiguration skinExtensionConfiguration;
+
     @RegisterExtension
     private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
 
@@ -239,6 +250,54 @@ void endParsingAlwaysUsedExtensions() throws XWikiException, MalformedURLExcepti
         assertEquals(expectedContent, obtainedContent);
     }
 
+    @Test
+    void endParsingBundledExtensions() throws XWikiException
+    {
+        when(this.skinExtensionConfiguration.isBundleEnabled()).thenReturn(true);
+
+        String content = String.format("<head><!-- %s --></head>", CssSkinExtensionPlugin.class.getCanonicalName());
+
+        String alwaysUsedExtensionsQuery = String.format(", BaseObject as obj, StringProperty as use "
+            + "where obj.className='%s' and obj.name=doc.fullName and use.id.id=obj.id and use.id.name='use' "
+            + "and use.value='always'", CssSkinExtensionPlugin.SSX_CLASS_NAME);
+        DocumentReference referenceExt1 = new DocumentReference("xwiki", "Space", "Extension1");
+        DocumentReference referenceExt2 = new DocumentReference("xwiki", "Space", "Extension2");
+        when(this.mockitoOldcore.getMockStore().searchDocumentReferences(alwaysUsedExtensionsQuery, this.context))
+            .thenReturn(Arrays.asList(referenceExt1, referenceExt2));
+
+        XWiki wiki = this.context.getWiki();
+        DocumentReference author = mock(DocumentReference.class);
+        int index = 1;
+        for (DocumentReference reference : Arrays.asList(referenceExt1, referenceExt2)) {
+            XWikiDocument extension = mock(XWikiDocument.class);
+            when(wiki.getDocument(reference, this.context)).thenReturn(extension);
+            when(extension.getDocumentReference()).thenReturn(reference);
+            when(extension.getAuthorReference()).thenReturn(author);
+            when(extension.getVersion()).thenReturn("1." + index);
+            when(extension.getDate()).thenReturn(new Date(index));
+            when(this.authorizationManager.hasAccess(Right.PROGRAM, null, author, reference)).thenReturn(true);
+            when(this.entityReferenceSerializer.serialize(reference)).thenReturn("extension" + index);
+            when(this.currentDocumentReferenceResolver.resolve("extension" + index)).thenReturn(reference);
+            when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, reference)).thenReturn(true);
+            index++;
+        }
+
+        this.context.setLocale(Locale.ITALY);
+        doReturn("https://bundle").when(wiki).getURL(any(DocumentReference.class),
+            eq(CssSkinExtensionPlugin.PLUGIN_NAME), anyString(), eq(""), same(this.context));
+
+        assertEquals("<head><link rel=\"stylesheet\" type=\"text/css\" href=\"https://bundle\" />\n</head>",
+            this.skinExtensionPlugin.endParsing(content, this.context));
+
+        ArgumentCaptor<String> queryString = ArgumentCaptor.forClass(String.class);
+        verify(wiki).getURL(any(DocumentReference.class), eq(CssSkinExtensionPlugin.PLUGIN_NAME),
+            queryString.capture(), eq(""), same(this.context));
+        assertTrue(queryString.getValue().startsWith("language=it_IT&"));
+        assertTrue(queryString.getValue().contains("&bundle=extension1"));
+        assertTrue(queryString.getValue().contains("&bundle=extension2"));
+        assertTrue(queryString.getValue().contains("&bundleVersion="));
+    }
+
     @Test
     void use() throws XWikiException
     {
@@ -0,0 +1,190 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.web.sx;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SxBundleSource}.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@OldcoreTest
+class SxBundleSourceTest
+{
+    private static final Extension JS = new JsExtension();
+
+    private static final Extension CSS = new CssExtension();
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorization;
+
+    private XWikiContext context;
+
+    private Map<String, String> cache = new HashMap<>();
+
+    @BeforeEach
+    void setup()
+    {
+        this.context = this.oldcore.getXWikiContext();
+    }
+
+    @Test
+    void getContentWithJavaScriptExtensions() throws Exception
+    {
+        mockExtension("A", "1.1", JS, "var a = 1");
+        mockExtension("B", "2.1", JS, "var b = 2");
+
+        SxBundleSource source =
+            new SxBundleSource(Arrays.asList("Space.A", "Space.B"), JS, this.cache, this.context);
+
+        // The extensions are separated so that the end of one can't change the meaning of the next one.
+        assertEquals("var a = 1\n;\nvar b = 2\n;\n", source.getContent());
+        assertTrue(source.isComplete());
+    }
+
+    @Test
+    void getContentWithStyleSheetExtensions() throws Exception
+    {
+        mockExtension("A", "1.1", CSS, ".a {}");
+        mockExtension("B", "2.1", CSS, ".b {}");
+
+        SxBundleSource source =
+            new SxBundleSource(Arrays.asList("Space.A", "Space.B"), CSS, this.cache, this.context);
+
+        assertEquals(".a {}\n\n.b {}\n\n", source.getContent());
+    }
+
+    @Test
+    void getContentSkipsExtensionsWithoutViewRight() throws Exception
+    {
+        mockExtension("A", "1.1", JS, "var a = 1");
+        XWikiDocument denied = mockExtension("B", "2.1", JS, "var b = 2");
+        mockExtension("C", "3.1", JS, "var c = 3");
+        when(this.authorization.hasAccess(Right.VIEW, denied.getDocumentReference())).thenReturn(false);
+
+        SxBundleSource source = new SxBundleSource(Arrays.asList("Space.A", "Space.B", "Space.C"), JS,
+            this.cache, this.context);
+
+        assertEquals("var a = 1\n;\nvar c = 3\n;\n", source.getContent());
+        assertFalse(source.isComplete());
+        verify(this.oldcore.getSpyXWiki(), never()).getDocument(denied.getDocumentReference(), this.context);
+    }
+
+    @Test
+    void getContentCachesContextIndependentExtensions() throws Exception
+    {
+        XWikiDocument document = mockExtension("A", "1.1", JS, "var a = 1");
+        BaseObject object = document.getObjects(JS.getClassName()).get(0);
+
+        List<String> documentNames = Collections.singletonList("Space.A");
+        assertEquals("var a = 1\n;\n",
+            new SxBundleSource(documentNames, JS, this.cache, this.context).getContent());
+        assertEquals("var a = 1\n;\n",
+            new SxBundleSource(documentNames, JS, this.cache, this.context).getContent());
+
+        assertEquals(Collections.singletonMap("xwiki:Space.A:1.1:1000", "var a = 1\n"), this.cache);
+        verify(object, times(1)).getLargeStringValue("code");
+
+        // A new version of the extension document is not served from the cache.
+        when(document.getVersion()).thenReturn("1.2");
+        when(object.getLargeStringValue("code")).thenReturn("var a = 2");
+
+        assertEquals("var a = 2\n;\n",
+            new SxBundleSource(documentNames, JS, this.cache, this.context).getContent());
+
+        // Neither is an extension document deleted and created again with the same version.
+        when(document.getVersion()).thenReturn("1.1");
+        when(document.getDate()).thenReturn(new Date(2000));
+        when(object.getLargeStringValue("code")).thenReturn("var a = 3");
+
+        assertEquals("var a = 3\n;\n",
+            new SxBundleSource(documentNames, JS, this.cache, this.context).getContent());
+    }
+
+    private XWikiDocument mockExtension(String name, String version, Extension extension, String code)
+        throws XWikiException
+    {
+        String documentName = "Space." + name;
+        DocumentReference documentReference = new DocumentReference("xwiki", "Space", name);
+        when(this.currentDocumentReferenceResolver.resolve(documentName)).thenReturn(documentReference);
+        when(this.authorization.hasAccess(Right.VIEW, documentReference)).thenReturn(true);
+
+        XWikiDocument document = mock(XWikiDocument.class, name);
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getVersion()).thenReturn(version);
+        when(document.getDate()).thenReturn(new Date(1000));
+        doAnswer(invocation -> {
+            this.context.setDoc(document);
+            return null;
+        }).when(document).setAsContextDoc(any(XWikiContext.class));
+
+        BaseObject object = mock(BaseObject.class);
+        when(object.getLargeStringValue("code")).thenReturn(code);
+        when(document.getObjects(extension.getClassName())).thenReturn(Collections.singletonList(object));
+
+        doReturn(document).when(this.oldcore.getSpyXWiki()).getDocument(documentReference, this.context);
+
+        return document;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.tag.internal.TagException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.plugin.tag.TagPlugin;
+
+/**
+ * In-memory index of the tags of each document, loaded from the database the first time the tags of a wiki are
+ * requested and then kept up to date from the document events.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = TagIndex.class)
+@Singleton
+public class TagIndex
+{
+    private static final LocalDocumentReference TAG_CLASS_REFERENCE = new LocalDocumentReference("XWiki", "TagClass");
+
+    /**
+     * The tags of a document.
+     *
+     * @version $Id$
+     */
+    public static final class TaggedDocument
+    {
+        private final DocumentReference reference;
+
+        private final Set<String> tags;
+
+        private final boolean hidden;
+
+        /**
+         * @param reference the reference of the document
+         * @param tags the tags of the document
+         * @param hidden {@code true} if the document is hidden
+         */
+        public TaggedDocument(DocumentReference reference, Set<String> tags, boolean hidden)
+        {
+            this.reference = reference;
+            this.tags = Collections.unmodifiableSet(tags);
+            this.hidden = hidden;
+        }
+
+        /**
+         * @return the reference of the document
+         */
+        public DocumentReference getReference()
+        {
+            return this.reference;
+        }
+
+        /**
+         * @return the tags of the document
+         */
+        public Set<String> getTags()
+        {
+            return this.tags;
+        }
+
+        /**
+         * @return {@code true} if the document is hidden
+         */
+        public boolean isHidden()
+        {
+            return this.hidden;
+        }
+    }
+
+    private static final class WikiTagIndex
+    {
+        private final Map<DocumentReference, TaggedDocument> documents = new ConcurrentHashMap<>();
+
+        /**
+         * The documents modified while the index is being loaded, which should not be overwritten by the loader.
+         */
+        private volatile Set<DocumentReference> modifiedWhileLoading = ConcurrentHashMap.newKeySet();
+
+        private volatile boolean loaded;
+    }
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> stringDocumentReferenceResolver;
+
+    private final Map<String, WikiTagIndex> wikis = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * @param wikiId the identifier of the wiki
+     * @return the tagged documents of the wiki, indexed by reference
+     * @throws TagException when failing to load the tags of the wiki
+     */
+    public Map<DocumentReference, TaggedDocument> getDocuments(String wikiId) throws TagException
+    {
+        WikiTagIndex index = this.wikis.computeIfAbsent(wikiId, k -> new WikiTagIndex());
+
+        if (!index.loaded) {
+            synchronized (index) {
+                if (!index.loaded) {
+                    load(wikiId, index);
+                }
+            }
+        }
+
+        return Collections.unmodifiableMap(index.documents);
+    }
+
+    private void load(String wikiId, WikiTagIndex index) throws TagException
+    {
+        String hql = "select doc.fullName, doc.hidden, elements(prop.list) "
+            + "from XWikiDocument as doc, BaseObject as obj, DBStringListProperty as prop "
+            + "where obj.name=doc.fullName and obj.className=:className and obj.id=prop.id.id "
+            + "and prop.id.name=:propertyName and doc.translation=0";
+
+        List<Object[]> results;
+        try {
+            results = this.contextProvider.get().getWiki().getStore().getQueryManager().createQuery(hql, Query.HQL)
+                .bindValue("className", TagPlugin.TAG_CLASS).bindValue("propertyName", TagPlugin.TAG_PROPERTY)
+                .setWiki(wikiId).execute();
+        } catch (QueryException e) {
+            throw new TagException(String.format("Failed to load the tags of wiki [%s]", wikiId), e);
+        }
+
+        WikiReference wikiReference = new WikiReference(wikiId);
+        Map<String, Set<String>> tags = new HashMap<>();
+        Map<String, Boolean> hidden = new HashMap<>();
+        for (Object[] result : results) {
+            String fullName = (String) result[0];
+            tags.computeIfAbsent(fullName, k -> new LinkedHashSet<>()).add((String) result[2]);
+            hidden.put(fullName, Boolean.TRUE.equals(result[1]));
+        }
+
+        Set<DocumentReference> modifiedWhileLoading = index.modifiedWhileLoading;
+        for (Map.Entry<String, Set<String>> entry : tags.entrySet()) {
+            DocumentReference reference = this.stringDocumentReferenceResolver.resolve(entry.getKey(), wikiReference);
+            // The documents modified in the meantime are already indexed with their up to date tags
+            index.documents.compute(reference, (k, current) -> modifiedWhileLoading.contains(k) ? current
+                : new TaggedDocument(reference, entry.getValue(), hidden.get(entry.getKey())));
+        }
+
+        index.loaded = true;
+        index.modifiedWhileLoading = null;
+
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * Update the tags of the passed document.
+     *
+     * @param document the created or updated document
+     */
+    public void update(XWikiDocument document)
+    {
+        if (!document.getLocale().equals(Locale.ROOT)) {
+            // The tags are stored in the default document
+            this.version.incrementAndGet();
+
+            return;
+        }
+
+        DocumentReference reference = document.getDocumentReferenceWithLocale().withoutLocale();
+        BaseObject tagObject = document.getXObject(TAG_CLASS_REFERENCE);
+        List<String> tags = tagObject != null ? tagObject.getListValue(TagPlugin.TAG_PROPERTY) : null;
+
+        TaggedDocument taggedDocument = tags == null || tags.isEmpty() ? null
+            : new TaggedDocument(reference, new LinkedHashSet<>(tags), document.isHidden());
+        setDocument(reference, taggedDocument);
+
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * Remove the tags of the passed document.
+     *
+     * @param document the deleted document
+     */
+    public void remove(XWikiDocument document)
+    {
+        if (document.getLocale().equals(Locale.ROOT)) {
+            setDocument(document.getDocumentReference(), null);
+        }
+
+        this.version.incrementAndGet();
+    }
+
+    private void setDocument(DocumentReference reference, TaggedDocument taggedDocument)
+    {
+        WikiTagIndex index = this.wikis.get(reference.getWikiReference().getName());
+
+        if (index != null) {
+            index.documents.compute(reference, (k, current) -> {
+                Set<DocumentReference> modifiedWhileLoading = index.modifiedWhileLoading;
+                if (modifiedWhileLoading != null) {
+                    modifiedWhileLoading.add(k);
+                }
+
+                return taggedDocument;
+            });
+        }
+    }
+
+    /**
+     * Forget the tags of the passed wiki.
+     *
+     * @param wikiId the identifier of the deleted wiki
+     */
+    public void removeWiki(String wikiId)
+    {
+        this.wikis.remove(wikiId);
+
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * The version is incremented each time a document is modified, whether its tags changed or not, since the
+     * modification might affect the rights of other documents.
+     *
+     * @return the current version of the index
+     */
+    public long getVersion()
+    {
+        return this.version.get();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.selector;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.tag.internal.TagException;
+import org.xwiki.tag.internal.TagsSelector;
+import org.xwiki.tag.internal.index.TagIndex;
+import org.xwiki.tag.internal.index.TagIndex.TaggedDocument;
+import org.xwiki.user.CurrentUserReference;
+import org.xwiki.user.UserPropertiesResolver;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static org.xwiki.security.authorization.Right.VIEW;
+
+/**
+ * Implementation of {@link TagsSelector} relying on the in-memory {@link TagIndex} instead of querying the database.
+ * All the elements are checked for view rights before being returned, like with {@link ExhaustiveCheckTagsSelector},
+ * but the results computed for guest users are cached until the next document modification.
+ * <p>
+ * Counting the tags of the documents matching a query fragment is delegated to {@link ExhaustiveCheckTagsSelector}.
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component
+@Named(IndexedTagsSelector.HINT)
+@Singleton
+public class IndexedTagsSelector extends AbstractTagsSelector
+{
+    /**
+     * Hint for this component.
+     */
+    public static final String HINT = "indexed";
+
+    private static final class GuestResult
+    {
+        private final long version;
+
+        private final Object result;
+
+        GuestResult(long version, Object result)
+        {
+            this.version = version;
+            this.result = result;
+        }
+    }
+
+    @Inject
+    private TagIndex tagIndex;
+
+    @Inject
+    @Named(ExhaustiveCheckTagsSelector.HINT)
+    private TagsSelector exhaustiveTagsSelector;
+
+    @Inject
+    private UserPropertiesResolver userPropertiesResolver;
+
+    /**
+     * The results computed for the guest user, indexed by wiki, type of result and hidden documents preference.
+     */
+    private final Map<String, GuestResult> guestResults = new ConcurrentHashMap<>();
+
+    @Override
+    public List<String> getAllTags() throws TagException
+    {
+        return new ArrayList<>(getResult("tags", this::computeTags));
+    }
+
+    @Override
+    public Map<String, Integer> getTagCountForQuery(String fromHql, String whereHql, List<?> parameterValues)
+        throws TagException
+    {
+        if (StringUtils.isBlank(fromHql) && StringUtils.isBlank(whereHql)) {
+            return getTagCount();
+        }
+
+        return this.exhaustiveTagsSelector.getTagCountForQuery(fromHql, whereHql, parameterValues);
+    }
+
+    @Override
+    public Map<String, Integer> getTagCountForQuery(String fromHql, String whereHql, Map<String, ?> parameters)
+        throws TagException
+    {
+        if (StringUtils.isBlank(fromHql) && StringUtils.isBlank(whereHql)) {
+            return getTagCount();
+        }
+
+        return this.exhaustiveTagsSelector.getTagCountForQuery(fromHql, whereHql, parameters);
+    }
+
+    private Map<String, Integer> getTagCount() throws TagException
+    {
+        Map<String, Integer> counts = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        counts.putAll(getResult("counts", this::computeCounts));
+
+        return counts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getResult(String type, Function<Iterable<TaggedDocument>, T> compute) throws TagException
+    {
+        XWikiContext xcontext = this.contextProvider.get();
+        String wikiId = xcontext.getWikiId();
+        boolean displayHiddenDocuments =
+            this.userPropertiesResolver.resolve(CurrentUserReference.INSTANCE).displayHiddenDocuments();
+
+        // Get the version before reading the index to not associate a result with a more recent version
+        long version = this.tagIndex.getVersion();
+        Iterable<TaggedDocument> documents = this.tagIndex.getDocuments(wikiId).values();
+
+        if (xcontext.getUserReference() != null) {
+            return compute.apply(getViewableDocuments(documents, displayHiddenDocuments));
+        }
+
+        // All the guest users have the same rights so the result can be shared between them
+        String key = wikiId + ':' + type + ':' + displayHiddenDocuments;
+        GuestResult guestResult = this.guestResults.get(key);
+        if (guestResult == null || guestResult.version != version) {
+            guestResult =
+                new GuestResult(version, compute.apply(getViewableDocuments(documents, displayHiddenDocuments)));
+            this.guestResults.put(key, guestResult);
+        }
+
+        return (T) guestResult.result;
+    }
+
+    private List<TaggedDocument> getViewableDocuments(Iterable<TaggedDocument> documents,
+        boolean displayHiddenDocuments)
+    {
+        List<TaggedDocument> viewableDocuments = new ArrayList<>();
+        for (TaggedDocument document : documents) {
+            if ((displayHiddenDocuments || !document.isHidden())
+                && this.contextualAuthorizationManager.hasAccess(VIEW, document.getReference()))
+            {
+                viewableDocuments.add(document);
+            }
+        }
+
+        return viewableDocuments;
+    }
+
+    private List<String> computeTags(Iterable<TaggedDocument> documents)
+    {
+        Set<String> tagsSet = new HashSet<>();
+        for (TaggedDocument document : documents) {
+            tagsSet.addAll(document.getTags());
+        }
+
+        List<String> tagsList = new ArrayList<>(tagsSet);
+        tagsList.sort(CASE_INSENSITIVE_ORDER);
+
+        return tagsList;
+    }
+
+    private Map<String, Integer> computeCounts(Iterable<TaggedDocument> documents)
+    {
+        Map<String, Integer> counts = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        for (TaggedDocument document : documents) {
+            for (String tag : document.getTags()) {
+                counts.merge(tag, 1, Integer::sum);
+            }
+        }
+
+        return counts;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.selector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.tag.internal.TagsSelector;
+import org.xwiki.tag.internal.index.TagIndex;
+import org.xwiki.tag.internal.index.TagIndex.TaggedDocument;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.CurrentUserReference;
+import org.xwiki.user.UserProperties;
+import org.xwiki.user.UserPropertiesResolver;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.xwiki.security.authorization.Right.VIEW;
+
+/**
+ * Test of {@link IndexedTagsSelector}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class IndexedTagsSelectorTest
+{
+    private static final DocumentReference PAGE0 = new DocumentReference("xwiki", "Space", "Page0");
+
+    private static final DocumentReference PAGE1 = new DocumentReference("xwiki", "Space", "Page1");
+
+    private static final DocumentReference HIDDEN = new DocumentReference("xwiki", "Space", "Hidden");
+
+    @InjectMockComponents
+    private IndexedTagsSelector tagsSelector;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @MockComponent
+    private ContextualAuthorizationManager contextualAuthorizationManager;
+
+    @MockComponent
+    private TagIndex tagIndex;
+
+    @MockComponent
+    @Named(ExhaustiveCheckTagsSelector.HINT)
+    private TagsSelector exhaustiveTagsSelector;
+
+    @MockComponent
+    private UserPropertiesResolver userPropertiesResolver;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private UserProperties userProperties;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.context.getWikiId()).thenReturn("xwiki");
+        when(this.userPropertiesResolver.resolve(CurrentUserReference.INSTANCE)).thenReturn(this.userProperties);
+
+        when(this.tagIndex.getDocuments("xwiki")).thenReturn(Map.of(
+            PAGE0, new TaggedDocument(PAGE0, Set.of("Page0", "All"), false),
+            PAGE1, new TaggedDocument(PAGE1, Set.of("Page1", "all"), false),
+            HIDDEN, new TaggedDocument(HIDDEN, Set.of("Hidden", "All"), true)));
+
+        when(this.contextualAuthorizationManager.hasAccess(VIEW, PAGE0)).thenReturn(true);
+        when(this.contextualAuthorizationManager.hasAccess(VIEW, PAGE1)).thenReturn(false);
+        when(this.contextualAuthorizationManager.hasAccess(VIEW, HIDDEN)).thenReturn(true);
+    }
+
+    @Test
+    void getAllTags() throws Exception
+    {
+        when(this.context.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "User"));
+
+        assertEquals(List.of("All", "Page0"), this.tagsSelector.getAllTags());
+
+        when(this.userProperties.displayHiddenDocuments()).thenReturn(true);
+
+        assertEquals(List.of("All", "Hidden", "Page0"), this.tagsSelector.getAllTags());
+    }
+
+    @Test
+    void getTagCountForQuery() throws Exception
+    {
+        when(this.context.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "User"));
+        when(this.userProperties.displayHiddenDocuments()).thenReturn(true);
+
+        assertEquals(Map.of("All", 2, "Hidden", 1, "Page0", 1),
+            this.tagsSelector.getTagCountForQuery("", "", List.of()));
+        verifyNoInteractions(this.exhaustiveTagsSelector);
+
+        this.tagsSelector.getTagCountForQuery("", "doc.space = ?1", List.of("Space"));
+        verify(this.exhaustiveTagsSelector).getTagCountForQuery("", "doc.space = ?1", List.of("Space"));
+    }
+
+    @Test
+    void getTagCountForQueryAsGuest() throws Exception
+    {
+        when(this.tagIndex.getVersion()).thenReturn(1L);
+
+        assertEquals(Map.of("All", 1, "Page0", 1), this.tagsSelector.getTagCountForQuery("", "", Map.of()));
+        assertEquals(Map.of("All", 1, "Page0", 1), this.tagsSelector.getTagCountForQuery("", "", Map.of()));
+
+        // The result computed for guest users is reused until the next modification
+        verify(this.contextualAuthorizationManager).hasAccess(VIEW, PAGE0);
+
+        when(this.tagIndex.getVersion()).thenReturn(2L);
+        when(this.contextualAuthorizationManager.hasAccess(VIEW, PAGE1)).thenReturn(true);
+
+        assertEquals(Map.of("All", 2, "Page0", 1, "Page1", 1),
+            this.tagsSelector.getTagCountForQuery("", "", Map.of()));
+        verify(this.contextualAuthorizationManager, times(2)).hasAccess(VIEW, PAGE0);
+    }
+}
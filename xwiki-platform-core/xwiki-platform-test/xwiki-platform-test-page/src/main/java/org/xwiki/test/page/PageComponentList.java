@@ -117,6 +117,7 @@
 
 import com.xpn.xwiki.doc.DefaultDocumentAccessBridge;
 import com.xpn.xwiki.internal.DefaultXWikiStubContextProvider;
+import com.xpn.xwiki.internal.doc.MandatoryDocumentFingerprints;
 import com.xpn.xwiki.internal.localization.XWikiLocalizationContext;
 import com.xpn.xwiki.internal.security.authorization.DefaultAuthorExecutor;
 import com.xpn.xwiki.internal.sheet.ClassSheetBinder;
@@ -220,6 +221,7 @@
     // Model
     DefaultDocumentAccessBridge.class,
     DefaultModelContext.class,
+    MandatoryDocumentFingerprints.class,
 
     // Velocity
     DefaultScriptContextManager.class,
@@ -66,6 +66,9 @@ public class DefaultUIExtensionManager implements UIExtensionManager
     @Inject
     private AsyncContext asyncContext;
 
+    @Inject
+    private UIExtensionIndex index;
+
     @Override
     public List<UIExtension> get(String extensionPointId)
     {
@@ -90,12 +93,7 @@ public List<UIExtension> get(String extensionPointId)
 
         // Fallback on the default behavior
         try {
-            List<UIExtension> allExtensions = componentManager.getInstanceList(UIExtension.class);
-            for (UIExtension extension : allExtensions) {
-                if (StringUtils.equals(extension.getExtensionPointId(), extensionPointId)) {
-                    extensions.add(extension);
-                }
-            }
+            extensions = this.index.get(extensionPointId, componentManager);
 
             // Indicate that any currently running asynchronous execution result should be removed from the cache as
             // soon as a UIExtension component is modified
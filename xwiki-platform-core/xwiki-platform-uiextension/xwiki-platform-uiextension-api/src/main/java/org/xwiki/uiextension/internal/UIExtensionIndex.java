@@ -0,0 +1,170 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.uiextension.internal;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.ModelContext;
+import org.xwiki.uiextension.UIExtension;
+
+/**
+ * Index the {@link UIExtension} components by extension point so that finding the extensions of an extension point
+ * does not require to go through all the UI extensions each time.
+ * <p>
+ * The UI extension components visible from the context component manager depend on the current wiki, user and
+ * document so an index is maintained for each of these contexts. The indexes are thrown away each time a UI extension
+ * component is registered or unregistered (see {@link UIExtensionIndexListener}).
+ *
+ * @version $Id$
+ * @since 17.2.0RC1
+ */
+@Component(roles = UIExtensionIndex.class)
+@Singleton
+public class UIExtensionIndex
+{
+    /**
+     * The maximum number of contexts for which to keep an index.
+     */
+    private static final int MAX_INDEXES = 100;
+
+    /**
+     * The UI extension components of a given context.
+     */
+    private static final class Index
+    {
+        /**
+         * The hints of the UI extension components, indexed by extension point.
+         */
+        private final Map<String, List<String>> hints = new HashMap<>();
+
+        /**
+         * The hints of the UI extension components which don't declare any extension point, checked on each lookup.
+         */
+        private final List<String> unindexedHints = new ArrayList<>();
+    }
+
+    /**
+     * The hints of the UI extensions components, indexed by extension point, for each context.
+     */
+    private final Map<List<Object>, Index> indexes = new LinkedHashMap<List<Object>, Index>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Index> eldest)
+        {
+            return size() > MAX_INDEXES;
+        }
+    };
+
+    @Inject
+    private ModelContext modelContext;
+
+    @Inject
+    private DocumentAccessBridge documentAccessBridge;
+
+    /**
+     * Incremented each time the indexes are cleared, to not store an index computed before a modification.
+     */
+    private long generation;
+
+    /**
+     * @param extensionPointId the identifier of the extension point
+     * @param componentManager the component manager in which to lookup the UI extensions
+     * @return the UI extensions registered for the passed extension point
+     * @throws ComponentLookupException when failing to lookup the UI extensions
+     */
+    public List<UIExtension> get(String extensionPointId, ComponentManager componentManager)
+        throws ComponentLookupException
+    {
+        List<Object> key = Arrays.asList(this.modelContext.getCurrentEntityReference(),
+            this.documentAccessBridge.getCurrentUserReference(),
+            this.documentAccessBridge.getCurrentDocumentReference());
+
+        Index index;
+        long currentGeneration;
+        synchronized (this) {
+            index = this.indexes.get(key);
+            currentGeneration = this.generation;
+        }
+
+        if (index == null) {
+            index = createIndex(componentManager);
+
+            synchronized (this) {
+                if (currentGeneration == this.generation) {
+                    this.indexes.put(key, index);
+                }
+            }
+        }
+
+        List<UIExtension> extensions = new ArrayList<>();
+        for (String hint : index.hints.getOrDefault(extensionPointId, List.of())) {
+            extensions.add(componentManager.getInstance(UIExtension.class, hint));
+        }
+        for (String hint : index.unindexedHints) {
+            UIExtension extension = componentManager.getInstance(UIExtension.class, hint);
+            if (extensionPointId != null && extensionPointId.equals(extension.getExtensionPointId())) {
+                extensions.add(extension);
+            }
+        }
+
+        return extensions;
+    }
+
+    private Index createIndex(ComponentManager componentManager) throws ComponentLookupException
+    {
+        Index index = new Index();
+        List<ComponentDescriptor<UIExtension>> descriptors =
+            componentManager.getComponentDescriptorList((Type) UIExtension.class);
+        for (ComponentDescriptor<UIExtension> descriptor : descriptors) {
+            UIExtension extension = componentManager.getInstance(UIExtension.class, descriptor.getRoleHint());
+            if (extension.getExtensionPointId() != null) {
+                index.hints.computeIfAbsent(extension.getExtensionPointId(), k -> new ArrayList<>())
+                    .add(descriptor.getRoleHint());
+            } else {
+                index.unindexedHints.add(descriptor.getRoleHint());
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Throw away all the indexes.
+     */
+    public synchronized void clear()
+    {
+        this.indexes.clear();
+        this.generation++;
+    }
+}
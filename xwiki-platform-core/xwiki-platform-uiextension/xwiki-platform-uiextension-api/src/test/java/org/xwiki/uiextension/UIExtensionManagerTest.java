@@ -25,19 +25,26 @@
 import javax.inject.Named;
 
 import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.event.ComponentDescriptorRemovedEvent;
 import org.xwiki.component.internal.ContextComponentManagerProvider;
+import org.xwiki.model.ModelContext;
+import org.xwiki.observation.EventListener;
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 import org.xwiki.test.mockito.MockitoComponentManager;
 import org.xwiki.uiextension.internal.DefaultUIExtensionManager;
+import org.xwiki.uiextension.internal.UIExtensionIndex;
+import org.xwiki.uiextension.internal.UIExtensionIndexListener;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
 @ComponentTest
-@ComponentList(ContextComponentManagerProvider.class)
+@ComponentList({ ContextComponentManagerProvider.class, UIExtensionIndex.class, UIExtensionIndexListener.class })
 class UIExtensionManagerTest
 {
     @MockComponent
@@ -55,6 +62,12 @@
     @Named("notuix")
     private UIExtension notuix;
 
+    @MockComponent
+    private ModelContext modelContext;
+
+    @MockComponent
+    private DocumentAccessBridge documentAccessBridge;
+
     @Test
     void get() throws Exception
     {
@@ -66,6 +79,33 @@ void get() throws Exception
 
         assertEquals(new HashSet<>(Arrays.asList(this.uix1, this.uix2)),
             new HashSet<>(this.manager.get("extensionpoint")));
+        assertEquals(Arrays.asList(this.notuix), this.manager.get("notuix"));
+    }
+
+    @Test
+    void getAfterUIExtensionRegistration(MockitoComponentManager componentManager) throws Exception
+    {
+        when(this.uix1.getExtensionPointId()).thenReturn("extensionpoint");
+        when(this.uix2.getExtensionPointId()).thenReturn("other");
+        when(this.notuix.getExtensionPointId()).thenReturn("notuix");
+
+        assertEquals(Arrays.asList(this.uix1), this.manager.get("extensionpoint"));
+
+        // The component events are not sent in this test
+        EventListener indexListener =
+            componentManager.getInstance(EventListener.class, UIExtensionIndexListener.NAME);
+
+        UIExtension uix3 = componentManager.registerMockComponent(UIExtension.class, "uix3");
+        when(uix3.getExtensionPointId()).thenReturn("extensionpoint");
+        indexListener.onEvent(new ComponentDescriptorAddedEvent(UIExtension.class), componentManager, null);
+
+        assertEquals(new HashSet<>(Arrays.asList(this.uix1, uix3)),
+            new HashSet<>(this.manager.get("extensionpoint")));
+
+        componentManager.unregisterComponent(UIExtension.class, "uix3");
+        indexListener.onEvent(new ComponentDescriptorRemovedEvent(UIExtension.class), componentManager, null);
+
+        assertEquals(Arrays.asList(this.uix1), this.manager.get("extensionpoint"));
     }
 
     @Test